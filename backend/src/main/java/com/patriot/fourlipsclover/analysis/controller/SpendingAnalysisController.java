@@ -1,5 +1,8 @@
 package com.patriot.fourlipsclover.analysis.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.analysis.dto.response.SpendingHistoryPageResponse;
+import com.patriot.fourlipsclover.analysis.dto.response.SpendingPaymentResponse;
 import com.patriot.fourlipsclover.analysis.service.SpendingAnalysisService;
 import com.patriot.fourlipsclover.config.CustomUserDetails;
 import com.patriot.fourlipsclover.member.entity.Member;
@@ -9,9 +12,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -24,11 +29,12 @@ import java.util.Map;
 public class SpendingAnalysisController {
 
     private final SpendingAnalysisService spendingAnalysisService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/history")
     @Operation(
             summary = "사용자 소비 전체 내역 조회",
-            description = "사용자의 소비 전체 내역을 날짜 범위로 필터링하여 조회합니다.",
+            description = "사용자의 소비 내역을 날짜 범위로 필터링하여 결제 시각 최신순으로 페이지 조회합니다. 첫 페이지에는 합계, 평균, 중앙값, p90 을 함께 반환합니다.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "조회 성공"),
                     @ApiResponse(responseCode = "400", description = "잘못된 요청"),
@@ -39,7 +45,11 @@ public class SpendingAnalysisController {
             @Parameter(description = "시작 날짜 (yyyy-MM-dd)")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @Parameter(description = "종료 날짜 (yyyy-MM-dd)")
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "이전 응답의 nextCursor (첫 페이지는 생략)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "페이지 크기")
+            @RequestParam(required = false) Integer size) {
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
@@ -53,10 +63,56 @@ public class SpendingAnalysisController {
                 LocalDateTime.of(endDate, LocalTime.MAX) : null;
 
         Map<String, Object> result = spendingAnalysisService.getUserSpendingHistory(
-                userId, startDateTime, endDateTime);
+                userId, startDateTime, endDateTime, cursor, size);
         return ResponseEntity.ok(result);
     }
 
+    @GetMapping(value = "/history/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "사용자 소비 내역 스트리밍 조회",
+            description = "사용자의 소비 내역을 결제 시각 최신순으로 NDJSON 형식으로 스트리밍합니다.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "조회 성공"),
+                    @ApiResponse(responseCode = "400", description = "잘못된 요청"),
+                    @ApiResponse(responseCode = "500", description = "서버 오류")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> streamSpendingHistory(
+            @Parameter(description = "시작 날짜 (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "종료 날짜 (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "한 번에 조회할 내역 수")
+            @RequestParam(required = false) Integer size) {
+
+        // 스트리밍은 다른 스레드에서 실행되므로 사용자는 미리 꺼내 둔다
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        Long userId = userDetails.getMember().getMemberId();
+
+        LocalDateTime startDateTime = startDate != null ?
+                LocalDateTime.of(startDate, LocalTime.MIN) : null;
+        // 페이지마다 종료 시각이 바뀌지 않도록 고정한다
+        LocalDateTime endDateTime = endDate != null ?
+                LocalDateTime.of(endDate, LocalTime.MAX) : LocalDateTime.now();
+
+        StreamingResponseBody body = outputStream -> {
+            String cursor = null;
+            do {
+                // 페이지 단위로 트랜잭션을 나누어 스트리밍 중 DB 커넥션을 점유하지 않는다
+                SpendingHistoryPageResponse page = spendingAnalysisService.findSpendingPage(
+                        userId, startDateTime, endDateTime, cursor, size);
+                for (SpendingPaymentResponse payment : page.getPayments()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(payment));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/category")
     @Operation(
             summary = "카테고리별 지출 분석",
@@ -0,0 +1,45 @@
+package com.patriot.fourlipsclover.analysis.dto.request;
+
+import com.patriot.fourlipsclover.exception.InvalidDataException;
+import com.patriot.fourlipsclover.payment.entity.VisitPayment;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 지출 내역 keyset 페이지네이션 커서. (paid_at, visit_payment_id) 를 base64url 로 감싸 불투명한 문자열로 노출한다.
+ */
+@Getter
+@AllArgsConstructor
+public class SpendingHistoryCursor {
+
+    private static final String DELIMITER = "|";
+
+    private final LocalDateTime paidAt;
+    private final Integer visitPaymentId;
+
+    public static SpendingHistoryCursor from(VisitPayment visitPayment) {
+        return new SpendingHistoryCursor(visitPayment.getPaidAt(), visitPayment.getVisitPaymentId());
+    }
+
+    public String encode() {
+        String raw = paidAt + DELIMITER + visitPaymentId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SpendingHistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(DELIMITER);
+            return new SpendingHistoryCursor(LocalDateTime.parse(raw.substring(0, index)),
+                    Integer.parseInt(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidDataException("올바르지 않은 커서 값입니다.");
+        }
+    }
+}
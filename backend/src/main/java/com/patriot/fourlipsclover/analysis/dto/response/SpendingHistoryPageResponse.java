@@ -0,0 +1,21 @@
+package com.patriot.fourlipsclover.analysis.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingHistoryPageResponse {
+    private List<SpendingPaymentResponse> payments;
+
+    // 다음 페이지 요청 시 cursor 파라미터로 전달, 마지막 페이지면 null
+    private String nextCursor;
+
+    private boolean hasNext;
+}
@@ -0,0 +1,24 @@
+package com.patriot.fourlipsclover.analysis.dto.response;
+
+import com.patriot.fourlipsclover.payment.entity.DataSource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingPaymentResponse {
+    private Integer visitPaymentId;
+    private String kakaoPlaceId;
+    private String placeName;
+    private String category;
+    private Integer amount;
+    private Integer visitedPersonnel;
+    private DataSource dataSource;
+    private LocalDateTime paidAt;
+}
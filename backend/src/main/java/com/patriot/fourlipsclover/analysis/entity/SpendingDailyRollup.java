@@ -0,0 +1,47 @@
+package com.patriot.fourlipsclover.analysis.entity;
+
+import com.patriot.fourlipsclover.payment.entity.DataSource;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 사용자(그룹) x 결제 출처 x 카테고리 x 결제일 단위 지출 요약과 금액 분포 스케치(SpendingSketch).
+ * 쓰기는 SpendingRollupBatchRepository 로 하고, 이 엔티티는 테이블 정의용이다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "spending_daily_rollup", uniqueConstraints = @UniqueConstraint(
+        name = "uk_spending_daily_rollup",
+        columnNames = {"user_id", "spend_date", "data_source", "category"}))
+public class SpendingDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "spending_daily_rollup_id")
+    private Long spendingDailyRollupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "spend_date", nullable = false)
+    private LocalDate spendDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "data_source", nullable = false, length = 20)
+    private DataSource dataSource;
+
+    @Column(name = "category", nullable = false, length = 100)
+    private String category;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    @Column(name = "amount_sum", nullable = false)
+    private long amountSum;
+
+    @Column(name = "sketch", nullable = false, length = 16384)
+    private byte[] sketch;
+}
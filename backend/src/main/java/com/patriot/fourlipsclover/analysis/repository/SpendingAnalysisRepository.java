@@ -2,12 +2,14 @@ package com.patriot.fourlipsclover.analysis.repository;
 
 import com.patriot.fourlipsclover.payment.entity.DataSource;
 import com.patriot.fourlipsclover.payment.entity.VisitPayment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,31 +21,64 @@ public interface SpendingAnalysisRepository extends JpaRepository<VisitPayment,
     // 특정 그룹의 지출 내역 조회
     List<VisitPayment> findByUserIdAndDataSource(Long userId, DataSource dataSource);
 
-    // 특정 기간 내 사용자의 지출 내역 조회
-    List<VisitPayment> findByUserIdAndPaidAtBetween(
-            Long userId, LocalDateTime startDate, LocalDateTime endDate);
-
     List<VisitPayment> findByUserIdAndDataSourceAndPaidAtBetween(
             Long userId, DataSource dataSource, LocalDateTime startDate, LocalDateTime endDate);
 
-    // 카테고리별 지출 요약을 위한 JPQL 쿼리 (최적화)
-    @Query("SELECT r.foodCategory.name as category, SUM(v.amount) as total, COUNT(v) as count " +
-            "FROM VisitPayment v JOIN v.restaurantId r " +
+    // 지출 내역 페이지 (결제 시각 최신순)
+    @Query("SELECT v FROM VisitPayment v LEFT JOIN FETCH v.restaurantId r LEFT JOIN FETCH r.foodCategory " +
+            "WHERE v.userId = :userId AND v.paidAt BETWEEN :startDate AND :endDate " +
+            "ORDER BY v.paidAt DESC, v.visitPaymentId DESC")
+    List<VisitPayment> findPageByUserId(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable);
+
+    @Query("SELECT v FROM VisitPayment v LEFT JOIN FETCH v.restaurantId r LEFT JOIN FETCH r.foodCategory " +
             "WHERE v.userId = :userId AND v.paidAt BETWEEN :startDate AND :endDate " +
-            "GROUP BY r.foodCategory.name")
-    List<Object[]> findCategorySpendingSummary(
+            "AND (v.paidAt < :paidAt OR (v.paidAt = :paidAt AND v.visitPaymentId < :visitPaymentId)) " +
+            "ORDER BY v.paidAt DESC, v.visitPaymentId DESC")
+    List<VisitPayment> findPageByUserIdAfter(
             @Param("userId") Long userId,
             @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
-
-    // 그룹의 카테고리별 지출 요약을 위한 JPQL 쿼리
-    @Query("SELECT r.foodCategory.name as category, SUM(v.amount) as total, COUNT(v) as count " +
-            "FROM VisitPayment v JOIN v.restaurantId r " +
-            "WHERE v.userId = :userId AND v.dataSource = :dataSource AND v.paidAt BETWEEN :startDate AND :endDate " +
-            "GROUP BY r.foodCategory.name")
-    List<Object[]> findCategorySpendingSummaryByDataSource(
+            @Param("endDate") LocalDateTime endDate,
+            @Param("paidAt") LocalDateTime paidAt,
+            @Param("visitPaymentId") Integer visitPaymentId,
+            Pageable pageable);
+
+    // [dataSource, category, amount] 일별 집계에 없는 결제를 직접 더할 때 사용 (createdFrom 이 null 이면 저장 시각 조건 없음)
+    @Query("SELECT v.dataSource, fc.name, v.amount " +
+            "FROM VisitPayment v LEFT JOIN v.restaurantId r LEFT JOIN r.foodCategory fc " +
+            "WHERE v.userId = :userId AND (:dataSource IS NULL OR v.dataSource = :dataSource) " +
+            "AND v.paidAt BETWEEN :startDate AND :endDate " +
+            "AND (:createdFrom IS NULL OR v.createdAt >= :createdFrom)")
+    List<Object[]> findAmountRows(
             @Param("userId") Long userId,
             @Param("dataSource") DataSource dataSource,
             @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+            @Param("endDate") LocalDateTime endDate,
+            @Param("createdFrom") LocalDateTime createdFrom);
+
+    // [userId, paidAt] 저장 시각이 구간 안인 결제. 일별 집계를 다시 계산할 사용자와 날짜를 찾는다
+    @Query("SELECT v.userId, v.paidAt FROM VisitPayment v " +
+            "WHERE v.createdAt >= :createdFrom AND v.createdAt < :createdTo " +
+            "AND v.userId IS NOT NULL AND v.paidAt IS NOT NULL")
+    List<Object[]> findUserPaidAtByCreatedAtBetween(
+            @Param("createdFrom") LocalDateTime createdFrom,
+            @Param("createdTo") LocalDateTime createdTo);
+
+    // [userId, dataSource, category, paidAt, amount] cutoff 이전에 저장된 결제만 (일별 집계 계산용)
+    @Query("SELECT v.userId, v.dataSource, fc.name, v.paidAt, v.amount " +
+            "FROM VisitPayment v LEFT JOIN v.restaurantId r LEFT JOIN r.foodCategory fc " +
+            "WHERE v.userId IN :userIds AND v.paidAt >= :startDate AND v.paidAt < :endDate " +
+            "AND (v.createdAt IS NULL OR v.createdAt < :cutoff)")
+    List<Object[]> findRollupRows(
+            @Param("userIds") Collection<Long> userIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("cutoff") LocalDateTime cutoff);
+
+    // 결제가 있는 사용자 ID 를 키셋 방식으로 읽는다
+    @Query("SELECT DISTINCT v.userId FROM VisitPayment v WHERE v.userId > :afterId ORDER BY v.userId")
+    List<Long> findUserIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,86 @@
+package com.patriot.fourlipsclover.analysis.repository;
+
+import com.patriot.fourlipsclover.analysis.service.SpendingRollup;
+import com.patriot.fourlipsclover.analysis.service.SpendingSketch;
+import com.patriot.fourlipsclover.payment.entity.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * spending_daily_rollup 읽기/쓰기. 일별 행은 결제 테이블에서 다시 계산해 지우고 새로 넣는 방식으로만 바꾼다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SpendingRollupBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO spending_daily_rollup "
+            + "(user_id, spend_date, data_source, category, payment_count, amount_sum, sketch) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL = "SELECT user_id, spend_date, data_source, category, sketch "
+            + "FROM spending_daily_rollup WHERE user_id = ? AND spend_date BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void deleteByUserAndDates(Long userId, Collection<LocalDate> spendDates) {
+        if (spendDates.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(spendDates.size() + 1);
+        args.add(userId);
+        spendDates.forEach(date -> args.add(Date.valueOf(date)));
+        jdbcTemplate.update("DELETE FROM spending_daily_rollup WHERE user_id = ? AND spend_date IN ("
+                + placeholders(spendDates.size()) + ")", args.toArray());
+    }
+
+    public void deleteByUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM spending_daily_rollup WHERE user_id IN ("
+                + placeholders(userIds.size()) + ")", userIds.toArray());
+    }
+
+    public void insertAll(Collection<SpendingRollup> rollups) {
+        List<Object[]> rows = new ArrayList<>(rollups.size());
+        for (SpendingRollup rollup : rollups) {
+            rows.add(new Object[]{rollup.userId(), Date.valueOf(rollup.spendDate()),
+                    rollup.dataSource().name(), rollup.category(), rollup.sketch().count(),
+                    rollup.sketch().sum(), rollup.sketch().toBytes()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * 기간의 일별 행을 읽는 대로 넘긴다. 행을 목록으로 모으지 않는다.
+     *
+     * @param dataSource null 이면 모든 출처
+     */
+    public void forEach(Long userId, DataSource dataSource, LocalDate from, LocalDate to,
+                        Consumer<SpendingRollup> consumer) {
+        String sql = dataSource == null ? SELECT_SQL : SELECT_SQL + " AND data_source = ?";
+        Object[] args = dataSource == null
+                ? new Object[]{userId, Date.valueOf(from), Date.valueOf(to)}
+                : new Object[]{userId, Date.valueOf(from), Date.valueOf(to), dataSource.name()};
+        RowCallbackHandler handler = rs -> consumer.accept(new SpendingRollup(rs.getLong("user_id"),
+                rs.getDate("spend_date").toLocalDate(),
+                DataSource.valueOf(rs.getString("data_source")),
+                rs.getString("category"),
+                SpendingSketch.fromBytes(rs.getBytes("sketch"))));
+        jdbcTemplate.query(sql, handler, args);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -1,56 +1,111 @@
 package com.patriot.fourlipsclover.analysis.service;
 
+import com.patriot.fourlipsclover.analysis.dto.request.SpendingHistoryCursor;
+import com.patriot.fourlipsclover.analysis.dto.response.SpendingHistoryPageResponse;
+import com.patriot.fourlipsclover.analysis.dto.response.SpendingPaymentResponse;
 import com.patriot.fourlipsclover.analysis.repository.SpendingAnalysisRepository;
+import com.patriot.fourlipsclover.analysis.repository.SpendingRollupBatchRepository;
 import com.patriot.fourlipsclover.payment.entity.DataSource;
 import com.patriot.fourlipsclover.payment.entity.VisitPayment;
+import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
+/**
+ * 지출 분석. 합계, 평균, 중앙값, p90 은 일별 집계(SpendingRollupService)의 스케치를 기간만큼 합쳐 구하고, 지출 내역은 페이지로
+ * 나누어 조회한다.
+ */
 @Service
 @RequiredArgsConstructor
 public class SpendingAnalysisService {
 
     private final SpendingAnalysisRepository spendingAnalysisRepository;
+    private final SpendingRollupBatchRepository spendingRollupBatchRepository;
+    private final SpendingRollupService spendingRollupService;
+    @Value("${analysis.spending-history.page.default-size:20}")
+    private int pageDefaultSize;
+    @Value("${analysis.spending-history.page.max-size:100}")
+    private int pageMaxSize;
 
     /**
-     * 사용자의 소비 전체 내역 조회
+     * 사용자의 소비 내역 조회
      * @param userId 사용자 ID
      * @param startDate 시작 날짜
      * @param endDate 종료 날짜
-     * @return 소비 내역 목록과 요약 정보
+     * @param cursor 이전 응답의 nextCursor (첫 페이지는 null)
+     * @param size 페이지 크기
+     * @return 소비 내역 한 페이지. 첫 페이지에는 기간 전체 요약 정보를 함께 담는다
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> getUserSpendingHistory(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
-        // 날짜가 null이면 기본값 설정
-        LocalDateTime effectiveStartDate = startDate != null ? startDate :
-                LocalDateTime.of(2000, 1, 1, 0, 0);
-        LocalDateTime effectiveEndDate = endDate != null ? endDate :
-                LocalDateTime.now();
+    public Map<String, Object> getUserSpendingHistory(Long userId, LocalDateTime startDate, LocalDateTime endDate,
+                                                      String cursor, Integer size) {
+        LocalDateTime effectiveStartDate = effectiveStartDate(startDate);
+        LocalDateTime effectiveEndDate = effectiveEndDate(endDate);
 
-        List<VisitPayment> payments = spendingAnalysisRepository.findByUserIdAndPaidAtBetween(
-                userId, effectiveStartDate, effectiveEndDate);
-
-        // 간단한 지출 요약 정보 생성
-        int totalAmount = payments.stream().mapToInt(VisitPayment::getAmount).sum();
-        double avgAmount = payments.isEmpty() ? 0 : (double) totalAmount / payments.size();
+        SpendingHistoryPageResponse page = findSpendingPage(userId, effectiveStartDate, effectiveEndDate,
+                cursor, size);
 
         // 결과 맵 구성
         Map<String, Object> result = new HashMap<>();
-        result.put("payments", payments);  // 전체 지출 내역
-        result.put("totalPayments", payments.size());
-        result.put("totalAmount", totalAmount);
-        result.put("averageAmount", avgAmount);
-
+        result.put("payments", page.getPayments());
+        result.put("nextCursor", page.getNextCursor());
+        result.put("hasNext", page.isHasNext());
+        if (cursor == null || cursor.isBlank()) {
+            SpendingSketch total = new SpendingSketch();
+            sketchByCategory(userId, null, effectiveStartDate, effectiveEndDate).values().forEach(total::merge);
+            result.put("totalPayments", total.count());
+            result.put("totalAmount", total.sum());
+            result.put("averageAmount", total.mean());
+            result.put("medianAmount", total.quantile(0.5));
+            result.put("p90Amount", total.quantile(0.9));
+        }
         return result;
     }
 
+    /**
+     * 사용자의 소비 내역을 결제 시각 최신순으로 한 페이지 조회
+     */
+    @Transactional(readOnly = true)
+    public SpendingHistoryPageResponse findSpendingPage(Long userId, LocalDateTime startDate, LocalDateTime endDate,
+                                                        String cursor, Integer size) {
+        LocalDateTime effectiveStartDate = effectiveStartDate(startDate);
+        LocalDateTime effectiveEndDate = effectiveEndDate(endDate);
+        int pageSize = (size == null || size <= 0) ? pageDefaultSize : Math.min(size, pageMaxSize);
+        // 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<VisitPayment> payments;
+        if (cursor == null || cursor.isBlank()) {
+            payments = spendingAnalysisRepository.findPageByUserId(userId, effectiveStartDate, effectiveEndDate,
+                    pageable);
+        } else {
+            SpendingHistoryCursor historyCursor = SpendingHistoryCursor.decode(cursor);
+            payments = spendingAnalysisRepository.findPageByUserIdAfter(userId, effectiveStartDate,
+                    effectiveEndDate, historyCursor.getPaidAt(), historyCursor.getVisitPaymentId(), pageable);
+        }
+        boolean hasNext = payments.size() > pageSize;
+        if (hasNext) {
+            payments = payments.subList(0, pageSize);
+        }
+        return SpendingHistoryPageResponse.builder()
+                .payments(payments.stream().map(this::toResponse).toList())
+                .nextCursor(hasNext ? SpendingHistoryCursor.from(payments.get(payments.size() - 1)).encode()
+                        : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
     /**
      * 카테고리별 지출 패턴 분석
      * @param userId 사용자 ID
@@ -60,46 +115,7 @@ public class SpendingAnalysisService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> analyzeSpendingByCategory(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
-        // 날짜가 null이면 기본값 설정
-        LocalDateTime effectiveStartDate = startDate != null ? startDate :
-                LocalDateTime.of(2000, 1, 1, 0, 0);
-        LocalDateTime effectiveEndDate = endDate != null ? endDate :
-                LocalDateTime.now();
-
-        // 최적화된 쿼리 사용
-        List<Object[]> categoryData = spendingAnalysisRepository.findCategorySpendingSummary(
-                userId, effectiveStartDate, effectiveEndDate);
-
-        // 결과 맵 준비
-        Map<String, Integer> categorySpending = new HashMap<>();
-        Map<String, Integer> categoryVisits = new HashMap<>();
-        int totalAmount = 0;
-        int totalVisits = 0;
-
-        // 쿼리 결과 처리
-        for (Object[] data : categoryData) {
-            String category = (String) data[0];
-            Number amount = (Number) data[1];
-            Number count = (Number) data[2];
-
-            int amountValue = amount.intValue();
-            int countValue = count.intValue();
-
-            categorySpending.put(category, amountValue);
-            categoryVisits.put(category, countValue);
-
-            totalAmount += amountValue;
-            totalVisits += countValue;
-        }
-
-        // 응답 맵 구성
-        Map<String, Object> result = new HashMap<>();
-        result.put("categorySpending", categorySpending);
-        result.put("categoryVisits", categoryVisits);
-        result.put("totalAmount", totalAmount);
-        result.put("totalVisits", totalVisits);
-
-        return result;
+        return analyzeByCategory(userId, null, startDate, endDate);
     }
 
 
@@ -112,45 +128,108 @@ public class SpendingAnalysisService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> analyzeGroupSpendingByCategory(Long groupId, LocalDateTime startDate, LocalDateTime endDate) {
-        // 날짜가 null이면 기본값 설정
-        LocalDateTime effectiveStartDate = startDate != null ? startDate :
-                LocalDateTime.of(2000, 1, 1, 0, 0);
-        LocalDateTime effectiveEndDate = endDate != null ? endDate :
-                LocalDateTime.now();
+        return analyzeByCategory(groupId, DataSource.group, startDate, endDate);
+    }
 
-        // 최적화된 쿼리 사용
-        List<Object[]> categoryData = spendingAnalysisRepository.findCategorySpendingSummaryByDataSource(
-                groupId, DataSource.group, effectiveStartDate, effectiveEndDate);
+    private Map<String, Object> analyzeByCategory(Long userId, DataSource dataSource, LocalDateTime startDate,
+                                                  LocalDateTime endDate) {
+        Map<String, SpendingSketch> sketches = sketchByCategory(userId, dataSource,
+                effectiveStartDate(startDate), effectiveEndDate(endDate));
 
         // 결과 맵 준비
-        Map<String, Integer> categorySpending = new HashMap<>();
-        Map<String, Integer> categoryVisits = new HashMap<>();
-        int totalAmount = 0;
-        int totalVisits = 0;
-
-        // 쿼리 결과 처리
-        for (Object[] data : categoryData) {
-            String category = (String) data[0];
-            Number amount = (Number) data[1];
-            Number count = (Number) data[2];
-
-            int amountValue = amount.intValue();
-            int countValue = count.intValue();
-
-            categorySpending.put(category, amountValue);
-            categoryVisits.put(category, countValue);
-
-            totalAmount += amountValue;
-            totalVisits += countValue;
-        }
+        Map<String, Long> categorySpending = new HashMap<>();
+        Map<String, Long> categoryVisits = new HashMap<>();
+        Map<String, Long> categoryMedianAmount = new HashMap<>();
+        Map<String, Long> categoryP90Amount = new HashMap<>();
+        SpendingSketch total = new SpendingSketch();
+        sketches.forEach((category, sketch) -> {
+            categorySpending.put(category, sketch.sum());
+            categoryVisits.put(category, sketch.count());
+            categoryMedianAmount.put(category, sketch.quantile(0.5));
+            categoryP90Amount.put(category, sketch.quantile(0.9));
+            total.merge(sketch);
+        });
 
         // 응답 맵 구성
         Map<String, Object> result = new HashMap<>();
         result.put("categorySpending", categorySpending);
         result.put("categoryVisits", categoryVisits);
-        result.put("totalAmount", totalAmount);
-        result.put("totalVisits", totalVisits);
-
+        result.put("categoryMedianAmount", categoryMedianAmount);
+        result.put("categoryP90Amount", categoryP90Amount);
+        result.put("totalAmount", total.sum());
+        result.put("totalVisits", total.count());
+        result.put("medianAmount", total.quantile(0.5));
+        result.put("p90Amount", total.quantile(0.9));
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * 기간의 카테고리별 스케치. 하루 전체가 포함된 날짜는 일별 집계에 집계 이후 저장된 결제만 더하고, 하루 일부만 포함된 앞뒤 구간은
+     * 결제를 직접 더한다. 호출하는 쪽의 트랜잭션 안에서 watermark 와 일별 집계를 같은 시점으로 읽는다.
+     *
+     * @param dataSource null 이면 모든 출처
+     */
+    private Map<String, SpendingSketch> sketchByCategory(Long userId, DataSource dataSource,
+                                                         LocalDateTime startDate, LocalDateTime endDate) {
+        Map<String, SpendingSketch> sketches = new TreeMap<>();
+        LocalDateTime watermark = spendingRollupService.getWatermark();
+        LocalDate firstDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT) ? startDate.toLocalDate()
+                : startDate.toLocalDate().plusDays(1);
+        LocalDate lastDay = endDate.toLocalTime().equals(LocalTime.MAX) ? endDate.toLocalDate()
+                : endDate.toLocalDate().minusDays(1);
+        if (watermark == null || firstDay.isAfter(lastDay)) {
+            addRows(sketches, spendingAnalysisRepository.findAmountRows(userId, dataSource, startDate, endDate,
+                    null));
+            return sketches;
+        }
+        spendingRollupBatchRepository.forEach(userId, dataSource, firstDay, lastDay,
+                rollup -> sketches.computeIfAbsent(rollup.category(), key -> new SpendingSketch())
+                        .merge(rollup.sketch()));
+        addRows(sketches, spendingAnalysisRepository.findAmountRows(userId, dataSource, firstDay.atStartOfDay(),
+                lastDay.atTime(LocalTime.MAX), watermark));
+        if (startDate.isBefore(firstDay.atStartOfDay())) {
+            addRows(sketches, spendingAnalysisRepository.findAmountRows(userId, dataSource, startDate,
+                    firstDay.atStartOfDay().minusNanos(1), null));
+        }
+        if (endDate.isAfter(lastDay.atTime(LocalTime.MAX))) {
+            addRows(sketches, spendingAnalysisRepository.findAmountRows(userId, dataSource,
+                    lastDay.plusDays(1).atStartOfDay(), endDate, null));
+        }
+        return sketches;
+    }
+
+    // [dataSource, category, amount]
+    private void addRows(Map<String, SpendingSketch> sketches, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            if (row[2] == null) {
+                continue;
+            }
+            sketches.computeIfAbsent(SpendingRollupService.category((String) row[1]), key -> new SpendingSketch())
+                    .add((Integer) row[2]);
+        }
+    }
+
+    private SpendingPaymentResponse toResponse(VisitPayment visitPayment) {
+        Restaurant restaurant = visitPayment.getRestaurantId();
+        return SpendingPaymentResponse.builder()
+                .visitPaymentId(visitPayment.getVisitPaymentId())
+                .kakaoPlaceId(restaurant != null ? restaurant.getKakaoPlaceId() : null)
+                .placeName(restaurant != null ? restaurant.getPlaceName() : null)
+                .category(SpendingRollupService.category(restaurant != null && restaurant.getFoodCategory() != null
+                        ? restaurant.getFoodCategory().getName() : null))
+                .amount(visitPayment.getAmount())
+                .visitedPersonnel(visitPayment.getVisitedPersonnel())
+                .dataSource(visitPayment.getDataSource())
+                .paidAt(visitPayment.getPaidAt())
+                .build();
+    }
+
+    // 날짜가 null이면 기본값 설정
+    private static LocalDateTime effectiveStartDate(LocalDateTime startDate) {
+        return startDate != null ? startDate : LocalDateTime.of(2000, 1, 1, 0, 0);
+    }
+
+    private static LocalDateTime effectiveEndDate(LocalDateTime endDate) {
+        return endDate != null ? endDate : LocalDateTime.now();
+    }
+}
@@ -0,0 +1,12 @@
+package com.patriot.fourlipsclover.analysis.service;
+
+import com.patriot.fourlipsclover.payment.entity.DataSource;
+
+import java.time.LocalDate;
+
+/**
+ * spending_daily_rollup 한 행. 같은 키의 결제를 모두 담은 스케치를 가진다.
+ */
+public record SpendingRollup(Long userId, LocalDate spendDate, DataSource dataSource, String category,
+                             SpendingSketch sketch) {
+}
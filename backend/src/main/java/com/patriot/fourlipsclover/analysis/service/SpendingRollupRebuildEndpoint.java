@@ -0,0 +1,26 @@
+package com.patriot.fourlipsclover.analysis.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 일별 지출 집계를 결제 테이블에서 다시 계산한다. (actuator 엔드포인트, 노출 설정이 있어야 열린다)
+ * <p>
+ * 결제를 수정/삭제했거나 집계 방식을 바꾼 뒤 POST /actuator/spendingrollup 으로 실행한다.
+ */
+@Component
+@Endpoint(id = "spendingrollup")
+@RequiredArgsConstructor
+public class SpendingRollupRebuildEndpoint {
+
+    private final SpendingRollupService spendingRollupService;
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("rebuilt", spendingRollupService.rebuildAll());
+    }
+}
@@ -0,0 +1,204 @@
+package com.patriot.fourlipsclover.analysis.service;
+
+import com.patriot.fourlipsclover.analysis.repository.SpendingAnalysisRepository;
+import com.patriot.fourlipsclover.analysis.repository.SpendingRollupBatchRepository;
+import com.patriot.fourlipsclover.payment.entity.DataSource;
+import com.patriot.fourlipsclover.restaurant.entity.IndexWatermark;
+import com.patriot.fourlipsclover.restaurant.repository.IndexWatermarkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 결제를 사용자(그룹) x 결제 출처 x 카테고리 x 결제일 단위 스케치로 미리 합쳐 spending_daily_rollup 에 둔다.
+ * <p>
+ * 일별 행은 항상 "watermark 이전에 저장된 결제" 만 담는다. 주기적으로 watermark 이후 저장된 결제가 있는 (사용자, 결제일) 만 결제
+ * 테이블에서 다시 계산하고, 같은 트랜잭션에서 watermark 를 올린다. 조회 쪽은 일별 행에 watermark 이후 저장된 결제만 직접 더하면
+ * 빠짐도 중복도 없다. 결제일을 과거로 적은 결제도 저장 시각으로 찾으므로 반영된다.
+ */
+@Slf4j
+@Service
+public class SpendingRollupService {
+
+    static final String WATERMARK = "spending_rollup";
+    // 카테고리가 없는 식당(또는 식당 정보가 없는 결제)
+    static final String UNKNOWN_CATEGORY = "기타";
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final SpendingAnalysisRepository spendingAnalysisRepository;
+    private final SpendingRollupBatchRepository spendingRollupBatchRepository;
+    private final IndexWatermarkRepository watermarkRepository;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    private final long watermarkLagMs;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public SpendingRollupService(SpendingAnalysisRepository spendingAnalysisRepository,
+                                 SpendingRollupBatchRepository spendingRollupBatchRepository,
+                                 IndexWatermarkRepository watermarkRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${analysis.spending-rollup.chunk-size:200}") int chunkSize,
+                                 @Value("${analysis.spending-rollup.watermark-lag-ms:60000}") long watermarkLagMs) {
+        this.spendingAnalysisRepository = spendingAnalysisRepository;
+        this.spendingRollupBatchRepository = spendingRollupBatchRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.watermarkLagMs = watermarkLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.spending-rollup.interval-ms:60000}",
+            initialDelayString = "${analysis.spending-rollup.interval-ms:60000}")
+    public void scheduledRollUp() {
+        if (running.get()) {
+            return;
+        }
+        rollUpChanged();
+    }
+
+    /**
+     * 일별 행에 포함된 결제의 저장 시각 상한. 한 번도 집계하지 않았으면 null (일별 행을 쓰지 않는다)
+     */
+    public LocalDateTime getWatermark() {
+        return watermarkRepository.findById(WATERMARK)
+                .map(IndexWatermark::getWatermark)
+                .orElse(null);
+    }
+
+    /**
+     * watermark 이후 저장된 결제가 있는 (사용자, 결제일) 의 일별 행을 다시 계산한다. 기록이 없으면 전체를 계산한다.
+     *
+     * @return 다시 계산한 사용자 수
+     */
+    public int rollUpChanged() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            Integer rolledUp = transaction.execute(status -> {
+                // 다른 인스턴스의 집계와 겹치지 않도록 watermark 행을 잠근다
+                IndexWatermark watermark = watermarkRepository.findForUpdate(WATERMARK).orElse(null);
+                if (watermark == null) {
+                    return null;
+                }
+                LocalDateTime cutoff = cutoff();
+                if (!cutoff.isAfter(watermark.getWatermark())) {
+                    return 0;
+                }
+                Map<Long, Set<LocalDate>> changed = new HashMap<>();
+                for (Object[] row : spendingAnalysisRepository.findUserPaidAtByCreatedAtBetween(
+                        watermark.getWatermark(), cutoff)) {
+                    changed.computeIfAbsent((Long) row[0], k -> new TreeSet<>())
+                            .add(((LocalDateTime) row[1]).toLocalDate());
+                }
+                changed.forEach((userId, spendDates) -> rollUp(userId, spendDates, cutoff));
+                watermark.setWatermark(cutoff);
+                return changed.size();
+            });
+            return rolledUp != null ? rolledUp : rebuild();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 모든 사용자의 일별 행을 결제 테이블에서 다시 계산한다.
+     *
+     * @return 다시 계산한 사용자 수
+     */
+    public int rebuildAll() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("지출 집계 작업이 진행 중입니다.");
+        }
+        try {
+            return rebuild();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int rebuild() {
+        LocalDateTime initialCutoff = cutoff();
+        int rebuilt = 0;
+        Long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> userIds = spendingAnalysisRepository.findUserIdsAfter(afterId,
+                    PageRequest.of(0, chunkSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            transaction.executeWithoutResult(status -> {
+                // 이미 집계 중이면 현재 watermark 기준으로 계산해 증분 집계와 같은 경계를 쓴다
+                LocalDateTime cutoff = watermarkRepository.findForUpdate(WATERMARK)
+                        .map(IndexWatermark::getWatermark)
+                        .orElse(initialCutoff);
+                Collection<SpendingRollup> rollups = aggregate(spendingAnalysisRepository.findRollupRows(
+                        userIds, EARLIEST, LATEST, cutoff), null);
+                spendingRollupBatchRepository.deleteByUsers(userIds);
+                spendingRollupBatchRepository.insertAll(rollups);
+            });
+            rebuilt += userIds.size();
+            afterId = userIds.get(userIds.size() - 1);
+        }
+        if (getWatermark() == null) {
+            watermarkRepository.save(new IndexWatermark(WATERMARK, initialCutoff));
+        }
+        log.info("사용자 {}명의 일별 지출 집계를 다시 계산했습니다.", rebuilt);
+        return rebuilt;
+    }
+
+    private void rollUp(Long userId, Set<LocalDate> spendDates, LocalDateTime cutoff) {
+        TreeSet<LocalDate> dates = new TreeSet<>(spendDates);
+        List<Object[]> rows = spendingAnalysisRepository.findRollupRows(List.of(userId),
+                dates.first().atStartOfDay(), dates.last().plusDays(1).atStartOfDay(), cutoff);
+        spendingRollupBatchRepository.deleteByUserAndDates(userId, dates);
+        spendingRollupBatchRepository.insertAll(aggregate(rows, dates));
+    }
+
+    /**
+     * @param rows        [userId, dataSource, category, paidAt, amount]
+     * @param spendDates null 이 아니면 이 날짜의 결제만 합친다
+     */
+    static Collection<SpendingRollup> aggregate(List<Object[]> rows, Set<LocalDate> spendDates) {
+        Map<List<Object>, SpendingRollup> rollups = new HashMap<>();
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            LocalDate spendDate = ((LocalDateTime) row[3]).toLocalDate();
+            Integer amount = (Integer) row[4];
+            if (amount == null || (spendDates != null && !spendDates.contains(spendDate))) {
+                continue;
+            }
+            DataSource dataSource = dataSource((DataSource) row[1]);
+            String category = category((String) row[2]);
+            rollups.computeIfAbsent(List.of(userId, spendDate, dataSource, category),
+                            key -> new SpendingRollup(userId, spendDate, dataSource, category,
+                                    new SpendingSketch()))
+                    .sketch().add(amount);
+        }
+        return rollups.values();
+    }
+
+    // 출처가 비어 있는 결제는 개인 결제로 본다
+    static DataSource dataSource(DataSource dataSource) {
+        return dataSource == null ? DataSource.member : dataSource;
+    }
+
+    static String category(String category) {
+        return category == null ? UNKNOWN_CATEGORY : category;
+    }
+
+    // 커밋이 늦게 끝나는 결제를 놓치지 않도록 현재보다 조금 이전까지만 집계한다
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusNanos(watermarkLagMs * 1_000_000);
+    }
+}
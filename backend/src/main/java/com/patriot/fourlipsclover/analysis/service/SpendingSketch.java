@@ -0,0 +1,152 @@
+package com.patriot.fourlipsclover.analysis.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * 결제 금액 분포 스케치 (DDSketch 방식).
+ * <p>
+ * 금액을 로그 스케일 구간(구간 경계가 (1+a)/(1-a) 배씩 커진다)에 세어, 어떤 분위수든 상대 오차 a(1%) 안으로 추정한다. 구간
+ * 건수를 더하기만 하면 합쳐지므로 일별 스케치를 기간만큼 merge 해 임의 기간의 중앙값, p90 을 구한다. 건수와 합계는 정확하게 유지한다.
+ * <p>
+ * 0 이하 금액은 0 구간에 센다. 스레드 안전하지 않다.
+ */
+public final class SpendingSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double MULTIPLIER = 1 / Math.log(GAMMA);
+    private static final byte VERSION = 1;
+
+    private long count;
+    private long sum;
+    private long zeroCount;
+    // counts[i] 는 구간 minIndex + i 의 건수
+    private long[] counts = new long[0];
+    private int minIndex;
+
+    public void add(long amount) {
+        count++;
+        sum += amount;
+        if (amount <= 0) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(amount) * MULTIPLIER);
+        ensureCapacity(index, index);
+        counts[index - minIndex]++;
+    }
+
+    public SpendingSketch merge(SpendingSketch other) {
+        if (other.count == 0) {
+            return this;
+        }
+        count += other.count;
+        sum += other.sum;
+        zeroCount += other.zeroCount;
+        if (other.counts.length > 0) {
+            ensureCapacity(other.minIndex, other.minIndex + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.minIndex + i - minIndex] += other.counts[i];
+            }
+        }
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param quantile 0 ~ 1
+     * @return 결제가 없으면 null
+     */
+    public Long quantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        double rank = Math.max(0, Math.min(1, quantile)) * (count - 1);
+        long seen = zeroCount;
+        if (seen > rank) {
+            return 0L;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return Math.round(2 * Math.pow(GAMMA, minIndex + i) / (GAMMA + 1));
+            }
+        }
+        return Math.round(2 * Math.pow(GAMMA, minIndex + counts.length - 1) / (GAMMA + 1));
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + counts.length * 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(count);
+            out.writeLong(sum);
+            out.writeLong(zeroCount);
+            out.writeInt(minIndex);
+            out.writeInt(counts.length);
+            for (long bucketCount : counts) {
+                out.writeLong(bucketCount);
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream 은 IOException 을 던지지 않는다
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SpendingSketch fromBytes(byte[] value) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalStateException("지원하지 않는 스케치 버전입니다.");
+            }
+            SpendingSketch sketch = new SpendingSketch();
+            sketch.count = in.readLong();
+            sketch.sum = in.readLong();
+            sketch.zeroCount = in.readLong();
+            sketch.minIndex = in.readInt();
+            int length = in.readInt();
+            if (length < 0 || length * 8L > in.available()) {
+                throw new IOException("잘린 값입니다.");
+            }
+            sketch.counts = new long[length];
+            for (int i = 0; i < length; i++) {
+                sketch.counts[i] = in.readLong();
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalStateException("스케치를 읽을 수 없습니다.", e);
+        }
+    }
+
+    private void ensureCapacity(int fromIndex, int toIndex) {
+        if (counts.length == 0) {
+            minIndex = fromIndex;
+            counts = new long[toIndex - fromIndex + 1];
+            return;
+        }
+        int newMin = Math.min(minIndex, fromIndex);
+        int newMax = Math.max(minIndex + counts.length - 1, toIndex);
+        if (newMin == minIndex && newMax == minIndex + counts.length - 1) {
+            return;
+        }
+        long[] grown = new long[newMax - newMin + 1];
+        System.arraycopy(counts, 0, grown, minIndex - newMin, counts.length);
+        counts = grown;
+        minIndex = newMin;
+    }
+}
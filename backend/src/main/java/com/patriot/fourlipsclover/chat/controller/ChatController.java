@@ -5,11 +5,11 @@ import com.patriot.fourlipsclover.chat.dto.request.InviteMembersRequest;
 import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
 import com.patriot.fourlipsclover.chat.dto.response.ChatRoomResponse;
 import com.patriot.fourlipsclover.chat.dto.response.ChattingListResponse;
+import com.patriot.fourlipsclover.chat.service.ChatLongPollRegistry;
 import com.patriot.fourlipsclover.chat.service.ChatService;
 import com.patriot.fourlipsclover.config.CustomUserDetails;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,7 +18,6 @@ import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -27,6 +26,7 @@ import java.util.List;
 public class ChatController {
 
     private final ChatService chatService;
+    private final ChatLongPollRegistry chatLongPollRegistry;
 
     // 공통 인증 정보 추출 메서드
     private long getCurrentMemberId() {
@@ -54,9 +54,14 @@ public class ChatController {
     // 본인이 소속된 채팅방 중 1개 입장
     @GetMapping("/room/{chatRoomId}")
     public ResponseEntity<ChatRoomResponse> getChatRoom(@PathVariable Integer chatRoomId,
-                                                        @RequestParam int offset, @RequestParam int limit) {
+                                                        @RequestParam(required = false) Integer offset,
+                                                        @RequestParam int limit,
+                                                        @RequestParam(required = false) Long beforeMessageId) {
         long currentMemberId = getCurrentMemberId(); // 현재 사용자 ID
-        ChatRoomResponse chatRoomResponse = chatService.getChatRoomWithMessages(chatRoomId, currentMemberId, offset, limit);
+        // 이전 기록은 받은 메시지 중 가장 오래된 messageId 를 beforeMessageId 로 넘겨 이어서 가져온다
+        // offset 을 보내는 기존 클라이언트는 예전처럼 오래된 메시지부터 페이지로 받는다
+        ChatRoomResponse chatRoomResponse = chatService.getChatRoomWithMessages(chatRoomId, currentMemberId, offset,
+                limit, beforeMessageId);
         return ResponseEntity.ok(chatRoomResponse);
     }
 
@@ -77,40 +82,28 @@ public class ChatController {
         return chatService.sendImageMessage(chatRoomId, currentMemberId, messageContent, images);
     }
 
-    // 롱풀링 방식으로 채팅 메시지 가져오기
+    // 롱풀링 방식으로 채팅 메시지 가져오기 (WebSocket 을 쓸 수 없는 클라이언트용)
     @GetMapping("/{chatRoomId}/messages")
     public DeferredResult<ResponseEntity<List<ChatMessageResponse>>> getChatMessages(
             @PathVariable Integer chatRoomId,
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after) {
-
-        // 30초 타임아웃 설정
-        DeferredResult<ResponseEntity<List<ChatMessageResponse>>> deferredResult = new DeferredResult<>(30000L);
-
-        // after 값이 없으면 기본값 설정 (예: 현재 시간 - 1분)
-        if (after == null) {
-            after = LocalDateTime.now().minusMinutes(1);
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) Long afterMessageId) {
+
+        // 조회 중에 커밋된 메시지를 놓치지 않도록 먼저 대기 등록한 뒤 한 번만 조회한다 (타임아웃 시 빈 목록)
+        DeferredResult<ResponseEntity<List<ChatMessageResponse>>> deferredResult = chatLongPollRegistry.park(chatRoomId);
+        List<ChatMessageResponse> messages;
+        if (afterMessageId != null) {
+            messages = chatService.getMessagesAfterId(chatRoomId, afterMessageId);
+        } else {
+            // after 값이 없으면 기본값 설정 (예: 현재 시간 - 1분)
+            messages = chatService.getMessagesWithDetails(chatRoomId,
+                    after != null ? after : LocalDateTime.now().minusMinutes(1));
         }
-
-        // 별도 스레드에서 롱 폴링 로직 실행
-        LocalDateTime finalAfter = after;
-        new Thread(() -> {
-            while (!deferredResult.isSetOrExpired()) {
-                List<ChatMessageResponse> messages = chatService.getMessagesWithDetails(chatRoomId, finalAfter);
-                if (!messages.isEmpty()) {
-                    deferredResult.setResult(ResponseEntity.ok(messages));
-                    break;
-                }
-                try {
-                    Thread.sleep(1000); // 1초마다 확인
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    deferredResult.setErrorResult(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
-                }
-            }
-        }).start();
-
-        deferredResult.onTimeout(() -> deferredResult.setResult(ResponseEntity.ok(new ArrayList<>())));
+        if (!messages.isEmpty()) {
+            deferredResult.setResult(ResponseEntity.ok(messages));
+        }
+        // 새 메시지가 없으면 스레드 없이 대기하다 커밋 시 ChatMessageDispatcher 가 응답한다
         return deferredResult;
     }
 
@@ -3,6 +3,7 @@ package com.patriot.fourlipsclover.chat.entity;
 import com.patriot.fourlipsclover.member.entity.Member;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -41,8 +42,9 @@ public class ChatMessage {
     @Column(name = "message_type", nullable = false)
     private MessageType messageType;
 
-    // 이미지 URL 목록을 즉시 로딩하도록 EAGER 설정
+    // 이미지 URL 목록을 즉시 로딩하도록 EAGER 설정 (메시지 목록은 메시지마다가 아니라 여러 메시지를 한 번에 읽는다)
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @CollectionTable(name = "chat_message_images", joinColumns = @JoinColumn(name = "message_id"))
     @Column(name = "image_url")
     private List<String> imageUrls;
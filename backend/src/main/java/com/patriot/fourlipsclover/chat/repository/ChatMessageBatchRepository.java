@@ -0,0 +1,62 @@
+package com.patriot.fourlipsclover.chat.repository;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * write-behind 모드의 chat_message(와 chat_message_images) 쓰기. 묶음은 한 트랜잭션으로 쓰므로 한 건이라도 실패하면 모두 되돌린다. ID 를 미리 정해 두므로 같은
+ * ID 가 이미 있으면(DuplicateKeyException) isStored 로 같은 메시지인지 확인한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatMessageBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO chat_message "
+            + "(message_id, chat_room_id, sender_id, message_content, message_type, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_IMAGE_SQL = "INSERT INTO chat_message_images (message_id, image_url) "
+            + "VALUES (?, ?)";
+    private static final String SELECT_SQL = "SELECT chat_room_id, sender_id, message_content FROM chat_message "
+            + "WHERE message_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void insertAll(List<ChatMessageResponse> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (statement, message) -> {
+            statement.setLong(1, message.getMessageId());
+            statement.setInt(2, message.getChatRoomId());
+            statement.setLong(3, message.getMemberId());
+            statement.setString(4, message.getMessageContent());
+            statement.setString(5, message.getMessageType().name());
+            statement.setTimestamp(6, Timestamp.valueOf(message.getCreatedAt()));
+        });
+        List<Object[]> images = new ArrayList<>();
+        for (ChatMessageResponse message : messages) {
+            if (message.getImageUrls() != null) {
+                message.getImageUrls().forEach(imageUrl -> images.add(new Object[]{message.getMessageId(), imageUrl}));
+            }
+        }
+        if (!images.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, images);
+        }
+    }
+
+    // 같은 ID 로 저장된 메시지가 이 메시지인지 (저널을 다시 반영하거나, 커밋됐지만 응답을 받지 못한 묶음을 다시 쓸 때)
+    public boolean isStored(ChatMessageResponse message) {
+        List<Boolean> stored = jdbcTemplate.query(SELECT_SQL, (resultSet, rowNum) ->
+                        message.getChatRoomId() == resultSet.getInt("chat_room_id")
+                                && message.getMemberId() == resultSet.getLong("sender_id")
+                                && Objects.equals(message.getMessageContent(), resultSet.getString("message_content")),
+                message.getMessageId());
+        return !stored.isEmpty() && stored.get(0);
+    }
+}
@@ -2,6 +2,7 @@ package com.patriot.fourlipsclover.chat.repository;
 
 import com.patriot.fourlipsclover.chat.entity.ChatMessage;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDateTime;
@@ -15,5 +16,17 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Intege
 
     List<ChatMessage> findByChatRoom_ChatRoomIdOrderByCreatedAtAsc(Integer chatRoomId, PageRequest of);
 
+    // 채팅방 입장 시 최근 메시지와 그 이전 기록 (messageId 내림차순 keyset)
+    List<ChatMessage> findByChatRoom_ChatRoomIdOrderByMessageIdDesc(Integer chatRoomId, Pageable pageable);
+
+    List<ChatMessage> findByChatRoom_ChatRoomIdAndMessageIdLessThanOrderByMessageIdDesc(Integer chatRoomId,
+                                                                                      Long messageId,
+                                                                                      Pageable pageable);
+
+    // 재연결 시 마지막으로 받은 메시지 이후 메시지 (messageId 오름차순)
+    List<ChatMessage> findByChatRoom_ChatRoomIdAndMessageIdGreaterThanOrderByMessageIdAsc(Integer chatRoomId,
+                                                                                        Long messageId,
+                                                                                        Pageable pageable);
+
     void deleteAllByChatRoom_ChatRoomId(Integer chatRoomId);
 }
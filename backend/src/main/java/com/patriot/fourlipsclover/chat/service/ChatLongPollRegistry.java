@@ -0,0 +1,112 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 롱폴링으로 새 메시지를 기다리는 요청을 채팅방별 대기열에 보관한다.
+ * <p>
+ * 대기 중인 요청은 스레드도 DB 조회도 쓰지 않는다. 새 메시지가 커밋되면 ChatMessageDispatcher 가 complete 로 그 채팅방 대기열을
+ * 한 번에 응답하고, 타임아웃은 타이머 스레드 하나(HashedWheelTimer)가 빈 목록으로 응답한다. 대기 수는
+ * /actuator/metrics/chat.longpoll.waiters 로 본다.
+ */
+@Component
+public class ChatLongPollRegistry {
+
+    // 휠 타이머가 응답하지 못했을 때만 컨테이너 타임아웃이 쓰이도록 여유를 둔다
+    private static final long CONTAINER_TIMEOUT_MARGIN_MS = 5000;
+
+    // 채팅방 -> 등록 순서대로의 대기 요청과 그 타임아웃. 대기열은 map 의 compute 안에서만 바꾼다
+    private final Map<Integer, LinkedHashMap<DeferredResult<ResponseEntity<List<ChatMessageResponse>>>, Timeout>> waiters =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final HashedWheelTimer timer;
+    private final long timeoutMs;
+
+    public ChatLongPollRegistry(MeterRegistry meterRegistry,
+                                @Value("${chat.long-poll.timeout-ms:30000}") long timeoutMs,
+                                @Value("${chat.long-poll.tick-ms:100}") long tickMs) {
+        this.timeoutMs = timeoutMs;
+        this.timer = new HashedWheelTimer(runnable -> {
+            Thread thread = new Thread(runnable, "chat-long-poll-timer");
+            thread.setDaemon(true);
+            return thread;
+        }, tickMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("chat.longpoll.waiters", waiterCount, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 채팅방의 새 메시지를 기다리는 요청을 만든다. 메시지, 타임아웃, 연결 끊김 중 먼저 오는 것으로 끝나고 대기열에서 빠진다.
+     */
+    public DeferredResult<ResponseEntity<List<ChatMessageResponse>>> park(Integer chatRoomId) {
+        DeferredResult<ResponseEntity<List<ChatMessageResponse>>> result =
+                new DeferredResult<>(timeoutMs + CONTAINER_TIMEOUT_MARGIN_MS, ResponseEntity.ok(List.of()));
+        Timeout timeout = timer.newTimeout(expired -> {
+            remove(chatRoomId, result);
+            result.setResult(ResponseEntity.ok(List.of()));
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        waiters.compute(chatRoomId, (key, roomWaiters) -> {
+            LinkedHashMap<DeferredResult<ResponseEntity<List<ChatMessageResponse>>>, Timeout> queue =
+                    roomWaiters != null ? roomWaiters : new LinkedHashMap<>();
+            queue.put(result, timeout);
+            return queue;
+        });
+        waiterCount.incrementAndGet();
+        result.onCompletion(() -> {
+            timeout.cancel();
+            remove(chatRoomId, result);
+        });
+        return result;
+    }
+
+    /**
+     * 채팅방에서 기다리는 요청 모두에 메시지를 응답한다. 이후 등록되는 요청은 새 대기열에 들어간다.
+     */
+    public void complete(ChatMessageResponse message) {
+        LinkedHashMap<DeferredResult<ResponseEntity<List<ChatMessageResponse>>>, Timeout> roomWaiters =
+                waiters.remove(message.getChatRoomId());
+        if (roomWaiters == null) {
+            return;
+        }
+        waiterCount.addAndGet(-roomWaiters.size());
+        ResponseEntity<List<ChatMessageResponse>> response = ResponseEntity.ok(List.of(message));
+        roomWaiters.forEach((result, timeout) -> {
+            timeout.cancel();
+            result.setResult(response);
+        });
+    }
+
+    public int getWaiterCount() {
+        return waiterCount.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.stop();
+    }
+
+    private void remove(Integer chatRoomId, DeferredResult<ResponseEntity<List<ChatMessageResponse>>> result) {
+        waiters.computeIfPresent(chatRoomId, (key, roomWaiters) -> {
+            if (roomWaiters.remove(result) != null) {
+                waiterCount.decrementAndGet();
+            }
+            return roomWaiters.isEmpty() ? null : roomWaiters;
+        });
+    }
+}
@@ -0,0 +1,173 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.service.ChatMessageEnvelopeCodec.Envelope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 저장된 채팅 메시지를 커밋 후 구독자에게 보낸다. STOMP 구독자는 채팅방 토픽으로, 롱폴링 대기자는 ChatLongPollRegistry 로 받고,
+ * 최근 메시지 버퍼(ChatRecentMessageCache)에도 더한다. 롤백된 메시지는 보내지 않는다.
+ * <p>
+ * 여러 노드로 띄울 때(chat.fanout.redis.enabled)는 이 노드의 구독자에게 먼저 보낸 뒤 채팅방 샤드별 Redis 채널
+ * (chat:room-shard:{n})로 발행하고, 다른 노드가 발행한 메시지를 받아 이 노드의 구독자에게 보낸다. 같은 메시지는 messageId 로
+ * 한 번만 보낸다. 발행부터 전달까지 걸린 시간은 /actuator/metrics/chat.fanout.latency 로 본다 (노드 간 시계 차이를 포함한다).
+ */
+@Slf4j
+@Component
+public class ChatMessageDispatcher implements MessageListener {
+
+    public static final String CHANNEL_PREFIX = "chat:room-shard:";
+    private static final String ROOM_TOPIC_PREFIX = "/topic/chat/rooms/";
+    private static final String METRIC = "chat.fanout.messages";
+    // 재발행이나 겹친 구독으로 같은 메시지가 다시 와도 걸러낼 만큼만 기억한다
+    private static final Duration DEDUP_TTL = Duration.ofMinutes(1);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatLongPollRegistry longPollRegistry;
+    private final ChatRecentMessageCache recentMessageCache;
+    @Nullable
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final int shards;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Cache<Long, Boolean> deliveredMessageIds;
+    private final Timer latency;
+    private final Counter published;
+    private final Counter publishFailures;
+    private final Counter received;
+    private final Counter duplicates;
+    private final Counter invalid;
+
+    public ChatMessageDispatcher(SimpMessagingTemplate messagingTemplate, ChatLongPollRegistry longPollRegistry,
+                                 ChatRecentMessageCache recentMessageCache,
+                                 @Nullable RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${chat.fanout.redis.enabled:false}") boolean redisEnabled,
+                                 @Value("${chat.fanout.shards:16}") int shards,
+                                 @Value("${chat.fanout.dedup-max-size:100000}") long dedupMaxSize) {
+        this.messagingTemplate = messagingTemplate;
+        this.longPollRegistry = longPollRegistry;
+        this.recentMessageCache = recentMessageCache;
+        this.redisTemplate = redisEnabled ? binaryRedisTemplate : null;
+        this.shards = shards;
+        this.deliveredMessageIds = Caffeine.newBuilder()
+                .maximumSize(dedupMaxSize)
+                .expireAfterWrite(DEDUP_TTL)
+                .build();
+        this.latency = Timer.builder("chat.fanout.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.published = counter(meterRegistry, "published");
+        this.publishFailures = counter(meterRegistry, "publish_failed");
+        this.received = counter(meterRegistry, "received");
+        this.duplicates = counter(meterRegistry, "duplicate");
+        this.invalid = counter(meterRegistry, "invalid");
+    }
+
+    public static String roomTopic(Integer chatRoomId) {
+        return ROOM_TOPIC_PREFIX + chatRoomId;
+    }
+
+    // 채팅방이 많아도 구독 채널 수가 늘지 않도록 샤드 단위로 묶는다
+    public String shardChannel(Integer chatRoomId) {
+        return CHANNEL_PREFIX + Math.floorMod(chatRoomId, shards);
+    }
+
+    // 트랜잭션이 있으면 커밋 후에 보낸다
+    public void dispatchAfterCommit(ChatMessageResponse message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(message);
+                }
+            });
+        } else {
+            dispatch(message);
+        }
+    }
+
+    // 다른 노드가 발행한 메시지
+    @Override
+    public void onMessage(Message message, @Nullable byte[] pattern) {
+        Envelope envelope = ChatMessageEnvelopeCodec.decode(message.getBody());
+        if (envelope == null || envelope.message().getChatRoomId() == null) {
+            invalid.increment();
+            log.warn("읽을 수 없는 채팅 메시지를 받았습니다 [channel={}]", new String(message.getChannel()));
+            return;
+        }
+        // 이 노드가 발행한 메시지는 발행 전에 이미 보냈다
+        if (nodeId.equals(envelope.nodeId())) {
+            return;
+        }
+        received.increment();
+        if (deliverOnce(envelope.message())) {
+            latency.record(Math.max(0, System.currentTimeMillis() - envelope.publishedAt()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dispatch(ChatMessageResponse message) {
+        deliverOnce(message);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(shardChannel(message.getChatRoomId()), ChatMessageEnvelopeCodec.encode(
+                    new Envelope(nodeId, System.currentTimeMillis(), message)));
+            published.increment();
+        } catch (RuntimeException e) {
+            // Redis 에 닿지 않으면 이 노드도 다른 노드의 메시지를 받지 못했을 수 있다. 최근 메시지 버퍼를 비워 잠시 DB 에서 읽게 하고,
+            // 다른 노드의 버퍼는 ttl 이 지나면 DB 에서 다시 채운다
+            publishFailures.increment();
+            recentMessageCache.invalidateAll();
+            log.warn("채팅 메시지 Redis 발행 실패 [room={}, message={}]: {}", message.getChatRoomId(),
+                    message.getMessageId(), e.getMessage());
+        }
+    }
+
+    // 처음 보는 메시지면 이 노드의 구독자에게 보내고 true
+    private boolean deliverOnce(ChatMessageResponse message) {
+        if (message.getMessageId() != null
+                && deliveredMessageIds.asMap().putIfAbsent(message.getMessageId(), Boolean.TRUE) != null) {
+            duplicates.increment();
+            return false;
+        }
+        deliver(message);
+        return true;
+    }
+
+    void deliver(ChatMessageResponse message) {
+        recentMessageCache.append(message);
+        // 전송 실패가 메시지 저장 응답을 실패로 만들지 않는다. 놓친 메시지는 재연결 시 last-message-id 로 다시 받는다
+        try {
+            messagingTemplate.convertAndSend(roomTopic(message.getChatRoomId()), message);
+        } catch (RuntimeException e) {
+            log.warn("채팅 메시지 STOMP 전송 실패 [room={}, message={}]: {}", message.getChatRoomId(),
+                    message.getMessageId(), e.getMessage());
+        }
+        longPollRegistry.complete(message);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,148 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.entity.MessageType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 노드 간 채팅 메시지 전달(Redis pub/sub) 형식.
+ * <p>
+ * [버전][보낸 노드][발행 시각(ms)][메시지 필드...] 순서의 고정 레이아웃으로, 필드 이름을 싣지 않는다. 필드를 바꾸면 VERSION 을
+ * 올린다. 다른 버전의 값은 읽지 않는다 (배포 중에는 그 노드의 구독자가 재연결 시 last-message-id 로 받는다).
+ */
+public final class ChatMessageEnvelopeCodec {
+
+    static final byte VERSION = 1;
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+
+    private ChatMessageEnvelopeCodec() {
+    }
+
+    public static byte[] encode(Envelope envelope) {
+        ChatMessageResponse message = envelope.message();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, envelope.nodeId());
+            out.writeLong(envelope.publishedAt());
+            writeLong(out, message.getMessageId());
+            out.writeBoolean(message.getChatRoomId() != null);
+            if (message.getChatRoomId() != null) {
+                out.writeInt(message.getChatRoomId());
+            }
+            writeLong(out, message.getMemberId());
+            writeString(out, message.getNickname());
+            writeString(out, message.getProfileUrl());
+            writeString(out, message.getMessageContent());
+            out.writeByte(message.getMessageType() == null ? -1 : message.getMessageType().ordinal());
+            List<String> imageUrls = message.getImageUrls();
+            out.writeInt(imageUrls == null ? -1 : imageUrls.size());
+            if (imageUrls != null) {
+                for (String imageUrl : imageUrls) {
+                    writeString(out, imageUrl);
+                }
+            }
+            LocalDateTime createdAt = message.getCreatedAt();
+            out.writeBoolean(createdAt != null);
+            if (createdAt != null) {
+                out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(createdAt.getNano());
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream 은 IOException 을 던지지 않는다
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return 읽을 수 없는 값이면 null
+     */
+    public static Envelope decode(byte[] value) {
+        if (value == null || value.length < 1 || value[0] != VERSION) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            in.readByte();
+            String nodeId = readString(in);
+            long publishedAt = in.readLong();
+            ChatMessageResponse message = new ChatMessageResponse();
+            message.setMessageId(readLong(in));
+            message.setChatRoomId(in.readBoolean() ? in.readInt() : null);
+            message.setMemberId(readLong(in));
+            message.setNickname(readString(in));
+            message.setProfileUrl(readString(in));
+            message.setMessageContent(readString(in));
+            int messageType = in.readByte();
+            if (messageType >= MESSAGE_TYPES.length) {
+                throw new IOException("알 수 없는 메시지 유형입니다.");
+            }
+            message.setMessageType(messageType < 0 ? null : MESSAGE_TYPES[messageType]);
+            int imageCount = in.readInt();
+            if (imageCount >= 0) {
+                List<String> imageUrls = new ArrayList<>(Math.min(imageCount, 64));
+                for (int i = 0; i < imageCount; i++) {
+                    imageUrls.add(readString(in));
+                }
+                message.setImageUrls(imageUrls);
+            }
+            if (in.readBoolean()) {
+                message.setCreatedAt(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+            }
+            return new Envelope(nodeId, publishedAt, message);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param nodeId      발행한 노드
+     * @param publishedAt 발행 시각 (epoch ms)
+     */
+    public record Envelope(String nodeId, long publishedAt, ChatMessageResponse message) {
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.available()) {
+            throw new IOException("잘린 값입니다.");
+        }
+        byte[] encoded = new byte[length];
+        in.readFully(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
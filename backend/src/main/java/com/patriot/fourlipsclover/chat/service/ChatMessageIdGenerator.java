@@ -0,0 +1,53 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake 방식 채팅 메시지 ID. [41비트 ms (2025-01-01 기준)][10비트 노드][12비트 순번].
+ * <p>
+ * 한 노드가 만드는 ID 는 항상 커지므로 한 채팅방 안에서도 보낸 순서대로 커진다. 같은 ms 에 4096개를 넘거나 시계가 뒤로 가면 다음 ms
+ * 를 미리 쓴다. 여러 노드가 같은 채팅방에 쓰면 ms 단위로 정렬되고 같은 ms 는 노드 번호 순이다. 노드 번호는 노드마다 달라야 한다.
+ * <p>
+ * write-behind 모드에서는 텍스트와 이미지 메시지 모두 이 ID 를 쓴다. 자동 증가 ID 와 섞으면 자동 증가 값이 이 ID 를 따라 올라가
+ * 순서와 유일성이 깨진다. 이 모드를 켜기 전에 자동 증가로 저장된 메시지보다는 크므로 그 뒤에 이어진다.
+ */
+public final class ChatMessageIdGenerator {
+
+    static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public ChatMessageIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    ChatMessageIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("노드 번호는 0 ~ " + MAX_NODE_ID + " 이어야 합니다: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public synchronized long nextId() {
+        long millis = Math.max(clock.getAsLong(), lastMillis);
+        if (millis == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                millis = lastMillis + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = millis;
+        return ((millis - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,248 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * DB 에 쓰기 전의 채팅 메시지를 남기는 로컬 저널 (chat-journal-{번호}.log).
+ * <p>
+ * 레코드는 [길이][CRC32][값] 이다. append 는 디스크에 fsync 된 뒤 돌아오고, 동시에 들어온 append 는 fsync 한 번으로 함께 기록된다.
+ * 세그먼트가 maxSegmentBytes 를 넘으면 다음 번호로 넘어가고, 지난 세그먼트는 담긴 레코드가 모두 release 되면 지운다.
+ * <p>
+ * 열 때 남아 있던 세그먼트는 replay 로 쓴 순서대로 읽는다. 쓰다 끊긴 마지막 레코드(길이 부족, CRC 불일치)부터는 버린다.
+ */
+@Slf4j
+public final class ChatMessageJournal implements Closeable {
+
+    private static final String PREFIX = "chat-journal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    // 열 때 남아 있던 세그먼트 (번호 순)
+    private final TreeMap<Long, Path> replaySegments = new TreeMap<>();
+    // 세그먼트 -> release 되지 않은 레코드 수
+    private final Map<Long, Long> pendingRecords = new HashMap<>();
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private long segment;
+    private long segmentBytes;
+    private long written;
+    private long synced;
+
+    public ChatMessageJournal(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                for (Path file : files) {
+                    Long number = segmentNumber(file);
+                    if (number != null) {
+                        replaySegments.put(number, file);
+                    }
+                }
+            }
+            openSegment(replaySegments.isEmpty() ? 0 : replaySegments.lastKey() + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("채팅 저널을 열 수 없습니다: " + directory, e);
+        }
+    }
+
+    /**
+     * 열 때 남아 있던 레코드를 쓴 순서대로 읽는다. 다 반영했으면 deleteReplayed 로 지운다.
+     */
+    public List<byte[]> replay() {
+        List<byte[]> records = new ArrayList<>();
+        for (Path file : replaySegments.values()) {
+            try {
+                readSegment(file, records);
+            } catch (IOException e) {
+                throw new IllegalStateException("채팅 저널을 읽을 수 없습니다: " + file, e);
+            }
+        }
+        return records;
+    }
+
+    public synchronized void deleteReplayed() {
+        for (Path file : replaySegments.values()) {
+            delete(file);
+        }
+        replaySegments.clear();
+    }
+
+    /**
+     * 레코드를 쓰고 fsync 될 때까지 기다린다.
+     *
+     * @return 레코드가 담긴 세그먼트 번호 (release 에 넘긴다)
+     */
+    public long append(byte[] record) {
+        Written written = write(record);
+        sync(written);
+        return written.segment();
+    }
+
+    /**
+     * 레코드를 쓰기만 한다. 순서를 정하는 잠금 안에서 쓰고 fsync(sync) 는 잠금 밖에서 기다릴 때 쓴다.
+     */
+    public synchronized Written write(byte[] record) {
+        try {
+            if (segmentBytes >= maxSegmentBytes) {
+                rotate();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + record.length)
+                    .putInt(record.length)
+                    .putInt((int) crc.getValue())
+                    .put(record)
+                    .flip();
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("채팅 저널에 쓸 수 없습니다.", e);
+        }
+        segmentBytes += HEADER_BYTES + record.length;
+        written += HEADER_BYTES + record.length;
+        pendingRecords.merge(segment, 1L, Long::sum);
+        return new Written(segment, written);
+    }
+
+    /**
+     * 레코드가 fsync 될 때까지 기다린다. fsync 하는 동안 쓰인 레코드는 기다리던 다음 sync 한 번으로 함께 기록된다.
+     */
+    public void sync(Written record) {
+        synchronized (syncLock) {
+            FileChannel current;
+            long upTo;
+            synchronized (this) {
+                if (synced >= record.position()) {
+                    return;
+                }
+                current = channel;
+                upTo = written;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // rotate 가 닫기 전에 이미 fsync 했다
+            } catch (IOException e) {
+                throw new IllegalStateException("채팅 저널을 fsync 할 수 없습니다.", e);
+            }
+            synchronized (this) {
+                synced = Math.max(synced, upTo);
+            }
+        }
+    }
+
+    /**
+     * 레코드가 DB 에 반영됐다. 다 반영된 지난 세그먼트는 지운다.
+     */
+    public synchronized void release(long recordSegment, int records) {
+        long remaining = pendingRecords.merge(recordSegment, (long) -records, Long::sum);
+        if (remaining <= 0 && recordSegment != segment) {
+            pendingRecords.remove(recordSegment);
+            delete(segmentPath(recordSegment));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("채팅 저널을 닫는 중 오류: {}", e.getMessage());
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.force(false);
+        synced = written;
+        channel.close();
+        long previous = segment;
+        openSegment(segment + 1);
+        if (pendingRecords.getOrDefault(previous, 0L) <= 0) {
+            pendingRecords.remove(previous);
+            delete(segmentPath(previous));
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segment = number;
+        segmentBytes = 0;
+        // 새 파일 항목도 디렉터리에 기록되도록 한다 (지원하지 않는 OS 는 무시)
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("채팅 저널 디렉터리 fsync 생략: {}", e.getMessage());
+        }
+    }
+
+    private static void readSegment(Path file, List<byte[]> records) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (bytes.remaining() >= HEADER_BYTES) {
+            int length = bytes.getInt();
+            int expectedCrc = bytes.getInt();
+            if (length < 0 || length > bytes.remaining()) {
+                log.warn("채팅 저널 {} 의 끊긴 레코드부터 버립니다.", file.getFileName());
+                return;
+            }
+            byte[] record = new byte[length];
+            bytes.get(record);
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if ((int) crc.getValue() != expectedCrc) {
+                log.warn("채팅 저널 {} 의 손상된 레코드부터 버립니다.", file.getFileName());
+                return;
+            }
+            records.add(record);
+        }
+    }
+
+    /**
+     * @param segment  레코드가 담긴 세그먼트 번호 (release 에 넘긴다)
+     * @param position 저널 처음부터 이 레코드 끝까지 쓴 바이트 수
+     */
+    public record Written(long segment, long position) {
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(PREFIX + number + SUFFIX);
+    }
+
+    private static Long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("채팅 저널 {} 삭제 실패: {}", file.getFileName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.entity.MessageType;
+import com.patriot.fourlipsclover.chat.repository.ChatMessageBatchRepository;
+import com.patriot.fourlipsclover.chat.repository.ChatRoomRepository;
+import com.patriot.fourlipsclover.chat.service.ChatMessageEnvelopeCodec.Envelope;
+import com.patriot.fourlipsclover.exception.ChatMessageBufferFullException;
+import com.patriot.fourlipsclover.member.repository.MemberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 메시지 write-behind 저장 (chat.write-behind.enabled). 이미지 메시지는 업로드를 마친 뒤 같은 방식으로 쓴다.
+ * <p>
+ * 메시지 ID 를 ChatMessageIdGenerator 로 정하고 로컬 저널에 fsync 한 뒤 바로 응답하고, flush 스레드가 몇 ms 마다 모아서 JDBC
+ * batch 로 chat_message 에 쓴다. 버퍼는 buffer-size 건까지만 받고 넘치면 ChatMessageBufferFullException 으로 거절한다. 프로세스가
+ * 죽으면 다음 시작 때 저널을 쓴 순서대로 다시 반영한다 (같은 ID 로 이미 저장된 같은 메시지는 건너뛴다). 저장할 수 없는 메시지는
+ * 버리고 chat.write-behind.messages{result=dropped} 로 센다.
+ * <p>
+ * DB 에 반영되기 전 메시지는 이 노드의 조회(pendingAfter)에 더해진다. 다른 노드는 반영된 뒤에 조회할 수 있다.
+ * <p>
+ * 켤 때는 chat.write-behind.node-id 를 노드마다 다르게 지정해야 한다. 같은 번호를 쓰는 노드끼리는 ID 가 겹친다.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriteBehind {
+
+    private final boolean enabled;
+    private final ChatMessageBatchRepository chatMessageBatchRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final MemberRepository memberRepository;
+    private final ChatMessageIdGenerator idGenerator;
+    private final Path journalDirectory;
+    private final long journalSegmentBytes;
+    private final long flushIntervalMs;
+    private final int batchSize;
+    private final Semaphore capacity;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    // 저널에 썼지만 아직 fsync 되지 않은 메시지 (ID 순). fsync 된 것부터 ID 순서대로 pending 과 queue 에 넣는다
+    private final ArrayDeque<Unsynced> unsynced = new ArrayDeque<>();
+    // messageId -> DB 에 아직 반영되지 않은 메시지
+    private final ConcurrentSkipListMap<Long, ChatMessageResponse> pending = new ConcurrentSkipListMap<>();
+    // 보낼 때마다 채팅방과 보낸 사람을 DB 에서 찾지 않도록 잠깐 기억한다
+    private final Cache<Long, Sender> senders;
+    private final Cache<Integer, Boolean> chatRooms;
+    private final Counter flushed;
+    private final Counter dropped;
+    // flush 스레드만 쓴다. 실패하면 다음 주기에 같은 묶음을 다시 쓴다
+    private final List<Entry> inFlight = new ArrayList<>();
+    private boolean failing;
+    private ChatMessageJournal journal;
+    private ScheduledExecutorService flusher;
+
+    public ChatMessageWriteBehind(ChatMessageBatchRepository chatMessageBatchRepository,
+                                  ChatRoomRepository chatRoomRepository,
+                                  MemberRepository memberRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${chat.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${chat.write-behind.node-id:-1}") long nodeId,
+                                  @Value("${chat.write-behind.journal-dir:chat-journal}") String journalDirectory,
+                                  @Value("${chat.write-behind.journal-segment-bytes:67108864}") long journalSegmentBytes,
+                                  @Value("${chat.write-behind.buffer-size:10000}") int bufferSize,
+                                  @Value("${chat.write-behind.flush-interval-ms:5}") long flushIntervalMs,
+                                  @Value("${chat.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${chat.write-behind.lookup-cache-seconds:60}") long lookupCacheSeconds) {
+        if (enabled && nodeId < 0) {
+            throw new IllegalStateException("chat.write-behind.node-id 를 노드마다 다른 값으로 지정해야 합니다.");
+        }
+        this.enabled = enabled;
+        this.chatMessageBatchRepository = chatMessageBatchRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.memberRepository = memberRepository;
+        this.idGenerator = new ChatMessageIdGenerator(enabled ? nodeId : 0);
+        this.journalDirectory = Path.of(journalDirectory);
+        this.journalSegmentBytes = journalSegmentBytes;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+        this.capacity = new Semaphore(bufferSize);
+        this.senders = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(Duration.ofSeconds(lookupCacheSeconds))
+                .build();
+        this.chatRooms = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(Duration.ofSeconds(lookupCacheSeconds))
+                .build();
+        this.flushed = Counter.builder("chat.write-behind.messages").tag("result", "flushed")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("chat.write-behind.messages").tag("result", "dropped")
+                .register(meterRegistry);
+        Gauge.builder("chat.write-behind.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        journal = new ChatMessageJournal(journalDirectory, journalSegmentBytes);
+        replay();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 메시지를 저널에 남기고 바로 돌려준다. DB 에는 flush 주기에 쓴다.
+     */
+    public ChatMessageResponse send(Integer chatRoomId, Long senderId, String messageContent) {
+        return send(chatRoomId, senderId, messageContent, MessageType.TEXT, null);
+    }
+
+    /**
+     * 업로드를 마친 이미지 메시지 등. 모든 메시지가 같은 ID 생성기를 써야 messageId 가 보낸 순서대로 커진다.
+     */
+    public ChatMessageResponse send(Integer chatRoomId, Long senderId, String messageContent,
+                                    MessageType messageType, List<String> imageUrls) {
+        if (chatRooms.get(chatRoomId, id -> chatRoomRepository.existsById(id) ? Boolean.TRUE : null) == null) {
+            throw new IllegalArgumentException("Chat room not found for chatRoomId: " + chatRoomId);
+        }
+        Sender sender = senders.get(senderId, id -> memberRepository.findById(id)
+                .map(member -> new Sender(member.getNickname(), member.getProfileUrl()))
+                .orElse(null));
+        if (sender == null) {
+            throw new IllegalArgumentException("Sender not found for senderId: " + senderId);
+        }
+        if (!capacity.tryAcquire()) {
+            throw new ChatMessageBufferFullException();
+        }
+        ChatMessageResponse message;
+        ChatMessageJournal.Written written;
+        try {
+            // ID, 저널, flush 순서가 같도록 ID 를 정하고 저널에 쓰고 fsync 대기 목록에 넣는 것을 한 번에 한다
+            synchronized (idGenerator) {
+                message = ChatMessageResponse.builder()
+                        .messageId(idGenerator.nextId())
+                        .chatRoomId(chatRoomId)
+                        .memberId(senderId)
+                        .nickname(sender.nickname())
+                        .profileUrl(sender.profileUrl())
+                        .messageContent(messageContent)
+                        .messageType(messageType)
+                        .imageUrls(imageUrls)
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                written = journal.write(ChatMessageEnvelopeCodec.encode(
+                        new Envelope(null, System.currentTimeMillis(), message)));
+                synchronized (unsynced) {
+                    unsynced.add(new Unsynced(new Entry(message, written.segment()), written.position()));
+                }
+            }
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        // fsync 는 잠금 밖에서 기다려 동시에 보낸 메시지가 한 번에 기록되게 한다. 실패를 응답한 메시지가 DB 에 쓰이거나 조회되지
+        // 않도록 fsync 된 뒤에야 버퍼에 넣는다
+        try {
+            journal.sync(written);
+        } catch (RuntimeException e) {
+            if (discardUnsynced(message)) {
+                journal.release(written.segment(), 1);
+                capacity.release();
+                throw e;
+            }
+            // 뒤에 보낸 메시지의 fsync 가 이 메시지까지 기록해 이미 버퍼에 넣었다
+            return message;
+        }
+        publishSynced(written.position());
+        return message;
+    }
+
+    // position 까지 fsync 됐으므로 그 앞의 메시지도 모두 기록됐다. 다른 스레드가 fsync 를 기다리는 메시지도 함께 넣어 ID 순서를 지킨다
+    private void publishSynced(long position) {
+        synchronized (unsynced) {
+            while (!unsynced.isEmpty() && unsynced.peekFirst().position() <= position) {
+                Entry entry = unsynced.pollFirst().entry();
+                pending.put(entry.message().getMessageId(), entry.message());
+                queue.add(entry);
+            }
+        }
+    }
+
+    private boolean discardUnsynced(ChatMessageResponse message) {
+        synchronized (unsynced) {
+            return unsynced.removeIf(waiting -> waiting.entry().message() == message);
+        }
+    }
+
+    /**
+     * 이 노드에서 보냈지만 DB 에 아직 반영되지 않은 채팅방 메시지 (messageId 오름차순). DB 조회보다 먼저 불러야 그 사이에 반영된
+     * 메시지를 놓치지 않는다.
+     */
+    public List<ChatMessageResponse> pendingAfter(Integer chatRoomId, long afterMessageId) {
+        if (!enabled) {
+            return List.of();
+        }
+        return pending.tailMap(afterMessageId, false).values().stream()
+                .filter(message -> chatRoomId.equals(message.getChatRoomId()))
+                .toList();
+    }
+
+    public List<ChatMessageResponse> pendingAfter(Integer chatRoomId, LocalDateTime after) {
+        if (!enabled) {
+            return List.of();
+        }
+        return pending.values().stream()
+                .filter(message -> chatRoomId.equals(message.getChatRoomId()))
+                .filter(message -> message.getCreatedAt().isAfter(after))
+                .toList();
+    }
+
+    void flush() {
+        try {
+            while (flushBatch()) {
+                // 쌓인 만큼 이어서 쓴다
+            }
+        } catch (RuntimeException e) {
+            if (!failing) {
+                log.warn("채팅 메시지 DB 반영 실패, 다음 주기에 다시 시도합니다 (대기 {}건): {}",
+                        pending.size(), e.getMessage());
+                failing = true;
+            }
+        }
+    }
+
+    // 한 묶음을 쓰고, 바로 이어서 쓸 만큼 쌓여 있으면 true
+    private boolean flushBatch() {
+        if (inFlight.isEmpty()) {
+            queue.drainTo(inFlight, batchSize);
+        }
+        if (inFlight.isEmpty()) {
+            return false;
+        }
+        List<ChatMessageResponse> messages = inFlight.stream().map(Entry::message).toList();
+        try {
+            chatMessageBatchRepository.insertAll(messages);
+        } catch (DataIntegrityViolationException e) {
+            insertEach(messages);
+        }
+        if (failing) {
+            log.info("채팅 메시지 DB 반영이 다시 성공했습니다.");
+            failing = false;
+        }
+        Map<Long, Integer> releasedBySegment = new HashMap<>();
+        for (Entry entry : inFlight) {
+            pending.remove(entry.message().getMessageId());
+            releasedBySegment.merge(entry.segment(), 1, Integer::sum);
+        }
+        releasedBySegment.forEach(journal::release);
+        capacity.release(inFlight.size());
+        flushed.increment(inFlight.size());
+        inFlight.clear();
+        return queue.size() >= batchSize;
+    }
+
+    // 묶음을 한 건씩 다시 쓴다. 이미 저장된 같은 메시지는 건너뛰고, 쓸 수 없는 메시지(그 사이 삭제된 채팅방, 다른 메시지와 겹친 ID
+    // 등)만 버린다
+    private void insertEach(List<ChatMessageResponse> messages) {
+        for (ChatMessageResponse message : messages) {
+            try {
+                chatMessageBatchRepository.insertAll(List.of(message));
+            } catch (DuplicateKeyException e) {
+                if (!chatMessageBatchRepository.isStored(message)) {
+                    drop(message, e);
+                }
+            } catch (DataIntegrityViolationException e) {
+                drop(message, e);
+            }
+        }
+    }
+
+    private void drop(ChatMessageResponse message, DataIntegrityViolationException e) {
+        dropped.increment();
+        log.error("채팅 메시지를 저장할 수 없어 버립니다 [room={}, message={}]: {}",
+                message.getChatRoomId(), message.getMessageId(), e.getMessage());
+    }
+
+    // 지난번에 반영하지 못하고 저널에 남은 메시지를 쓴 순서대로 반영한다
+    private void replay() {
+        List<ChatMessageResponse> messages = new ArrayList<>();
+        for (byte[] record : journal.replay()) {
+            Envelope envelope = ChatMessageEnvelopeCodec.decode(record);
+            if (envelope == null) {
+                log.warn("읽을 수 없는 채팅 저널 레코드를 건너뜁니다.");
+                continue;
+            }
+            messages.add(envelope.message());
+        }
+        for (int from = 0; from < messages.size(); from += batchSize) {
+            List<ChatMessageResponse> batch = messages.subList(from, Math.min(from + batchSize, messages.size()));
+            try {
+                chatMessageBatchRepository.insertAll(batch);
+            } catch (DataIntegrityViolationException e) {
+                insertEach(batch);
+            }
+        }
+        journal.deleteReplayed();
+        if (!messages.isEmpty()) {
+            log.info("채팅 저널에서 메시지 {}건을 다시 반영했습니다.", messages.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                // 남은 메시지를 쓴다. 실패하면 저널에 남아 다음 시작 때 반영된다
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    private record Entry(ChatMessageResponse message, long segment) {
+    }
+
+    private record Unsynced(Entry entry, long position) {
+    }
+
+    private record Sender(String nickname, String profileUrl) {
+    }
+}
@@ -0,0 +1,296 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 채팅방별 최근 메시지 링 버퍼 (messageId 순, 채팅방마다 최대 messages-per-room 건).
+ * <p>
+ * 채팅방 입장과 재연결 시 놓친 메시지 조회를 DB 없이 처리한다. 전체 크기는 메시지 크기 추정값으로 max-bytes 를 넘지 않게 하고,
+ * 넘으면 가장 오래 쓰지 않은 채팅방부터 버린다. 새 메시지는 ChatMessageDispatcher 가 전달할 때(다른 노드 메시지 포함) 더한다.
+ * <p>
+ * 여러 노드로 띄우면 다른 노드의 메시지는 Redis fan-out 으로만 들어오므로 기본값은 chat.fanout.redis.enabled 를 따른다. 한 노드로만
+ * 띄울 때는 chat.recent-cache.enabled=true 로 켠다. 놓친 메시지가 오래 남지 않도록 채운 지 ttl-ms 가 지난 버퍼는 DB 에서 다시 읽고,
+ * Redis 발행에 실패하면(invalidateAll) 이 노드도 다른 노드의 메시지를 놓쳤을 수 있으므로 버퍼를 모두 비우고 ttl-ms 동안 DB 에서 읽는다.
+ * <p>
+ * 버퍼는 coveredFrom 이상인 메시지를 빠짐없이 가진다. 처음 읽을 때는 prepare 로 빈 버퍼를 먼저 두고 DB 에서 읽은 뒤 fill 한다.
+ * prepare 는 DB 스냅샷이 정해지기 전에 불러야 한다. 그러면 스냅샷에 없는 메시지는 prepare 이후에 커밋되어 전달되므로 버퍼에 들어간다. 버퍼로 답할 수 없는 범위는 null 을 돌려주고 호출하는 쪽이 DB 에서
+ * 읽는다.
+ */
+@Component
+public class ChatRecentMessageCache {
+
+    private static final String METRIC = "chat.recent-cache.requests";
+    // 객체 헤더, 숫자 필드, LocalDateTime 등 문자열 외 부분의 대략적인 크기
+    private static final long MESSAGE_OVERHEAD_BYTES = 160;
+
+    private final boolean enabled;
+    private final int messagesPerRoom;
+    private final long maxBytes;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    // 접근 순서 (가장 오래 쓰지 않은 채팅방이 앞). 모든 접근은 this 로 잠근다
+    private final LinkedHashMap<Integer, RoomBuffer> rooms = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // 이 시각까지는 버퍼를 쓰지 않는다
+    private long suspendedUntil = Long.MIN_VALUE;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ChatRecentMessageCache(MeterRegistry meterRegistry,
+                                  @Value("${chat.recent-cache.enabled:${chat.fanout.redis.enabled:false}}") boolean enabled,
+                                  @Value("${chat.recent-cache.messages-per-room:200}") int messagesPerRoom,
+                                  @Value("${chat.recent-cache.max-bytes:67108864}") long maxBytes,
+                                  @Value("${chat.recent-cache.ttl-ms:30000}") long ttlMs) {
+        this(meterRegistry, enabled, messagesPerRoom, maxBytes, ttlMs, System::currentTimeMillis);
+    }
+
+    ChatRecentMessageCache(MeterRegistry meterRegistry, boolean enabled, int messagesPerRoom, long maxBytes,
+                           long ttlMs, LongSupplier clock) {
+        this.enabled = enabled;
+        this.messagesPerRoom = messagesPerRoom;
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.hits = Counter.builder(METRIC).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(METRIC).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("chat.recent-cache.bytes", this, ChatRecentMessageCache::getTotalBytes)
+                .register(meterRegistry);
+    }
+
+    public int getMessagesPerRoom() {
+        return messagesPerRoom;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * beforeMessageId 보다 오래된 메시지 중 최근 limit 건 (오래된 순).
+     *
+     * @param beforeMessageId null 이면 가장 최근 메시지부터
+     * @return 버퍼로 답할 수 없으면 null
+     */
+    public synchronized List<ChatMessageResponse> before(Integer chatRoomId, Long beforeMessageId, int limit) {
+        RoomBuffer buffer = readyBuffer(chatRoomId);
+        if (buffer != null) {
+            List<ChatMessageResponse> older = buffer.before(beforeMessageId);
+            if (older.size() >= limit || buffer.coveredFrom == Long.MIN_VALUE) {
+                hits.increment();
+                return new ArrayList<>(older.subList(Math.max(0, older.size() - limit), older.size()));
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * afterMessageId 이후 메시지 최대 limit 건 (오래된 순).
+     *
+     * @return 버퍼로 답할 수 없으면 null
+     */
+    public synchronized List<ChatMessageResponse> after(Integer chatRoomId, long afterMessageId, int limit) {
+        RoomBuffer buffer = readyBuffer(chatRoomId);
+        if (buffer == null || buffer.coveredFrom > afterMessageId + 1) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        List<ChatMessageResponse> newer = new ArrayList<>();
+        for (ChatMessageResponse message : buffer.messages.tailMap(afterMessageId, false).values()) {
+            if (newer.size() >= limit) {
+                break;
+            }
+            newer.add(message);
+        }
+        return newer;
+    }
+
+    /**
+     * 버퍼로 답할 수 없을 때, DB 에서 최근 메시지를 읽기 전에(스냅샷이 정해지기 전에) 부른다. 읽는 동안 전달된 메시지를 모은다.
+     * 이미 채워진 버퍼는 새 버퍼로 바꾼다.
+     *
+     * @return fill 에 넘길 버퍼. 캐시를 쓰지 않으면 null
+     */
+    public synchronized RoomBuffer prepare(Integer chatRoomId) {
+        if (!enabled || suspended()) {
+            return null;
+        }
+        RoomBuffer buffer = rooms.get(chatRoomId);
+        if (buffer == null || buffer.ready) {
+            if (buffer != null) {
+                totalBytes -= buffer.bytes;
+            }
+            buffer = new RoomBuffer(chatRoomId);
+            rooms.put(chatRoomId, buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * @param latest   DB 에서 읽은 최근 메시지 (messagesPerRoom 건 이하)
+     * @param complete 채팅방의 모든 메시지를 읽었으면 true
+     */
+    public synchronized void fill(RoomBuffer buffer, List<ChatMessageResponse> latest, boolean complete) {
+        // 읽는 동안 버려졌으면 그 사이 전달된 메시지를 모르므로 채우지 않는다
+        if (buffer == null || rooms.get(buffer.chatRoomId) != buffer) {
+            return;
+        }
+        long before = buffer.bytes;
+        buffer.fill(latest, complete, messagesPerRoom);
+        buffer.filledAt = clock.getAsLong();
+        totalBytes += buffer.bytes - before;
+        evictOverflow();
+    }
+
+    // 전달된 메시지. 버퍼가 없는 채팅방은 다음에 입장할 때 DB 에서 읽는다
+    public synchronized void append(ChatMessageResponse message) {
+        if (!enabled || message.getMessageId() == null || message.getChatRoomId() == null) {
+            return;
+        }
+        RoomBuffer buffer = rooms.get(message.getChatRoomId());
+        if (buffer == null) {
+            return;
+        }
+        long before = buffer.bytes;
+        buffer.add(message, messagesPerRoom);
+        totalBytes += buffer.bytes - before;
+        evictOverflow();
+    }
+
+    public synchronized void evict(Integer chatRoomId) {
+        RoomBuffer buffer = rooms.remove(chatRoomId);
+        if (buffer != null) {
+            totalBytes -= buffer.bytes;
+        }
+    }
+
+    /**
+     * 모든 버퍼를 비우고 ttl-ms 동안 DB 에서 읽게 한다. 다른 노드의 메시지를 놓쳤을 수 있을 때 부른다.
+     */
+    public synchronized void invalidateAll() {
+        rooms.clear();
+        totalBytes = 0;
+        suspendedUntil = clock.getAsLong() + ttlMs;
+    }
+
+    // 채운 지 ttl-ms 가 지난 버퍼로는 답하지 않는다. 다음 prepare 가 새 버퍼로 바꾼다
+    private RoomBuffer readyBuffer(Integer chatRoomId) {
+        if (!enabled || suspended()) {
+            return null;
+        }
+        RoomBuffer buffer = rooms.get(chatRoomId);
+        if (buffer == null || !buffer.ready || clock.getAsLong() - buffer.filledAt >= ttlMs) {
+            return null;
+        }
+        return buffer;
+    }
+
+    private boolean suspended() {
+        return clock.getAsLong() < suspendedUntil;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Integer, RoomBuffer>> eldest = rooms.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    static long estimateBytes(ChatMessageResponse message) {
+        long bytes = MESSAGE_OVERHEAD_BYTES
+                + stringBytes(message.getNickname())
+                + stringBytes(message.getProfileUrl())
+                + stringBytes(message.getMessageContent());
+        if (message.getImageUrls() != null) {
+            bytes += 32;
+            for (String imageUrl : message.getImageUrls()) {
+                bytes += 8 + stringBytes(imageUrl);
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length() * 2L;
+    }
+
+    /**
+     * 한 채팅방의 버퍼. ChatRecentMessageCache 의 잠금 안에서만 쓴다.
+     */
+    public static final class RoomBuffer {
+
+        private final Integer chatRoomId;
+        private final TreeMap<Long, ChatMessageResponse> messages = new TreeMap<>();
+        // 이 ID 이상인 메시지는 모두 버퍼에 있다 (MIN_VALUE 면 채팅방 전체)
+        private long coveredFrom = Long.MAX_VALUE;
+        private boolean ready;
+        private long bytes;
+        private long filledAt;
+
+        private RoomBuffer(Integer chatRoomId) {
+            this.chatRoomId = chatRoomId;
+        }
+
+        private List<ChatMessageResponse> before(Long beforeMessageId) {
+            return new ArrayList<>(beforeMessageId == null ? messages.values()
+                    : messages.headMap(beforeMessageId, false).values());
+        }
+
+        private void fill(List<ChatMessageResponse> latest, boolean complete, int capacity) {
+            for (ChatMessageResponse message : latest) {
+                if (messages.putIfAbsent(message.getMessageId(), message) == null) {
+                    bytes += estimateBytes(message);
+                }
+            }
+            long filledFrom = Long.MAX_VALUE;
+            if (complete) {
+                filledFrom = Long.MIN_VALUE;
+            } else if (!latest.isEmpty()) {
+                filledFrom = latest.stream().mapToLong(ChatMessageResponse::getMessageId).min().getAsLong();
+            }
+            // 같은 버퍼를 동시에 채우면 두 조회가 덮는 범위를 합친다
+            coveredFrom = ready ? Math.min(coveredFrom, filledFrom) : filledFrom;
+            // 읽은 범위보다 오래된 메시지는 빠진 것이 있을 수 있어 버린다
+            while (!messages.isEmpty() && messages.firstKey() < coveredFrom) {
+                bytes -= estimateBytes(messages.pollFirstEntry().getValue());
+            }
+            trim(capacity);
+            ready = true;
+        }
+
+        private void add(ChatMessageResponse message, int capacity) {
+            if (ready && message.getMessageId() < coveredFrom) {
+                return;
+            }
+            if (messages.putIfAbsent(message.getMessageId(), message) == null) {
+                bytes += estimateBytes(message);
+                trim(capacity);
+            }
+        }
+
+        // 가장 오래된 메시지부터 버리고 그만큼 범위를 줄인다
+        private void trim(int capacity) {
+            while (messages.size() > capacity) {
+                bytes -= estimateBytes(messages.pollFirstEntry().getValue());
+                if (ready || coveredFrom != Long.MAX_VALUE) {
+                    coveredFrom = messages.firstKey();
+                }
+            }
+        }
+    }
+}
@@ -19,13 +19,18 @@ import com.patriot.fourlipsclover.match.repository.MatchRepository;
 import com.patriot.fourlipsclover.member.entity.Member;
 import com.patriot.fourlipsclover.member.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,6 +42,12 @@ public class ChatService {
     private final MemberRepository memberRepository;
     private final MatchRepository matchRepository;
     private final ChatImageService chatImageService;
+    private final ChatMessageDispatcher chatMessageDispatcher;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+    private final ChatRecentMessageCache chatRecentMessageCache;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${chat.catch-up.max-messages:500}")
+    private int catchUpMaxMessages;
 
 
     // 특정 chatRoomId의, after 이후의 메시지를 조회하는 메서드
@@ -48,11 +59,13 @@ public class ChatService {
     // ChatService에서 메시지를 가져올 때 DTO로 변환해서 반환
     @Transactional
     public List<ChatMessageResponse> getMessagesWithDetails(Integer chatRoomId, LocalDateTime after) {
+        // DB 에 아직 반영되지 않은 메시지 (DB 조회보다 먼저)
+        List<ChatMessageResponse> pendingMessages = chatMessageWriteBehind.pendingAfter(chatRoomId, after);
         // 채팅방에 소속된 메시지 목록 조회
         List<ChatMessage> chatMessages = chatMessageRepository.findByChatRoom_ChatRoomIdAndCreatedAtAfter(chatRoomId, after);
 
         // 메시지 목록을 response 객체로 변환하여 반환
-        return chatMessages.stream()
+        return withPending(chatMessages.stream()
                 .map(message -> new ChatMessageResponse(
                         message.getMessageId(),
                         message.getChatRoom().getChatRoomId(),
@@ -63,7 +76,27 @@ public class ChatService {
                         message.getMessageType(),
                         message.getImageUrls(),
                         message.getCreatedAt()))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), pendingMessages);
+    }
+
+    // lastMessageId 이후 메시지를 오래된 순으로 조회 (재연결 시 놓친 메시지, 최대 catchUpMaxMessages 건)
+    @Transactional(readOnly = true)
+    public List<ChatMessageResponse> getMessagesAfterId(Integer chatRoomId, Long lastMessageId) {
+        if (lastMessageId == null) {
+            return List.of();
+        }
+        List<ChatMessageResponse> pendingMessages = chatMessageWriteBehind.pendingAfter(chatRoomId, lastMessageId);
+        // 최근 메시지 버퍼에 없는 범위만 DB 에서 읽는다
+        List<ChatMessageResponse> stored = chatRecentMessageCache.after(chatRoomId, lastMessageId, catchUpMaxMessages);
+        if (stored == null) {
+            stored = chatMessageRepository.findByChatRoom_ChatRoomIdAndMessageIdGreaterThanOrderByMessageIdAsc(
+                            chatRoomId, lastMessageId, PageRequest.of(0, catchUpMaxMessages))
+                    .stream()
+                    .map(this::toResponse)
+                    .collect(Collectors.toList());
+        }
+        List<ChatMessageResponse> messages = withPending(stored, pendingMessages);
+        return messages.size() > catchUpMaxMessages ? messages.subList(0, catchUpMaxMessages) : messages;
     }
 
     @Transactional
@@ -140,15 +173,29 @@ public class ChatService {
                 .collect(Collectors.toList());
     }
 
-    // 소속 채팅방 1개 입장, 메세지 얼마나 가져올지 offset, limit 결정함
+    // 소속 채팅방 1개 입장. 최근 limit 건, beforeMessageId 가 있으면 그보다 이전 limit 건을 오래된 순으로 가져온다
+    // offset 을 보내면(0 포함) 예전 방식(오래된 메시지부터 offset 번째 페이지)으로 조회한다
     @Transactional
-    public ChatRoomResponse getChatRoomWithMessages(Integer chatRoomId, long currentMemberId, int offset, int limit) {
+    public ChatRoomResponse getChatRoomWithMessages(Integer chatRoomId, long currentMemberId, Integer offset,
+                                                    int limit, Long beforeMessageId) {
+        // 메시지를 채팅방보다 먼저 읽는다. 트랜잭션의 첫 조회가 스냅샷을 정하므로 최근 메시지 버퍼는 그 전에 등록해야 한다
+        List<ChatMessageResponse> messageResponses;
+        if (offset != null && beforeMessageId == null) {
+            messageResponses = chatMessageRepository.findByChatRoom_ChatRoomIdOrderByCreatedAtAsc(chatRoomId,
+                            PageRequest.of(offset, limit))
+                    .stream()
+                    .map(this::toResponse)
+                    .collect(Collectors.toList());
+        } else {
+            messageResponses = getMessagesBefore(chatRoomId, beforeMessageId, limit);
+        }
+
         // 채팅방 조회
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
-                .orElseThrow(() -> new IllegalArgumentException("Chat room not found for chatRoomId: " + chatRoomId));
-
-        // 채팅방에 소속된 메시지 목록을 슬라이딩 윈도우 방식으로 조회
-        List<ChatMessage> chatMessages = chatMessageRepository.findByChatRoom_ChatRoomIdOrderByCreatedAtAsc(chatRoomId, PageRequest.of(offset, limit));
+                .orElseThrow(() -> {
+                    chatRecentMessageCache.evict(chatRoomId);
+                    return new IllegalArgumentException("Chat room not found for chatRoomId: " + chatRoomId);
+                });
 
         // 채팅방에 소속된 멤버 목록 조회
         List<ChatMember> chatMembers = chatMemberRepository.findByChatRoom_ChatRoomId(chatRoomId);
@@ -162,20 +209,6 @@ public class ChatService {
                         member.getJoinedAt()))
                 .collect(Collectors.toList());
 
-        // 채팅 메시지 응답 준비
-        List<ChatMessageResponse> messageResponses = chatMessages.stream()
-                .map(message -> new ChatMessageResponse(
-                        message.getMessageId(),
-                        message.getChatRoom().getChatRoomId(),
-                        message.getSender().getMemberId(),
-                        message.getSender().getNickname(),
-                        message.getSender().getProfileUrl(),
-                        message.getMessageContent(),
-                        message.getMessageType(),
-                        message.getImageUrls(),
-                        message.getCreatedAt()))
-                .collect(Collectors.toList());
-
         // 롱풀 방식으로 클라이언트에게 반환할 채팅방 정보와 메시지 목록 포함
         return new ChatRoomResponse(
                 chatRoom.getChatRoomId(),
@@ -185,8 +218,17 @@ public class ChatService {
         );
     }
 
-    @Transactional
+    // write-behind 모드에서는 트랜잭션을 열지 않는다 (DB 연결을 쓰지 않는다). 아니면 조회와 저장을 한 트랜잭션으로 한다
     public ChatMessageResponse sendMessage(Integer chatRoomId, Long senderId, String messageContent) {
+        if (chatMessageWriteBehind.isEnabled()) {
+            ChatMessageResponse response = chatMessageWriteBehind.send(chatRoomId, senderId, messageContent);
+            chatMessageDispatcher.dispatchAfterCommit(response);
+            return response;
+        }
+        return transactionTemplate.execute(status -> saveMessage(chatRoomId, senderId, messageContent));
+    }
+
+    private ChatMessageResponse saveMessage(Integer chatRoomId, Long senderId, String messageContent) {
         // 특정 채팅방에서 채팅 입력
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new IllegalArgumentException("Chat room not found for chatRoomId: " + chatRoomId));
@@ -206,7 +248,7 @@ public class ChatService {
         ChatMessage savedMessage = chatMessageRepository.save(message);
 
         // 저장된 메시지를 ChatMessageResponse로 변환하여 반환
-        return ChatMessageResponse.builder()
+        ChatMessageResponse response = ChatMessageResponse.builder()
                 .messageId(savedMessage.getMessageId())
                 .chatRoomId(chatRoom.getChatRoomId())
                 .memberId(sender.getMemberId())
@@ -216,6 +258,9 @@ public class ChatService {
                 .messageType(savedMessage.getMessageType())
                 .createdAt(savedMessage.getCreatedAt())
                 .build();
+        // 커밋 후 채팅방 구독자에게 전송
+        chatMessageDispatcher.dispatchAfterCommit(response);
+        return response;
     }
 
     @Transactional
@@ -240,6 +285,14 @@ public class ChatService {
                 })
                 .collect(Collectors.toList());
 
+        if (chatMessageWriteBehind.isEnabled()) {
+            // 텍스트 메시지와 같은 ID 생성기로 ID 를 정해야 messageId 가 보낸 순서대로 커진다
+            ChatMessageResponse response = chatMessageWriteBehind.send(chatRoomId, senderId, messageContent,
+                    MessageType.IMAGE, imageUrls);
+            chatMessageDispatcher.dispatchAfterCommit(response);
+            return response;
+        }
+
         // 채팅 메시지 생성
         ChatMessage message = new ChatMessage();
         message.setChatRoom(chatRoom);
@@ -253,7 +306,7 @@ public class ChatService {
         ChatMessage savedMessage = chatMessageRepository.save(message);
 
         // 생성된 메시지를 반환하면서, 이미지 URL도 포함
-        return new ChatMessageResponse(
+        ChatMessageResponse response = new ChatMessageResponse(
                 savedMessage.getMessageId(),
                 savedMessage.getChatRoom().getChatRoomId(),
                 savedMessage.getSender().getMemberId(),
@@ -264,6 +317,9 @@ public class ChatService {
                 savedMessage.getImageUrls(),  // 이미지 URL 포함
                 savedMessage.getCreatedAt()
         );
+        // 커밋 후 채팅방 구독자에게 전송
+        chatMessageDispatcher.dispatchAfterCommit(response);
+        return response;
     }
 
     @Transactional
@@ -288,7 +344,67 @@ public class ChatService {
             chatMessageRepository.deleteAllByChatRoom_ChatRoomId(chatRoomId);
 
             chatRoomRepository.delete(chatRoom);
+            chatRecentMessageCache.evict(chatRoomId);
+        }
+    }
+
+    // 최근 메시지 버퍼로 답하고, 없으면 message_id keyset 으로 DB 에서 읽는다 (오래된 순)
+    // 버퍼를 채울 때는 DB 조회 중에 커밋된 메시지를 버퍼가 받아야 하므로, 트랜잭션 안에서 다른 어떤 조회보다 먼저 불러야 한다
+    private List<ChatMessageResponse> getMessagesBefore(Integer chatRoomId, Long beforeMessageId, int limit) {
+        List<ChatMessageResponse> pendingMessages = chatMessageWriteBehind.pendingAfter(chatRoomId, Long.MIN_VALUE)
+                .stream()
+                .filter(message -> beforeMessageId == null || message.getMessageId() < beforeMessageId)
+                .toList();
+        List<ChatMessageResponse> cached = chatRecentMessageCache.before(chatRoomId, beforeMessageId, limit);
+        if (cached != null) {
+            return lastOf(withPending(cached, pendingMessages), limit);
+        }
+        // 최근 메시지를 읽을 때는 버퍼를 채울 만큼 읽는다
+        ChatRecentMessageCache.RoomBuffer buffer = beforeMessageId == null
+                ? chatRecentMessageCache.prepare(chatRoomId) : null;
+        int readSize = buffer != null ? Math.max(limit, chatRecentMessageCache.getMessagesPerRoom()) : limit;
+        List<ChatMessage> chatMessages = beforeMessageId == null
+                ? chatMessageRepository.findByChatRoom_ChatRoomIdOrderByMessageIdDesc(chatRoomId,
+                PageRequest.of(0, readSize))
+                : chatMessageRepository.findByChatRoom_ChatRoomIdAndMessageIdLessThanOrderByMessageIdDesc(chatRoomId,
+                beforeMessageId, PageRequest.of(0, readSize));
+        List<ChatMessageResponse> stored = new ArrayList<>(chatMessages.size());
+        for (int i = chatMessages.size() - 1; i >= 0; i--) {
+            stored.add(toResponse(chatMessages.get(i)));
+        }
+        if (buffer != null) {
+            chatRecentMessageCache.fill(buffer, stored, chatMessages.size() < readSize);
+        }
+        return lastOf(withPending(stored, pendingMessages), limit);
+    }
+
+    private static List<ChatMessageResponse> lastOf(List<ChatMessageResponse> messages, int limit) {
+        return messages.size() > limit ? new ArrayList<>(messages.subList(messages.size() - limit, messages.size()))
+                : messages;
+    }
+
+    // write-behind 로 DB 에 아직 반영되지 않은 메시지를 더한다 (messageId 로 중복 제거, messageId 순)
+    private static List<ChatMessageResponse> withPending(List<ChatMessageResponse> stored,
+                                                         List<ChatMessageResponse> pendingMessages) {
+        if (pendingMessages.isEmpty()) {
+            return stored;
         }
+        Map<Long, ChatMessageResponse> merged = new TreeMap<>();
+        stored.forEach(message -> merged.put(message.getMessageId(), message));
+        pendingMessages.forEach(message -> merged.putIfAbsent(message.getMessageId(), message));
+        return new ArrayList<>(merged.values());
     }
 
+    private ChatMessageResponse toResponse(ChatMessage message) {
+        return new ChatMessageResponse(
+                message.getMessageId(),
+                message.getChatRoom().getChatRoomId(),
+                message.getSender().getMemberId(),
+                message.getSender().getNickname(),
+                message.getSender().getProfileUrl(),
+                message.getMessageContent(),
+                message.getMessageType(),
+                message.getImageUrls(),
+                message.getCreatedAt());
+    }
 }
@@ -0,0 +1,25 @@
+package com.patriot.fourlipsclover.chat.websocket;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.service.ChatService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class ChatStompController {
+
+    private final ChatService chatService;
+
+    // 재연결 시 놓친 메시지. 채팅방 토픽을 먼저 구독한 뒤 이 목적지를 구독하면 응답이 한 번 온다 (겹치는 메시지는 messageId 로 거른다)
+    @SubscribeMapping("/chat/rooms/{chatRoomId}/messages")
+    public List<ChatMessageResponse> catchUp(@DestinationVariable Integer chatRoomId,
+                                             @Header(name = "last-message-id", required = false) Long lastMessageId) {
+        return chatService.getMessagesAfterId(chatRoomId, lastMessageId);
+    }
+}
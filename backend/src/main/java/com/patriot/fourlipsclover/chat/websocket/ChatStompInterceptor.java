@@ -0,0 +1,82 @@
+package com.patriot.fourlipsclover.chat.websocket;
+
+import com.patriot.fourlipsclover.auth.jwt.JwtTokenProvider;
+import com.patriot.fourlipsclover.chat.repository.ChatMemberRepository;
+import com.patriot.fourlipsclover.config.CustomUserDetails;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * STOMP 인증과 채팅방 구독 권한 확인.
+ * <p>
+ * CONNECT 의 Authorization 헤더로 사용자를 정하고, 채팅방 목적지 구독은 그 채팅방 멤버에게만 허용한다. 거부하면 클라이언트는 ERROR
+ * 프레임을 받는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatStompInterceptor implements ChannelInterceptor {
+
+    // /topic/chat/rooms/{chatRoomId} 와 /app/chat/rooms/{chatRoomId}/messages
+    private static final Pattern ROOM_DESTINATION = Pattern.compile("^/(?:topic|app)/chat/rooms/(\\d{1,9})(?:/.*)?$");
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ChatMemberRepository chatMemberRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            checkSubscription(accessor);
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new MessageDeliveryException("인증 토큰이 없습니다.");
+        }
+        String token = authorization.substring(BEARER_PREFIX.length());
+        if (!jwtTokenProvider.validateToken(token)) {
+            throw new MessageDeliveryException("유효하지 않은 토큰입니다.");
+        }
+        return jwtTokenProvider.getAuthentication(token);
+    }
+
+    private void checkSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            throw new MessageDeliveryException("구독 목적지가 없습니다.");
+        }
+        Matcher matcher = ROOM_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            return;
+        }
+        if (!(accessor.getUser() instanceof Authentication authentication)
+                || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails)
+                || userDetails.getMember() == null) {
+            throw new MessageDeliveryException("인증되지 않은 연결입니다.");
+        }
+        Integer chatRoomId = Integer.valueOf(matcher.group(1));
+        Long memberId = userDetails.getMember().getMemberId();
+        if (!chatMemberRepository.existsByChatRoom_ChatRoomIdAndMember_MemberId(chatRoomId, memberId)) {
+            throw new MessageDeliveryException("채팅방 멤버가 아닙니다.: " + chatRoomId);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.patriot.fourlipsclover.config;
+
+import com.patriot.fourlipsclover.chat.service.ChatMessageDispatcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@Configuration
+public class RedisConfig {
+
+	// 값을 직접 직렬화해 byte[] 로 저장하는 캐시용 (키는 문자열)
+	@Bean
+	public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory connectionFactory) {
+		RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+		template.setConnectionFactory(connectionFactory);
+		template.setKeySerializer(RedisSerializer.string());
+		template.setValueSerializer(RedisSerializer.byteArray());
+		return template;
+	}
+
+	// 다른 노드가 발행한 채팅 메시지를 모든 채팅방 샤드 채널에서 받는다
+	@Bean
+	@ConditionalOnProperty(name = "chat.fanout.redis.enabled", havingValue = "true")
+	public RedisMessageListenerContainer chatFanoutListenerContainer(RedisConnectionFactory connectionFactory,
+			ChatMessageDispatcher chatMessageDispatcher) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.addMessageListener(chatMessageDispatcher,
+				new PatternTopic(ChatMessageDispatcher.CHANNEL_PREFIX + "*"));
+		return container;
+	}
+}
@@ -5,20 +5,47 @@ import com.patriot.fourlipsclover.member.service.MemberService;
 import com.patriot.fourlipsclover.tag.service.TagService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
 @Slf4j
 @Configuration
 @EnableScheduling
 @RequiredArgsConstructor
-public class SchedulingConfig {
+public class SchedulingConfig implements SchedulingConfigurer {
 
 	private final LocalCertificationService localCertificationService;
 	private final TagService tagService;
 	private final MemberService memberService;
 
+	@Value("${spring.task.scheduling.pool.size:8}")
+	private int poolSize;
+
+	/**
+	 * 기본 스케줄러는 스레드가 하나라 전체 색인이나 매시간 재구성처럼 오래 걸리는 작업이 1초 주기 폴링, projector flush, 캐시 무효화를 막는다.
+	 * 작업끼리 서로 기다리지 않도록 스레드 여러 개를 쓰는 스케줄러로 바꾼다.
+	 */
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar registrar) {
+		registrar.setTaskScheduler(schedulingTaskScheduler());
+	}
+
+	@Bean
+	public ThreadPoolTaskScheduler schedulingTaskScheduler() {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(poolSize);
+		scheduler.setThreadNamePrefix("scheduling-");
+		scheduler.setWaitForTasksToCompleteOnShutdown(true);
+		scheduler.setAwaitTerminationSeconds(30);
+		return scheduler;
+	}
+
 	/**
 	 * 3개월마다 현지인 등급을 업데이트합니다. cron 표현식: 초 분 시 일 월 요일 "0 0 0 1 1,4,7,10 *": 1월, 4월, 7월, 10월 1일 자정에
 	 * 실행
@@ -32,10 +59,9 @@ public class SchedulingConfig {
 		log.info("현지인 등급 업데이트 작업 완료");
 	}
 
+	// 식당 검색 문서 색인은 RestaurantIndexer 가 매일 전체, 주기적으로 증분 색인한다
 	@Scheduled(cron = "0 0 0 1 1,4,7,10 *")
-	public void uploadRestaurantDocument() {
-		tagService.uploadRestaurantDocument();
+	public void updateTrustScore() {
 		memberService.updateTrustScore();
-		
 	}
 }
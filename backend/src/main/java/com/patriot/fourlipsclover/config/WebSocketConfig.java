@@ -0,0 +1,49 @@
+package com.patriot.fourlipsclover.config;
+
+import com.patriot.fourlipsclover.chat.websocket.ChatStompInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * 채팅 STOMP 설정.
+ * <p>
+ * ws://.../ws/chat 로 연결(CONNECT 헤더 Authorization: Bearer 토큰)한 뒤 /topic/chat/rooms/{chatRoomId} 를 구독하면 커밋된
+ * 메시지를 받는다. 재연결 시 /app/chat/rooms/{chatRoomId}/messages 를 last-message-id 헤더와 함께 구독하면 놓친 메시지를 한
+ * 번 받는다.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+	private final ChatStompInterceptor chatStompInterceptor;
+
+	@Override
+	public void registerStompEndpoints(StompEndpointRegistry registry) {
+		registry.addEndpoint("/ws/chat").setAllowedOriginPatterns("*");
+	}
+
+	@Override
+	public void configureMessageBroker(MessageBrokerRegistry registry) {
+		ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+		heartbeatScheduler.setPoolSize(1);
+		heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+		heartbeatScheduler.initialize();
+		// 끊긴 연결을 빨리 정리하도록 10초 간격으로 heartbeat 를 주고받는다
+		registry.enableSimpleBroker("/topic")
+				.setHeartbeatValue(new long[]{10000, 10000})
+				.setTaskScheduler(heartbeatScheduler);
+		registry.setApplicationDestinationPrefixes("/app");
+	}
+
+	@Override
+	public void configureClientInboundChannel(ChannelRegistration registration) {
+		registration.interceptors(chatStompInterceptor);
+	}
+}
@@ -0,0 +1,11 @@
+package com.patriot.fourlipsclover.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ChatMessageBufferFullException extends ApplicationException {
+
+    public ChatMessageBufferFullException() {
+        super("채팅 메시지가 밀려 있습니다. 잠시 후 다시 보내주세요.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+}
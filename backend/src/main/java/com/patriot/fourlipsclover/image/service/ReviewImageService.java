@@ -20,7 +20,10 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
@@ -88,34 +91,51 @@ public class ReviewImageService {
 		List<String> imageUrls = new ArrayList<>();
 		List<ReviewImage> reviewImages = reviewImageRepository.findByReviewReviewId(reviewId);
 		for (ReviewImage image : reviewImages) {
-			// MinioClient의 getUrl() 메서드 사용
-			String url = null;
-			try {
-				url = minioClient.getPresignedObjectUrl(
-						GetPresignedObjectUrlArgs.builder()
-								.bucket(bucketName)
-								.object(image.getImageUrl())
-								.method(Method.GET)
-								.expiry(7, TimeUnit.DAYS) // URL 유효기간 설정 (필요에 따라 조정)
-								.build()
-				);
-			} catch (ErrorResponseException | InsufficientDataException | InternalException |
-					 InvalidKeyException | InvalidResponseException | IOException |
-					 NoSuchAlgorithmException | XmlParserException | ServerException e) {
-				throw new RuntimeException(e);
-			}
-
-			// 서명된 URL에서 쿼리 파라미터 제거 (필요한 경우)
-			int queryIndex = url.indexOf('?');
-			if (queryIndex > 0) {
-				url = url.substring(0, queryIndex);
-			}
+			imageUrls.add(toImageUrl(image.getImageUrl()));
+		}
+		return imageUrls;
+	}
 
-			imageUrls.add(url);
+	// 여러 리뷰의 이미지를 IN 쿼리 한 번으로 조회하여 리뷰 ID별로 묶어 반환
+	public Map<Integer, List<String>> getImageUrlsByReviewIds(Collection<Integer> reviewIds) {
+		Map<Integer, List<String>> imageUrls = new HashMap<>();
+		if (reviewIds == null || reviewIds.isEmpty()) {
+			return imageUrls;
+		}
+		List<ReviewImage> reviewImages = reviewImageRepository.findByReviewReviewIdIn(reviewIds);
+		for (ReviewImage image : reviewImages) {
+			imageUrls.computeIfAbsent(image.getReview().getReviewId(), k -> new ArrayList<>())
+					.add(toImageUrl(image.getImageUrl()));
 		}
 		return imageUrls;
 	}
 
+	private String toImageUrl(String objectName) {
+		// MinioClient의 getUrl() 메서드 사용
+		String url = null;
+		try {
+			url = minioClient.getPresignedObjectUrl(
+					GetPresignedObjectUrlArgs.builder()
+							.bucket(bucketName)
+							.object(objectName)
+							.method(Method.GET)
+							.expiry(7, TimeUnit.DAYS) // URL 유효기간 설정 (필요에 따라 조정)
+							.build()
+			);
+		} catch (ErrorResponseException | InsufficientDataException | InternalException |
+				 InvalidKeyException | InvalidResponseException | IOException |
+				 NoSuchAlgorithmException | XmlParserException | ServerException e) {
+			throw new RuntimeException(e);
+		}
+
+		// 서명된 URL에서 쿼리 파라미터 제거 (필요한 경우)
+		int queryIndex = url.indexOf('?');
+		if (queryIndex > 0) {
+			url = url.substring(0, queryIndex);
+		}
+		return url;
+	}
+
 	@Transactional
 	public void deleteImages(List<String> deleteImageUrls) {
 		if (deleteImageUrls == null || deleteImageUrls.isEmpty()) {
@@ -3,9 +3,12 @@ package com.patriot.fourlipsclover.locals.repository;
 import com.patriot.fourlipsclover.locals.dto.response.LocalCertificationResponse;
 import com.patriot.fourlipsclover.locals.entity.LocalCertification;
 import com.patriot.fourlipsclover.member.entity.Member;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -16,4 +19,9 @@ public interface LocalCertificationRepository extends JpaRepository<LocalCertifi
 	Optional<LocalCertification> findByMember_MemberId(Long memberId);
 
 	Optional<LocalCertification> findByMember(Member reviewer);
+
+	@Query("select lc from LocalCertification lc join fetch lc.member " +
+			"left join fetch lc.localRegion lr left join fetch lr.region " +
+			"where lc.member.memberId in :memberIds")
+	List<LocalCertification> findByMemberIds(@Param("memberIds") Collection<Long> memberIds);
 }
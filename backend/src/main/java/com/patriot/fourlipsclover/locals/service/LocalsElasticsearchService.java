@@ -3,15 +3,12 @@ package com.patriot.fourlipsclover.locals.service;
 import static co.elastic.clients.elasticsearch._types.query_dsl.ChildScoreMode.Sum;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode;
-import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreMode;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import co.elastic.clients.elasticsearch.core.search.Hit;
-import co.elastic.clients.json.JsonData;
 import com.patriot.fourlipsclover.locals.document.LocalsDocument;
 import com.patriot.fourlipsclover.locals.entity.LocalCertification;
 import com.patriot.fourlipsclover.locals.repository.LocalCertificationRepository;
-import com.patriot.fourlipsclover.locals.repository.LocalsElasticsearchRepository;
 import com.patriot.fourlipsclover.member.entity.Member;
 import com.patriot.fourlipsclover.member.entity.MemberReviewTag;
 import com.patriot.fourlipsclover.plan.entity.PlanMember;
@@ -20,10 +17,16 @@ import com.patriot.fourlipsclover.restaurant.document.RestaurantDocument;
 import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
 import com.patriot.fourlipsclover.restaurant.mapper.RestaurantSearchMapper;
 import com.patriot.fourlipsclover.restaurant.repository.RegionRepository;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter.BulkResult;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchIndexManager;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantIndexer;
+import com.patriot.fourlipsclover.restaurant.service.TagScoringScripts;
 import com.patriot.fourlipsclover.tag.repository.MemberReviewTagRepository;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -32,14 +35,19 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class LocalsElasticsearchService {
 
+	// 검색은 alias 로, 전체 색인은 새 버전 인덱스로 한다
+	public static final String INDEX = "locals";
+	private static final int BULK_SIZE = 500;
 
 	private final LocalCertificationRepository localCertificationRepository;
 	private final MemberReviewTagRepository memberReviewTagRepository;
-	private final LocalsElasticsearchRepository localsElasticsearchRepository;
 	private final ElasticsearchClient elasticsearchClient;
 	private final RegionRepository regionRepository;
 	private final RestaurantSearchMapper restaurantSearchMapper;
 	private final PlanMemberRepository planMemberRepository;
+	private final ElasticsearchBulkWriter bulkWriter;
+	private final ElasticsearchIndexManager indexManager;
+	private final TagScoringScripts tagScoringScripts;
 
 	public List<LocalsDocument> recommendSimilarUsers(Long currentUserId, Integer regionId) {
 		List<String> tags = memberReviewTagRepository.findByMemberId(
@@ -47,56 +55,23 @@ public class LocalsElasticsearchService {
 		String regionName = regionRepository.findById(regionId).orElseThrow().getName();
 		SearchResponse<LocalsDocument> response = null;
 		try {
+			tagScoringScripts.ensureRegistered();
 			response = elasticsearchClient.search(s -> s
-							.index("locals")
-							.query(q -> q.functionScore(fs -> {
-								// 기본 쿼리: 현재 유저 제외 및 태그 매칭 (should 조건)
-								fs.query(qb -> qb.bool(b -> {
-									// 현재 유저 제외
-									b.mustNot(mn -> mn.term(t -> t.field("memberId").value(currentUserId)));
-									// 태그 리스트를 순회하며 각 태그에 대해 nested 쿼리 추가
-									b.must(m -> m.term(
-											t -> t.field("regionName").value(regionName)));
-									for (String tag : tags) {
-										b.should(sh -> sh.nested(n -> n
-												.path("tags")
-												.query(nq -> nq.match(m -> m
-														.field("tags.tagName")
-														.query(tag)))
-												.scoreMode(
-														Sum)
-										));
-									}
-									if (!tags.isEmpty()) {
-										b.minimumShouldMatch("1");
-									}
-									return b;
-								}));
-
-								// 동적으로 태그별 function_score 구성
+							.index(INDEX)
+							.query(q -> q.bool(b -> {
+								// 현재 유저 제외
+								b.mustNot(mn -> mn.term(t -> t.field("memberId").value(currentUserId)));
+								b.must(m -> m.term(
+										t -> t.field("regionName").value(regionName)));
+								// 태그마다 일치한 태그의 (일치 점수 + 빈도 * 평균 신뢰도) 합
 								for (String tag : tags) {
-									fs.functions(f -> f
-											.filter(fq -> fq.nested(n -> n
-													.path("tags")
-													.query(nq -> nq.match(m -> m
-															.field("tags.tagName")
-															.query(tag)))
-											))
-											.scriptScore(ss -> ss.script(sc -> sc
-													.source("double score = 0; " +
-															"for (t in params._source.tags) { " +
-															"  if(t.tagName == params.tag_name) { " +
-															"    score += t.frequency * t.avgConfidence; " +
-															"  } " +
-															"} " +
-															"return score;")
-													.params("tag_name", JsonData.of(tag))
-											))
-									);
+									b.should(tagScoringScripts.nestedTagScore(tag,
+											TagScoringScripts.TAG_FREQUENCY_CONFIDENCE, Sum));
 								}
-
-								return fs.boostMode(FunctionBoostMode.Sum)
-										.scoreMode(FunctionScoreMode.Sum);
+								if (!tags.isEmpty()) {
+									b.minimumShouldMatch("1");
+								}
+								return b;
 							})),
 					LocalsDocument.class
 			);
@@ -133,49 +108,17 @@ public class LocalsElasticsearchService {
 				return List.of();
 			}
 
+			tagScoringScripts.ensureRegistered();
 			SearchResponse<RestaurantDocument> response = elasticsearchClient.search(s -> s
-							.index("restaurants")
-							.query(q -> q.functionScore(fs -> {
-								// 기본 쿼리: 태그 매칭 (should 조건)
-								fs.query(qb -> qb.bool(b -> {
-									// 태그 리스트를 순회하며 각 태그에 대해 nested 쿼리 추가
-									for (String tag : groupTags) {
-										b.should(sh -> sh.nested(n -> n
-												.path("tags")
-												.query(nq -> nq.match(m -> m
-														.field("tags.tagName")
-														.query(tag)))
-												.scoreMode(Sum)
-										));
-									}
-									b.minimumShouldMatch("1");
-									return b;
-								}));
-
-								// 동적으로 태그별 function_score 구성
+							.index(RestaurantIndexer.INDEX)
+							.query(q -> q.bool(b -> {
+								// 그룹 태그마다 일치한 태그의 (일치 점수 + 빈도 * 평균 신뢰도) 합
 								for (String tag : groupTags) {
-									fs.functions(f -> f
-											.filter(fq -> fq.nested(n -> n
-													.path("tags")
-													.query(nq -> nq.match(m -> m
-															.field("tags.tagName")
-															.query(tag)))
-											))
-											.scriptScore(ss -> ss.script(sc -> sc
-													.source("double score = 0; " +
-															"for (t in params._source.tags) { " +
-															"  if(t.tagName == params.tag_name) { " +
-															"    score += t.frequency * t.avgConfidence; " +
-															"  } " +
-															"} " +
-															"return score;")
-													.params("tag_name", JsonData.of(tag))
-											))
-									);
+									b.should(tagScoringScripts.nestedTagScore(tag,
+											TagScoringScripts.TAG_FREQUENCY_CONFIDENCE, Sum));
 								}
-
-								return fs.boostMode(FunctionBoostMode.Sum)
-										.scoreMode(FunctionScoreMode.Sum);
+								b.minimumShouldMatch("1");
+								return b;
 							}))
 							.size(10),
 					RestaurantDocument.class
@@ -191,12 +134,13 @@ public class LocalsElasticsearchService {
 	}
 
 	/**
-	 * 인증된 현지인 데이터를 Elasticsearch에 인덱싱합니다.
+	 * 인증된 현지인 데이터를 새 버전 인덱스에 색인한 뒤 locals alias 를 옮깁니다.
 	 */
 	public void indexAllLocals() {
 		// 인증된 현지인 정보만 조회
 		List<LocalCertification> localCertifications = localCertificationRepository.findByCertificatedTrue();
 
+		List<LocalsDocument> documents = new ArrayList<>();
 		for (LocalCertification cert : localCertifications) {
 			// 회원 태그 정보 조회
 			List<MemberReviewTag> memberReviewTags = memberReviewTagRepository.findByMember(
@@ -226,9 +170,28 @@ public class LocalsElasticsearchService {
 					.tags(tagDataList)
 					.profileUrl(cert.getMember().getProfileUrl())
 					.build();
+			documents.add(localsDocument);
+		}
 
-			// Elasticsearch에 저장
-			localsElasticsearchRepository.save(localsDocument);
+		try {
+			indexManager.rebuild(INDEX, LocalsDocument.class, index -> {
+				List<CompletableFuture<BulkResult>> requests = new ArrayList<>();
+				for (int from = 0; from < documents.size(); from += BULK_SIZE) {
+					List<BulkOperation> operations = documents
+							.subList(from, Math.min(from + BULK_SIZE, documents.size())).stream()
+							.map(document -> BulkOperation.of(op -> op.index(i -> i
+									.index(index)
+									.id(document.getId())
+									.document(document))))
+							.toList();
+					requests.add(bulkWriter.submit(operations));
+				}
+				return requests.stream()
+						.map(CompletableFuture::join)
+						.reduce(BulkResult.EMPTY, BulkResult::plus);
+			});
+		} catch (IOException e) {
+			throw new RuntimeException("현지인 인덱스 재구성 중 오류가 발생했습니다.", e);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -2,12 +2,26 @@ package com.patriot.fourlipsclover.payment.repository;
 
 import com.patriot.fourlipsclover.payment.entity.VisitPayment;
 import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface VisitPaymentRepository extends JpaRepository<VisitPayment, Integer> {
     List<VisitPayment> findByRestaurantId_RestaurantId(Integer restaurantId);
+
+    // [restaurantId, amount, visitedPersonnel]
+    @Query("select vp.restaurantId.restaurantId, vp.amount, vp.visitedPersonnel from VisitPayment vp " +
+            "where vp.restaurantId.restaurantId in :restaurantIds")
+    List<Object[]> findAmountsByRestaurantIds(@Param("restaurantIds") Collection<Integer> restaurantIds);
+
+    // 결제가 있는 식당 ID 를 키셋 방식으로 읽는다
+    @Query("select distinct vp.restaurantId.restaurantId from VisitPayment vp " +
+            "where vp.restaurantId.restaurantId > :afterId order by vp.restaurantId.restaurantId")
+    List<Integer> findRestaurantIdsAfter(@Param("afterId") Integer afterId, Pageable pageable);
 }
\ No newline at end of file
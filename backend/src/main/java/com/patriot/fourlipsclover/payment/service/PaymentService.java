@@ -13,6 +13,8 @@ import com.patriot.fourlipsclover.plan.entity.Plan;
 import com.patriot.fourlipsclover.plan.entity.PlanSchedule;
 import com.patriot.fourlipsclover.plan.repository.PlanScheduleRepository;
 import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import com.patriot.fourlipsclover.restaurant.service.PriceHistogramService;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantChangeTracker;
 import com.patriot.fourlipsclover.restaurant.service.RestaurantService;
 import com.patriot.fourlipsclover.settlement.entity.Expense;
 import com.patriot.fourlipsclover.settlement.entity.ExpenseParticipant;
@@ -41,6 +43,8 @@ public class PaymentService {
 
     private final PaymentItemRepository paymentItemRepository;
     private final RestaurantService restaurantService;
+    private final RestaurantChangeTracker restaurantChangeTracker;
+    private final PriceHistogramService priceHistogramService;
     private final VisitPaymentRepository visitPaymentRepository;
     private final SettlementRepository settlementRepository;
     private final ExpenseRepository expenseRepository;
@@ -236,6 +240,8 @@ public class PaymentService {
                     .build();
 
             visitPaymentRepository.save(visitPayment);
+            priceHistogramService.record(visitPayment);
+            restaurantChangeTracker.markChanged(restaurant.getRestaurantId());
         }
     }
 
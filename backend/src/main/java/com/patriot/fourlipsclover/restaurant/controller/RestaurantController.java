@@ -1,13 +1,18 @@
 package com.patriot.fourlipsclover.restaurant.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.patriot.fourlipsclover.locals.service.LocalsElasticsearchService;
 import com.patriot.fourlipsclover.restaurant.dto.request.ReviewCreate;
 import com.patriot.fourlipsclover.restaurant.dto.request.ReviewLikeCreate;
 import com.patriot.fourlipsclover.restaurant.dto.request.ReviewUpdate;
 import com.patriot.fourlipsclover.restaurant.dto.response.ApiResponse;
+import com.patriot.fourlipsclover.restaurant.dto.response.PriceDistributionResponse;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantPageResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.ReviewDeleteResponse;
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewPageResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.ReviewResponse;
+import com.patriot.fourlipsclover.restaurant.service.PriceHistogramService;
 import com.patriot.fourlipsclover.restaurant.service.RestaurantElasticsearchService;
 import com.patriot.fourlipsclover.restaurant.service.RestaurantService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,6 +35,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/restaurant")
@@ -39,7 +45,9 @@ public class RestaurantController {
 
 	private final RestaurantService restaurantService;
 	private final RestaurantElasticsearchService restaurantElasticsearchService;
+	private final PriceHistogramService priceHistogramService;
 	private final LocalsElasticsearchService localsElasticsearchService;
+	private final ObjectMapper objectMapper;
 
 	@Operation(summary = "그룹 맞춤 식당 추천", description = "그룹 ID를 기반으로 그룹 멤버들의 선호도에 맞는 식당을 추천합니다")
 	@GetMapping("/{planId}/recommend")
@@ -79,6 +87,40 @@ public class RestaurantController {
 		return ResponseEntity.ok(response);
 	}
 
+	@GetMapping("/nearby/page")
+	@Operation(
+			summary = "인근 식당 페이지 검색",
+			description = "위도/경도 기반으로 주변 식당을 가까운 순으로 커서 기반 페이지 조회합니다. 다음 페이지도 같은 조건으로 요청해야 합니다."
+	)
+	public ResponseEntity<RestaurantPageResponse> locationSearchPage(
+			@Parameter(description = "위도 값", required = true) @RequestParam Double latitude,
+			@Parameter(description = "경도 값", required = true) @RequestParam Double longitude,
+			@Parameter(description = "검색 반경(미터)", required = true) @RequestParam Integer radius,
+			@Parameter(description = "이전 응답의 nextCursor (첫 페이지는 생략)") @RequestParam(required = false) String cursor,
+			@Parameter(description = "페이지 크기") @RequestParam(required = false) Integer size,
+			@Parameter(description = "카테고리/가격대 패싯 포함 여부 (첫 페이지)") @RequestParam(defaultValue = "false") boolean facets) {
+		return ResponseEntity.ok(restaurantElasticsearchService.searchRestaurantsByLocationPage(
+				latitude, longitude, radius, cursor, size, facets));
+	}
+
+	@GetMapping("/search/page")
+	@Operation(
+			summary = "태그 및 검색어 기반 식당 페이지 검색",
+			description = "태그 ID 목록과 검색어를 조합하여 관련도 순으로 커서 기반 페이지 조회합니다. 다음 페이지도 같은 조건으로 요청해야 합니다."
+	)
+	public ResponseEntity<RestaurantPageResponse> searchByTagsAndQueryPage(
+			@RequestParam(required = false) String query,
+			@RequestParam(required = false) List<Long> tagIds,
+			@Parameter(description = "이전 응답의 nextCursor (첫 페이지는 생략)") @RequestParam(required = false) String cursor,
+			@Parameter(description = "페이지 크기") @RequestParam(required = false) Integer size,
+			@Parameter(description = "카테고리/가격대 패싯 포함 여부 (첫 페이지)") @RequestParam(defaultValue = "false") boolean facets) {
+		if ((query == null || query.isBlank()) && (tagIds == null || tagIds.isEmpty())) {
+			throw new IllegalArgumentException("검색어 또는 태그 중 최소 하나는 제공해야 합니다.");
+		}
+		return ResponseEntity.ok(restaurantElasticsearchService.searchByTagsAndQueryPage(
+				query, tagIds, cursor, size, facets));
+	}
+
 	@Operation(summary = "식당 상세 조회", description = "카카오 Place ID를 이용하여 식당 정보를 조회합니다.")
 	@GetMapping("/{kakaoPlaceId}/search")
 	public ResponseEntity<RestaurantResponse> findById(
@@ -91,6 +133,16 @@ public class RestaurantController {
 		return ResponseEntity.ok(response);
 	}
 
+	@Operation(summary = "식당 가격 분포 조회", description = "식당의 1인당 결제 금액 구간별 건수, 평균, 백분위를 조회합니다.")
+	@GetMapping("/{kakaoPlaceId}/price-distribution")
+	public ResponseEntity<PriceDistributionResponse> priceDistribution(
+			@Parameter(description = "카카오 Place ID", required = true) @PathVariable(name = "kakaoPlaceId") String kakaoPlaceId) {
+		if (kakaoPlaceId == null || kakaoPlaceId.isBlank()) {
+			throw new IllegalArgumentException("kakaoPlaceId는 비어있을 수 없습니다");
+		}
+		return ResponseEntity.ok(priceHistogramService.getDistribution(kakaoPlaceId));
+	}
+
 	@Operation(summary = "리뷰 생성", description = "식당에 대한 리뷰를 생성합니다. 이미지를 선택적으로 첨부할 수 있습니다.")
 	@PostMapping(value = "/reviews", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
 	public ResponseEntity<ReviewResponse> create(
@@ -120,6 +172,43 @@ public class RestaurantController {
 		return ResponseEntity.ok(response);
 	}
 
+	@Operation(summary = "식당 리뷰 페이지 조회", description = "특정 식당의 리뷰를 최신순으로 커서 기반 페이지 조회합니다.")
+	@GetMapping("/{kakaoPlaceId}/reviews/page")
+	public ResponseEntity<ReviewPageResponse> reviewPage(
+			@Parameter(description = "카카오 Place ID", required = true) @PathVariable(name = "kakaoPlaceId") String kakaoPlaceId,
+			@Parameter(description = "이전 응답의 nextCursor (첫 페이지는 생략)") @RequestParam(required = false) String cursor,
+			@Parameter(description = "페이지 크기") @RequestParam(required = false) Integer size) {
+		if (kakaoPlaceId == null || kakaoPlaceId.isBlank()) {
+			throw new IllegalArgumentException("kakaoPlaceId는 비어있을 수 없습니다");
+		}
+		return ResponseEntity.ok(restaurantService.findReviewPage(kakaoPlaceId, cursor, size));
+	}
+
+	@Operation(summary = "식당 리뷰 스트리밍 조회", description = "특정 식당의 리뷰를 최신순으로 NDJSON 형식으로 스트리밍합니다.")
+	@GetMapping(value = "/{kakaoPlaceId}/reviews/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> reviewStream(
+			@Parameter(description = "카카오 Place ID", required = true) @PathVariable(name = "kakaoPlaceId") String kakaoPlaceId,
+			@Parameter(description = "한 번에 조회할 리뷰 수") @RequestParam(required = false) Integer size) {
+		if (kakaoPlaceId == null || kakaoPlaceId.isBlank()) {
+			throw new IllegalArgumentException("kakaoPlaceId는 비어있을 수 없습니다");
+		}
+		StreamingResponseBody body = outputStream -> {
+			String cursor = null;
+			do {
+				// 페이지 단위로 트랜잭션을 나누어 스트리밍 중 DB 커넥션을 점유하지 않는다
+				ReviewPageResponse page = restaurantService.findReviewPage(kakaoPlaceId, cursor,
+						size);
+				for (ReviewResponse review : page.getReviews()) {
+					outputStream.write(objectMapper.writeValueAsBytes(review));
+					outputStream.write('\n');
+				}
+				outputStream.flush();
+				cursor = page.getNextCursor();
+			} while (cursor != null);
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
 	@Operation(summary = "리뷰 수정", description = "식당에 대한 리뷰를 수정합니다.")
 	@PutMapping(value = "/reviews/{reviewId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
 	public ResponseEntity<ReviewResponse> reviewUpdate(
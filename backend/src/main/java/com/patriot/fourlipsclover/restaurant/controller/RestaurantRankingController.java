@@ -1,5 +1,6 @@
 package com.patriot.fourlipsclover.restaurant.controller;
 
+import com.patriot.fourlipsclover.restaurant.dto.response.RankingModelResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantRankingResponse;
 import com.patriot.fourlipsclover.restaurant.service.RestaurantRankingService;
 import lombok.RequiredArgsConstructor;
@@ -7,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,8 +20,11 @@ public class RestaurantRankingController {
     private final RestaurantRankingService rankingService;
 
     @GetMapping
-    public ResponseEntity<List<RestaurantRankingResponse>> getAllRankings() {
-        List<RestaurantRankingResponse> rankings = rankingService.calculateRankings();
+    public ResponseEntity<List<RestaurantRankingResponse>> getAllRankings(
+            @RequestParam(required = false) Integer limit) {
+        List<RestaurantRankingResponse> rankings = limit != null
+                ? rankingService.getTopRankings(limit)
+                : rankingService.calculateRankings();
         return ResponseEntity.ok(rankings);
     }
 
@@ -28,13 +33,9 @@ public class RestaurantRankingController {
             @PathVariable Integer categoryId,
             @PathVariable int limit) {
 
-        // 메인 카테고리별 랭킹 조회
-        List<RestaurantRankingResponse> categoryRankings = rankingService.calculateRankingsByMainCategory(categoryId);
-
-        // 상위 n개 선택
-        List<RestaurantRankingResponse> topRankings = categoryRankings.stream()
-                .limit(limit)
-                .toList();
+        // 메인 카테고리별 상위 n개 랭킹 조회
+        List<RestaurantRankingResponse> topRankings = rankingService.getTopRankingsByMainCategory(
+                categoryId, limit);
 
         return ResponseEntity.ok(topRankings);
     }
@@ -50,10 +51,21 @@ public class RestaurantRankingController {
         }
     }
 
+    @GetMapping("/range")
+    public ResponseEntity<List<RestaurantRankingResponse>> getRankingRange(
+            @RequestParam int from,
+            @RequestParam int to) {
+        List<RestaurantRankingResponse> rankings = rankingService.getRankingRange(from, to);
+        return ResponseEntity.ok(rankings);
+    }
+
     @GetMapping("/category/{category}")
     public ResponseEntity<List<RestaurantRankingResponse>> getRankingsByCategory(
-            @PathVariable String category) {
-        List<RestaurantRankingResponse> rankings = rankingService.calculateRankingsByCategory(category);
+            @PathVariable String category,
+            @RequestParam(required = false) Integer limit) {
+        List<RestaurantRankingResponse> rankings = limit != null
+                ? rankingService.getTopRankingsByCategory(category, limit)
+                : rankingService.calculateRankingsByCategory(category);
         return ResponseEntity.ok(rankings);
     }
 
@@ -69,12 +81,30 @@ public class RestaurantRankingController {
 
     @PostMapping("/retrain")
     public ResponseEntity<String> retrainModel() {
-        try {
-            rankingService.trainModel();
-            return ResponseEntity.ok("랜덤 포레스트 모델 재학습이 완료되었습니다.");
-        } catch (Exception e) {
+        // 학습은 별도 스레드에서 진행되고, 검증을 통과하면 새 모델로 교체된다
+        rankingService.retrain().exceptionally(e -> {
             log.error("모델 재학습 실패", e);
-            return ResponseEntity.internalServerError().body("모델 재학습 실패: " + e.getMessage());
-        }
+            return null;
+        });
+        return ResponseEntity.accepted().body("랜덤 포레스트 모델 재학습을 시작했습니다.");
+    }
+
+    @GetMapping("/model")
+    public ResponseEntity<RankingModelResponse> getModel() throws IOException {
+        return ResponseEntity.ok(new RankingModelResponse(
+                rankingService.getActiveModelVersion(), rankingService.getModelVersions()));
+    }
+
+    @PostMapping("/model/rollback")
+    public ResponseEntity<RankingModelResponse> rollbackModel() throws IOException {
+        rankingService.rollback();
+        return getModel();
+    }
+
+    @PostMapping("/model/{version}/activate")
+    public ResponseEntity<RankingModelResponse> activateModel(@PathVariable int version)
+            throws IOException {
+        rankingService.activateVersion(version);
+        return getModel();
     }
-}
\ No newline at end of file
+}
@@ -11,6 +11,8 @@ import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 
 @Document(indexName = "restaurant")
@@ -26,18 +28,23 @@ public class RestaurantDocument {
 	@Field(type = FieldType.Text)
 	private String openingHours;
 
-	@Field(type = FieldType.Nested)
+	@Field(type = FieldType.Keyword, index = false)
 	private List<String> restaurantImages;
 
 	@Field(type = FieldType.Text)
 	private String avgAmount;
+	// avgAmount 중 가장 결제가 많은 1인당 금액 구간 (가격대 패싯용)
+	@Field(type = FieldType.Keyword)
+	private String priceRange;
 	@Field(type = FieldType.Keyword)
 	private String phone;
 	@Field(type = FieldType.Text)
 	private String name;
 	@Field(type = FieldType.Text, analyzer = "nori")
 	private String address;
-	@Field(type = FieldType.Text, analyzer = "nori")
+	// 패싯 집계는 category.keyword 로 한다
+	@MultiField(mainField = @Field(type = FieldType.Text, analyzer = "nori"),
+			otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
 	private String category;
 	@Field(type = FieldType.Nested)
 	private List<TagData> tags;
@@ -49,6 +49,7 @@ public class RestaurantKafkaDto {
     // CDC 메타데이터
     private String op;  // 작업 유형: c=create, u=update, d=delete
     private LocalDateTime eventTimestamp;  // 이벤트 발생 시간
+    private Long sourcePosition;  // 원본 DB 변경 위치 (binlog 파일 번호 << 32 | pos, 또는 LSN)
 
     // Debezium 형식에서 데이터 추출을 위한 중첩 클래스들
     @Data
@@ -0,0 +1,85 @@
+package com.patriot.fourlipsclover.restaurant.dto.request;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.patriot.fourlipsclover.exception.InvalidDataException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 식당 검색 search_after 커서. point-in-time ID 와 마지막 hit 의 sort 값을 JSON 으로 묶어 base64url 로 감싼다.
+ * <p>
+ * 다음 페이지가 있을 때 연 PIT 안에서 이어 읽으므로 그 뒤로 색인이 바뀌어도 결과가 밀리거나 겹치지 않는다. 검색 조건은 커서에 넣지 않으므로
+ * 다음 페이지도 첫 요청과 같은 조건으로 보내야 한다.
+ */
+@Getter
+@AllArgsConstructor
+public class RestaurantSearchCursor {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final String pitId;
+	private final List<FieldValue> searchAfter;
+
+	public String encode() {
+		ObjectNode root = OBJECT_MAPPER.createObjectNode();
+		root.put("pit", pitId);
+		ArrayNode after = root.putArray("after");
+		for (FieldValue value : searchAfter) {
+			if (value.isLong()) {
+				after.add(value.longValue());
+			} else if (value.isDouble()) {
+				after.add(value.doubleValue());
+			} else if (value.isBoolean()) {
+				after.add(value.booleanValue());
+			} else if (value.isString()) {
+				after.add(value.stringValue());
+			} else {
+				after.addNull();
+			}
+		}
+		try {
+			return Base64.getUrlEncoder().withoutPadding()
+					.encodeToString(OBJECT_MAPPER.writeValueAsBytes(root));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("검색 커서를 만들 수 없습니다.", e);
+		}
+	}
+
+	public static RestaurantSearchCursor decode(String cursor) {
+		try {
+			JsonNode root = OBJECT_MAPPER.readTree(new String(
+					Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+			String pitId = root.path("pit").asText(null);
+			JsonNode after = root.path("after");
+			if (pitId == null || !after.isArray() || after.isEmpty()) {
+				throw new InvalidDataException("올바르지 않은 커서 값입니다.");
+			}
+			List<FieldValue> searchAfter = new ArrayList<>(after.size());
+			for (JsonNode value : after) {
+				if (value.isIntegralNumber()) {
+					searchAfter.add(FieldValue.of(value.longValue()));
+				} else if (value.isNumber()) {
+					searchAfter.add(FieldValue.of(value.doubleValue()));
+				} else if (value.isBoolean()) {
+					searchAfter.add(FieldValue.of(value.booleanValue()));
+				} else if (value.isTextual()) {
+					searchAfter.add(FieldValue.of(value.textValue()));
+				} else {
+					searchAfter.add(FieldValue.NULL);
+				}
+			}
+			return new RestaurantSearchCursor(pitId, searchAfter);
+		} catch (IllegalArgumentException | JsonProcessingException e) {
+			throw new InvalidDataException("올바르지 않은 커서 값입니다.");
+		}
+	}
+}
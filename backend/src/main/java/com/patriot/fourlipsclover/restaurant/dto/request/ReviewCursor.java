@@ -0,0 +1,44 @@
+package com.patriot.fourlipsclover.restaurant.dto.request;
+
+import com.patriot.fourlipsclover.exception.InvalidDataException;
+import com.patriot.fourlipsclover.restaurant.entity.Review;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 리뷰 목록 keyset 페이지네이션 커서. (created_at, review_id) 를 base64url 로 감싸 클라이언트에는 불투명한 문자열로 노출한다.
+ */
+@Getter
+@AllArgsConstructor
+public class ReviewCursor {
+
+	private static final String DELIMITER = "|";
+
+	private final LocalDateTime createdAt;
+	private final Integer reviewId;
+
+	public static ReviewCursor from(Review review) {
+		return new ReviewCursor(review.getCreatedAt(), review.getReviewId());
+	}
+
+	public String encode() {
+		String raw = createdAt + DELIMITER + reviewId;
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static ReviewCursor decode(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int index = raw.lastIndexOf(DELIMITER);
+			return new ReviewCursor(LocalDateTime.parse(raw.substring(0, index)),
+					Integer.parseInt(raw.substring(index + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new InvalidDataException("올바르지 않은 커서 값입니다.");
+		}
+	}
+}
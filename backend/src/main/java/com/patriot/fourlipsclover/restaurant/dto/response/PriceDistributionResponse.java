@@ -9,5 +9,12 @@ import java.util.Map;
 @Builder
 public class PriceDistributionResponse {
     private Integer totalPersonnel;
+    private Long paymentCount;
+    // 1인당 평균 금액
+    private Integer meanAmount;
+    private String mostFrequentRange;
+    // 구간 이름 -> 결제 건수
     private Map<String, Integer> priceRangeDistribution;
+    // "p25", "p50", "p75", "p90" -> 1인당 금액 추정값
+    private Map<String, Integer> percentiles;
 }
@@ -0,0 +1,19 @@
+package com.patriot.fourlipsclover.restaurant.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class RankingModelResponse {
+
+	// 사용 중인 모델 버전, 모델이 없으면 null (규칙 기반 점수 사용)
+	private Integer activeVersion;
+
+	private List<Integer> versions;
+}
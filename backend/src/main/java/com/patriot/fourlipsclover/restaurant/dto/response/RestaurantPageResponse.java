@@ -0,0 +1,29 @@
+package com.patriot.fourlipsclover.restaurant.dto.response;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class RestaurantPageResponse {
+
+	private List<RestaurantSummaryResponse> restaurants;
+
+	// 다음 페이지 요청 시 cursor 파라미터로 전달, 마지막 페이지면 null
+	private String nextCursor;
+
+	private boolean hasNext;
+
+	// 첫 페이지에만 채운다
+	private Long total;
+
+	// 카테고리/가격대별 식당 수 (많은 순). facets=true 로 요청한 첫 페이지에만 채운다
+	private Map<String, Long> categoryFacets;
+	private Map<String, Long> priceRangeFacets;
+}
@@ -0,0 +1,29 @@
+package com.patriot.fourlipsclover.restaurant.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 검색 목록용 식당 요약. 이미지/태그/영업시간 등은 상세 조회(RestaurantResponse)에서 받는다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RestaurantSummaryResponse {
+
+	private Integer restaurantId;
+	private String kakaoPlaceId;
+	private String placeName;
+	private String addressName;
+	private String category;
+	private Double x;
+	private Double y;
+	// 가장 결제가 많은 1인당 금액 구간
+	private String priceRange;
+	private Integer likeSentiment;
+	private Integer dislikeSentiment;
+	private Double score;
+}
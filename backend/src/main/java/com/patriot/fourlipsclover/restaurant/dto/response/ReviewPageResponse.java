@@ -0,0 +1,21 @@
+package com.patriot.fourlipsclover.restaurant.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ReviewPageResponse {
+
+	private List<ReviewResponse> reviews;
+
+	// 다음 페이지 요청 시 cursor 파라미터로 전달, 마지막 페이지면 null
+	private String nextCursor;
+
+	private boolean hasNext;
+}
@@ -0,0 +1,28 @@
+package com.patriot.fourlipsclover.restaurant.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * CDC 컨슈머가 DB 에 반영을 마친 파티션별 다음 offset. 변경 내용과 같은 트랜잭션으로 기록하고, 파티션을 할당받으면 이 위치로 이동한다.
+ */
+@Entity
+@Table(name = "cdc_offset")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CdcOffset {
+
+	@EmbeddedId
+	private CdcOffsetPK id;
+
+	@Column(name = "next_offset", nullable = false)
+	private Long nextOffset;
+}
@@ -0,0 +1,44 @@
+package com.patriot.fourlipsclover.restaurant.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CdcOffsetPK implements Serializable {
+
+	@Column(name = "consumer_group", length = 100)
+	private String consumerGroup;
+
+	@Column(name = "topic", length = 200)
+	private String topic;
+
+	@Column(name = "partition_id")
+	private Integer partitionId;
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		CdcOffsetPK that = (CdcOffsetPK) o;
+		return Objects.equals(consumerGroup, that.consumerGroup)
+				&& Objects.equals(topic, that.topic)
+				&& Objects.equals(partitionId, that.partitionId);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(consumerGroup, topic, partitionId);
+	}
+}
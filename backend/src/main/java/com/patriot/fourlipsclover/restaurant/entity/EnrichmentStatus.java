@@ -0,0 +1,5 @@
+package com.patriot.fourlipsclover.restaurant.entity;
+
+public enum EnrichmentStatus {
+	PENDING, IN_PROGRESS, DONE, DEAD_LETTER
+}
@@ -0,0 +1,30 @@
+package com.patriot.fourlipsclover.restaurant.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 배치 작업별 마지막 성공 시점. 증분 색인, 일별 지출 집계는 이 시점 이후 변경된 데이터만 다시 처리한다.
+ */
+@Entity
+@Table(name = "index_watermark")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexWatermark {
+
+	@Id
+	@Column(name = "name", length = 50)
+	private String name;
+
+	@Column(name = "watermark", nullable = false)
+	private LocalDateTime watermark;
+}
@@ -2,6 +2,7 @@ package com.patriot.fourlipsclover.restaurant.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,7 +14,7 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "restaurant")
+@Table(name = "restaurant", indexes = @Index(name = "idx_restaurant_updated_at", columnList = "updated_at"))
 public class Restaurant {
 
     @Id
@@ -62,4 +63,18 @@ public class Restaurant {
     @Column(name = "opening_hours")
     private String openingHours;
 
+    // 검색 문서에 반영할 변경 시각. 증분 색인이 이 값으로 변경된 식당만 다시 색인한다
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // 마지막으로 반영한 CDC 이벤트의 원본 DB 위치 (binlog 파일 번호 << 32 | pos, 또는 LSN). 이보다 오래된 이벤트는 무시한다
+    @Column(name = "cdc_position")
+    private Long cdcPosition;
+
+    @PrePersist
+    @PreUpdate
+    void touchUpdatedAt() {
+        updatedAt = LocalDateTime.now();
+    }
+
 }
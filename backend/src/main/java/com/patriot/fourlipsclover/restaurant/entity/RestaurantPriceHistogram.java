@@ -0,0 +1,71 @@
+package com.patriot.fourlipsclover.restaurant.entity;
+
+import com.patriot.fourlipsclover.restaurant.service.PriceHistogram;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 식당별 1인당 결제 금액 히스토그램 (PriceHistogram 의 저장 형태).
+ * <p>
+ * 구간마다 컬럼을 두어 결제 저장 시 UPDATE 한 문장으로 해당 구간만 원자적으로 늘린다. 쓰기는 PriceHistogramBatchRepository 로
+ * 하고, 이 엔티티는 읽기 전용으로 쓴다.
+ */
+@Entity
+@Table(name = "restaurant_price_histogram")
+@Getter
+@NoArgsConstructor
+public class RestaurantPriceHistogram {
+
+	@Id
+	@Column(name = "restaurant_id")
+	private Integer restaurantId;
+
+	@Column(name = "bucket_0", nullable = false)
+	private int bucket0;
+
+	@Column(name = "bucket_1", nullable = false)
+	private int bucket1;
+
+	@Column(name = "bucket_2", nullable = false)
+	private int bucket2;
+
+	@Column(name = "bucket_3", nullable = false)
+	private int bucket3;
+
+	@Column(name = "bucket_4", nullable = false)
+	private int bucket4;
+
+	@Column(name = "bucket_5", nullable = false)
+	private int bucket5;
+
+	@Column(name = "bucket_6", nullable = false)
+	private int bucket6;
+
+	@Column(name = "bucket_7", nullable = false)
+	private int bucket7;
+
+	@Column(name = "bucket_8", nullable = false)
+	private int bucket8;
+
+	@Column(name = "bucket_9", nullable = false)
+	private int bucket9;
+
+	@Column(name = "bucket_10", nullable = false)
+	private int bucket10;
+
+	// 1인당 금액 합계
+	@Column(name = "amount_sum", nullable = false)
+	private long amountSum;
+
+	@Column(name = "personnel_sum", nullable = false)
+	private long personnelSum;
+
+	public PriceHistogram toHistogram() {
+		return new PriceHistogram(new int[]{bucket0, bucket1, bucket2, bucket3, bucket4, bucket5,
+				bucket6, bucket7, bucket8, bucket9, bucket10}, amountSum, personnelSum);
+	}
+}
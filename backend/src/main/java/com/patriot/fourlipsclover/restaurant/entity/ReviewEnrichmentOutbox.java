@@ -0,0 +1,78 @@
+package com.patriot.fourlipsclover.restaurant.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 리뷰 생성 트랜잭션에서 함께 기록되는 감정 분석/태그 추출 작업. 모델 서버 호출은 ReviewEnrichmentService 가 비동기로 처리한다.
+ */
+@Entity
+@Table(name = "review_enrichment_outbox", indexes = @Index(name = "idx_enrichment_status_next",
+		columnList = "status, next_attempt_at"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewEnrichmentOutbox {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "outbox_id")
+	private Long outboxId;
+
+	@Column(name = "review_id", nullable = false)
+	private Integer reviewId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	private EnrichmentStatus status;
+
+	// 단계별 완료 여부. 재시도 시 이미 끝난 단계는 다시 호출하지 않는다
+	@Column(name = "sentiment_done", nullable = false)
+	private boolean sentimentDone;
+
+	@Column(name = "tags_done", nullable = false)
+	private boolean tagsDone;
+
+	@Column(nullable = false)
+	private int attempts;
+
+	@Column(name = "next_attempt_at", nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	@Column(name = "locked_at")
+	private LocalDateTime lockedAt;
+
+	@Column(name = "last_error", length = 1000)
+	private String lastError;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+	public static ReviewEnrichmentOutbox pending(Integer reviewId) {
+		LocalDateTime now = LocalDateTime.now();
+		return ReviewEnrichmentOutbox.builder()
+				.reviewId(reviewId)
+				.status(EnrichmentStatus.PENDING)
+				.nextAttemptAt(now)
+				.createdAt(now)
+				.build();
+	}
+}
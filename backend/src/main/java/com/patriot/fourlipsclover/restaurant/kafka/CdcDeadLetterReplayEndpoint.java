@@ -0,0 +1,78 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import com.patriot.fourlipsclover.config.KafkaConfig;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * dead-letter 토픽에 쌓인 CDC 메시지를 원래 토픽으로 다시 보낸다. (actuator 엔드포인트, 노출 설정이 있어야 열린다)
+ * <p>
+ * 원인(스키마 변경, 누락된 참조 데이터 등)을 고친 뒤 POST /actuator/cdcreplay {"topic": "...", "maxRecords": 100} 로 실행한다.
+ * 다시 보낸 메시지도 원본 DB 위치 비교를 거치므로, 그 사이 더 새로운 변경이 반영된 행은 덮어쓰지 않는다.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "cdcreplay")
+@RequiredArgsConstructor
+public class CdcDeadLetterReplayEndpoint {
+
+    private static final String REPLAY_GROUP_ID = "cdc-dead-letter-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaTemplate<String, String> deadLetterKafkaTemplate;
+
+    @WriteOperation
+    public Map<String, Object> replay(String topic, @Nullable Integer maxRecords) {
+        int limit = maxRecords == null ? 1000 : maxRecords;
+        String deadLetterTopic = topic + KafkaConfig.DEAD_LETTER_SUFFIX;
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(limit, 500)));
+
+        int replayed = 0;
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer(REPLAY_GROUP_ID, null,
+                null, overrides)) {
+            consumer.subscribe(List.of(deadLetterTopic));
+            while (replayed < limit) {
+                ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, String> record : records) {
+                    if (replayed >= limit) {
+                        break;
+                    }
+                    // 원본 토픽의 같은 키로 보내 식당별 순서를 유지한다
+                    deadLetterKafkaTemplate.send(new ProducerRecord<>(topic, record.key(), record.value()))
+                            .join();
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                consumer.commitSync(offsets);
+            }
+        }
+        log.info("dead-letter 메시지 {}건을 {} 로 다시 보냈습니다.", replayed, topic);
+        return Map.of("topic", topic, "replayed", replayed);
+    }
+}
@@ -0,0 +1,124 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import static com.patriot.fourlipsclover.restaurant.kafka.RestaurantCdcEvent.drain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewJpaRepository;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantDetailCache;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantNearbyCache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * CDC 이벤트로 식당 캐시(주변 검색, 상세)를 지운다.
+ * <p>
+ * 로컬 캐시는 인스턴스마다 있으므로 인스턴스마다 다른 group 으로 모든 이벤트를 받는다. 바로 지우면 검색 문서가 갱신되기 전에 옛 결과가
+ * 다시 캐시될 수 있어, 변경을 모아 두었다가 검색 문서 반영(projector flush + ES refresh)보다 늦은 주기로 지운다.
+ * <p>
+ * group 이름은 restaurant.cache.instance-id (기본값 HOSTNAME) 로 정해 재시작해도 같은 group 을 다시 쓴다. 한 호스트에서 여러
+ * 인스턴스를 띄우면 인스턴스마다 다르게 지정해야 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RestaurantCacheInvalidator {
+
+    private final RestaurantNearbyCache restaurantNearbyCache;
+    private final RestaurantDetailCache restaurantDetailCache;
+    private final RestaurantJpaRepository restaurantJpaRepository;
+    private final ReviewJpaRepository reviewJpaRepository;
+    private final ObjectMapper objectMapper;
+
+    private final Set<Integer> pendingRestaurantIds = ConcurrentHashMap.newKeySet();
+    // 감정 분석 결과는 review_id 만 있어 flush 때 식당 ID 로 바꾼다
+    private final Set<Integer> pendingReviewIds = ConcurrentHashMap.newKeySet();
+    // 삭제된 식당은 DB 에서 kakaoPlaceId 를 찾을 수 없어 이벤트의 값을 쓴다
+    private final Set<String> pendingKakaoPlaceIds = ConcurrentHashMap.newKeySet();
+    // [위도, 경도]
+    private final ConcurrentLinkedQueue<double[]> pendingLocations = new ConcurrentLinkedQueue<>();
+
+    @KafkaListener(topics = {
+            RestaurantCdcEvent.RESTAURANT_TOPIC,
+            RestaurantCdcEvent.REVIEWS_TOPIC,
+            RestaurantCdcEvent.REVIEW_SENTIMENT_TOPIC,
+            RestaurantCdcEvent.RESTAURANT_TAG_TOPIC,
+            RestaurantCdcEvent.VISIT_PAYMENT_TOPIC
+    }, groupId = "restaurant-cache-${restaurant.cache.instance-id:${HOSTNAME:local}}",
+            properties = "auto.offset.reset=latest")
+    public void listen(ConsumerRecord<String, String> record) {
+        try {
+            RestaurantCdcEvent event = RestaurantCdcEvent.parse(objectMapper, record);
+            if (event != null) {
+                apply(event.table(), event.before(), event.after());
+            }
+        } catch (Exception e) {
+            log.warn("식당 캐시 무효화 이벤트 처리 실패 [{}]: {}", record.topic(), e.getMessage());
+        }
+    }
+
+    private void apply(String table, JsonNode before, JsonNode after) {
+        for (JsonNode row : new JsonNode[]{before, after}) {
+            if (RestaurantCdcEvent.isEmpty(row)) {
+                continue;
+            }
+            if ("review_sentiment".equals(table)) {
+                addIfPresent(row, "review_id", pendingReviewIds);
+                continue;
+            }
+            addIfPresent(row, "restaurant_id", pendingRestaurantIds);
+            // 식당이 추가/이동/삭제되면 이전과 이후 위치를 덮는 항목을 모두 지운다
+            if ("restaurant".equals(table) && row.hasNonNull("x") && row.hasNonNull("y")) {
+                pendingLocations.add(new double[]{row.get("y").asDouble(), row.get("x").asDouble()});
+            }
+            if ("restaurant".equals(table) && row.hasNonNull("kakao_place_id")) {
+                pendingKakaoPlaceIds.add(row.get("kakao_place_id").asText());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${restaurant.cache.invalidate-interval-ms:3000}")
+    public void flush() {
+        List<Integer> reviewIds = drain(pendingReviewIds);
+        if (!reviewIds.isEmpty()) {
+            pendingRestaurantIds.addAll(reviewJpaRepository.findRestaurantIdsByReviewIds(reviewIds));
+        }
+        List<Integer> restaurantIds = drain(pendingRestaurantIds);
+        List<double[]> locations = new ArrayList<>();
+        for (double[] location; (location = pendingLocations.poll()) != null; ) {
+            locations.add(location);
+        }
+        List<String> kakaoPlaceIds = drain(pendingKakaoPlaceIds);
+        if (restaurantIds.isEmpty() && locations.isEmpty() && kakaoPlaceIds.isEmpty()) {
+            return;
+        }
+        // 태그, 감정 같은 변경은 이벤트에 좌표가 없어 DB 의 현재 좌표로 지울 위치를 정한다
+        if (!restaurantIds.isEmpty()) {
+            for (Object[] row : restaurantJpaRepository.findKakaoPlaceIdsAndCoordinates(restaurantIds)) {
+                kakaoPlaceIds.add((String) row[1]);
+                if (row[2] != null && row[3] != null) {
+                    locations.add(new double[]{((Number) row[3]).doubleValue(), ((Number) row[2]).doubleValue()});
+                }
+            }
+        }
+        restaurantNearbyCache.evict(restaurantIds, locations);
+        restaurantDetailCache.evict(kakaoPlaceIds);
+        log.debug("식당 캐시 무효화: 식당 {}개, 위치 {}개", restaurantIds.size(), locations.size());
+    }
+
+    private void addIfPresent(JsonNode row, String fieldName, Set<Integer> target) {
+        if (row.hasNonNull(fieldName)) {
+            target.add(row.get(fieldName).asInt());
+        }
+    }
+}
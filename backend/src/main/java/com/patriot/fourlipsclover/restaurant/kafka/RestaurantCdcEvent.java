@@ -0,0 +1,65 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * 식당 검색 문서와 캐시에 영향을 주는 테이블의 Debezium 변경 이벤트 한 건.
+ * <p>
+ * RestaurantSearchProjector 와 RestaurantCacheInvalidator 가 같은 토픽을 같은 방식으로 읽도록 토픽 이름과 파싱을 모아 둔다.
+ *
+ * @param table     토픽 이름에서 접두사를 뺀 테이블 이름
+ * @param operation c, u, d, r (없으면 스냅샷으로 보고 r)
+ */
+record RestaurantCdcEvent(String table, String operation, JsonNode before, JsonNode after) {
+
+    static final String TOPIC_PREFIX = "mysql-server.fourlipsclover.";
+    static final String RESTAURANT_TOPIC = TOPIC_PREFIX + "restaurant";
+    static final String REVIEWS_TOPIC = TOPIC_PREFIX + "reviews";
+    static final String REVIEW_SENTIMENT_TOPIC = TOPIC_PREFIX + "review_sentiment";
+    static final String RESTAURANT_TAG_TOPIC = TOPIC_PREFIX + "restaurant_tag";
+    static final String VISIT_PAYMENT_TOPIC = TOPIC_PREFIX + "visit_payment";
+
+    /**
+     * 삭제 뒤에 오는 tombstone 이면 null 을 돌려준다. schema 가 붙은 envelope 와 payload 만 있는 값을 모두 읽는다.
+     */
+    static RestaurantCdcEvent parse(ObjectMapper objectMapper, ConsumerRecord<String, String> record)
+            throws JsonProcessingException {
+        if (record.value() == null) {
+            return null;
+        }
+        JsonNode rootNode = objectMapper.readTree(record.value());
+        JsonNode payloadNode = rootNode.has("payload") ? rootNode.path("payload") : rootNode;
+        return new RestaurantCdcEvent(record.topic().substring(TOPIC_PREFIX.length()),
+                payloadNode.path("op").asText("r"),
+                payloadNode.path("before"),
+                payloadNode.path("after"));
+    }
+
+    static boolean isEmpty(JsonNode row) {
+        return row == null || row.isMissingNode() || row.isNull();
+    }
+
+    static Integer intValue(JsonNode row, String fieldName) {
+        JsonNode field = row.path(fieldName);
+        return field.isMissingNode() || field.isNull() ? null : field.asInt();
+    }
+
+    /**
+     * 모아 둔 값을 꺼낸다. 꺼내는 동안 리스너가 더한 값은 다음 flush 로 남는다.
+     */
+    static <T> List<T> drain(Set<T> source) {
+        List<T> drained = new ArrayList<>();
+        for (T value : new ArrayList<>(source)) {
+            if (source.remove(value)) {
+                drained.add(value);
+            }
+        }
+        return drained;
+    }
+}
@@ -3,62 +3,184 @@ package com.patriot.fourlipsclover.restaurant.kafka;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.patriot.fourlipsclover.restaurant.dto.kafka.RestaurantKafkaDto;
-import com.patriot.fourlipsclover.restaurant.service.RestaurantService;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantCdcApplier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Component;
 
+/**
+ * restaurant 테이블 CDC 컨슈머.
+ * <p>
+ * 반영한 offset 은 변경과 같은 트랜잭션으로 DB(cdc_offset)에 기록하고, 파티션을 할당받으면 그 위치로 이동한다. 이미 반영한 offset 의
+ * 레코드는 건너뛰고, 행마다 기록한 원본 DB 위치보다 오래된 이벤트는 반영하지 않으므로 재전송과 병렬 소비에도 결과가 같다. 처리할 수 없는
+ * 레코드는 BatchListenerFailedException 으로 에러 핸들러에 넘겨 재시도 후 dead-letter 토픽으로 보낸다.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class RestaurantKafkaListener {
+public class RestaurantKafkaListener implements ConsumerSeekAware {
 
-    private final RestaurantService restaurantService;
+    public static final String TOPIC = "mysql-server.fourlipsclover.restaurant";
+
+    private final RestaurantCdcApplier restaurantCdcApplier;
     private final ObjectMapper objectMapper;
 
-    @KafkaListener(topics = "mysql-server.fourlipsclover.restaurant", groupId = "${spring.kafka.consumer.group-id}")
-    public void listen(ConsumerRecord<String, String> record) {
-        try {
-            String message = record.value();
-            log.info("Full Kafka Message: {}", message);
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
 
-            // 메시지를 먼저 JsonNode로 파싱
-            JsonNode rootNode = objectMapper.readTree(message);
+    // partition -> DB 에 반영을 마친 다음 offset
+    private final Map<Integer, Long> appliedOffsets = new ConcurrentHashMap<>();
 
-            // 필요한 데이터 추출
-            JsonNode payloadNode = rootNode.path("payload");
-            if (payloadNode.isMissingNode()) {
-                log.warn("Payload node is missing in Kafka message");
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<Integer, Long> stored = restaurantCdcApplier.findNextOffsets(groupId, TOPIC);
+        assignments.forEach((partition, position) -> {
+            Long applied = stored.get(partition.partition());
+            if (applied == null) {
                 return;
             }
+            appliedOffsets.put(partition.partition(), applied);
+            // Kafka 커밋이 DB 보다 앞선 경우는 dead-letter 로 보낸 레코드뿐이라 더 앞선 쪽에서 시작한다
+            if (applied > position) {
+                callback.seek(partition.topic(), partition.partition(), applied);
+            }
+        });
+    }
 
-            // 작업 유형 추출
-            String operation = payloadNode.path("op").asText("r"); // 기본값 'r'
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitions.forEach(partition -> appliedOffsets.remove(partition.partition()));
+    }
 
-            JsonNode afterNode = payloadNode.path("after");
-            if (afterNode.isMissingNode() || afterNode.isNull()) {
-                log.warn("After node is missing or null in Kafka message");
-                return;
+    /**
+     * poll 한 번에 받은 레코드를 묶어 처리한다. 같은 식당의 이벤트는 마지막 것만 남겨 한 트랜잭션으로 반영한다.
+     */
+    @KafkaListener(topics = TOPIC, groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void listen(List<ConsumerRecord<String, String>> records) {
+        // null 은 반영할 내용이 없는 레코드 (tombstone)
+        List<RestaurantKafkaDto> parsed = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                parsed.add(parse(records.get(i)));
+            } catch (RuntimeException e) {
+                // 앞의 레코드까지 반영하고, 이 레코드부터 에러 핸들러가 다시 보낸다
+                apply(records, parsed, i);
+                throw new BatchListenerFailedException("식당 CDC 메시지를 읽을 수 없습니다.", e, i);
             }
+        }
+        apply(records, parsed, records.size());
+    }
 
-            // 레스토랑 ID 확인
-            if (!afterNode.has("restaurant_id") || afterNode.get("restaurant_id").isNull()) {
-                log.warn("restaurant_id is missing or null in Kafka message");
-                return;
+    private void apply(List<ConsumerRecord<String, String>> records, List<RestaurantKafkaDto> parsed, int to) {
+        if (to == 0) {
+            return;
+        }
+        try {
+            applyRange(records, parsed, 0, to);
+        } catch (RuntimeException e) {
+            // 배치 중 어느 레코드가 문제인지 찾기 위해 한 건씩 반영한다
+            log.warn("식당 CDC 배치 반영 실패, 레코드 단위로 다시 반영합니다: {}", e.getMessage());
+            for (int i = 0; i < to; i++) {
+                try {
+                    applyRange(records, parsed, i, i + 1);
+                } catch (RuntimeException single) {
+                    throw new BatchListenerFailedException("식당 CDC 메시지를 반영할 수 없습니다.", single, i);
+                }
             }
+        }
+    }
 
-            // 로그 추가: AfterNode 상세 내용 출력
-            log.info("AfterNode Details: {}", afterNode.toString());
+    private void applyRange(List<ConsumerRecord<String, String>> records, List<RestaurantKafkaDto> parsed,
+            int from, int to) {
+        Map<Integer, RestaurantKafkaDto> latest = new LinkedHashMap<>();
+        Map<Integer, Long> nextOffsets = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            if (record.offset() < appliedOffsets.getOrDefault(record.partition(), 0L)) {
+                continue;
+            }
+            nextOffsets.merge(record.partition(), record.offset() + 1, Math::max);
+            RestaurantKafkaDto dto = parsed.get(i);
+            if (dto != null) {
+                // restaurant_id 별 마지막 이벤트 (offset 순서)
+                latest.remove(dto.getRestaurantId());
+                latest.put(dto.getRestaurantId(), dto);
+            }
+        }
+        if (nextOffsets.isEmpty()) {
+            return;
+        }
+        restaurantCdcApplier.apply(groupId, TOPIC, new ArrayList<>(latest.values()), nextOffsets);
+        nextOffsets.forEach((partition, offset) -> appliedOffsets.merge(partition, offset, Math::max));
+        log.debug("Kafka 식당 이벤트 {}건 중 {}건 반영", to - from, latest.size());
+    }
+
+    // 반영할 내용이 없으면 null, 형식이 잘못된 메시지는 예외
+    RestaurantKafkaDto parse(ConsumerRecord<String, String> record) {
+        // 삭제 뒤에 오는 tombstone
+        if (record.value() == null) {
+            return null;
+        }
+        JsonNode rootNode;
+        try {
+            rootNode = objectMapper.readTree(record.value());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("JSON 이 아닌 메시지입니다. (offset " + record.offset() + ")", e);
+        }
+        log.trace("Full Kafka Message: {}", record.value());
 
-            RestaurantKafkaDto restaurantDto = createRestaurantDto(afterNode, operation);
+        // 필요한 데이터 추출
+        JsonNode payloadNode = rootNode.path("payload");
+        if (payloadNode.isMissingNode()) {
+            throw new IllegalArgumentException("Payload node is missing (offset " + record.offset() + ")");
+        }
 
-            // 서비스를 통해 처리
-            restaurantService.processKafkaMessage(restaurantDto);
+        // 작업 유형 추출
+        String operation = payloadNode.path("op").asText("r"); // 기본값 'r'
 
-        } catch (Exception e) {
-            log.error("Error processing Kafka message for restaurant: {}", e.getMessage(), e);
+        // 삭제는 after 가 null 이라 before 를 쓴다
+        JsonNode rowNode = payloadNode.path("d".equals(operation) ? "before" : "after");
+        if (rowNode.isMissingNode() || rowNode.isNull()) {
+            throw new IllegalArgumentException("Row node is missing or null (offset " + record.offset() + ")");
+        }
+
+        // 레스토랑 ID 확인
+        if (!rowNode.has("restaurant_id") || rowNode.get("restaurant_id").isNull()) {
+            throw new IllegalArgumentException("restaurant_id is missing (offset " + record.offset() + ")");
+        }
+        RestaurantKafkaDto dto = createRestaurantDto(rowNode, operation);
+        dto.setSourcePosition(sourcePosition(payloadNode.path("source")));
+        return dto;
+    }
+
+    // MySQL 은 binlog 파일 번호와 파일 내 위치를, PostgreSQL 은 LSN 을 하나의 증가하는 값으로 만든다
+    static Long sourcePosition(JsonNode source) {
+        if (source.hasNonNull("lsn")) {
+            return source.get("lsn").asLong();
+        }
+        String file = source.path("file").asText(null);
+        if (file == null || !source.hasNonNull("pos")) {
+            return null;
+        }
+        try {
+            long sequence = Long.parseLong(file.substring(file.lastIndexOf('.') + 1));
+            return (sequence << 32) | source.get("pos").asLong();
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
@@ -92,4 +214,4 @@ public class RestaurantKafkaListener {
             setter.accept(field);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import static com.patriot.fourlipsclover.restaurant.kafka.RestaurantCdcEvent.drain;
+import static com.patriot.fourlipsclover.restaurant.kafka.RestaurantCdcEvent.intValue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewJpaRepository;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter.BulkResult;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantIndexer;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantIndexer.DocumentPart;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Debezium 변경 이벤트로 식당 검색 문서를 갱신한다.
+ * <p>
+ * 이벤트마다 바로 색인하지 않고 식당별로 바뀐 부분(DocumentPart)만 모아 두었다가 flush 주기마다 한 번의 bulk 로 보낸다. 같은
+ * 식당에 대한 이벤트가 여러 번 와도 문서 하나의 부분 업데이트로 합쳐진다. 반영하지 못한 변경은 주기적인 증분/전체 색인이 보정한다.
+ * <p>
+ * 문서 ID 는 kakao_place_id 라 삭제된 식당과 같은 장소가 다시 생기면 같은 문서를 가리킨다. flush 는 삭제를 먼저 보내고, 다시 생긴
+ * 식당은 대기 중인 삭제에서 빼서 나중에 온 이벤트가 이기도록 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RestaurantSearchProjector {
+
+    // 검색 문서와 상관없는 기록용 컬럼. 이것만 바뀐 식당 변경은 무시한다
+    private static final Set<String> BOOKKEEPING_COLUMNS = Set.of("updated_at", "cdc_position");
+
+    private final RestaurantIndexer restaurantIndexer;
+    private final ReviewJpaRepository reviewJpaRepository;
+    private final ObjectMapper objectMapper;
+
+    // restaurantId -> 바뀐 부분
+    private final Map<Integer, Set<DocumentPart>> pending = new ConcurrentHashMap<>();
+    // 감정 분석 결과는 review_id 만 있어 flush 때 식당 ID 로 바꾼다
+    private final Set<Integer> pendingReviewIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    @KafkaListener(topics = {
+            RestaurantCdcEvent.RESTAURANT_TOPIC,
+            RestaurantCdcEvent.REVIEWS_TOPIC,
+            RestaurantCdcEvent.REVIEW_SENTIMENT_TOPIC,
+            RestaurantCdcEvent.RESTAURANT_TAG_TOPIC,
+            RestaurantCdcEvent.VISIT_PAYMENT_TOPIC
+    }, groupId = "${restaurant.search.projector.group-id:restaurant-search-projector}")
+    public void listen(ConsumerRecord<String, String> record) {
+        try {
+            RestaurantCdcEvent event = RestaurantCdcEvent.parse(objectMapper, record);
+            if (event != null) {
+                apply(event.table(), event.operation(), event.before(), event.after());
+            }
+        } catch (Exception e) {
+            log.error("검색 문서 변경 이벤트 처리 실패 [{}]: {}", record.topic(), e.getMessage(), e);
+        }
+    }
+
+    // 테이블별로 영향을 받는 문서 부분을 기록한다
+    void apply(String table, String operation, JsonNode before, JsonNode after) {
+        // 삭제 이벤트는 after 가 null 이라 before 의 값을 쓴다
+        JsonNode row = "d".equals(operation) ? before : after;
+        if (RestaurantCdcEvent.isEmpty(row)) {
+            return;
+        }
+        switch (table) {
+            case "restaurant" -> {
+                if ("d".equals(operation)) {
+                    Integer restaurantId = intValue(row, "restaurant_id");
+                    if (restaurantId != null) {
+                        pending.remove(restaurantId);
+                    }
+                    String kakaoPlaceId = row.path("kakao_place_id").asText(null);
+                    if (kakaoPlaceId != null) {
+                        pendingDeletes.add(kakaoPlaceId);
+                    }
+                } else if (documentChanged(before, after)) {
+                    String kakaoPlaceId = row.path("kakao_place_id").asText(null);
+                    if (kakaoPlaceId != null) {
+                        pendingDeletes.remove(kakaoPlaceId);
+                    }
+                    // 장소 ID 가 바뀌면 이전 ID 의 문서는 지운다
+                    String previousKakaoPlaceId = before == null ? null : before.path("kakao_place_id").asText(null);
+                    if (previousKakaoPlaceId != null && !previousKakaoPlaceId.equals(kakaoPlaceId)) {
+                        pendingDeletes.add(previousKakaoPlaceId);
+                    }
+                    mark(intValue(row, "restaurant_id"), DocumentPart.ALL);
+                }
+            }
+            case "reviews" -> mark(intValue(row, "restaurant_id"), DocumentPart.SCORE);
+            case "review_sentiment" -> {
+                Integer reviewId = intValue(row, "review_id");
+                if (reviewId != null) {
+                    pendingReviewIds.add(reviewId);
+                }
+            }
+            case "restaurant_tag" -> mark(intValue(row, "restaurant_id"), DocumentPart.TAGS);
+            case "visit_payment" -> mark(intValue(row, "restaurant_id"), DocumentPart.PRICE,
+                    DocumentPart.SCORE);
+            default -> log.warn("처리하지 않는 테이블 변경 이벤트: {}", table);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${restaurant.search.projector.flush-interval-ms:1000}")
+    public void flush() {
+        List<String> deletes = drain(pendingDeletes);
+        List<Integer> reviewIds = drain(pendingReviewIds);
+        if (!reviewIds.isEmpty()) {
+            for (Integer restaurantId : reviewJpaRepository.findRestaurantIdsByReviewIds(reviewIds)) {
+                mark(restaurantId, DocumentPart.SENTIMENT, DocumentPart.SCORE);
+            }
+        }
+        Map<Integer, Set<DocumentPart>> changes = drainChanges();
+        if (changes.isEmpty() && deletes.isEmpty()) {
+            return;
+        }
+
+        // 삭제 뒤 같은 장소로 다시 생긴 식당이 지워지지 않도록 삭제를 먼저 보낸다
+        BulkResult result = restaurantIndexer.delete(deletes)
+                .plus(restaurantIndexer.update(changes));
+        if (result.getFailed() > 0) {
+            // 아직 색인되지 않은 문서의 부분 업데이트 등은 증분 색인이 다시 만든다
+            log.warn("검색 문서 변경 반영 실패 {}건 (성공 {}건)", result.getFailed(), result.getSucceeded());
+        } else {
+            log.debug("검색 문서 변경 반영: {}건", result.getSucceeded());
+        }
+    }
+
+    // before 가 없는 생성/스냅샷 이벤트는 바뀐 것으로 본다
+    private boolean documentChanged(JsonNode before, JsonNode after) {
+        if (RestaurantCdcEvent.isEmpty(before)) {
+            return true;
+        }
+        Set<String> columns = new HashSet<>();
+        before.fieldNames().forEachRemaining(columns::add);
+        after.fieldNames().forEachRemaining(columns::add);
+        columns.removeAll(BOOKKEEPING_COLUMNS);
+        for (String column : columns) {
+            if (!before.path(column).equals(after.path(column))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Map<Integer, Set<DocumentPart>> drainChanges() {
+        Map<Integer, Set<DocumentPart>> changes = new HashMap<>();
+        for (Integer restaurantId : new ArrayList<>(pending.keySet())) {
+            Set<DocumentPart> parts = pending.remove(restaurantId);
+            if (parts != null) {
+                changes.put(restaurantId, parts);
+            }
+        }
+        return changes;
+    }
+
+    List<String> pendingDeletes() {
+        return List.copyOf(pendingDeletes);
+    }
+
+    private void mark(Integer restaurantId, DocumentPart... parts) {
+        if (restaurantId == null) {
+            return;
+        }
+        // merge 는 키 단위로 원자적이라 flush 와 겹쳐도 변경을 잃지 않는다
+        pending.merge(restaurantId, EnumSet.of(parts[0], parts), (current, added) -> {
+            Set<DocumentPart> merged = EnumSet.copyOf(current);
+            merged.addAll(added);
+            return merged;
+        });
+    }
+}
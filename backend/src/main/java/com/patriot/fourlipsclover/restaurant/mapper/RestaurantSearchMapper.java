@@ -2,6 +2,7 @@ package com.patriot.fourlipsclover.restaurant.mapper;
 
 import com.patriot.fourlipsclover.restaurant.document.RestaurantDocument;
 import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantSummaryResponse;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -14,6 +15,12 @@ public interface RestaurantSearchMapper {
 	@Mapping(source = "location.lat", target = "y")
 	RestaurantResponse toResponse(RestaurantDocument restaurantDocument);
 
+	@Mapping(source = "name", target = "placeName")
+	@Mapping(source = "address", target = "addressName")
+	@Mapping(source = "location.lon", target = "x")
+	@Mapping(source = "location.lat", target = "y")
+	RestaurantSummaryResponse toSummary(RestaurantDocument restaurantDocument);
+
 	@Mapping(source = "tagName", target = "tagName")
 	@Mapping(source = "category", target = "category")
 	@Mapping(source = "frequency", target = "frequency")
@@ -0,0 +1,16 @@
+package com.patriot.fourlipsclover.restaurant.repository;
+
+import com.patriot.fourlipsclover.restaurant.entity.CdcOffset;
+import com.patriot.fourlipsclover.restaurant.entity.CdcOffsetPK;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CdcOffsetRepository extends JpaRepository<CdcOffset, CdcOffsetPK> {
+
+	@Query("SELECT o FROM CdcOffset o WHERE o.id.consumerGroup = :consumerGroup")
+	List<CdcOffset> findByConsumerGroup(@Param("consumerGroup") String consumerGroup);
+}
@@ -0,0 +1,19 @@
+package com.patriot.fourlipsclover.restaurant.repository;
+
+import com.patriot.fourlipsclover.restaurant.entity.IndexWatermark;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IndexWatermarkRepository extends JpaRepository<IndexWatermark, String> {
+
+	// 여러 인스턴스가 같은 작업을 동시에 진행하지 않도록 행을 잠근다
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select w from IndexWatermark w where w.name = :name")
+	Optional<IndexWatermark> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,80 @@
+package com.patriot.fourlipsclover.restaurant.repository;
+
+import com.patriot.fourlipsclover.restaurant.service.PriceHistogram;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * restaurant_price_histogram 쓰기. 결제 한 건은 INSERT ... ON DUPLICATE KEY UPDATE 로 해당 구간과 합계만 더하므로 같은 식당에
+ * 결제가 동시에 저장돼도 잃는 값이 없다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PriceHistogramBatchRepository {
+
+	private static final List<String> COLUMNS = columns();
+
+	private static final String INSERT_SQL = "INSERT INTO restaurant_price_histogram (restaurant_id, "
+			+ String.join(", ", COLUMNS) + ") VALUES (?" + ", ?".repeat(COLUMNS.size()) + ")";
+
+	// 기존 값에 더한다
+	private static final String INCREMENT_SQL = INSERT_SQL + " ON DUPLICATE KEY UPDATE "
+			+ COLUMNS.stream()
+			.map(column -> column + " = " + column + " + VALUES(" + column + ")")
+			.collect(Collectors.joining(", "));
+
+	// 기존 값을 덮어쓴다
+	private static final String REPLACE_SQL = INSERT_SQL + " ON DUPLICATE KEY UPDATE "
+			+ COLUMNS.stream()
+			.map(column -> column + " = VALUES(" + column + ")")
+			.collect(Collectors.joining(", "));
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * 결제 한 건을 더한다. 1인당 금액을 계산할 수 없는 결제는 무시한다.
+	 */
+	public void add(Integer restaurantId, Integer amount, Integer visitedPersonnel) {
+		PriceHistogram delta = PriceHistogram.empty().add(amount, visitedPersonnel);
+		if (delta.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.update(INCREMENT_SQL, values(restaurantId, delta));
+	}
+
+	/**
+	 * 결제 테이블에서 다시 계산한 값으로 덮어쓴다.
+	 */
+	public void replaceAll(Map<Integer, PriceHistogram> histograms) {
+		List<Object[]> rows = new ArrayList<>(histograms.size());
+		histograms.forEach((restaurantId, histogram) -> rows.add(values(restaurantId, histogram)));
+		jdbcTemplate.batchUpdate(REPLACE_SQL, rows);
+	}
+
+	private static Object[] values(Integer restaurantId, PriceHistogram histogram) {
+		int[] counts = histogram.counts();
+		Object[] values = new Object[COLUMNS.size() + 1];
+		values[0] = restaurantId;
+		for (int bucket = 0; bucket < counts.length; bucket++) {
+			values[bucket + 1] = counts[bucket];
+		}
+		values[counts.length + 1] = histogram.amountSum();
+		values[counts.length + 2] = histogram.personnelSum();
+		return values;
+	}
+
+	private static List<String> columns() {
+		List<String> columns = new ArrayList<>(IntStream.range(0, PriceHistogram.BUCKET_COUNT)
+				.mapToObj(bucket -> "bucket_" + bucket)
+				.toList());
+		columns.add("amount_sum");
+		columns.add("personnel_sum");
+		return columns;
+	}
+}
@@ -0,0 +1,116 @@
+package com.patriot.fourlipsclover.restaurant.repository;
+
+import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * CDC 배치 반영용 JDBC 쓰기. 엔티티를 하나씩 save 하지 않고 INSERT ... ON DUPLICATE KEY UPDATE 를 JDBC 배치로 보낸다.
+ * (MySQL 은 rewriteBatchedStatements=true 일 때 다중 VALUES 한 문장으로 합쳐 보낸다)
+ */
+@Repository
+@RequiredArgsConstructor
+public class RestaurantBatchRepository {
+
+	private static final List<String> DATA_COLUMNS = List.of("kakao_place_id", "place_name",
+			"address_name", "road_address_name", "category_name", "phone", "place_url", "x", "y",
+			"city_id", "food_category_id");
+
+	// 저장된 위치보다 오래된 이벤트면 기존 값을 유지한다. cdc_position 을 VALUES(cdc_position) 으로 바꾼 뒤에도 참/거짓이 같다
+	private static final String IS_NEWER =
+			"(VALUES(cdc_position) IS NULL OR cdc_position IS NULL OR VALUES(cdc_position) >= cdc_position)";
+
+	// 데이터 컬럼이 하나라도 다를 때만 updated_at, cdc_position 을 바꾼다. 같은 값만 쓰면 MySQL 은 행을 바꾸지 않아 binlog 이벤트가
+	// 생기지 않으므로, 자기 테이블의 CDC 이벤트를 다시 반영해도 이벤트가 끝없이 돌지 않는다
+	private static final String DATA_CHANGED = "NOT (" + DATA_COLUMNS.stream()
+			.map(column -> "(" + column + " = VALUES(" + column + ") OR (" + column + " IS NULL AND VALUES("
+					+ column + ") IS NULL))")
+			.collect(Collectors.joining(" AND ")) + ")";
+
+	// MySQL 은 앞의 대입 결과를 뒤의 식에서 보므로 데이터 컬럼을 바꾸기 전에 updated_at, cdc_position 을 먼저 정한다
+	private static final String UPSERT_SQL = """
+			INSERT INTO restaurant (restaurant_id, kakao_place_id, place_name, address_name,
+			    road_address_name, category_name, phone, place_url, x, y, city_id, food_category_id,
+			    updated_at, cdc_position)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+			ON DUPLICATE KEY UPDATE
+			updated_at = CASE WHEN\s""" + IS_NEWER + " AND " + DATA_CHANGED
+			+ " THEN VALUES(updated_at) ELSE updated_at END,\n"
+			+ "cdc_position = CASE WHEN " + IS_NEWER + " AND " + DATA_CHANGED
+			+ " THEN COALESCE(VALUES(cdc_position), cdc_position) ELSE cdc_position END,\n"
+			+ DATA_COLUMNS.stream()
+			.map(column -> column + " = CASE WHEN " + IS_NEWER + " THEN VALUES(" + column + ") ELSE "
+					+ column + " END")
+			.collect(Collectors.joining(",\n"));
+
+	// 삭제 이벤트보다 나중 위치로 다시 쓰인 행은 지우지 않는다
+	private static final String DELETE_SQL = "DELETE FROM restaurant WHERE restaurant_id = ? "
+			+ "AND (? IS NULL OR cdc_position IS NULL OR cdc_position <= ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * 식당 행을 한 번의 JDBC 배치로 넣거나 갱신한다. 데이터가 바뀐 행만 updated_at 을 now 로, cdc_position 을 이벤트 위치로
+	 * 기록한다. cdc_position 이 저장된 값보다 작으면 행을 바꾸지 않는다.
+	 */
+	public void upsertAll(List<Restaurant> restaurants, LocalDateTime now) {
+		Timestamp updatedAt = Timestamp.valueOf(now);
+		jdbcTemplate.batchUpdate(UPSERT_SQL, restaurants, restaurants.size(),
+				(ps, restaurant) -> {
+					ps.setInt(1, restaurant.getRestaurantId());
+					ps.setString(2, restaurant.getKakaoPlaceId());
+					ps.setString(3, restaurant.getPlaceName());
+					ps.setString(4, restaurant.getAddressName());
+					ps.setString(5, restaurant.getRoadAddressName());
+					ps.setString(6, restaurant.getCategoryName());
+					ps.setString(7, restaurant.getPhone());
+					ps.setString(8, restaurant.getPlaceUrl());
+					setDouble(ps, 9, restaurant.getX());
+					setDouble(ps, 10, restaurant.getY());
+					setLong(ps, 11, restaurant.getCity() == null ? null
+							: restaurant.getCity().getCityId());
+					setLong(ps, 12, restaurant.getFoodCategory() == null ? null
+							: restaurant.getFoodCategory().getFoodCategoryId().longValue());
+					ps.setTimestamp(13, updatedAt);
+					setLong(ps, 14, restaurant.getCdcPosition());
+				});
+	}
+
+	/**
+	 * @param deletes restaurantId -> 삭제 이벤트의 원본 DB 위치 (없으면 null)
+	 */
+	public void deleteAll(Map<Integer, Long> deletes) {
+		List<Map.Entry<Integer, Long>> entries = new ArrayList<>(deletes.entrySet());
+		jdbcTemplate.batchUpdate(DELETE_SQL, entries, entries.size(), (ps, entry) -> {
+			ps.setInt(1, entry.getKey());
+			setLong(ps, 2, entry.getValue());
+			setLong(ps, 3, entry.getValue());
+		});
+	}
+
+	private void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+		if (value == null) {
+			ps.setNull(index, Types.DOUBLE);
+		} else {
+			ps.setDouble(index, value);
+		}
+	}
+
+	private void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+		if (value == null) {
+			ps.setNull(index, Types.BIGINT);
+		} else {
+			ps.setLong(index, value);
+		}
+	}
+}
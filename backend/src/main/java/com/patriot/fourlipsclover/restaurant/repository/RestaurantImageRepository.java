@@ -3,12 +3,19 @@ package com.patriot.fourlipsclover.restaurant.repository;
 import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
 import com.patriot.fourlipsclover.restaurant.entity.RestaurantImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RestaurantImageRepository extends JpaRepository<RestaurantImage, Integer> {
     List<RestaurantImage> findByRestaurant(Restaurant restaurant);
     List<RestaurantImage> findByRestaurantRestaurantId(Integer restaurantId);
+
+    // [restaurantId, url]
+    @Query("select ri.restaurant.restaurantId, ri.url from RestaurantImage ri where ri.restaurant.restaurantId in :restaurantIds")
+    List<Object[]> findUrlsByRestaurantIds(@Param("restaurantIds") Collection<Integer> restaurantIds);
 }
@@ -1,9 +1,12 @@
 package com.patriot.fourlipsclover.restaurant.repository;
 
 import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,6 +27,41 @@ public interface RestaurantJpaRepository extends JpaRepository<Restaurant, Integ
 			@Param("longitude") Double longitude,
 			@Param("radius") Integer radius);
 
+	@Query(value = "SELECT restaurant_id FROM restaurant " +
+			"WHERE (6371 * acos(cos(radians(:latitude)) * cos(radians(y)) * " +
+			"cos(radians(x) - radians(:longitude)) + " +
+			"sin(radians(:latitude)) * sin(radians(y)))) <= :radius/1000",
+			nativeQuery = true)
+	List<Integer> findNearbyRestaurantIds(
+			@Param("latitude") Double latitude,
+			@Param("longitude") Double longitude,
+			@Param("radius") Integer radius);
+
+	// 공간 인덱스 구성용 [restaurantId, x, y]
+	@Query("SELECT r.restaurantId, r.x, r.y FROM Restaurant r WHERE r.x IS NOT NULL AND r.y IS NOT NULL")
+	List<Object[]> findAllCoordinates();
+
+	// 색인용 키셋 페이지: afterId 보다 큰 식당 ID 를 순서대로
+	@Query("SELECT r.restaurantId FROM Restaurant r WHERE r.restaurantId > :afterId ORDER BY r.restaurantId")
+	List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+	@Query("SELECT r.restaurantId FROM Restaurant r " +
+			"WHERE r.updatedAt >= :since AND r.restaurantId > :afterId ORDER BY r.restaurantId")
+	List<Integer> findIdsUpdatedSince(@Param("since") LocalDateTime since,
+			@Param("afterId") Integer afterId, Pageable pageable);
+
+	@Query("SELECT r FROM Restaurant r LEFT JOIN FETCH r.foodCategory LEFT JOIN FETCH r.city " +
+			"WHERE r.restaurantId IN :restaurantIds")
+	List<Restaurant> findAllByIdsWithCategory(@Param("restaurantIds") Collection<Integer> restaurantIds);
+
+	// 부분 업데이트 대상 문서 ID [restaurantId, kakaoPlaceId]
+	@Query("SELECT r.restaurantId, r.kakaoPlaceId FROM Restaurant r WHERE r.restaurantId IN :restaurantIds")
+	List<Object[]> findKakaoPlaceIds(@Param("restaurantIds") Collection<Integer> restaurantIds);
+
+	// 캐시 무효화 대상 [restaurantId, kakaoPlaceId, x, y]
+	@Query("SELECT r.restaurantId, r.kakaoPlaceId, r.x, r.y FROM Restaurant r WHERE r.restaurantId IN :restaurantIds")
+	List<Object[]> findKakaoPlaceIdsAndCoordinates(@Param("restaurantIds") Collection<Integer> restaurantIds);
+
 	Restaurant findByRestaurantId(Integer restaurantId);
 
 	boolean existsByRestaurantId(Integer restaurantId);
@@ -126,6 +164,40 @@ public interface RestaurantJpaRepository extends JpaRepository<Restaurant, Integ
         """, nativeQuery = true)
 	List<Map<String, Object>> getRestaurantRankingDataByCategory(@Param("category") String category);
 
+	// 변경된 식당만 랭킹 데이터 재계산 (증분 갱신용)
+	@Query(value = """
+        SELECT 
+            r.restaurant_id AS restaurantId,
+            r.place_name AS placeName,
+            fc.name AS categoryName,
+            c.name AS mainCategoryName,
+            c.category_id AS mainCategoryId,
+            COUNT(DISTINCT vp.visit_payment_id) AS visitCount,
+            SUM(CASE 
+                WHEN (rs.sentiment_status = 'POSITIVE' AND rl.like_status = 'LIKE') OR 
+                     (rs.sentiment_status = 'NEGATIVE' AND rl.like_status = 'DISLIKE') 
+                THEN m.trust_score ELSE 0 END) AS weightedPositive,
+            SUM(CASE 
+                WHEN (rs.sentiment_status = 'NEGATIVE' AND rl.like_status = 'LIKE') OR 
+                     (rs.sentiment_status = 'POSITIVE' AND rl.like_status = 'DISLIKE') 
+                THEN m.trust_score ELSE 0 END) AS weightedNegative,
+            AVG(m.trust_score) AS avgUserTrustScore,
+            COUNT(DISTINCT rev.review_id) AS reviewCount,
+            AVG(vp.amount / vp.visited_personnel) AS avgPerPersonAmount
+        FROM restaurant r
+        LEFT JOIN food_category fc ON r.food_category_id = fc.food_category_id
+        LEFT JOIN category c ON fc.category_id = c.category_id
+        LEFT JOIN reviews rev ON r.restaurant_id = rev.restaurant_id AND rev.is_delete = 0
+        LEFT JOIN review_sentiment rs ON rev.review_id = rs.review_id
+        LEFT JOIN review_like rl ON rev.review_id = rl.review_id
+        LEFT JOIN member m ON rev.member_id = m.member_id AND m.is_withdrawal = 0
+        LEFT JOIN visit_payment vp ON r.restaurant_id = vp.restaurant_id
+        WHERE r.restaurant_id IN (:restaurantIds)
+        GROUP BY r.restaurant_id, r.place_name, fc.name, c.name, c.category_id
+        """, nativeQuery = true)
+	List<Map<String, Object>> getRestaurantRankingDataByIds(
+			@Param("restaurantIds") Collection<Integer> restaurantIds);
+
 	// 특정 지역 내 랭킹 데이터 조회 (메인 카테고리 추가)
 	@Query(value = """
         SELECT 
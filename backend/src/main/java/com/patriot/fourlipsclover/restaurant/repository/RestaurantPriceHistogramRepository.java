@@ -0,0 +1,9 @@
+package com.patriot.fourlipsclover.restaurant.repository;
+
+import com.patriot.fourlipsclover.restaurant.entity.RestaurantPriceHistogram;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RestaurantPriceHistogramRepository extends
+		JpaRepository<RestaurantPriceHistogram, Integer> {
+
+}
@@ -0,0 +1,38 @@
+package com.patriot.fourlipsclover.restaurant.repository;
+
+import com.patriot.fourlipsclover.restaurant.entity.EnrichmentStatus;
+import com.patriot.fourlipsclover.restaurant.entity.ReviewEnrichmentOutbox;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReviewEnrichmentOutboxRepository extends
+		JpaRepository<ReviewEnrichmentOutbox, Long> {
+
+	@Query("select o.outboxId from ReviewEnrichmentOutbox o " +
+			"where o.status = :status and o.nextAttemptAt <= :now order by o.outboxId")
+	List<Long> findDueIds(@Param("status") EnrichmentStatus status,
+			@Param("now") LocalDateTime now, Pageable pageable);
+
+	// 다른 인스턴스가 먼저 가져간 작업이면 0을 반환한다
+	@Modifying
+	@Query("update ReviewEnrichmentOutbox o set o.status = :to, o.lockedAt = :now " +
+			"where o.outboxId = :outboxId and o.status = :from")
+	int claim(@Param("outboxId") Long outboxId, @Param("from") EnrichmentStatus from,
+			@Param("to") EnrichmentStatus to, @Param("now") LocalDateTime now);
+
+	// 처리 중 서버가 내려가 IN_PROGRESS 로 남은 작업을 다시 대기 상태로 돌린다
+	@Modifying
+	@Query("update ReviewEnrichmentOutbox o set o.status = :to " +
+			"where o.status = :from and o.lockedAt < :threshold")
+	int releaseStale(@Param("from") EnrichmentStatus from, @Param("to") EnrichmentStatus to,
+			@Param("threshold") LocalDateTime threshold);
+
+	long countByStatus(EnrichmentStatus status);
+}
@@ -1,6 +1,7 @@
 package com.patriot.fourlipsclover.restaurant.repository;
 
 import com.patriot.fourlipsclover.restaurant.entity.ReviewImage;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -10,5 +11,7 @@ public interface ReviewImageRepository extends JpaRepository<ReviewImage, Intege
 
 	List<ReviewImage> findByReviewReviewId(Integer reviewId);
 
+	List<ReviewImage> findByReviewReviewIdIn(Collection<Integer> reviewIds);
+
 	void deleteByImageUrl(String imageUrl);
 }
@@ -1,7 +1,10 @@
 package com.patriot.fourlipsclover.restaurant.repository;
 
 import com.patriot.fourlipsclover.restaurant.entity.Review;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,9 +13,27 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ReviewJpaRepository extends JpaRepository<Review, Integer> {
 
-	@Query("select r from Review r where r.restaurant.kakaoPlaceId = :kakaoPlaceId and r.isDelete=false")
+	@Query("select r from Review r join fetch r.member join fetch r.restaurant where r.restaurant.kakaoPlaceId = :kakaoPlaceId and r.isDelete=false")
 	List<Review> findByKakaoPlaceId(@Param("kakaoPlaceId") String kakaoPlaceId);
 
+	// keyset 페이지네이션: (created_at, review_id) 내림차순
+	@Query("select r from Review r join fetch r.member join fetch r.restaurant " +
+			"where r.restaurant.kakaoPlaceId = :kakaoPlaceId and r.isDelete=false " +
+			"order by r.createdAt desc, r.reviewId desc")
+	List<Review> findPageByKakaoPlaceId(@Param("kakaoPlaceId") String kakaoPlaceId,
+			Pageable pageable);
+
+	@Query("select r from Review r join fetch r.member join fetch r.restaurant " +
+			"where r.restaurant.kakaoPlaceId = :kakaoPlaceId and r.isDelete=false " +
+			"and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.reviewId < :reviewId)) " +
+			"order by r.createdAt desc, r.reviewId desc")
+	List<Review> findPageByKakaoPlaceIdAfter(@Param("kakaoPlaceId") String kakaoPlaceId,
+			@Param("createdAt") LocalDateTime createdAt, @Param("reviewId") Integer reviewId,
+			Pageable pageable);
 
 	int countByMember_MemberId(Long memberId);
+
+	// 리뷰 감정 분석 변경 이벤트를 식당 단위로 묶기 위한 조회
+	@Query("select distinct r.restaurant.restaurantId from Review r where r.reviewId in :reviewIds")
+	List<Integer> findRestaurantIdsByReviewIds(@Param("reviewIds") Collection<Integer> reviewIds);
 }
@@ -5,7 +5,11 @@ import com.patriot.fourlipsclover.restaurant.dto.request.LikeStatus;
 import com.patriot.fourlipsclover.restaurant.entity.Review;
 import com.patriot.fourlipsclover.restaurant.entity.ReviewLike;
 import com.patriot.fourlipsclover.restaurant.entity.ReviewLikePK;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -19,4 +23,15 @@ public interface ReviewLikeJpaRepository extends JpaRepository<ReviewLike, Revie
 			LikeStatus likeStatus);
 
 	int countByMember_MemberIdAndLikeStatus(Long memberId, LikeStatus likeStatus);
+
+	// [reviewId, likeStatus, count]
+	@Query("select rl.id.reviewId, rl.likeStatus, count(rl) from ReviewLike rl " +
+			"where rl.id.reviewId in :reviewIds group by rl.id.reviewId, rl.likeStatus")
+	List<Object[]> countLikeStatusByReviewIds(@Param("reviewIds") Collection<Integer> reviewIds);
+
+	// [reviewId, likeStatus]
+	@Query("select rl.id.reviewId, rl.likeStatus from ReviewLike rl " +
+			"where rl.id.memberId = :memberId and rl.id.reviewId in :reviewIds")
+	List<Object[]> findLikeStatusByMemberIdAndReviewIds(@Param("memberId") Long memberId,
+			@Param("reviewIds") Collection<Integer> reviewIds);
 }
@@ -4,10 +4,20 @@ package com.patriot.fourlipsclover.restaurant.repository;
 import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
 import com.patriot.fourlipsclover.restaurant.entity.ReviewSentiment;
 import com.patriot.fourlipsclover.restaurant.entity.SentimentStatus;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ReviewSentimentRepository extends JpaRepository<ReviewSentiment, Long> {
 
 
 	int countByReview_RestaurantAndSentimentStatus(Restaurant restaurant, SentimentStatus sentimentStatus);
+
+	// [restaurantId, sentimentStatus, count]
+	@Query("select r.restaurant.restaurantId, rs.sentimentStatus, count(rs) from ReviewSentiment rs join rs.review r " +
+			"where r.restaurant.restaurantId in :restaurantIds " +
+			"group by r.restaurant.restaurantId, rs.sentimentStatus")
+	List<Object[]> countByRestaurantIds(@Param("restaurantIds") Collection<Integer> restaurantIds);
 }
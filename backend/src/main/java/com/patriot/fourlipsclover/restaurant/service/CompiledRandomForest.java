@@ -0,0 +1,179 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import weka.classifiers.Classifier;
+import weka.classifiers.trees.RandomForest;
+import weka.classifiers.trees.RandomTree;
+
+/**
+ * 학습된 Weka 회귀 RandomForest 를 기본형 배열로 펼친 추론 엔진.
+ * <p>
+ * 모든 트리의 노드를 깊이 우선 순서로 한 배열에 저장한다(왼쪽 자식은 바로 다음 노드, 오른쪽 자식은 rightChild). 행마다 Instance
+ * 객체를 만들지 않고 double[] 피처를 그대로 읽으며, 행렬 단위 예측은 여러 코어에서 나눠 계산한다. 결과는 Weka 의 classifyInstance
+ * 와 같다(숫자형 피처만, 결측값 없음).
+ */
+public final class CompiledRandomForest {
+
+	private static final int PARALLEL_THRESHOLD = 1024;
+	private static final int LEAF = -1;
+
+	private final int[] treeRoots;
+	private final int[] featureIndex;
+	private final double[] threshold;
+	private final int[] rightChild;
+	private final double[] leafValue;
+
+	private CompiledRandomForest(int[] treeRoots, int[] featureIndex, double[] threshold,
+			int[] rightChild, double[] leafValue) {
+		this.treeRoots = treeRoots;
+		this.featureIndex = featureIndex;
+		this.threshold = threshold;
+		this.rightChild = rightChild;
+		this.leafValue = leafValue;
+	}
+
+	/**
+	 * Weka 가 트리 구조를 공개하지 않으므로 내부 필드를 읽어 변환한다. 지원하지 않는 구조(명목형 분기 등)면 IllegalStateException.
+	 */
+	public static CompiledRandomForest compile(RandomForest forest) {
+		Classifier[] trees = (Classifier[]) readField(forest, "m_Classifiers");
+		if (trees == null || trees.length == 0) {
+			throw new IllegalStateException("학습되지 않은 RandomForest 입니다.");
+		}
+		Builder builder = new Builder(trees.length);
+		for (int i = 0; i < trees.length; i++) {
+			if (!(trees[i] instanceof RandomTree tree)) {
+				throw new IllegalStateException("RandomTree 가 아닌 트리는 변환할 수 없습니다: "
+						+ trees[i].getClass().getName());
+			}
+			builder.treeRoots[i] = builder.size;
+			Object root = readField(tree, "m_Tree");
+			if (root == null) {
+				// 학습 데이터가 없어 ZeroR 로 대체된 트리
+				throw new IllegalStateException("ZeroR 로 대체된 트리는 변환할 수 없습니다.");
+			}
+			builder.add(root, Double.NaN, tree.getAllowUnclassifiedInstances());
+		}
+		return builder.build();
+	}
+
+	public int treeCount() {
+		return treeRoots.length;
+	}
+
+	public int nodeCount() {
+		return featureIndex.length;
+	}
+
+	public double predict(double[] features) {
+		double sum = 0;
+		int count = 0;
+		for (int root : treeRoots) {
+			int node = root;
+			int feature;
+			while ((feature = featureIndex[node]) != LEAF) {
+				node = features[feature] < threshold[node] ? node + 1 : rightChild[node];
+			}
+			double value = leafValue[node];
+			// Weka Bagging 과 같이 예측하지 못한 트리는 평균에서 제외
+			if (!Double.isNaN(value)) {
+				sum += value;
+				count++;
+			}
+		}
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	public double[] predict(double[][] features) {
+		double[] predictions = new double[features.length];
+		if (features.length < PARALLEL_THRESHOLD) {
+			for (int i = 0; i < features.length; i++) {
+				predictions[i] = predict(features[i]);
+			}
+		} else {
+			IntStream.range(0, features.length).parallel()
+					.forEach(i -> predictions[i] = predict(features[i]));
+		}
+		return predictions;
+	}
+
+	private static final class Builder {
+
+		private final int[] treeRoots;
+		private int[] featureIndex = new int[1024];
+		private double[] threshold = new double[1024];
+		private int[] rightChild = new int[1024];
+		private double[] leafValue = new double[1024];
+		private int size = 0;
+
+		private Builder(int treeCount) {
+			this.treeRoots = new int[treeCount];
+		}
+
+		// RandomTree.Tree.distributionForInstance 와 같은 규칙으로 노드 값을 정한다
+		private void add(Object node, double parentValue, boolean allowUnclassified) {
+			int attribute = (Integer) readField(node, "m_Attribute");
+			double[] classDistribution = (double[]) readField(node, "m_ClassDistribution");
+			double ownValue;
+			if (classDistribution != null) {
+				ownValue = classDistribution[0];
+			} else {
+				// 학습 데이터가 없는 노드: 허용 시 예측 불가(NaN), 아니면 부모 노드의 값
+				ownValue = allowUnclassified ? Double.NaN : parentValue;
+			}
+
+			int index = size++;
+			ensureCapacity(size);
+			Object[] successors = (Object[]) readField(node, "m_Successors");
+			if (attribute == LEAF || successors == null) {
+				featureIndex[index] = LEAF;
+				leafValue[index] = ownValue;
+				return;
+			}
+			if (successors.length != 2) {
+				throw new IllegalStateException("명목형 속성 분기는 변환할 수 없습니다.");
+			}
+			featureIndex[index] = attribute;
+			threshold[index] = (Double) readField(node, "m_SplitPoint");
+			add(successors[0], ownValue, allowUnclassified);
+			rightChild[index] = size;
+			add(successors[1], ownValue, allowUnclassified);
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity <= featureIndex.length) {
+				return;
+			}
+			int newLength = Math.max(capacity, featureIndex.length * 2);
+			featureIndex = Arrays.copyOf(featureIndex, newLength);
+			threshold = Arrays.copyOf(threshold, newLength);
+			rightChild = Arrays.copyOf(rightChild, newLength);
+			leafValue = Arrays.copyOf(leafValue, newLength);
+		}
+
+		private CompiledRandomForest build() {
+			return new CompiledRandomForest(treeRoots,
+					Arrays.copyOf(featureIndex, size),
+					Arrays.copyOf(threshold, size),
+					Arrays.copyOf(rightChild, size),
+					Arrays.copyOf(leafValue, size));
+		}
+	}
+
+	private static Object readField(Object target, String name) {
+		for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+			try {
+				Field field = type.getDeclaredField(name);
+				field.setAccessible(true);
+				return field.get(target);
+			} catch (NoSuchFieldException e) {
+				// 상위 클래스에서 계속 찾는다
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Weka 모델 필드를 읽을 수 없습니다: " + name, e);
+			}
+		}
+		throw new IllegalStateException("Weka 모델 구조가 예상과 다릅니다: " + name);
+	}
+}
@@ -0,0 +1,158 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Elasticsearch _bulk 요청을 동시 요청 수를 제한해 보내는 writer.
+ * <p>
+ * 진행 중인 요청이 concurrency 개면 submit 이 자리가 날 때까지 호출 스레드를 막으므로 DB 읽기가 색인보다 앞서 나가지 않는다.
+ * 429(과부하)나 5xx 로 실패한 항목만 모아 지수 백오프로 다시 보내고, 그 외 실패(매핑 오류 등)는 바로 실패로 센다.
+ */
+@Slf4j
+@Component
+public class ElasticsearchBulkWriter {
+
+	private final ElasticsearchClient elasticsearchClient;
+	private final ThreadPoolTaskExecutor executor;
+	private final Semaphore permits;
+	private final int maxRetries;
+	private final long retryBackoffMs;
+
+	@Getter
+	@AllArgsConstructor
+	public static final class BulkResult {
+
+		public static final BulkResult EMPTY = new BulkResult(0, 0);
+
+		private final int succeeded;
+		private final int failed;
+
+		public BulkResult plus(BulkResult other) {
+			return new BulkResult(succeeded + other.succeeded, failed + other.failed);
+		}
+	}
+
+	public ElasticsearchBulkWriter(ElasticsearchClient elasticsearchClient,
+			@Value("${elasticsearch.bulk.concurrency:4}") int concurrency,
+			@Value("${elasticsearch.bulk.max-retries:3}") int maxRetries,
+			@Value("${elasticsearch.bulk.retry-backoff-ms:500}") long retryBackoffMs) {
+		this.elasticsearchClient = elasticsearchClient;
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(concurrency);
+		this.executor.setMaxPoolSize(concurrency);
+		this.executor.setQueueCapacity(concurrency);
+		this.executor.setThreadNamePrefix("es-bulk-");
+		this.executor.initialize();
+		this.permits = new Semaphore(concurrency);
+		this.maxRetries = maxRetries;
+		this.retryBackoffMs = retryBackoffMs;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * 비동기로 보낸다. 동시 요청 수가 가득 차 있으면 하나가 끝날 때까지 기다린다.
+	 */
+	public CompletableFuture<BulkResult> submit(List<BulkOperation> operations) {
+		if (operations.isEmpty()) {
+			return CompletableFuture.completedFuture(BulkResult.EMPTY);
+		}
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return CompletableFuture.completedFuture(new BulkResult(0, operations.size()));
+		}
+		try {
+			return CompletableFuture.supplyAsync(() -> write(operations), executor)
+					.whenComplete((result, e) -> permits.release());
+		} catch (RejectedExecutionException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * 현재 스레드에서 보내고, 재시도할 수 있는 항목은 maxRetries 번까지 다시 보낸다.
+	 */
+	public BulkResult write(List<BulkOperation> operations) {
+		List<BulkOperation> pending = operations;
+		int succeeded = 0;
+		int failed = 0;
+		for (int attempt = 0; !pending.isEmpty(); attempt++) {
+			if (attempt > 0 && !sleep(retryBackoffMs << Math.min(attempt - 1, 16))) {
+				return new BulkResult(succeeded, failed + pending.size());
+			}
+			List<BulkOperation> retry = new ArrayList<>();
+			List<BulkOperation> current = pending;
+			try {
+				BulkResponse response = elasticsearchClient.bulk(
+						BulkRequest.of(b -> b.operations(current)));
+				List<BulkResponseItem> items = response.items();
+				for (int i = 0; i < items.size(); i++) {
+					BulkResponseItem item = items.get(i);
+					if (item.error() == null) {
+						succeeded++;
+					} else if (isRetryable(item.status())) {
+						retry.add(current.get(i));
+					} else {
+						failed++;
+						log.warn("색인 실패 [{}] {}: {}", item.index(), item.id(),
+								item.error().reason());
+					}
+				}
+			} catch (ElasticsearchException e) {
+				if (!isRetryable(e.status())) {
+					log.error("bulk 요청 실패 ({}건)", current.size(), e);
+					return new BulkResult(succeeded, failed + current.size());
+				}
+				retry = current;
+			} catch (IOException e) {
+				// 연결 실패 등은 요청 전체를 다시 보낸다
+				log.warn("bulk 요청 전송 실패 ({}건): {}", current.size(), e.getMessage());
+				retry = current;
+			}
+			if (!retry.isEmpty() && attempt >= maxRetries) {
+				log.error("재시도 횟수 초과로 {}건 색인 실패", retry.size());
+				return new BulkResult(succeeded, failed + retry.size());
+			}
+			pending = retry;
+		}
+		return new BulkResult(succeeded, failed);
+	}
+
+	private boolean isRetryable(int status) {
+		return status == 429 || status >= 500;
+	}
+
+	private boolean sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter.BulkResult;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.index.MappingBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * alias 뒤의 인덱스를 통째로 교체하는 blue/green 재색인.
+ * <p>
+ * {alias}-{생성 시각} 이름의 새 인덱스를 refresh 를 끄고 replica 0 으로 만든 뒤 채우고, force merge 와 설정 복구 후 alias 를
+ * 한 번의 요청으로 옮긴다. 검색과 증분 갱신은 항상 alias 로 하므로 재색인 중에도 이전 인덱스의 완전한 데이터를 읽는다. 이전 버전은
+ * keepVersions 개까지 남기고 삭제한다.
+ */
+@Slf4j
+@Component
+public class ElasticsearchIndexManager {
+
+	private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern(
+			"yyyyMMddHHmmssSSS");
+
+	private final ElasticsearchClient elasticsearchClient;
+	private final MappingBuilder mappingBuilder;
+	private final int replicas;
+	private final int keepVersions;
+
+	public ElasticsearchIndexManager(ElasticsearchClient elasticsearchClient,
+			ElasticsearchConverter elasticsearchConverter,
+			@Value("${elasticsearch.reindex.replicas:1}") int replicas,
+			@Value("${elasticsearch.reindex.keep-versions:2}") int keepVersions) {
+		this.elasticsearchClient = elasticsearchClient;
+		this.mappingBuilder = new MappingBuilder(elasticsearchConverter);
+		this.replicas = replicas;
+		this.keepVersions = keepVersions;
+	}
+
+	/**
+	 * 새 버전 인덱스를 만들어 loader 로 채우고 alias 를 옮긴다. 실패한 문서가 있으면 alias 를 옮기지 않고 새 인덱스를 지운다.
+	 *
+	 * @param documentClass 매핑을 만들 문서 클래스 (@Field 기준)
+	 * @param loader        새 인덱스 이름을 받아 문서를 색인한다
+	 */
+	public BulkResult rebuild(String alias, Class<?> documentClass,
+			Function<String, BulkResult> loader) throws IOException {
+		String index = alias + "-" + LocalDateTime.now().format(VERSION_FORMAT);
+		createIndex(index, documentClass);
+		BulkResult result;
+		try {
+			result = loader.apply(index);
+			if (result.getFailed() > 0) {
+				throw new IllegalStateException(
+						"색인 실패 " + result.getFailed() + "건으로 인덱스를 교체하지 않습니다: " + index);
+			}
+			finishLoading(index);
+		} catch (IOException | RuntimeException e) {
+			deleteQuietly(index);
+			throw e;
+		}
+		switchAlias(alias, index);
+		cleanup(alias, index);
+		log.info("{} alias 를 {} 로 교체했습니다. ({}건)", alias, index, result.getSucceeded());
+		return result;
+	}
+
+	// 대량 색인 동안은 refresh 와 replica 복제를 하지 않는다
+	private void createIndex(String index, Class<?> documentClass) throws IOException {
+		String mapping = mappingBuilder.buildPropertyMapping(documentClass);
+		elasticsearchClient.indices().create(c -> c
+				.index(index)
+				.settings(s -> s
+						.numberOfReplicas("0")
+						.refreshInterval(t -> t.time("-1")))
+				.mappings(m -> m.withJson(new StringReader(mapping))));
+	}
+
+	// 세그먼트를 합친 뒤 replica 를 붙여야 병합된 세그먼트만 복제된다
+	private void finishLoading(String index) throws IOException {
+		ElasticsearchIndicesClient indices = elasticsearchClient.indices();
+		indices.refresh(r -> r.index(index));
+		indices.forcemerge(f -> f.index(index).maxNumSegments(1L));
+		indices.putSettings(p -> p
+				.index(index)
+				.settings(s -> s
+						.numberOfReplicas(String.valueOf(replicas))
+						.refreshInterval(t -> t.time("1s"))));
+	}
+
+	private void switchAlias(String alias, String index) throws IOException {
+		ElasticsearchIndicesClient indices = elasticsearchClient.indices();
+		List<String> previous = indices.existsAlias(e -> e.name(alias)).value()
+				? new ArrayList<>(indices.getAlias(g -> g.name(alias)).result().keySet())
+				: List.of();
+		// alias 도입 전에 같은 이름으로 만들어진 실제 인덱스는 alias 추가와 같은 요청에서 삭제한다
+		boolean legacyIndex = previous.isEmpty() && indices.exists(e -> e.index(alias)).value();
+
+		indices.updateAliases(u -> {
+			u.actions(a -> a.add(add -> add.index(index).alias(alias).isWriteIndex(true)));
+			for (String old : previous) {
+				u.actions(a -> a.remove(remove -> remove.index(old).alias(alias)));
+			}
+			if (legacyIndex) {
+				u.actions(a -> a.removeIndex(remove -> remove.index(alias)));
+			}
+			return u;
+		});
+	}
+
+	// 이름의 시각 순으로 최근 keepVersions 개만 남긴다
+	private void cleanup(String alias, String activeIndex) {
+		try {
+			List<String> versions = new ArrayList<>(elasticsearchClient.indices()
+					.get(g -> g.index(alias + "-*")).result().keySet());
+			versions.sort(Comparator.reverseOrder());
+			for (String version : versions.subList(Math.min(keepVersions, versions.size()),
+					versions.size())) {
+				if (!version.equals(activeIndex)) {
+					elasticsearchClient.indices().delete(d -> d.index(version));
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			log.warn("이전 버전 인덱스 정리 실패: {}", alias, e);
+		}
+	}
+
+	private void deleteQuietly(String index) {
+		try {
+			elasticsearchClient.indices().delete(d -> d.index(index));
+		} catch (IOException | RuntimeException e) {
+			log.warn("재색인 실패 후 인덱스 삭제 실패: {}", index, e);
+		}
+	}
+}
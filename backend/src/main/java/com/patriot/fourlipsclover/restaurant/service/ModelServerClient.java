@@ -0,0 +1,225 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewSentimentResponse;
+import com.patriot.fourlipsclover.tag.dto.response.TagResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * 리뷰 감정 분석(/analyze), 태그 추출(/extract-tags) 모델 서버 호출.
+ * <p>
+ * 동시에 들어온 요청을 짧은 시간(window-ms) 또는 최대 개수(max-size)까지 모아 {path}/batch 로 한 번에 보낸다.
+ * 모델 서버에 배치 엔드포인트가 없으면(404/405) 이후로는 건별 호출로 전환한다.
+ */
+@Slf4j
+@Component
+public class ModelServerClient {
+
+	private final WebClient webClient;
+	private final String modelServerUri;
+	private final Duration timeout;
+	private final int maxBatchSize;
+	private final long windowNanos;
+	private final Batcher<ReviewSentimentResponse> analyzeBatcher;
+	private final Batcher<TagResponse> extractTagsBatcher;
+
+	public ModelServerClient(WebClient webClient, MeterRegistry meterRegistry,
+			@Value("${model.server.uri}") String modelServerUri,
+			@Value("${model.server.timeout-ms:10000}") long timeoutMs,
+			@Value("${model.server.batch.max-size:32}") int maxBatchSize,
+			@Value("${model.server.batch.window-ms:20}") long windowMs,
+			@Value("${model.server.batch.queue-capacity:1000}") int queueCapacity) {
+		this.webClient = webClient;
+		this.modelServerUri = modelServerUri;
+		this.timeout = Duration.ofMillis(timeoutMs);
+		this.maxBatchSize = maxBatchSize;
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+		this.analyzeBatcher = new Batcher<>("/analyze", ReviewSentimentResponse.class,
+				queueCapacity, meterRegistry);
+		this.extractTagsBatcher = new Batcher<>("/extract-tags", TagResponse.class,
+				queueCapacity, meterRegistry);
+	}
+
+	public ReviewSentimentResponse analyze(String text) {
+		return analyzeBatcher.call(text);
+	}
+
+	public TagResponse extractTags(String text) {
+		return extractTagsBatcher.call(text);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		analyzeBatcher.stop();
+		extractTagsBatcher.stop();
+	}
+
+	private static final class PendingRequest<R> {
+
+		private final String text;
+		private final CompletableFuture<R> future = new CompletableFuture<>();
+
+		private PendingRequest(String text) {
+			this.text = text;
+		}
+	}
+
+	private final class Batcher<R> {
+
+		private final String path;
+		private final Class<R> responseType;
+		private final BlockingQueue<PendingRequest<R>> queue;
+		private final DistributionSummary batchSizes;
+		private final Thread dispatcher;
+		private volatile boolean batchSupported = true;
+		private volatile boolean running = true;
+
+		private Batcher(String path, Class<R> responseType, int queueCapacity,
+				MeterRegistry meterRegistry) {
+			this.path = path;
+			this.responseType = responseType;
+			this.queue = new LinkedBlockingQueue<>(queueCapacity);
+			Gauge.builder("model.server.queue.depth", queue, BlockingQueue::size)
+					.tag("endpoint", path)
+					.register(meterRegistry);
+			this.batchSizes = DistributionSummary.builder("model.server.batch.size")
+					.tag("endpoint", path)
+					.publishPercentileHistogram()
+					.register(meterRegistry);
+			this.dispatcher = new Thread(this::dispatchLoop, "model-server-batcher" + path);
+			this.dispatcher.setDaemon(true);
+			this.dispatcher.start();
+		}
+
+		private R call(String text) {
+			PendingRequest<R> request = new PendingRequest<>(text);
+			if (!queue.offer(request)) {
+				throw new RejectedExecutionException("모델 서버 요청 대기열이 가득 찼습니다: " + path);
+			}
+			try {
+				R response = request.future.get(timeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+				return Objects.requireNonNull(response, "모델 서버 응답이 비어있습니다: " + path);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("모델 서버 호출이 중단되었습니다: " + path, e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException cause) {
+					throw cause;
+				}
+				throw new IllegalStateException(e.getCause());
+			} catch (TimeoutException e) {
+				throw new IllegalStateException("모델 서버 응답 시간이 초과되었습니다: " + path, e);
+			}
+		}
+
+		private void stop() {
+			running = false;
+			dispatcher.interrupt();
+		}
+
+		private void dispatchLoop() {
+			while (running) {
+				try {
+					PendingRequest<R> first = queue.poll(100, TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					List<PendingRequest<R>> batch = new ArrayList<>();
+					batch.add(first);
+					long deadline = System.nanoTime() + windowNanos;
+					while (batch.size() < maxBatchSize) {
+						long remaining = deadline - System.nanoTime();
+						PendingRequest<R> next = remaining > 0
+								? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+						if (next == null) {
+							break;
+						}
+						batch.add(next);
+					}
+					batchSizes.record(batch.size());
+					send(batch);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (RuntimeException e) {
+					log.error("Model server batch dispatch failed: {}", path, e);
+				}
+			}
+		}
+
+		private void send(List<PendingRequest<R>> batch) {
+			if (batch.size() == 1 || !batchSupported) {
+				batch.forEach(this::sendSingle);
+				return;
+			}
+			List<String> texts = batch.stream().map(request -> request.text).toList();
+			webClient.post()
+					.uri(modelServerUri + path + "/batch")
+					.contentType(MediaType.APPLICATION_JSON)
+					.bodyValue(Map.of("texts", texts))
+					.retrieve()
+					.bodyToFlux(responseType)
+					.collectList()
+					.timeout(timeout)
+					.subscribe(results -> {
+						if (results.size() != batch.size()) {
+							IllegalStateException error = new IllegalStateException(
+									"배치 응답 개수가 요청과 다릅니다: " + path);
+							batch.forEach(request -> request.future.completeExceptionally(error));
+							return;
+						}
+						for (int i = 0; i < batch.size(); i++) {
+							batch.get(i).future.complete(results.get(i));
+						}
+					}, error -> {
+						if (isBatchUnsupported(error)) {
+							batchSupported = false;
+							log.warn("Model server has no batch endpoint, falling back to single calls: {}",
+									path);
+							batch.forEach(this::sendSingle);
+							return;
+						}
+						batch.forEach(request -> request.future.completeExceptionally(error));
+					});
+		}
+
+		private void sendSingle(PendingRequest<R> request) {
+			webClient.post()
+					.uri(modelServerUri + path)
+					.contentType(MediaType.APPLICATION_JSON)
+					.bodyValue(Map.of("text", request.text))
+					.retrieve()
+					.bodyToMono(responseType)
+					.timeout(timeout)
+					.subscribe(request.future::complete, request.future::completeExceptionally,
+							() -> request.future.complete(null));
+		}
+
+		private boolean isBatchUnsupported(Throwable error) {
+			return error instanceof WebClientResponseException e
+					&& (e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)
+					|| e.getStatusCode().isSameCodeAs(HttpStatus.METHOD_NOT_ALLOWED));
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 식당별 1인당 결제 금액 히스토그램.
+ * <p>
+ * 1만원 단위 구간 10개와 10만원 초과 구간 1개의 결제 건수, 1인당 금액 합계/건수만 가진다. 결제를 저장할 때 구간 하나와 합계만 늘리므로
+ * 분포, 평균, 백분위를 결제 건수와 상관없이 구간 수만큼의 계산으로 구한다.
+ */
+public final class PriceHistogram {
+
+	public static final int BUCKET_COUNT = 11;
+	private static final int BUCKET_WIDTH = 10000;
+
+	private final int[] counts;
+	private final long amountSum;
+	private final long personnelSum;
+
+	public PriceHistogram(int[] counts, long amountSum, long personnelSum) {
+		if (counts.length != BUCKET_COUNT) {
+			throw new IllegalArgumentException("구간 수가 올바르지 않습니다: " + counts.length);
+		}
+		this.counts = counts.clone();
+		this.amountSum = amountSum;
+		this.personnelSum = personnelSum;
+	}
+
+	public static PriceHistogram empty() {
+		return new PriceHistogram(new int[BUCKET_COUNT], 0, 0);
+	}
+
+	/**
+	 * 1인당 금액의 구간. ~1만원은 0, (1만, 2만]원은 1, ..., 10만원 초과는 10.
+	 */
+	public static int bucketOf(int perPersonAmount) {
+		if (perPersonAmount <= BUCKET_WIDTH) {
+			return 0;
+		}
+		if (perPersonAmount > BUCKET_WIDTH * (BUCKET_COUNT - 1)) {
+			return BUCKET_COUNT - 1;
+		}
+		return (perPersonAmount - 1) / BUCKET_WIDTH;
+	}
+
+	// 검색 문서 avgAmount 와 같은 구간 이름
+	public static String label(int bucket) {
+		if (bucket == 0) {
+			return "1 ~ " + BUCKET_WIDTH;
+		}
+		if (bucket == BUCKET_COUNT - 1) {
+			return BUCKET_WIDTH * bucket + " ~";
+		}
+		return BUCKET_WIDTH * bucket + " ~ " + BUCKET_WIDTH * (bucket + 1);
+	}
+
+	/**
+	 * 결제 한 건을 더한 새 히스토그램. 1인당 금액을 계산할 수 없는 결제면 그대로 돌려준다.
+	 */
+	public PriceHistogram add(Integer amount, Integer visitedPersonnel) {
+		if (amount == null || amount <= 0 || visitedPersonnel == null || visitedPersonnel <= 0) {
+			return this;
+		}
+		int perPersonAmount = amount / visitedPersonnel;
+		int[] added = counts.clone();
+		added[bucketOf(perPersonAmount)]++;
+		return new PriceHistogram(added, amountSum + perPersonAmount, personnelSum + visitedPersonnel);
+	}
+
+	public int[] counts() {
+		return counts.clone();
+	}
+
+	public long amountSum() {
+		return amountSum;
+	}
+
+	public long personnelSum() {
+		return personnelSum;
+	}
+
+	public long paymentCount() {
+		return Arrays.stream(counts).asLongStream().sum();
+	}
+
+	public boolean isEmpty() {
+		return paymentCount() == 0;
+	}
+
+	public Integer mean() {
+		long paymentCount = paymentCount();
+		return paymentCount == 0 ? null : (int) (amountSum / paymentCount);
+	}
+
+	/**
+	 * 결제가 가장 많은 구간 이름. 건수가 같으면 낮은 구간.
+	 */
+	public String mostFrequentRange() {
+		int best = -1;
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			if (counts[bucket] > 0 && (best < 0 || counts[bucket] > counts[best])) {
+				best = bucket;
+			}
+		}
+		return best < 0 ? null : label(best);
+	}
+
+	/**
+	 * 구간 안에서는 고르게 퍼져 있다고 보고 선형 보간한 백분위 추정값. 10만원 초과 구간은 하한을 돌려준다.
+	 *
+	 * @param percentile 0 ~ 100
+	 */
+	public Integer percentile(double percentile) {
+		long paymentCount = paymentCount();
+		if (paymentCount == 0) {
+			return null;
+		}
+		double rank = Math.max(0, Math.min(100, percentile)) / 100 * paymentCount;
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			if (counts[bucket] == 0) {
+				continue;
+			}
+			if (seen + counts[bucket] >= rank) {
+				int lower = bucket * BUCKET_WIDTH;
+				if (bucket == BUCKET_COUNT - 1) {
+					return lower;
+				}
+				return (int) (lower + (rank - seen) / counts[bucket] * BUCKET_WIDTH);
+			}
+			seen += counts[bucket];
+		}
+		return BUCKET_WIDTH * (BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * 구간 이름 -> 결제 건수 (건수가 있는 구간만, 낮은 구간부터)
+	 */
+	public Map<String, Integer> distribution() {
+		Map<String, Integer> distribution = new LinkedHashMap<>();
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			if (counts[bucket] > 0) {
+				distribution.put(label(bucket), counts[bucket]);
+			}
+		}
+		return distribution;
+	}
+}
@@ -0,0 +1,25 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * 결제 금액 히스토그램을 결제 테이블에서 다시 계산한다. (actuator 엔드포인트, 노출 설정이 있어야 열린다)
+ * <p>
+ * 테이블을 처음 만들었거나 결제 데이터를 직접 고친 뒤 POST /actuator/pricehistogram 으로 실행한다.
+ */
+@Component
+@Endpoint(id = "pricehistogram")
+@RequiredArgsConstructor
+public class PriceHistogramRebuildEndpoint {
+
+	private final PriceHistogramService priceHistogramService;
+
+	@WriteOperation
+	public Map<String, Object> rebuild() {
+		return Map.of("rebuilt", priceHistogramService.rebuildAll());
+	}
+}
@@ -0,0 +1,119 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.patriot.fourlipsclover.exception.InvalidDataException;
+import com.patriot.fourlipsclover.payment.entity.VisitPayment;
+import com.patriot.fourlipsclover.payment.repository.VisitPaymentRepository;
+import com.patriot.fourlipsclover.restaurant.dto.response.PriceDistributionResponse;
+import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import com.patriot.fourlipsclover.restaurant.entity.RestaurantPriceHistogram;
+import com.patriot.fourlipsclover.restaurant.repository.PriceHistogramBatchRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantPriceHistogramRepository;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 식당별 1인당 결제 금액 분포.
+ * <p>
+ * 결제를 저장하는 트랜잭션에서 record 로 히스토그램의 구간 하나와 합계를 늘리고, 조회는 식당당 한 행만 읽는다. 결제 테이블을 다시 훑는
+ * 일은 rebuildAll (actuator pricehistogram) 뿐이다.
+ */
+@Slf4j
+@Service
+public class PriceHistogramService {
+
+	private static final double[] PERCENTILES = {25, 50, 75, 90};
+
+	private final RestaurantJpaRepository restaurantRepository;
+	private final RestaurantPriceHistogramRepository priceHistogramRepository;
+	private final PriceHistogramBatchRepository priceHistogramBatchRepository;
+	private final VisitPaymentRepository visitPaymentRepository;
+	private final int rebuildChunkSize;
+
+	public PriceHistogramService(RestaurantJpaRepository restaurantRepository,
+			RestaurantPriceHistogramRepository priceHistogramRepository,
+			PriceHistogramBatchRepository priceHistogramBatchRepository,
+			VisitPaymentRepository visitPaymentRepository,
+			@Value("${restaurant.price-histogram.rebuild-chunk-size:500}") int rebuildChunkSize) {
+		this.restaurantRepository = restaurantRepository;
+		this.priceHistogramRepository = priceHistogramRepository;
+		this.priceHistogramBatchRepository = priceHistogramBatchRepository;
+		this.visitPaymentRepository = visitPaymentRepository;
+		this.rebuildChunkSize = rebuildChunkSize;
+	}
+
+	/**
+	 * 저장한 결제를 히스토그램에 더한다. 호출한 쪽의 트랜잭션에 참여하므로 결제 저장이 롤백되면 함께 롤백된다.
+	 */
+	@Transactional
+	public void record(VisitPayment visitPayment) {
+		priceHistogramBatchRepository.add(visitPayment.getRestaurantId().getRestaurantId(),
+				visitPayment.getAmount(), visitPayment.getVisitedPersonnel());
+	}
+
+	@Transactional(readOnly = true)
+	public PriceDistributionResponse getDistribution(String kakaoPlaceId) {
+		Restaurant restaurant = restaurantRepository.findByKakaoPlaceId(kakaoPlaceId)
+				.orElseThrow(() -> new InvalidDataException("존재하지 않는 식당입니다."));
+		PriceHistogram histogram = priceHistogramRepository.findById(restaurant.getRestaurantId())
+				.map(RestaurantPriceHistogram::toHistogram)
+				.orElseGet(PriceHistogram::empty);
+		return toResponse(histogram);
+	}
+
+	/**
+	 * 결제 테이블에서 모든 식당의 히스토그램을 다시 계산해 덮어쓴다. 결제가 있는 식당 ID 를 키셋 방식으로 chunk 씩 읽는다.
+	 * <p>
+	 * chunk 를 계산하는 사이 그 식당들에 저장된 결제는 반영되지 않을 수 있으므로 결제가 적은 시간에 실행한다.
+	 *
+	 * @return 다시 계산한 식당 수
+	 */
+	public int rebuildAll() {
+		int rebuilt = 0;
+		Integer afterId = 0;
+		while (true) {
+			List<Integer> restaurantIds = visitPaymentRepository.findRestaurantIdsAfter(afterId,
+					PageRequest.of(0, rebuildChunkSize));
+			if (restaurantIds.isEmpty()) {
+				break;
+			}
+			Map<Integer, PriceHistogram> histograms = new HashMap<>();
+			for (Integer restaurantId : restaurantIds) {
+				histograms.put(restaurantId, PriceHistogram.empty());
+			}
+			for (Object[] row : visitPaymentRepository.findAmountsByRestaurantIds(restaurantIds)) {
+				histograms.computeIfPresent((Integer) row[0],
+						(restaurantId, histogram) -> histogram.add((Integer) row[1], (Integer) row[2]));
+			}
+			priceHistogramBatchRepository.replaceAll(histograms);
+			rebuilt += restaurantIds.size();
+			afterId = restaurantIds.get(restaurantIds.size() - 1);
+		}
+		log.info("식당 {}곳의 결제 금액 히스토그램을 다시 계산했습니다.", rebuilt);
+		return rebuilt;
+	}
+
+	static PriceDistributionResponse toResponse(PriceHistogram histogram) {
+		Map<String, Integer> percentiles = new LinkedHashMap<>();
+		if (!histogram.isEmpty()) {
+			for (double percentile : PERCENTILES) {
+				percentiles.put("p" + (int) percentile, histogram.percentile(percentile));
+			}
+		}
+		return PriceDistributionResponse.builder()
+				.totalPersonnel((int) histogram.personnelSum())
+				.paymentCount(histogram.paymentCount())
+				.meanAmount(histogram.mean())
+				.mostFrequentRange(histogram.mostFrequentRange())
+				.priceRangeDistribution(histogram.distribution())
+				.percentiles(percentiles)
+				.build();
+	}
+}
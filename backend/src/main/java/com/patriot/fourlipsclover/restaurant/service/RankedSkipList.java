@@ -0,0 +1,220 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 순위(1부터 시작)로 접근할 수 있는 정렬 skip list.
+ * <p>
+ * 각 링크에 건너뛰는 원소 수(span)를 함께 저장해 추가, 삭제, 순위 조회, 순위로 원소 찾기가 모두 O(log n) 이고, 순위 구간 조회는
+ * O(log n + k) 이다. 비교자는 서로 다른 원소를 0 으로 판단하지 않아야 한다. 동기화는 호출하는 쪽에서 한다.
+ */
+final class RankedSkipList<E> implements Iterable<E> {
+
+	private static final int MAX_LEVEL = 32;
+
+	private final Comparator<? super E> comparator;
+	private final Node<E> head = new Node<>(null, MAX_LEVEL);
+	private int level = 1;
+	private int size = 0;
+
+	private static final class Node<E> {
+
+		private final E value;
+		private final Node<E>[] next;
+		// span[i]: next[i] 까지 건너뛰는 원소 수 (next[i] 가 없으면 마지막 원소까지의 거리)
+		private final int[] span;
+
+		@SuppressWarnings("unchecked")
+		private Node(E value, int level) {
+			this.value = value;
+			this.next = new Node[level];
+			this.span = new int[level];
+		}
+	}
+
+	RankedSkipList(Comparator<? super E> comparator) {
+		this.comparator = comparator;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void add(E value) {
+		@SuppressWarnings("unchecked")
+		Node<E>[] update = new Node[MAX_LEVEL];
+		int[] rank = new int[MAX_LEVEL];
+		Node<E> x = head;
+		for (int i = level - 1; i >= 0; i--) {
+			rank[i] = i == level - 1 ? 0 : rank[i + 1];
+			while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+				rank[i] += x.span[i];
+				x = x.next[i];
+			}
+			update[i] = x;
+		}
+
+		int nodeLevel = randomLevel();
+		if (nodeLevel > level) {
+			for (int i = level; i < nodeLevel; i++) {
+				rank[i] = 0;
+				update[i] = head;
+				head.span[i] = size;
+			}
+			level = nodeLevel;
+		}
+
+		Node<E> node = new Node<>(value, nodeLevel);
+		for (int i = 0; i < nodeLevel; i++) {
+			node.next[i] = update[i].next[i];
+			update[i].next[i] = node;
+			node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+			update[i].span[i] = rank[0] - rank[i] + 1;
+		}
+		for (int i = nodeLevel; i < level; i++) {
+			update[i].span[i]++;
+		}
+		size++;
+	}
+
+	boolean remove(E value) {
+		@SuppressWarnings("unchecked")
+		Node<E>[] update = new Node[MAX_LEVEL];
+		Node<E> x = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+				x = x.next[i];
+			}
+			update[i] = x;
+		}
+		Node<E> target = x.next[0];
+		if (target == null || comparator.compare(target.value, value) != 0) {
+			return false;
+		}
+		for (int i = 0; i < level; i++) {
+			if (update[i].next[i] == target) {
+				update[i].span[i] += target.span[i] - 1;
+				update[i].next[i] = target.next[i];
+			} else {
+				update[i].span[i]--;
+			}
+		}
+		while (level > 1 && head.next[level - 1] == null) {
+			level--;
+		}
+		size--;
+		return true;
+	}
+
+	void clear() {
+		Arrays.fill(head.next, null);
+		Arrays.fill(head.span, 0);
+		level = 1;
+		size = 0;
+	}
+
+	/**
+	 * @return 1부터 시작하는 순위, 없으면 0
+	 */
+	int rankOf(E value) {
+		Node<E> x = head;
+		int rank = 0;
+		for (int i = level - 1; i >= 0; i--) {
+			while (x.next[i] != null && comparator.compare(x.next[i].value, value) <= 0) {
+				rank += x.span[i];
+				x = x.next[i];
+			}
+			if (x != head && comparator.compare(x.value, value) == 0) {
+				return rank;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @param rank 1부터 시작하는 순위
+	 */
+	E get(int rank) {
+		Node<E> node = nodeAt(rank);
+		if (node == null) {
+			throw new IndexOutOfBoundsException(rank);
+		}
+		return node.value;
+	}
+
+	/**
+	 * fromRank 부터 toRank 까지(양 끝 포함) 원소를 순서대로 반환한다. 범위를 벗어난 부분은 잘라낸다.
+	 */
+	List<E> range(int fromRank, int toRank) {
+		int from = Math.max(fromRank, 1);
+		int to = Math.min(toRank, size);
+		if (from > to) {
+			return List.of();
+		}
+		List<E> result = new ArrayList<>(to - from + 1);
+		Node<E> x = nodeAt(from);
+		for (int rank = from; rank <= to; rank++) {
+			result.add(x.value);
+			x = x.next[0];
+		}
+		return result;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<>() {
+			private Node<E> current = head.next[0];
+
+			@Override
+			public boolean hasNext() {
+				return current != null;
+			}
+
+			@Override
+			public E next() {
+				if (current == null) {
+					throw new NoSuchElementException();
+				}
+				E value = current.value;
+				current = current.next[0];
+				return value;
+			}
+		};
+	}
+
+	private Node<E> nodeAt(int rank) {
+		if (rank < 1 || rank > size) {
+			return null;
+		}
+		Node<E> x = head;
+		int traversed = 0;
+		for (int i = level - 1; i >= 0; i--) {
+			while (x.next[i] != null && traversed + x.span[i] <= rank) {
+				traversed += x.span[i];
+				x = x.next[i];
+			}
+			if (traversed == rank) {
+				return x;
+			}
+		}
+		return null;
+	}
+
+	private int randomLevel() {
+		int nodeLevel = 1;
+		while (nodeLevel < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+			nodeLevel++;
+		}
+		return nodeLevel;
+	}
+}
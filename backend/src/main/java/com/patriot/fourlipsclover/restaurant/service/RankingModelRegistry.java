@@ -0,0 +1,175 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import weka.classifiers.trees.RandomForest;
+
+/**
+ * 랭킹 모델 파일 저장소.
+ * <p>
+ * 학습된 모델을 random_forest_model-v{버전}.ser 로 저장하고 SHA-256 체크섬(.sha256)을 함께 기록한다. 사용 중인 버전은 CURRENT
+ * 파일에 기록하며, 파일은 임시 파일에 쓴 뒤 이동하므로 중간에 실패해도 깨진 모델을 읽지 않는다.
+ */
+@Slf4j
+@Component
+public class RankingModelRegistry {
+
+	private static final Pattern ARTIFACT = Pattern.compile("random_forest_model-v(\\d+)\\.ser");
+	private static final String CURRENT = "CURRENT";
+	private static final String LEGACY_ARTIFACT = "random_forest_model.ser";
+
+	private final Path directory;
+	private final int keepVersions;
+
+	public RankingModelRegistry(@Value("${ranking.model.dir:model}") String directory,
+			@Value("${ranking.model.keep-versions:5}") int keepVersions) {
+		this.directory = Paths.get(directory);
+		this.keepVersions = keepVersions;
+	}
+
+	/**
+	 * 새 버전으로 저장한다. 활성화는 activate 로 따로 한다.
+	 */
+	public synchronized int save(RandomForest model) throws IOException {
+		Files.createDirectories(directory);
+		int version = versions().stream().max(Integer::compare).orElse(0) + 1;
+		byte[] bytes = serialize(model);
+		// 체크섬을 먼저 기록해 모델 파일이 보이면 체크섬도 항상 있도록 한다
+		writeAtomically(checksumPath(version), checksum(bytes).getBytes());
+		writeAtomically(artifactPath(version), bytes);
+		log.info("랭킹 모델 저장 완료 (v{})", version);
+		return version;
+	}
+
+	public RandomForest load(int version) throws IOException {
+		byte[] bytes = Files.readAllBytes(artifactPath(version));
+		String expected = Files.readString(checksumPath(version)).trim();
+		if (!expected.equals(checksum(bytes))) {
+			throw new IOException("모델 파일 체크섬이 일치하지 않습니다: v" + version);
+		}
+		return deserialize(bytes);
+	}
+
+	public synchronized void activate(int version) throws IOException {
+		if (!Files.exists(artifactPath(version))) {
+			throw new IOException("존재하지 않는 모델 버전입니다: v" + version);
+		}
+		writeAtomically(directory.resolve(CURRENT), String.valueOf(version).getBytes());
+		prune(version);
+	}
+
+	public Optional<Integer> activeVersion() throws IOException {
+		Path current = directory.resolve(CURRENT);
+		if (!Files.exists(current)) {
+			return Optional.empty();
+		}
+		return Optional.of(Integer.parseInt(Files.readString(current).trim()));
+	}
+
+	public Optional<Integer> previousVersion(int version) throws IOException {
+		return versions().stream().filter(v -> v < version).max(Integer::compare);
+	}
+
+	/**
+	 * 저장된 버전 목록 (오름차순)
+	 */
+	public List<Integer> versions() throws IOException {
+		if (!Files.isDirectory(directory)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(path -> ARTIFACT.matcher(path.getFileName().toString()))
+					.filter(Matcher::matches)
+					.map(matcher -> Integer.parseInt(matcher.group(1)))
+					.sorted()
+					.toList();
+		}
+	}
+
+	/**
+	 * 버전 관리 이전의 model/random_forest_model.ser 가 있으면 첫 버전으로 옮긴다.
+	 */
+	public synchronized void migrateLegacy() throws IOException {
+		Path legacy = directory.resolve(LEGACY_ARTIFACT);
+		if (!Files.exists(legacy) || activeVersion().isPresent()) {
+			return;
+		}
+		int version = save(deserialize(Files.readAllBytes(legacy)));
+		activate(version);
+		Files.delete(legacy);
+		log.info("기존 랭킹 모델 파일을 v{} 로 옮겼습니다.", version);
+	}
+
+	// 활성 버전과 최근 keepVersions 개만 남긴다
+	private void prune(int activeVersion) throws IOException {
+		List<Integer> versions = versions();
+		for (int i = 0; i < versions.size() - keepVersions; i++) {
+			int version = versions.get(i);
+			if (version != activeVersion) {
+				Files.deleteIfExists(artifactPath(version));
+				Files.deleteIfExists(checksumPath(version));
+			}
+		}
+	}
+
+	private Path artifactPath(int version) {
+		return directory.resolve("random_forest_model-v" + version + ".ser");
+	}
+
+	private Path checksumPath(int version) {
+		return directory.resolve("random_forest_model-v" + version + ".sha256");
+	}
+
+	private void writeAtomically(Path target, byte[] bytes) throws IOException {
+		Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temp, bytes);
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private byte[] serialize(RandomForest model) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+			oos.writeObject(model);
+		}
+		return bytes.toByteArray();
+	}
+
+	private RandomForest deserialize(byte[] bytes) throws IOException {
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (RandomForest) ois.readObject();
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("모델 파일을 읽을 수 없습니다.", e);
+		}
+	}
+
+	private String checksum(byte[] bytes) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
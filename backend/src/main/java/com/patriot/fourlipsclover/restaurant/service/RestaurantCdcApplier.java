@@ -0,0 +1,56 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.patriot.fourlipsclover.restaurant.dto.kafka.RestaurantKafkaDto;
+import com.patriot.fourlipsclover.restaurant.entity.CdcOffset;
+import com.patriot.fourlipsclover.restaurant.entity.CdcOffsetPK;
+import com.patriot.fourlipsclover.restaurant.repository.CdcOffsetRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 식당 CDC 변경과 컨슈머 offset 을 같은 트랜잭션으로 기록한다.
+ * <p>
+ * 커밋이 끝난 offset 은 DB 가 기준이므로 Kafka 커밋이 실패하거나 리밸런싱으로 같은 레코드를 다시 받아도 저장된 offset 이전 레코드는 건너뛰고,
+ * 중간에 실패하면 변경과 offset 이 함께 롤백된다.
+ */
+@Service
+@RequiredArgsConstructor
+public class RestaurantCdcApplier {
+
+	private final RestaurantService restaurantService;
+	private final CdcOffsetRepository cdcOffsetRepository;
+
+	/**
+	 * @return partition -> 다음에 읽을 offset
+	 */
+	@Transactional(readOnly = true)
+	public Map<Integer, Long> findNextOffsets(String consumerGroup, String topic) {
+		return cdcOffsetRepository.findByConsumerGroup(consumerGroup).stream()
+				.filter(offset -> offset.getId().getTopic().equals(topic))
+				.collect(Collectors.toMap(offset -> offset.getId().getPartitionId(),
+						CdcOffset::getNextOffset));
+	}
+
+	/**
+	 * @param nextOffsets partition -> 이 배치까지 처리한 뒤 다음에 읽을 offset
+	 */
+	@Transactional
+	public void apply(String consumerGroup, String topic, List<RestaurantKafkaDto> dtos,
+			Map<Integer, Long> nextOffsets) {
+		if (!dtos.isEmpty()) {
+			restaurantService.processKafkaBatch(dtos);
+		}
+		nextOffsets.forEach((partition, nextOffset) -> {
+			CdcOffsetPK id = new CdcOffsetPK(consumerGroup, topic, partition);
+			CdcOffset offset = cdcOffsetRepository.findById(id)
+					.orElseGet(() -> new CdcOffset(id, nextOffset));
+			// 리밸런싱 직후 다른 컨슈머가 이미 더 앞까지 반영했으면 되돌리지 않는다
+			offset.setNextOffset(Math.max(offset.getNextOffset(), nextOffset));
+			cdcOffsetRepository.save(offset);
+		});
+	}
+}
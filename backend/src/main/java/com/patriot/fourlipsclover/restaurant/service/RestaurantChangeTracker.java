@@ -0,0 +1,70 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 리뷰, 좋아요, 감정 분석, 태그, 방문 결제처럼 식당에 딸린 데이터가 바뀐 것을 기록한다. 랭킹 저장소 갱신 대상으로 표시하고, 다음 증분
+ * 검색 색인이 다시 색인할 식당으로 모아 둔다.
+ * <p>
+ * restaurant 행은 건드리지 않아 같은 식당에 대한 요청끼리 행 잠금을 다투지 않는다. 모아 둔 식당은 이 노드의 메모리에만 있어 재시작하면
+ * 사라지며, CDC 검색 문서 갱신과 야간 전체 색인이 보정한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class RestaurantChangeTracker {
+
+	private final RestaurantRankingService restaurantRankingService;
+	private final Set<Integer> changedRestaurantIds = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 트랜잭션 안에서 호출되면 커밋 후에 기록한다.
+	 */
+	public void markChanged(Integer restaurantId) {
+		if (restaurantId == null) {
+			return;
+		}
+		restaurantRankingService.markDirty(restaurantId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					changedRestaurantIds.add(restaurantId);
+				}
+			});
+		} else {
+			changedRestaurantIds.add(restaurantId);
+		}
+	}
+
+	/**
+	 * updated_at 을 이미 함께 기록한 경우(CDC 배치 upsert 등) 랭킹 갱신 대상으로만 표시한다.
+	 */
+	public void markDirty(Integer restaurantId) {
+		restaurantRankingService.markDirty(restaurantId);
+	}
+
+	/**
+	 * 모아 둔 식당을 꺼낸다. 색인에 실패하면 restore 로 되돌린다.
+	 */
+	public List<Integer> drainChanged() {
+		List<Integer> restaurantIds = new ArrayList<>();
+		for (Integer restaurantId : new ArrayList<>(changedRestaurantIds)) {
+			if (changedRestaurantIds.remove(restaurantId)) {
+				restaurantIds.add(restaurantId);
+			}
+		}
+		return restaurantIds;
+	}
+
+	public void restore(Collection<Integer> restaurantIds) {
+		changedRestaurantIds.addAll(restaurantIds);
+	}
+}
@@ -0,0 +1,196 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantResponseCodec.Entry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * kakaoPlaceId 별 식당 상세 read-through 캐시. 로컬(Caffeine) -> Redis(선택) -> 검색 순으로 찾는다.
+ * <p>
+ * 같은 키를 동시에 찾으면 먼저 온 요청 하나만 읽고 나머지는 그 결과를 기다린다. 없는 식당도 짧은 TTL 로 캐시해 없는 ID 반복 조회가 매번
+ * 검색까지 가지 않게 한다. Redis 값은 RestaurantResponseCodec 의 바이너리 형식이다. 변경은 CDC 로 evict 된다.
+ * <p>
+ * /actuator/metrics/restaurant.detail.cache.requests (tier, result 태그)와 cache.* (cache=restaurantDetail)로 적중률을 본다.
+ */
+@Slf4j
+@Component
+public class RestaurantDetailCache {
+
+	private static final String REDIS_KEY_PREFIX = "restaurant:detail:";
+	private static final String METRIC = "restaurant.detail.cache.requests";
+
+	private final boolean enabled;
+	private final AsyncCache<String, Optional<RestaurantResponse>> localCache;
+	@Nullable
+	private final RedisTemplate<String, byte[]> redisTemplate;
+	private final Duration redisTtl;
+	private final Duration redisNegativeTtl;
+	private final Counter localHits;
+	private final Counter localMisses;
+	private final Counter coalesced;
+	private final Counter redisHits;
+	private final Counter redisMisses;
+
+	public RestaurantDetailCache(@Nullable RedisTemplate<String, byte[]> binaryRedisTemplate,
+			MeterRegistry meterRegistry,
+			@Value("${restaurant.detail-cache.enabled:true}") boolean enabled,
+			@Value("${restaurant.detail-cache.local.ttl-seconds:60}") long localTtlSeconds,
+			@Value("${restaurant.detail-cache.local.negative-ttl-seconds:10}") long localNegativeTtlSeconds,
+			@Value("${restaurant.detail-cache.local.max-size:10000}") long localMaxSize,
+			@Value("${restaurant.detail-cache.redis.enabled:false}") boolean redisEnabled,
+			@Value("${restaurant.detail-cache.redis.ttl-seconds:600}") long redisTtlSeconds,
+			@Value("${restaurant.detail-cache.redis.negative-ttl-seconds:30}") long redisNegativeTtlSeconds) {
+		this.enabled = enabled;
+		long ttlNanos = Duration.ofSeconds(localTtlSeconds).toNanos();
+		long negativeTtlNanos = Duration.ofSeconds(localNegativeTtlSeconds).toNanos();
+		this.localCache = Caffeine.newBuilder()
+				.maximumSize(localMaxSize)
+				.expireAfter(new Expiry<String, Optional<RestaurantResponse>>() {
+					@Override
+					public long expireAfterCreate(String key, Optional<RestaurantResponse> value,
+							long currentTime) {
+						return value.isPresent() ? ttlNanos : negativeTtlNanos;
+					}
+
+					@Override
+					public long expireAfterUpdate(String key, Optional<RestaurantResponse> value,
+							long currentTime, long currentDuration) {
+						return expireAfterCreate(key, value, currentTime);
+					}
+
+					@Override
+					public long expireAfterRead(String key, Optional<RestaurantResponse> value,
+							long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.buildAsync();
+		CaffeineCacheMetrics.monitor(meterRegistry, localCache, "restaurantDetail");
+		this.redisTemplate = redisEnabled ? binaryRedisTemplate : null;
+		this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+		this.redisNegativeTtl = Duration.ofSeconds(redisNegativeTtlSeconds);
+		this.localHits = counter(meterRegistry, "local", "hit");
+		this.localMisses = counter(meterRegistry, "local", "miss");
+		this.coalesced = counter(meterRegistry, "local", "coalesced");
+		this.redisHits = counter(meterRegistry, "redis", "hit");
+		this.redisMisses = counter(meterRegistry, "redis", "miss");
+	}
+
+	/**
+	 * @param loader 캐시에 없을 때 부른다. 식당이 없으면 null 을 돌려준다 (예외는 캐시하지 않는다)
+	 * @return 식당이 없으면 null
+	 */
+	public RestaurantResponse get(String kakaoPlaceId, Function<String, RestaurantResponse> loader) {
+		if (!enabled) {
+			return loader.apply(kakaoPlaceId);
+		}
+		CompletableFuture<Optional<RestaurantResponse>> created = new CompletableFuture<>();
+		CompletableFuture<Optional<RestaurantResponse>> future = localCache.get(kakaoPlaceId,
+				(key, executor) -> created);
+		if (future == created) {
+			localMisses.increment();
+			try {
+				created.complete(load(kakaoPlaceId, created, loader));
+			} catch (RuntimeException e) {
+				// 실패한 future 는 Caffeine 이 지우므로 다음 요청이 다시 읽는다
+				created.completeExceptionally(e);
+			}
+		} else if (future.isDone()) {
+			localHits.increment();
+		} else {
+			coalesced.increment();
+		}
+		try {
+			return future.join().orElse(null);
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	public void evict(Collection<String> kakaoPlaceIds) {
+		if (kakaoPlaceIds.isEmpty()) {
+			return;
+		}
+		localCache.synchronous().invalidateAll(kakaoPlaceIds);
+		if (redisTemplate != null) {
+			try {
+				redisTemplate.delete(kakaoPlaceIds.stream().map(id -> REDIS_KEY_PREFIX + id).toList());
+			} catch (RuntimeException e) {
+				log.warn("식당 상세 캐시 Redis 항목 삭제 실패: {}", e.getMessage());
+			}
+		}
+	}
+
+	private Optional<RestaurantResponse> load(String kakaoPlaceId,
+			CompletableFuture<Optional<RestaurantResponse>> owner,
+			Function<String, RestaurantResponse> loader) {
+		Entry cached = readRedis(kakaoPlaceId);
+		if (cached != null) {
+			redisHits.increment();
+			return Optional.ofNullable(cached.response());
+		}
+		if (redisTemplate != null) {
+			redisMisses.increment();
+		}
+		RestaurantResponse response = loader.apply(kakaoPlaceId);
+		// 읽는 동안 evict 됐으면 옛 값일 수 있어 Redis 에 쓰지 않는다
+		if (localCache.asMap().get(kakaoPlaceId) == owner) {
+			writeRedis(kakaoPlaceId, response);
+		}
+		return Optional.ofNullable(response);
+	}
+
+	@Nullable
+	private Entry readRedis(String kakaoPlaceId) {
+		if (redisTemplate == null) {
+			return null;
+		}
+		try {
+			return RestaurantResponseCodec.decode(
+					redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + kakaoPlaceId));
+		} catch (RuntimeException e) {
+			log.warn("식당 상세 캐시 Redis 조회 실패 [{}]: {}", kakaoPlaceId, e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeRedis(String kakaoPlaceId, RestaurantResponse response) {
+		if (redisTemplate == null) {
+			return;
+		}
+		try {
+			redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + kakaoPlaceId,
+					RestaurantResponseCodec.encode(response),
+					response == null ? redisNegativeTtl : redisTtl);
+		} catch (RuntimeException e) {
+			log.warn("식당 상세 캐시 Redis 저장 실패 [{}]: {}", kakaoPlaceId, e.getMessage());
+		}
+	}
+
+	private static Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+		return Counter.builder(METRIC)
+				.tag("tier", tier)
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+}
@@ -3,77 +3,99 @@ package com.patriot.fourlipsclover.restaurant.service;
 import static co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType.BestFields;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
 import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
-import co.elastic.clients.elasticsearch._types.query_dsl.FieldValueFactorModifier;
-import co.elastic.clients.elasticsearch._types.query_dsl.NestedQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.ChildScoreMode;
 import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.patriot.fourlipsclover.exception.InvalidDataException;
 import com.patriot.fourlipsclover.restaurant.document.RestaurantDocument;
+import com.patriot.fourlipsclover.restaurant.dto.request.RestaurantSearchCursor;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantPageResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
 import com.patriot.fourlipsclover.restaurant.mapper.RestaurantSearchMapper;
-import com.patriot.fourlipsclover.tag.entity.Tag;
-import com.patriot.fourlipsclover.tag.repository.TagRepository;
+import com.patriot.fourlipsclover.tag.service.TagDictionary;
+import com.patriot.fourlipsclover.tag.service.TagDictionary.TagNames;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RestaurantElasticsearchService {
 
+	private static final int TAG_QUERY_CACHE_SIZE = 1000;
+	private static final int NEARBY_SIZE = 100;
+	private static final int FACET_SIZE = 20;
+	private static final String CATEGORY_FACET = "category";
+	private static final String PRICE_RANGE_FACET = "priceRange";
+	// 목록 응답에 필요한 필드만 _source 에서 읽는다. 이미지/태그는 상세 조회에서 읽는다
+	private static final List<String> LIST_FIELDS = List.of("restaurantId", "kakaoPlaceId", "name",
+			"address", "category", "location", "priceRange", "likeSentiment", "dislikeSentiment",
+			"score");
+	private static final SortOptions RESTAURANT_ID_SORT = SortOptions.of(sort -> sort
+			.field(f -> f.field("restaurantId").order(SortOrder.Asc)));
+	private static final SortOptions SHARD_DOC_SORT = SortOptions.of(sort -> sort
+			.field(f -> f.field("_shard_doc").order(SortOrder.Asc)));
+
 	private final ElasticsearchClient elasticsearchClient;
 	private final RestaurantSearchMapper restaurantSearchMapper;
-	private final TagRepository tagRepository;
+	private final TagDictionary tagDictionary;
+	private final TagScoringScripts tagScoringScripts;
+	private final RestaurantNearbyCache restaurantNearbyCache;
+	private final RestaurantDetailCache restaurantDetailCache;
+
+	@Value("${restaurant.search.page.default-size:20}")
+	private int pageDefaultSize;
+	@Value("${restaurant.search.page.max-size:100}")
+	private int pageMaxSize;
+	@Value("${restaurant.search.pit-keep-alive:1m}")
+	private String pitKeepAlive;
+
+	// (태그 사전 version, 정렬한 태그 ID) -> 태그 조건 쿼리. 쿼리 객체는 불변이라 요청 간에 그대로 재사용한다
+	private final Map<String, Query> tagQueryCache = Collections.synchronizedMap(
+			new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+					return size() > TAG_QUERY_CACHE_SIZE;
+				}
+			});
 
 
+	/**
+	 * 가까운 순 위치 검색. 같은 동네의 비슷한 요청은 RestaurantNearbyCache 가 셀 단위로 한 번만 검색한다.
+	 */
 	public List<RestaurantResponse> searchRestaurantsByLocation(double lat, double lon,
 			int distanceInMeters) {
-		try {
-			// 위치 기반 쿼리 생성
-			Query geoDistanceQuery = Query.of(q -> q
-					.geoDistance(g -> g
-							.field("location")
-							.distance(distanceInMeters + "m")
-							.location(loc -> loc.latlon(latlon -> latlon.lat(lat).lon(lon))))
-			);
-
-			Query finalQuery = Query.of(q -> q
-					.bool(b -> b
-							.must(geoDistanceQuery)
-							.mustNot(n -> n
-									.wildcard(w -> w
-											.field("category")
-											.wildcard("*술집*")
-									)
-							)
-							.mustNot(n -> n
-									.wildcard(w -> w
-											.field("category")
-											.wildcard("*간식*")
-									)
-							)
-					)
-			);
+		return restaurantNearbyCache.find(lat, lon, distanceInMeters, NEARBY_SIZE,
+				this::searchNearby);
+	}
 
+	private List<RestaurantResponse> searchNearby(double lat, double lon, int distanceInMeters,
+			int size) {
+		try {
 			SearchResponse<RestaurantDocument> searchResponse =
 					elasticsearchClient.search(s -> s
-									.index("restaurants")
-									.query(finalQuery)
-									.sort(sort -> sort
-											.geoDistance(gd -> gd
-													.field("location")
-													.location(loc -> loc.latlon(l -> l.lat(lat).lon(lon)))
-													.order(SortOrder.Asc)
-											)
-									)
-									.size(100),
+									.index(RestaurantIndexer.INDEX)
+									.query(locationQuery(lat, lon, distanceInMeters))
+									.sort(distanceSort(lat, lon))
+									.size(size),
 							RestaurantDocument.class
 					);
 			return searchResponse.hits().hits().stream()
@@ -85,90 +107,24 @@ public class RestaurantElasticsearchService {
 		}
 	}
 
+	/**
+	 * 가까운 순 위치 검색 페이지. 목록 필드만 읽고, 첫 페이지에서 전체 건수와 (요청 시) 패싯을 함께 돌려준다.
+	 */
+	public RestaurantPageResponse searchRestaurantsByLocationPage(double lat, double lon,
+			int distanceInMeters, String cursor, Integer size, boolean facets) {
+		try {
+			return searchPage(locationQuery(lat, lon, distanceInMeters),
+					List.of(distanceSort(lat, lon)), cursor, size, facets);
+		} catch (IOException e) {
+			throw new RuntimeException("위치 기반 식당 검색 중 오류가 발생했습니다.", e);
+		}
+	}
 
 	public List<RestaurantResponse> searchByTagsAndQuery(String query, List<Long> tagIds) {
 		try {
-			BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
-			if (query != null && !query.isBlank()) {
-				boolQueryBuilder.must(q -> q
-						.multiMatch(mm -> mm
-								.query(query.trim())
-								.fields(List.of("name^3", "address^2", "category"))
-								.type(BestFields)
-								.operator(Operator.Or)
-								.minimumShouldMatch("70%")
-								.fuzziness("AUTO")
-								.prefixLength(2)
-								.tieBreaker(0.3)
-						)
-				);
-			}
-
-			if (tagIds != null && !tagIds.isEmpty()) {
-				List<Tag> tags = tagRepository.findAllById(tagIds);
-				List<Query> tagQueries = new ArrayList<>();
-
-				for (Tag tag : tags) {
-					Query nestedQuery = NestedQuery.of(n -> n
-							.path("tags")
-							.query(q -> q
-									.bool(b -> b
-											// 태그 이름 매칭
-											.must(m -> m
-													.match(mm -> mm
-															.field("tags.tagName")
-															.query(tag.getName())
-													)
-											)
-											// avgConfidence에 가중치 부여 (높을수록 점수 상승)
-											.should(s -> s
-													.functionScore(fs -> fs
-															.functions(f -> f
-																	.fieldValueFactor(fvf -> fvf
-																			.field("tags.avgConfidence")
-																			.factor(1.5)
-																			.modifier(
-																					FieldValueFactorModifier.Ln)
-																			.missing(0.1)
-																	)
-															)
-													)
-											)
-											// frequency에 가중치 부여 (사용 빈도가 높을수록 점수 상승)
-											.should(s -> s
-													.functionScore(fs -> fs
-															.functions(f -> f
-																	.fieldValueFactor(fvf -> fvf
-																			.field("tags.frequency")
-																			.factor(1.2)
-																			.modifier(
-																					FieldValueFactorModifier.Ln)
-																			.missing(1.0)
-																	)
-															)
-													)
-											)
-									)
-							)
-					)._toQuery();
-
-					tagQueries.add(nestedQuery);
-				}
-
-				if (!tagQueries.isEmpty()) {
-					// 태그 쿼리를 별도의 bool로 묶어서 처리
-					BoolQuery.Builder tagBoolQuery = new BoolQuery.Builder();
-					tagBoolQuery.should(tagQueries);
-					tagBoolQuery.minimumShouldMatch("1");
-
-					// 메인 bool 쿼리에 태그 bool 쿼리를 must로 추가
-					boolQueryBuilder.must(q -> q.bool(tagBoolQuery.build()));
-				}
-			}
-
 			SearchRequest searchRequest = SearchRequest.of(s -> s
-					.index("restaurants")
-					.query(q -> q.bool(boolQueryBuilder.build()))
+					.index(RestaurantIndexer.INDEX)
+					.query(tagsAndQuery(query, tagIds))
 					.size(100)
 			);
 
@@ -185,10 +141,239 @@ public class RestaurantElasticsearchService {
 		}
 	}
 
+	/**
+	 * 관련도 순 태그/검색어 검색 페이지.
+	 */
+	public RestaurantPageResponse searchByTagsAndQueryPage(String query, List<Long> tagIds,
+			String cursor, Integer size, boolean facets) {
+		try {
+			return searchPage(tagsAndQuery(query, tagIds),
+					List.of(SortOptions.of(so -> so.score(sc -> sc.order(SortOrder.Desc)))),
+					cursor, size, facets);
+		} catch (IOException e) {
+			throw new RuntimeException("태그 및 검색어 기반 검색 중 오류가 발생했습니다.", e);
+		}
+	}
+
+	private Query locationQuery(double lat, double lon, int distanceInMeters) {
+		// 위치 기반 쿼리 생성
+		Query geoDistanceQuery = Query.of(q -> q
+				.geoDistance(g -> g
+						.field("location")
+						.distance(distanceInMeters + "m")
+						.location(loc -> loc.latlon(latlon -> latlon.lat(lat).lon(lon))))
+		);
+
+		return Query.of(q -> q
+				.bool(b -> b
+						.must(geoDistanceQuery)
+						.mustNot(n -> n
+								.wildcard(w -> w
+										.field("category")
+										.wildcard("*술집*")
+								)
+						)
+						.mustNot(n -> n
+								.wildcard(w -> w
+										.field("category")
+										.wildcard("*간식*")
+								)
+						)
+				)
+		);
+	}
+
+	private SortOptions distanceSort(double lat, double lon) {
+		return SortOptions.of(sort -> sort
+				.geoDistance(gd -> gd
+						.field("location")
+						.location(loc -> loc.latlon(l -> l.lat(lat).lon(lon)))
+						.order(SortOrder.Asc)
+				)
+		);
+	}
+
+	private Query tagsAndQuery(String query, List<Long> tagIds) throws IOException {
+		BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
+		if (query != null && !query.isBlank()) {
+			boolQueryBuilder.must(q -> q
+					.multiMatch(mm -> mm
+							.query(query.trim())
+							.fields(List.of("name^3", "address^2", "category"))
+							.type(BestFields)
+							.operator(Operator.Or)
+							.minimumShouldMatch("70%")
+							.fuzziness("AUTO")
+							.prefixLength(2)
+							.tieBreaker(0.3)
+					)
+			);
+		}
+
+		if (tagIds != null && !tagIds.isEmpty()) {
+			Query tagQuery = tagQuery(tagIds);
+			if (tagQuery != null) {
+				// 메인 bool 쿼리에 태그 bool 쿼리를 must로 추가
+				boolQueryBuilder.must(tagQuery);
+			}
+		}
+		return Query.of(q -> q.bool(boolQueryBuilder.build()));
+	}
+
+	/**
+	 * point-in-time + search_after 페이지 조회.
+	 * <p>
+	 * 대부분의 검색은 한 페이지로 끝나므로 첫 페이지는 PIT 없이 읽고, 다음 페이지가 있을 때만 PIT 를 열어 커서에 담는다. 이후 페이지는
+	 * 그 PIT 와 마지막 sort 값으로 이어 읽는다. 정렬 끝에 유일한 restaurantId 를 붙이므로 점수나 거리가 같은 문서도 페이지 경계에서 빠지거나
+	 * 겹치지 않는다. PIT 페이지는 _shard_doc 까지 명시해 ES 가 암묵적으로 덧붙이는 정렬과 search_after 값 개수를 맞춘다. 마지막 페이지를
+	 * 돌려줄 때 PIT 를 닫는다.
+	 */
+	private RestaurantPageResponse searchPage(Query query, List<SortOptions> sorts, String cursor,
+			Integer size, boolean facets) throws IOException {
+		int pageSize = (size == null || size <= 0) ? pageDefaultSize : Math.min(size, pageMaxSize);
+		boolean firstPage = cursor == null || cursor.isBlank();
+		RestaurantSearchCursor searchCursor = firstPage ? null : RestaurantSearchCursor.decode(cursor);
+
+		List<SortOptions> pageSorts = new ArrayList<>(sorts);
+		pageSorts.add(RESTAURANT_ID_SORT);
+		SearchRequest.Builder request = new SearchRequest.Builder()
+				.query(query)
+				.source(src -> src.filter(f -> f.includes(LIST_FIELDS)))
+				// 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+				.size(pageSize + 1)
+				.trackTotalHits(t -> t.enabled(firstPage));
+		if (firstPage) {
+			request.index(RestaurantIndexer.INDEX);
+		} else {
+			pageSorts.add(SHARD_DOC_SORT);
+			request.pit(p -> p.id(searchCursor.getPitId()).keepAlive(k -> k.time(pitKeepAlive)))
+					.searchAfter(searchCursor.getSearchAfter());
+		}
+		request.sort(pageSorts);
+		if (firstPage && facets) {
+			request.aggregations(CATEGORY_FACET, a -> a
+							.terms(t -> t.field("category.keyword").size(FACET_SIZE)))
+					.aggregations(PRICE_RANGE_FACET, a -> a
+							.terms(t -> t.field("priceRange").size(FACET_SIZE)));
+		}
+
+		SearchResponse<RestaurantDocument> response;
+		try {
+			response = elasticsearchClient.search(request.build(), RestaurantDocument.class);
+		} catch (ElasticsearchException e) {
+			if (!firstPage && e.status() == 404) {
+				throw new InvalidDataException("검색 커서가 만료되었습니다. 처음부터 다시 검색해주세요.");
+			}
+			throw e;
+		}
+
+		List<Hit<RestaurantDocument>> hits = response.hits().hits();
+		boolean hasNext = hits.size() > pageSize;
+		if (hasNext) {
+			hits = hits.subList(0, pageSize);
+		}
+		String nextCursor = null;
+		if (firstPage) {
+			if (hasNext) {
+				// restaurantId 가 유일하므로 _shard_doc 은 최댓값으로 두어 마지막 hit 의 문서만 건너뛴다
+				List<FieldValue> searchAfter = new ArrayList<>(hits.get(hits.size() - 1).sort());
+				searchAfter.add(FieldValue.of(Long.MAX_VALUE));
+				nextCursor = new RestaurantSearchCursor(openPointInTime(), searchAfter).encode();
+			}
+		} else {
+			// PIT ID 는 검색마다 바뀔 수 있어 응답의 것을 다음 커서에 넣는다
+			String pitId = response.pitId() != null ? response.pitId() : searchCursor.getPitId();
+			if (hasNext) {
+				nextCursor = new RestaurantSearchCursor(pitId, hits.get(hits.size() - 1).sort()).encode();
+			} else {
+				closePointInTime(pitId);
+			}
+		}
+
+		RestaurantPageResponse.RestaurantPageResponseBuilder page = RestaurantPageResponse.builder()
+				.restaurants(hits.stream()
+						.map(Hit::source)
+						.map(restaurantSearchMapper::toSummary)
+						.toList())
+				.nextCursor(nextCursor)
+				.hasNext(hasNext);
+		if (firstPage && response.hits().total() != null) {
+			page.total(response.hits().total().value());
+		}
+		if (firstPage && facets) {
+			page.categoryFacets(toFacetCounts(response.aggregations().get(CATEGORY_FACET)))
+					.priceRangeFacets(toFacetCounts(response.aggregations().get(PRICE_RANGE_FACET)));
+		}
+		return page.build();
+	}
+
+	private String openPointInTime() throws IOException {
+		return elasticsearchClient.openPointInTime(o -> o
+				.index(RestaurantIndexer.INDEX)
+				.keepAlive(k -> k.time(pitKeepAlive))
+		).id();
+	}
+
+	// 닫지 못해도 keepAlive 가 지나면 ES 가 정리한다
+	private void closePointInTime(String pitId) {
+		try {
+			elasticsearchClient.closePointInTime(c -> c.id(pitId));
+		} catch (IOException | ElasticsearchException e) {
+			log.warn("PIT 를 닫지 못했습니다: {}", e.getMessage());
+		}
+	}
+
+	private Map<String, Long> toFacetCounts(Aggregate aggregate) {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		if (aggregate == null || !aggregate.isSterms()) {
+			return counts;
+		}
+		for (StringTermsBucket bucket : aggregate.sterms().buckets().array()) {
+			counts.put(bucket.key().stringValue(), bucket.docCount());
+		}
+		return counts;
+	}
+
+	// 태그마다 nested 쿼리 하나 (일치 점수 + 신뢰도/빈도 가중치), 하나 이상 일치해야 한다
+	Query tagQuery(List<Long> tagIds) throws IOException {
+		tagScoringScripts.ensureRegistered();
+		List<Long> tagSet = tagIds.stream().distinct().sorted().toList();
+		// 모르는 ID 때문에 사전을 다시 읽었으면 그 version 으로 찾는다
+		TagNames tagNames = tagDictionary.findNames(tagSet);
+		String cacheKey = tagNames.version() + ":" + tagSet;
+		Query cached = tagQueryCache.get(cacheKey);
+		if (cached != null) {
+			return cached;
+		}
+		List<Query> tagQueries = tagNames.names().stream()
+				.map(tagName -> tagScoringScripts.nestedTagScore(tagName,
+						TagScoringScripts.RESTAURANT_TAG_WEIGHT, ChildScoreMode.Avg))
+				.toList();
+		if (tagQueries.isEmpty()) {
+			return null;
+		}
+		Query query = Query.of(q -> q.bool(b -> b.should(tagQueries).minimumShouldMatch("1")));
+		tagQueryCache.put(cacheKey, query);
+		return query;
+	}
+
+	/**
+	 * 식당 상세. RestaurantDetailCache 를 거치므로 없는 식당도 잠시 캐시된다.
+	 */
 	public RestaurantResponse findRestaurantByKakaoPlaceId(String kakaoPlaceId) {
+		RestaurantResponse response = restaurantDetailCache.get(kakaoPlaceId,
+				this::searchByKakaoPlaceId);
+		if (response == null) {
+			throw new RuntimeException("해당 kakaoPlaceId에 일치하는 식당을 찾을 수 없습니다: " + kakaoPlaceId);
+		}
+		return response;
+	}
+
+	// 없으면 null
+	private RestaurantResponse searchByKakaoPlaceId(String kakaoPlaceId) {
 		try {
 			SearchResponse<RestaurantDocument> response = elasticsearchClient.search(s -> s
-							.index("restaurants")
+							.index(RestaurantIndexer.INDEX)
 							.query(q -> q
 									.term(t -> t
 											.field("kakaoPlaceId")
@@ -198,8 +383,8 @@ public class RestaurantElasticsearchService {
 					RestaurantDocument.class
 			);
 
-			if (Objects.requireNonNull(response.hits().total()).value() == 0) {
-				throw new RuntimeException("해당 kakaoPlaceId에 일치하는 식당을 찾을 수 없습니다: " + kakaoPlaceId);
+			if (response.hits().hits().isEmpty()) {
+				return null;
 			}
 
 			RestaurantDocument restaurantDocument = response.hits().hits().get(0).source();
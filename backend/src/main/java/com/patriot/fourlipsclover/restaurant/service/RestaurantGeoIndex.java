@@ -0,0 +1,189 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 식당 좌표(x: 경도, y: 위도)를 위경도 격자 셀로 나눠 메모리에 유지하는 공간 인덱스.
+ * <p>
+ * 반경 검색은 반경을 덮는 셀의 식당만 후보로 꺼낸 뒤 DB 쿼리와 같은 구면 코사인 법칙 거리로 다시 거른다. 전체 행을 매번 계산하는
+ * acos() 전체 스캔 대신 반경 주변 셀만 보므로 식당 수가 늘어도 조회 비용은 반경 안 밀도에만 비례한다.
+ */
+@Component
+public class RestaurantGeoIndex {
+
+	private static final double EARTH_RADIUS_KM = 6371.0;
+
+	private final double cellDegrees;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<Integer, Point> points = new HashMap<>();
+	private final Map<Long, List<Point>> cells = new HashMap<>();
+	private volatile boolean ready = false;
+
+	private static final class Point {
+
+		private final int restaurantId;
+		private final double latitude;
+		private final double longitude;
+		private final long cell;
+
+		private Point(int restaurantId, double latitude, double longitude, long cell) {
+			this.restaurantId = restaurantId;
+			this.latitude = latitude;
+			this.longitude = longitude;
+			this.cell = cell;
+		}
+	}
+
+	public RestaurantGeoIndex(@Value("${restaurant.geo.cell-degrees:0.01}") double cellDegrees) {
+		this.cellDegrees = cellDegrees;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return points.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 인덱스 전체를 교체한다.
+	 *
+	 * @param coordinates [restaurantId, x(경도), y(위도)]
+	 */
+	public void replaceAll(List<Object[]> coordinates) {
+		lock.writeLock().lock();
+		try {
+			points.clear();
+			cells.clear();
+			for (Object[] row : coordinates) {
+				if (row[1] != null && row[2] != null) {
+					add((Integer) row[0], ((Number) row[2]).doubleValue(),
+							((Number) row[1]).doubleValue());
+				}
+			}
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void upsert(Integer restaurantId, Double x, Double y) {
+		lock.writeLock().lock();
+		try {
+			remove(restaurantId.intValue());
+			if (x != null && y != null) {
+				add(restaurantId, y, x);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Integer restaurantId) {
+		lock.writeLock().lock();
+		try {
+			remove(restaurantId.intValue());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 반경 안의 식당 ID 를 가까운 순으로 반환한다.
+	 *
+	 * @param radius 반경(미터)
+	 */
+	public List<Integer> findWithin(double latitude, double longitude, int radius) {
+		double radiusKm = radius / 1000.0;
+		// 반경을 덮는 위경도 범위
+		double latitudeDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+		double cosLatitude = Math.cos(Math.toRadians(latitude));
+		double longitudeDelta = Math.abs(cosLatitude) > 1e-6
+				? Math.min(180, Math.toDegrees(radiusKm / (EARTH_RADIUS_KM * Math.abs(cosLatitude))))
+				: 180;
+
+		long minLatCell = cellIndex(latitude - latitudeDelta);
+		long maxLatCell = cellIndex(latitude + latitudeDelta);
+		long minLonCell = cellIndex(longitude - longitudeDelta);
+		long maxLonCell = cellIndex(longitude + longitudeDelta);
+
+		double latRad = Math.toRadians(latitude);
+		double sinLat = Math.sin(latRad);
+		List<double[]> matches = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+				for (long lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+					List<Point> cell = cells.get(cellKey(latCell, lonCell));
+					if (cell == null) {
+						continue;
+					}
+					for (Point point : cell) {
+						double distance = distanceKm(sinLat, cosLatitude, longitude, point);
+						if (distance <= radiusKm) {
+							matches.add(new double[]{distance, point.restaurantId});
+						}
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		matches.sort(Comparator.comparingDouble(match -> match[0]));
+		List<Integer> restaurantIds = new ArrayList<>(matches.size());
+		for (double[] match : matches) {
+			restaurantIds.add((int) match[1]);
+		}
+		return restaurantIds;
+	}
+
+	// RestaurantJpaRepository 의 반경 쿼리와 같은 구면 코사인 법칙
+	private static double distanceKm(double sinLat, double cosLat, double longitude, Point point) {
+		double pointLatRad = Math.toRadians(point.latitude);
+		double cos = cosLat * Math.cos(pointLatRad)
+				* Math.cos(Math.toRadians(point.longitude) - Math.toRadians(longitude))
+				+ sinLat * Math.sin(pointLatRad);
+		return EARTH_RADIUS_KM * Math.acos(Math.max(-1, Math.min(1, cos)));
+	}
+
+	private void add(int restaurantId, double latitude, double longitude) {
+		long cell = cellKey(cellIndex(latitude), cellIndex(longitude));
+		Point point = new Point(restaurantId, latitude, longitude, cell);
+		points.put(restaurantId, point);
+		cells.computeIfAbsent(cell, k -> new ArrayList<>()).add(point);
+	}
+
+	private void remove(int restaurantId) {
+		Point old = points.remove(restaurantId);
+		if (old == null) {
+			return;
+		}
+		List<Point> cell = cells.get(old.cell);
+		cell.remove(old);
+		if (cell.isEmpty()) {
+			cells.remove(old.cell);
+		}
+	}
+
+	private long cellIndex(double degrees) {
+		return (long) Math.floor(degrees / cellDegrees);
+	}
+
+	private static long cellKey(long latCell, long lonCell) {
+		return (latCell << 32) | (lonCell & 0xffffffffL);
+	}
+}
@@ -0,0 +1,501 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.document.RestaurantDocument;
+import com.patriot.fourlipsclover.restaurant.entity.IndexWatermark;
+import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import com.patriot.fourlipsclover.restaurant.entity.RestaurantPriceHistogram;
+import com.patriot.fourlipsclover.restaurant.entity.RestaurantTag;
+import com.patriot.fourlipsclover.restaurant.entity.SentimentStatus;
+import com.patriot.fourlipsclover.restaurant.repository.IndexWatermarkRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantImageRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantPriceHistogramRepository;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewSentimentRepository;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter.BulkResult;
+import com.patriot.fourlipsclover.tag.repository.RestaurantTagRepository;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 식당 검색 문서(restaurants 인덱스) 색인기.
+ * <p>
+ * 식당 ID 를 키셋 방식으로 chunkSize 개씩 읽고, 태그/감정/이미지/결제/점수를 chunk 단위 IN 쿼리로 한 번에 가져와 문서를
+ * 만든다. 만든 문서는 ElasticsearchBulkWriter 로 _bulk 요청을 보내며, 동시 요청 수가 가득 차면 다음 chunk 읽기를 기다린다.
+ * <p>
+ * 증분 색인은 마지막 성공 시점(watermark) 이후 updated_at 이 바뀐 식당과 RestaurantChangeTracker 가 모아 둔 식당(리뷰, 태그,
+ * 결제 등 연관 데이터만 바뀐 식당)을 다시 색인한다. 실패한 문서가 있으면 watermark 를 올리지 않아 다음 실행에서 다시 시도한다.
+ */
+@Slf4j
+@Service
+public class RestaurantIndexer {
+
+	// 검색과 증분 색인은 alias 로, 전체 색인은 새 버전 인덱스로 한다
+	public static final String INDEX = "restaurants";
+	private static final String WATERMARK = "restaurants";
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	/**
+	 * 부분 업데이트 단위. ALL 은 식당 정보가 바뀌어 문서 전체를 다시 만든다.
+	 */
+	public enum DocumentPart {
+		ALL, TAGS, SENTIMENT, PRICE, SCORE
+	}
+
+	private final RestaurantJpaRepository restaurantRepository;
+	private final RestaurantTagRepository restaurantTagRepository;
+	private final ReviewSentimentRepository reviewSentimentRepository;
+	private final RestaurantImageRepository restaurantImageRepository;
+	private final RestaurantPriceHistogramRepository priceHistogramRepository;
+	private final IndexWatermarkRepository watermarkRepository;
+	private final RestaurantRankingService restaurantRankingService;
+	private final RestaurantChangeTracker restaurantChangeTracker;
+	private final ElasticsearchBulkWriter bulkWriter;
+	private final ElasticsearchIndexManager indexManager;
+	private final TransactionTemplate readTransaction;
+	private final int chunkSize;
+	private final long watermarkLagMs;
+	// 전체/증분 색인이 겹쳐 실행되지 않도록 한다
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	// 전체 색인 중 alias(이전 인덱스)로 보낸 변경. null 이면 전체 색인 중이 아니다
+	private Set<Integer> changedDuringRebuild;
+	private Set<String> deletedDuringRebuild;
+
+	public RestaurantIndexer(RestaurantJpaRepository restaurantRepository,
+			RestaurantTagRepository restaurantTagRepository,
+			ReviewSentimentRepository reviewSentimentRepository,
+			RestaurantImageRepository restaurantImageRepository,
+			RestaurantPriceHistogramRepository priceHistogramRepository,
+			IndexWatermarkRepository watermarkRepository,
+			RestaurantRankingService restaurantRankingService,
+			RestaurantChangeTracker restaurantChangeTracker,
+			ElasticsearchBulkWriter bulkWriter,
+			ElasticsearchIndexManager indexManager,
+			PlatformTransactionManager transactionManager,
+			@Value("${restaurant.indexer.chunk-size:500}") int chunkSize,
+			@Value("${restaurant.indexer.watermark-lag-ms:60000}") long watermarkLagMs) {
+		this.restaurantRepository = restaurantRepository;
+		this.restaurantTagRepository = restaurantTagRepository;
+		this.reviewSentimentRepository = reviewSentimentRepository;
+		this.restaurantImageRepository = restaurantImageRepository;
+		this.priceHistogramRepository = priceHistogramRepository;
+		this.watermarkRepository = watermarkRepository;
+		this.restaurantRankingService = restaurantRankingService;
+		this.restaurantChangeTracker = restaurantChangeTracker;
+		this.bulkWriter = bulkWriter;
+		this.indexManager = indexManager;
+		this.readTransaction = new TransactionTemplate(transactionManager);
+		this.readTransaction.setReadOnly(true);
+		this.chunkSize = chunkSize;
+		this.watermarkLagMs = watermarkLagMs;
+	}
+
+	@Scheduled(cron = "${restaurant.indexer.full-cron:0 0 3 * * *}")
+	public void scheduledReindexAll() {
+		if (running.get()) {
+			log.info("식당 색인 작업이 진행 중이라 전체 색인을 건너뜁니다.");
+			return;
+		}
+		reindexAll();
+	}
+
+	@Scheduled(fixedDelayString = "${restaurant.indexer.incremental-interval-ms:60000}",
+			initialDelayString = "${restaurant.indexer.incremental-interval-ms:60000}")
+	public void scheduledReindexChanged() {
+		if (running.get()) {
+			return;
+		}
+		reindexChanged();
+	}
+
+	/**
+	 * 모든 식당을 새 버전 인덱스에 색인한 뒤 alias 를 옮긴다. 색인하는 동안 alias 로 들어온 삭제와 갱신은 이전 인덱스에만 반영되므로
+	 * 모아 두었다가 alias 를 옮긴 뒤 새 인덱스에 다시 반영한다.
+	 */
+	public BulkResult reindexAll() {
+		return runExclusively("전체", () -> {
+			LocalDateTime startedAt = LocalDateTime.now();
+			startBuffering();
+			BulkResult result;
+			try {
+				result = indexManager.rebuild(INDEX, RestaurantDocument.class,
+						index -> indexPages(index, afterId -> restaurantRepository.findIdsAfter(
+								afterId, PageRequest.of(0, chunkSize))));
+			} catch (IOException e) {
+				// alias 를 옮기지 않았으므로 모아 둔 변경은 이미 현재 인덱스에 반영되어 있다
+				stopBuffering();
+				throw new IllegalStateException("식당 인덱스 재구성에 실패했습니다.", e);
+			} catch (RuntimeException e) {
+				stopBuffering();
+				throw e;
+			}
+			advanceWatermark(startedAt, result);
+			replayBuffered();
+			return result;
+		});
+	}
+
+	/**
+	 * 마지막 성공 시점 이후 변경된 식당과 연관 데이터가 바뀐 식당만 다시 색인한다. 기록이 없으면 전체 색인한다.
+	 */
+	public BulkResult reindexChanged() {
+		LocalDateTime since = watermarkRepository.findById(WATERMARK)
+				.map(IndexWatermark::getWatermark)
+				.orElse(null);
+		if (since == null) {
+			return reindexAll();
+		}
+		return runExclusively("증분", () -> {
+			LocalDateTime startedAt = LocalDateTime.now();
+			BulkResult result = indexPages(INDEX, afterId -> restaurantRepository
+					.findIdsUpdatedSince(since, afterId, PageRequest.of(0, chunkSize)));
+			List<Integer> changedIds = restaurantChangeTracker.drainChanged();
+			BulkResult changed = reindex(changedIds);
+			if (changed.getFailed() > 0) {
+				restaurantChangeTracker.restore(changedIds);
+			}
+			result = result.plus(changed);
+			advanceWatermark(startedAt, result);
+			return result;
+		});
+	}
+
+	/**
+	 * 지정한 식당만 다시 색인한다.
+	 */
+	public BulkResult reindex(Collection<Integer> restaurantIds) {
+		List<Integer> ids = new ArrayList<>(restaurantIds);
+		List<CompletableFuture<BulkResult>> requests = new ArrayList<>();
+		for (int from = 0; from < ids.size(); from += chunkSize) {
+			List<Integer> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+			requests.add(bulkWriter.submit(buildOperations(INDEX, chunk)));
+		}
+		return join(requests);
+	}
+
+	/**
+	 * 식당별로 바뀐 부분만 부분 업데이트한다. ALL 이 포함된 식당은 문서 전체를 다시 색인한다.
+	 */
+	public BulkResult update(Map<Integer, Set<DocumentPart>> changes) {
+		recordDuringRebuild(changes.keySet(), List.of());
+		List<Integer> fullIds = new ArrayList<>();
+		List<Integer> partialIds = new ArrayList<>();
+		changes.forEach((restaurantId, parts) ->
+				(parts.contains(DocumentPart.ALL) ? fullIds : partialIds).add(restaurantId));
+
+		List<CompletableFuture<BulkResult>> requests = new ArrayList<>();
+		for (int from = 0; from < partialIds.size(); from += chunkSize) {
+			List<Integer> chunk = partialIds.subList(from, Math.min(from + chunkSize, partialIds.size()));
+			requests.add(bulkWriter.submit(buildUpdateOperations(chunk, changes)));
+		}
+		return reindex(fullIds).plus(join(requests));
+	}
+
+	/**
+	 * 삭제된 식당의 문서를 지운다.
+	 */
+	public BulkResult delete(Collection<String> kakaoPlaceIds) {
+		recordDuringRebuild(List.of(), kakaoPlaceIds);
+		List<BulkOperation> operations = kakaoPlaceIds.stream()
+				.map(kakaoPlaceId -> BulkOperation.of(op -> op.delete(d -> d
+						.index(INDEX)
+						.id(kakaoPlaceId))))
+				.toList();
+		return bulkWriter.submit(operations).join();
+	}
+
+	private synchronized void startBuffering() {
+		changedDuringRebuild = new HashSet<>();
+		deletedDuringRebuild = new LinkedHashSet<>();
+	}
+
+	private synchronized void recordDuringRebuild(Collection<Integer> restaurantIds,
+			Collection<String> kakaoPlaceIds) {
+		if (changedDuringRebuild != null) {
+			changedDuringRebuild.addAll(restaurantIds);
+			deletedDuringRebuild.addAll(kakaoPlaceIds);
+		}
+	}
+
+	private synchronized BufferedChanges stopBuffering() {
+		BufferedChanges buffered = new BufferedChanges(changedDuringRebuild, deletedDuringRebuild);
+		changedDuringRebuild = null;
+		deletedDuringRebuild = null;
+		return buffered;
+	}
+
+	// alias 를 옮긴 뒤 버퍼를 닫으므로 그 사이 변경은 새 인덱스에 이미 들어갔어도 한 번 더 반영될 뿐 빠지지 않는다.
+	// 삭제 뒤 같은 장소로 다시 생긴 식당이 지워지지 않도록 삭제를 먼저 보내고, 식당 문서는 DB 에서 다시 만든다
+	private void replayBuffered() {
+		BufferedChanges buffered = stopBuffering();
+		if (buffered.restaurantIds().isEmpty() && buffered.kakaoPlaceIds().isEmpty()) {
+			return;
+		}
+		BulkResult deleted = delete(buffered.kakaoPlaceIds());
+		BulkResult changed = reindex(buffered.restaurantIds());
+		if (changed.getFailed() > 0) {
+			restaurantChangeTracker.restore(buffered.restaurantIds());
+		}
+		if (deleted.getFailed() > 0 || changed.getFailed() > 0) {
+			log.warn("전체 색인 중 들어온 변경 반영 실패: 삭제 {}건, 갱신 {}건", deleted.getFailed(), changed.getFailed());
+		} else {
+			log.info("전체 색인 중 들어온 변경을 새 인덱스에 반영했습니다: 삭제 {}건, 갱신 {}건",
+					buffered.kakaoPlaceIds().size(), buffered.restaurantIds().size());
+		}
+	}
+
+	private BulkResult runExclusively(String mode, Supplier<BulkResult> job) {
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("식당 색인 작업이 이미 진행 중입니다.");
+		}
+		long start = System.currentTimeMillis();
+		try {
+			BulkResult result = job.get();
+			log.info("식당 {} 색인 완료: 성공 {}건, 실패 {}건 ({}ms)", mode, result.getSucceeded(),
+					result.getFailed(), System.currentTimeMillis() - start);
+			return result;
+		} finally {
+			running.set(false);
+		}
+	}
+
+	// 키셋 페이지를 따라가며 chunk 마다 bulk 요청을 보낸다
+	private BulkResult indexPages(String index, Function<Integer, List<Integer>> nextPage) {
+		List<CompletableFuture<BulkResult>> requests = new ArrayList<>();
+		int afterId = 0;
+		while (true) {
+			List<Integer> ids = nextPage.apply(afterId);
+			if (ids.isEmpty()) {
+				break;
+			}
+			afterId = ids.get(ids.size() - 1);
+			requests.add(bulkWriter.submit(buildOperations(index, ids)));
+			if (ids.size() < chunkSize) {
+				break;
+			}
+		}
+		return join(requests);
+	}
+
+	private BulkResult join(List<CompletableFuture<BulkResult>> requests) {
+		return requests.stream()
+				.map(CompletableFuture::join)
+				.reduce(BulkResult.EMPTY, BulkResult::plus);
+	}
+
+	// 실행 중 커밋이 늦게 끝난 변경을 놓치지 않도록 시작 시각보다 조금 이전으로 기록한다
+	private void advanceWatermark(LocalDateTime startedAt, BulkResult result) {
+		if (result.getFailed() > 0) {
+			log.warn("색인 실패 {}건이 있어 watermark 를 유지합니다.", result.getFailed());
+			return;
+		}
+		watermarkRepository.save(new IndexWatermark(WATERMARK,
+				startedAt.minusNanos(watermarkLagMs * 1_000_000)));
+	}
+
+	private List<BulkOperation> buildOperations(String index, List<Integer> restaurantIds) {
+		Map<Integer, RestaurantDocument> documents = readTransaction.execute(
+				status -> loadDocuments(restaurantIds));
+		List<BulkOperation> operations = new ArrayList<>(restaurantIds.size());
+		for (RestaurantDocument document : documents.values()) {
+			operations.add(BulkOperation.of(op -> op.index(i -> i
+					.index(index)
+					.id(document.getId())
+					.document(document))));
+		}
+		return operations;
+	}
+
+	private Map<Integer, RestaurantDocument> loadDocuments(List<Integer> restaurantIds) {
+		List<Restaurant> restaurants = restaurantRepository.findAllByIdsWithCategory(restaurantIds);
+		if (restaurants.isEmpty()) {
+			return Map.of();
+		}
+		Map<Integer, List<RestaurantDocument.TagData>> tags = loadTags(restaurantIds);
+		Map<Integer, int[]> sentiments = loadSentiments(restaurantIds);
+		Map<Integer, List<String>> images = new HashMap<>();
+		for (Object[] row : restaurantImageRepository.findUrlsByRestaurantIds(restaurantIds)) {
+			images.computeIfAbsent((Integer) row[0], k -> new ArrayList<>()).add((String) row[1]);
+		}
+		Map<Integer, PriceHistogram> priceHistograms = loadPriceHistograms(restaurantIds);
+		Map<Integer, Double> scores = restaurantRankingService.getScores(restaurantIds);
+
+		Map<Integer, RestaurantDocument> documents = new LinkedHashMap<>();
+		for (Restaurant restaurant : restaurants) {
+			Integer restaurantId = restaurant.getRestaurantId();
+			int[] sentiment = sentiments.getOrDefault(restaurantId, new int[2]);
+			documents.put(restaurantId, RestaurantDocument.builder()
+					.id(restaurant.getKakaoPlaceId())
+					.restaurantId(restaurantId)
+					.openingHours(restaurant.getOpeningHours())
+					.kakaoPlaceId(restaurant.getKakaoPlaceId())
+					.name(restaurant.getPlaceName())
+					.address(restaurant.getAddressName())
+					.category(restaurant.getCategory())
+					.likeSentiment(sentiment[0])
+					.dislikeSentiment(sentiment[1])
+					.location(restaurant.getX() == null || restaurant.getY() == null ? null
+							: new GeoPoint(restaurant.getY(), restaurant.getX()))
+					.tags(tags.getOrDefault(restaurantId, List.of()))
+					.restaurantImages(images.getOrDefault(restaurantId, List.of()))
+					.phone(restaurant.getPhone())
+					.avgAmount(toAvgAmountJson(priceHistograms.get(restaurantId)))
+					.priceRange(mostFrequentRange(priceHistograms.get(restaurantId)))
+					.score(toDocumentScore(scores.get(restaurantId)))
+					.build());
+		}
+		return documents;
+	}
+
+	// 바뀐 부분의 필드만 담은 부분 문서
+	private List<BulkOperation> buildUpdateOperations(List<Integer> restaurantIds,
+			Map<Integer, Set<DocumentPart>> changes) {
+		return readTransaction.execute(status -> {
+			Map<Integer, String> kakaoPlaceIds = new HashMap<>();
+			for (Object[] row : restaurantRepository.findKakaoPlaceIds(restaurantIds)) {
+				kakaoPlaceIds.put((Integer) row[0], (String) row[1]);
+			}
+			Map<Integer, List<RestaurantDocument.TagData>> tags = loadTags(
+					withPart(restaurantIds, changes, DocumentPart.TAGS));
+			Map<Integer, int[]> sentiments = loadSentiments(
+					withPart(restaurantIds, changes, DocumentPart.SENTIMENT));
+			Map<Integer, PriceHistogram> priceHistograms = loadPriceHistograms(
+					withPart(restaurantIds, changes, DocumentPart.PRICE));
+			List<Integer> scoreIds = withPart(restaurantIds, changes, DocumentPart.SCORE);
+			Map<Integer, Double> scores = scoreIds.isEmpty() ? Map.of()
+					: restaurantRankingService.getScores(scoreIds);
+
+			List<BulkOperation> operations = new ArrayList<>(restaurantIds.size());
+			for (Integer restaurantId : restaurantIds) {
+				String kakaoPlaceId = kakaoPlaceIds.get(restaurantId);
+				if (kakaoPlaceId == null) {
+					continue;
+				}
+				Set<DocumentPart> parts = changes.get(restaurantId);
+				Map<String, Object> document = new HashMap<>();
+				if (parts.contains(DocumentPart.TAGS)) {
+					document.put("tags", tags.getOrDefault(restaurantId, List.of()));
+				}
+				if (parts.contains(DocumentPart.SENTIMENT)) {
+					int[] sentiment = sentiments.getOrDefault(restaurantId, new int[2]);
+					document.put("likeSentiment", sentiment[0]);
+					document.put("dislikeSentiment", sentiment[1]);
+				}
+				if (parts.contains(DocumentPart.PRICE)) {
+					document.put("avgAmount", toAvgAmountJson(priceHistograms.get(restaurantId)));
+					document.put("priceRange", mostFrequentRange(priceHistograms.get(restaurantId)));
+				}
+				if (parts.contains(DocumentPart.SCORE)) {
+					document.put("score", toDocumentScore(scores.get(restaurantId)));
+				}
+				operations.add(BulkOperation.of(op -> op.update(u -> u
+						.index(INDEX)
+						.id(kakaoPlaceId)
+						.retryOnConflict(3)
+						.action(a -> a.doc(document)))));
+			}
+			return operations;
+		});
+	}
+
+	private List<Integer> withPart(List<Integer> restaurantIds,
+			Map<Integer, Set<DocumentPart>> changes, DocumentPart part) {
+		return restaurantIds.stream().filter(id -> changes.get(id).contains(part)).toList();
+	}
+
+	private Map<Integer, List<RestaurantDocument.TagData>> loadTags(List<Integer> restaurantIds) {
+		Map<Integer, List<RestaurantDocument.TagData>> tags = new HashMap<>();
+		if (restaurantIds.isEmpty()) {
+			return tags;
+		}
+		for (RestaurantTag tag : restaurantTagRepository.findByRestaurantIds(restaurantIds)) {
+			tags.computeIfAbsent(tag.getRestaurant().getRestaurantId(), k -> new ArrayList<>())
+					.add(RestaurantDocument.TagData.builder()
+							.tagName(tag.getTag().getName())
+							.category(tag.getTag().getCategory())
+							.frequency(tag.getFrequency())
+							.avgConfidence(tag.getAvgConfidence())
+							.build());
+		}
+		return tags;
+	}
+
+	// [긍정 수, 부정 수]
+	private Map<Integer, int[]> loadSentiments(List<Integer> restaurantIds) {
+		Map<Integer, int[]> sentiments = new HashMap<>();
+		if (restaurantIds.isEmpty()) {
+			return sentiments;
+		}
+		for (Object[] row : reviewSentimentRepository.countByRestaurantIds(restaurantIds)) {
+			int[] counts = sentiments.computeIfAbsent((Integer) row[0], k -> new int[2]);
+			if (row[1] == SentimentStatus.POSITIVE) {
+				counts[0] = ((Number) row[2]).intValue();
+			} else if (row[1] == SentimentStatus.NEGATIVE) {
+				counts[1] = ((Number) row[2]).intValue();
+			}
+		}
+		return sentiments;
+	}
+
+	// 결제 저장 시 갱신된 식당별 1인당 금액 히스토그램
+	private Map<Integer, PriceHistogram> loadPriceHistograms(List<Integer> restaurantIds) {
+		Map<Integer, PriceHistogram> priceHistograms = new HashMap<>();
+		if (restaurantIds.isEmpty()) {
+			return priceHistograms;
+		}
+		for (RestaurantPriceHistogram row : priceHistogramRepository.findAllById(restaurantIds)) {
+			priceHistograms.put(row.getRestaurantId(), row.toHistogram());
+		}
+		return priceHistograms;
+	}
+
+	private Double toDocumentScore(Double score) {
+		return score == null ? null : Math.round(score * 100000) / 100000.0 * 100;
+	}
+
+	// {"avg": 가장 많은 구간, 구간: 결제 건수, ...}
+	private String toAvgAmountJson(PriceHistogram histogram) {
+		if (histogram == null || histogram.isEmpty()) {
+			return null;
+		}
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("avg", histogram.mostFrequentRange());
+		result.putAll(histogram.distribution());
+		try {
+			return OBJECT_MAPPER.writeValueAsString(result);
+		} catch (JsonProcessingException e) {
+			return null;
+		}
+	}
+
+	private String mostFrequentRange(PriceHistogram histogram) {
+		return histogram == null ? null : histogram.mostFrequentRange();
+	}
+
+	private record BufferedChanges(Set<Integer> restaurantIds, Set<String> kakaoPlaceIds) {
+
+	}
+}
@@ -0,0 +1,308 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 주변 식당 검색 결과 캐시.
+ * <p>
+ * 좌표를 geohash 셀로, 반경을 정해진 구간(bucket)으로 올려 (셀, 구간) 마다 한 번만 검색한다. 셀 중심에서 (구간 + 셀 반대각선)
+ * 반경으로 넉넉히 가져오므로 셀 안의 어느 좌표에서 구간 이하 반경으로 찾아도 결과가 그 안에 들어 있고, 요청마다 정확한 거리로 다시 걸러
+ * 정렬한다. supersetSize 에 잘려 요청 반경을 다 덮지 못하면 캐시를 쓰지 않고 바로 검색한다.
+ * <p>
+ * 로컬(Caffeine) tier 는 짧은 TTL, Redis tier(선택)는 인스턴스 간 공유용으로 더 긴 TTL 을 쓴다. CDC 이벤트가 오면 evict 로 해당
+ * 식당이나 위치를 덮는 항목을 지운다.
+ */
+@Slf4j
+@Component
+public class RestaurantNearbyCache {
+
+	private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+	private static final double EARTH_RADIUS_M = 6371008.8;
+	private static final String REDIS_KEY_PREFIX = "restaurant:nearby:";
+
+	/**
+	 * 캐시를 채우거나 캐시를 쓸 수 없을 때 호출하는 검색. 가까운 순으로 size 개까지 돌려준다.
+	 */
+	@FunctionalInterface
+	public interface NearbyLoader {
+
+		List<RestaurantResponse> load(double lat, double lon, int radiusMeters, int size);
+	}
+
+	/**
+	 * (셀, 반경 구간) 하나의 검색 결과. restaurants 는 셀 중심에서 가까운 순이다.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class NearbyCell {
+
+		private double centerLat;
+		private double centerLon;
+		private int supersetMeters;
+		// 잘리지 않았으면 supersetMeters, 잘렸으면 마지막 식당까지의 거리. 이 안쪽만 빠짐없이 들어 있다
+		private double coveredMeters;
+		private List<RestaurantResponse> restaurants;
+	}
+
+	private final boolean enabled;
+	private final int precision;
+	private final int[] radiusBuckets;
+	private final int supersetSize;
+	private final Cache<String, NearbyCell> localCache;
+	@Nullable
+	private final StringRedisTemplate redisTemplate;
+	private final ObjectMapper objectMapper;
+	private final Duration redisTtl;
+
+	public RestaurantNearbyCache(@Nullable StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+			@Value("${restaurant.nearby-cache.enabled:true}") boolean enabled,
+			@Value("${restaurant.nearby-cache.geohash-precision:6}") int precision,
+			@Value("${restaurant.nearby-cache.radius-buckets:300,500,1000,2000,3000,5000}") int[] radiusBuckets,
+			@Value("${restaurant.nearby-cache.superset-size:300}") int supersetSize,
+			@Value("${restaurant.nearby-cache.local.ttl-seconds:30}") long localTtlSeconds,
+			@Value("${restaurant.nearby-cache.local.max-size:10000}") long localMaxSize,
+			@Value("${restaurant.nearby-cache.redis.enabled:false}") boolean redisEnabled,
+			@Value("${restaurant.nearby-cache.redis.ttl-seconds:120}") long redisTtlSeconds) {
+		this.enabled = enabled;
+		this.precision = precision;
+		this.radiusBuckets = Arrays.stream(radiusBuckets).sorted().toArray();
+		this.supersetSize = supersetSize;
+		this.localCache = Caffeine.newBuilder()
+				.maximumSize(localMaxSize)
+				.expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+				.build();
+		this.redisTemplate = redisEnabled ? redisTemplate : null;
+		this.objectMapper = objectMapper;
+		this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+	}
+
+	/**
+	 * (lat, lon) 에서 radius 안의 식당을 가까운 순으로 limit 개까지 찾는다.
+	 */
+	public List<RestaurantResponse> find(double lat, double lon, int radius, int limit,
+			NearbyLoader loader) {
+		int bucket = bucketFor(radius);
+		if (!enabled || bucket < 0) {
+			return loader.load(lat, lon, radius, limit);
+		}
+		String key = cellKey(geohash(lat, lon, precision), bucket);
+		NearbyCell cell = localCache.getIfPresent(key);
+		if (cell == null) {
+			cell = readRedis(key);
+			if (cell == null) {
+				cell = loadCell(lat, lon, bucket, loader);
+				writeRedis(key, cell);
+			}
+			localCache.put(key, cell);
+		}
+		if (distance(cell.getCenterLat(), cell.getCenterLon(), lat, lon) + radius
+				> cell.getCoveredMeters()) {
+			return loader.load(lat, lon, radius, limit);
+		}
+		return cell.getRestaurants().stream()
+				.filter(restaurant -> distance(lat, lon, restaurant.getY(), restaurant.getX()) <= radius)
+				.sorted(Comparator.comparingDouble(
+						restaurant -> distance(lat, lon, restaurant.getY(), restaurant.getX())))
+				.limit(limit)
+				.toList();
+	}
+
+	/**
+	 * 변경된 식당을 담고 있거나 변경된 위치(이전/이후 좌표)를 덮는 항목을 지운다.
+	 * <p>
+	 * Redis 항목은 locations 로만 찾는다. 로컬 tier 에 없는 항목도 지워야 하므로 위치가 없는 변경(태그, 감정 등)은 호출하는 쪽이
+	 * 식당의 현재 좌표를 locations 에 넣어야 한다.
+	 *
+	 * @param locations [위도, 경도]
+	 */
+	public void evict(Collection<Integer> restaurantIds, Collection<double[]> locations) {
+		if (restaurantIds.isEmpty() && locations.isEmpty()) {
+			return;
+		}
+		Set<Integer> ids = new HashSet<>(restaurantIds);
+		localCache.asMap().entrySet().removeIf(entry -> {
+			NearbyCell cell = entry.getValue();
+			return cell.getRestaurants().stream()
+					.anyMatch(restaurant -> ids.contains(restaurant.getRestaurantId()))
+					|| locations.stream().anyMatch(location -> distance(
+					cell.getCenterLat(), cell.getCenterLon(), location[0], location[1])
+					<= cell.getSupersetMeters());
+		});
+		if (redisTemplate != null && !locations.isEmpty()) {
+			Set<String> keys = new HashSet<>();
+			locations.forEach(location -> keys.addAll(keysCovering(location[0], location[1])));
+			try {
+				redisTemplate.delete(keys);
+			} catch (RuntimeException e) {
+				log.warn("주변 식당 캐시 Redis 항목 삭제 실패: {}", e.getMessage());
+			}
+		}
+	}
+
+	private NearbyCell loadCell(double lat, double lon, int bucket, NearbyLoader loader) {
+		double[] bounds = decode(geohash(lat, lon, precision));
+		double centerLat = (bounds[0] + bounds[1]) / 2;
+		double centerLon = (bounds[2] + bounds[3]) / 2;
+		int supersetMeters = bucket + (int) Math.ceil(halfDiagonal(bounds));
+		List<RestaurantResponse> restaurants = loader.load(centerLat, centerLon, supersetMeters,
+						supersetSize).stream()
+				.filter(restaurant -> restaurant.getX() != null && restaurant.getY() != null)
+				.toList();
+		double coveredMeters = restaurants.size() < supersetSize ? supersetMeters
+				: distance(centerLat, centerLon, restaurants.get(restaurants.size() - 1).getY(),
+						restaurants.get(restaurants.size() - 1).getX());
+		return new NearbyCell(centerLat, centerLon, supersetMeters, coveredMeters, restaurants);
+	}
+
+	// 좌표를 지나는 모든 (셀, 구간) 키. 셀 중심에서 (구간 + 셀 반대각선) 안에 좌표가 있으면 그 항목에 들어 있을 수 있다
+	private Set<String> keysCovering(double lat, double lon) {
+		double[] bounds = decode(geohash(lat, lon, precision));
+		double latSpan = bounds[1] - bounds[0];
+		double lonSpan = bounds[3] - bounds[2];
+		double reach = radiusBuckets[radiusBuckets.length - 1] + halfDiagonal(bounds);
+		double latDelta = Math.toDegrees(reach / EARTH_RADIUS_M);
+		double lonDelta = Math.toDegrees(reach / (EARTH_RADIUS_M * Math.cos(Math.toRadians(lat))));
+
+		Set<String> keys = new HashSet<>();
+		for (double cellLat = lat - latDelta; cellLat <= lat + latDelta + latSpan; cellLat += latSpan) {
+			for (double cellLon = lon - lonDelta; cellLon <= lon + lonDelta + lonSpan;
+					cellLon += lonSpan) {
+				String hash = geohash(Math.max(-90, Math.min(90, cellLat)), cellLon, precision);
+				double[] cell = decode(hash);
+				double centerDistance = distance(lat, lon, (cell[0] + cell[1]) / 2,
+						(cell[2] + cell[3]) / 2);
+				double halfDiagonal = halfDiagonal(cell);
+				for (int bucket : radiusBuckets) {
+					if (centerDistance <= bucket + halfDiagonal) {
+						keys.add(REDIS_KEY_PREFIX + cellKey(hash, bucket));
+					}
+				}
+			}
+		}
+		return keys;
+	}
+
+	@Nullable
+	private NearbyCell readRedis(String key) {
+		if (redisTemplate == null) {
+			return null;
+		}
+		try {
+			String json = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + key);
+			return json == null ? null : objectMapper.readValue(json, NearbyCell.class);
+		} catch (JsonProcessingException | RuntimeException e) {
+			log.warn("주변 식당 캐시 Redis 조회 실패 [{}]: {}", key, e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeRedis(String key, NearbyCell cell) {
+		if (redisTemplate == null) {
+			return;
+		}
+		try {
+			redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key,
+					objectMapper.writeValueAsString(cell), redisTtl);
+		} catch (JsonProcessingException | RuntimeException e) {
+			log.warn("주변 식당 캐시 Redis 저장 실패 [{}]: {}", key, e.getMessage());
+		}
+	}
+
+	// 반경 이상인 가장 작은 구간, 가장 큰 구간보다 크면 -1 (캐시하지 않음)
+	private int bucketFor(int radius) {
+		for (int bucket : radiusBuckets) {
+			if (radius <= bucket) {
+				return bucket;
+			}
+		}
+		return -1;
+	}
+
+	static String cellKey(String geohash, int bucket) {
+		return geohash + ":" + bucket;
+	}
+
+	static String geohash(double lat, double lon, int precision) {
+		double[] latRange = {-90, 90};
+		double[] lonRange = {-180, 180};
+		// 경도 범위를 벗어난 값은 반대편으로 넘긴다
+		double wrappedLon = ((lon + 180) % 360 + 360) % 360 - 180;
+		StringBuilder hash = new StringBuilder(precision);
+		boolean even = true;
+		int bit = 0;
+		int ch = 0;
+		while (hash.length() < precision) {
+			double[] range = even ? lonRange : latRange;
+			double value = even ? wrappedLon : lat;
+			double mid = (range[0] + range[1]) / 2;
+			if (value >= mid) {
+				ch |= 1 << (4 - bit);
+				range[0] = mid;
+			} else {
+				range[1] = mid;
+			}
+			even = !even;
+			if (++bit == 5) {
+				hash.append(BASE32.charAt(ch));
+				bit = 0;
+				ch = 0;
+			}
+		}
+		return hash.toString();
+	}
+
+	// [최소 위도, 최대 위도, 최소 경도, 최대 경도]
+	static double[] decode(String geohash) {
+		double[] latRange = {-90, 90};
+		double[] lonRange = {-180, 180};
+		boolean even = true;
+		for (char c : geohash.toCharArray()) {
+			int value = BASE32.indexOf(c);
+			for (int bit = 4; bit >= 0; bit--) {
+				double[] range = even ? lonRange : latRange;
+				double mid = (range[0] + range[1]) / 2;
+				if ((value >> bit & 1) == 1) {
+					range[0] = mid;
+				} else {
+					range[1] = mid;
+				}
+				even = !even;
+			}
+		}
+		return new double[]{latRange[0], latRange[1], lonRange[0], lonRange[1]};
+	}
+
+	private static double halfDiagonal(double[] bounds) {
+		return distance(bounds[0], bounds[2], bounds[1], bounds[3]) / 2;
+	}
+
+	// haversine 거리(미터). ES geo_distance 의 arc 계산과 같은 방식이다
+	static double distance(double lat1, double lon1, double lat2, double lon2) {
+		double dLat = Math.toRadians(lat2 - lat1);
+		double dLon = Math.toRadians(lon2 - lon1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+				+ Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+				* Math.sin(dLon / 2) * Math.sin(dLon / 2);
+		return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+}
@@ -1,181 +1,371 @@
 package com.patriot.fourlipsclover.restaurant.service;
 
+import com.patriot.fourlipsclover.exception.InvalidDataException;
 import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantRankingResponse;
 import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import weka.classifiers.trees.RandomForest;
 import weka.core.*;
 
 import java.io.*;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class RestaurantRankingService {
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
     private final RestaurantJpaRepository restaurantRepository;
+    private final RestaurantRankingStore rankingStore;
+    private final RestaurantGeoIndex geoIndex;
+    private final Set<Integer> dirtyRestaurantIds = ConcurrentHashMap.newKeySet();
+    // 랭킹 저장소 쓰기(증분 갱신, 전체 재구성, 모델 교체 후 재채점)를 한 번에 하나씩 한다
+    private final Object rankingStoreLock = new Object();
+
+    // 학습/예측에 쓰는 피처 순서. 마지막 속성(score)이 예측 대상
+    private static final Instances HEADER = createHeader();
+
+    private final RankingModelRegistry modelRegistry;
+    // 모델 로드/학습 전용 스레드. 요청 스레드와 서버 시작을 막지 않는다
+    private final ExecutorService trainingExecutor = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("ranking-training-"));
+    private CompletableFuture<Integer> runningTraining;
+
+    // 예측에 사용하는 모델. 교체는 참조 하나를 바꾸는 것으로 끝나므로 읽는 쪽은 항상 완전한 모델을 본다
+    private volatile RankingModel activeModel;
 
-    private RandomForest model;
-    private boolean modelTrained = false;
+    @Value("${ranking.model.validation-tolerance:0.05}")
+    private double validationTolerance;
 
-    // 모델 파일 경로
-    private final String MODEL_PATH = "model/random_forest_model.ser";
+    private static final class RankingModel {
+
+        private final int version;
+        private final RandomForest forest;
+        private final CompiledRandomForest compiled;
+
+        private RankingModel(int version, RandomForest forest, CompiledRandomForest compiled) {
+            this.version = version;
+            this.forest = forest;
+            this.compiled = compiled;
+        }
+    }
 
     @PostConstruct
     public void init() {
-        // 서버 시작 시 모델 초기화 또는 학습
+        // 서버 시작 시 모델 로드 또는 학습. 끝나기 전까지는 규칙 기반 점수를 사용
+        trainingExecutor.execute(this::loadOrTrainModel);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        trainingExecutor.shutdownNow();
+    }
+
+    private void loadOrTrainModel() {
         try {
-            loadOrTrainModel();
+            modelRegistry.migrateLegacy();
+            Optional<Integer> version = modelRegistry.activeVersion();
+            if (version.isPresent()) {
+                swapModel(loadModel(version.get()));
+                log.info("저장된 랜덤 포레스트 모델을 로드했습니다. (v{})", version.get());
+                return;
+            }
+        } catch (Exception e) {
+            log.error("모델 로드 실패", e);
+        }
+        // 데이터가 충분하면 모델 학습
+        try {
+            trainAndSwap();
         } catch (Exception e) {
-            log.error("모델 초기화 실패", e);
+            log.error("모델 학습 실패", e);
         }
     }
 
-    private void loadOrTrainModel() {
-        File modelFile = new File(MODEL_PATH);
-        if (modelFile.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(modelFile))) {
-                model = (RandomForest) ois.readObject();
-                modelTrained = true;
-                log.info("저장된 랜덤 포레스트 모델을 로드했습니다.");
-            } catch (Exception e) {
-                log.error("모델 로드 실패", e);
-            }
-        } else {
-            // 데이터가 충분하면 모델 학습
+    /**
+     * 모델 재학습을 예약한다. 이미 학습 중이면 진행 중인 학습을 반환한다.
+     *
+     * @return 새로 적용된 모델 버전. 데이터 부족 또는 검증 실패로 교체하지 않으면 null
+     */
+    public synchronized CompletableFuture<Integer> retrain() {
+        if (runningTraining != null && !runningTraining.isDone()) {
+            return runningTraining;
+        }
+        runningTraining = CompletableFuture.supplyAsync(() -> {
             try {
-                trainModel();
+                return trainAndSwap();
             } catch (Exception e) {
-                log.error("모델 학습 실패", e);
+                throw new CompletionException(e);
             }
+        }, trainingExecutor);
+        return runningTraining;
+    }
+
+    @Scheduled(cron = "${ranking.model.train-cron:0 0 4 * * *}")
+    public void scheduledRetrain() {
+        retrain().exceptionally(e -> {
+            log.error("예약된 모델 재학습 실패", e);
+            return null;
+        });
+    }
+
+    /**
+     * 직전 버전 모델로 되돌린다.
+     */
+    public synchronized int rollback() throws IOException {
+        RankingModel current = activeModel;
+        if (current == null) {
+            throw new InvalidDataException("사용 중인 모델이 없습니다.");
         }
+        int previous = modelRegistry.previousVersion(current.version)
+                .orElseThrow(() -> new InvalidDataException("이전 모델 버전이 없습니다."));
+        activateVersion(previous);
+        return previous;
     }
 
-    @Transactional(readOnly = true)
-    public void trainModel() throws Exception {
+    public synchronized void activateVersion(int version) throws IOException {
+        if (!modelRegistry.versions().contains(version)) {
+            throw new InvalidDataException("존재하지 않는 모델 버전입니다: " + version);
+        }
+        RankingModel model = loadModel(version);
+        modelRegistry.activate(version);
+        swapModel(model);
+        log.info("랭킹 모델 v{} 로 전환했습니다.", version);
+    }
+
+    public Integer getActiveModelVersion() {
+        RankingModel model = activeModel;
+        return model != null ? model.version : null;
+    }
+
+    public List<Integer> getModelVersions() throws IOException {
+        return modelRegistry.versions();
+    }
+
+    private Integer trainAndSwap() throws Exception {
         log.info("랜덤 포레스트 모델 학습 시작...");
         List<RestaurantRankingResponse> data = getRestaurantRankingData();
 
         if (data.size() < 10) {
             log.warn("학습 데이터가 부족합니다 ({}개). 최소 10개의 데이터가 필요합니다.", data.size());
-            return;
+            return null;
         }
 
         // 초기 점수 계산 (학습용)
         data.forEach(dto -> dto.setScore(calculateInitialScore(dto)));
 
-        // Weka 인스턴스 생성
-        Instances trainingData = createTrainingInstances(data);
+        // 식당 ID 로 정한 약 20% 는 어느 모델의 학습에도 쓰지 않고 검증에만 쓴다
+        List<RestaurantRankingResponse> validation = new ArrayList<>();
+        List<RestaurantRankingResponse> training = new ArrayList<>();
+        for (RestaurantRankingResponse dto : data) {
+            (isHoldout(dto.getRestaurantId()) ? validation : training).add(dto);
+        }
+        if (validation.isEmpty() || training.isEmpty()) {
+            log.warn("검증/학습 데이터를 나눌 수 없습니다 (검증 {}개, 학습 {}개).", validation.size(), training.size());
+            return null;
+        }
 
         // 모델 설정 및 학습
-        model = new RandomForest();
-        model.setNumIterations(100);
-        model.setMaxDepth(10);
-        model.setSeed(42);
-        model.buildClassifier(trainingData);
-
-        // 모델 저장
-        File directory = new File(new File(MODEL_PATH).getParent());
-        if (!directory.exists()) {
-            directory.mkdirs();
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(100);
+        forest.setMaxDepth(10);
+        forest.setSeed(42);
+        forest.buildClassifier(createTrainingInstances(training));
+        RankingModel candidate = new RankingModel(0, forest, compileModel(forest));
+
+        // 검증: 현재 모델보다 오차가 허용 범위 이상 크면 교체하지 않는다
+        double candidateError = validationError(candidate, validation);
+        RankingModel current = activeModel;
+        if (current != null) {
+            double currentError = validationError(current, validation);
+            if (!(candidateError <= currentError * (1 + validationTolerance))) {
+                log.warn("새 모델 검증 실패 (RMSE {} > 현재 v{} {}), 교체하지 않습니다.",
+                        candidateError, current.version, currentError);
+                return null;
+            }
+        } else if (Double.isNaN(candidateError)) {
+            log.warn("새 모델 검증 실패 (예측 불가), 교체하지 않습니다.");
+            return null;
         }
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(MODEL_PATH))) {
-            oos.writeObject(model);
+        // 모델 저장 후 교체
+        int version = modelRegistry.save(forest);
+        synchronized (this) {
+            modelRegistry.activate(version);
+            swapModel(new RankingModel(version, forest, candidate.compiled));
         }
+        log.info("랜덤 포레스트 모델 학습 완료 (v{}, 검증 RMSE {})", version, candidateError);
+        return version;
+    }
 
-        modelTrained = true;
-        log.info("랜덤 포레스트 모델 학습 완료");
+    private RankingModel loadModel(int version) throws IOException {
+        RandomForest forest = modelRegistry.load(version);
+        return new RankingModel(version, forest, compileModel(forest));
     }
 
-    @Transactional(readOnly = true)
-    public List<RestaurantRankingResponse> calculateRankings() {
-        List<RestaurantRankingResponse> rankingData = getRestaurantRankingData();
+    // 학습 데이터가 바뀌어도 같은 식당은 항상 같은 쪽에 속한다
+    static boolean isHoldout(Integer restaurantId) {
+        return Math.floorMod(restaurantId * 0x9E3779B9, 5) == 0;
+    }
 
-        if (modelTrained && model != null) {
-            try {
-                // 학습된 모델로 점수 예측
-                predictScores(rankingData);
-            } catch (Exception e) {
-                log.error("모델 예측 실패, 규칙 기반 점수 계산으로 전환", e);
-                calculateScoresByRules(rankingData);
+    private void swapModel(RankingModel model) {
+        // 스냅샷과 replaceAll 사이에 증분 갱신이 끼면 그 갱신을 덮어쓴다
+        synchronized (rankingStoreLock) {
+            activeModel = model;
+
+            // 피처는 그대로 두고 새 모델로 점수만 다시 계산
+            if (rankingStore.isReady()) {
+                List<RestaurantRankingResponse> snapshot = rankingStore.snapshot();
+                scoreAll(snapshot);
+                rankingStore.replaceAll(snapshot, rankingStore.mainCategoryIds());
             }
-        } else {
-            // 규칙 기반 점수 계산
-            calculateScoresByRules(rankingData);
         }
+    }
 
-        // 점수에 따라 정렬
-        rankingData.sort(Comparator.comparing(RestaurantRankingResponse::getScore).reversed());
+    private double validationError(RankingModel model, List<RestaurantRankingResponse> validation)
+            throws Exception {
+        double[] predictions = predict(model, validation);
+        double sum = 0;
+        for (int i = 0; i < predictions.length; i++) {
+            double diff = predictions[i] - validation.get(i).getScore();
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum / predictions.length);
+    }
 
-        // 순위 할당
-        for (int i = 0; i < rankingData.size(); i++) {
-            rankingData.get(i).setRank(i + 1);
+    /**
+     * 랭킹 저장소 전체 재구성. 시작 직후 한 번, 이후 주기적으로 실행되어 증분 갱신에서 놓친 변경을 보정한다.
+     */
+    @Scheduled(fixedDelayString = "${ranking.rebuild-interval-ms:3600000}")
+    public void rebuildRankingStore() {
+        List<RestaurantRankingResponse> rankingData;
+        synchronized (rankingStoreLock) {
+            List<Map<String, Object>> rawData = restaurantRepository.getRestaurantRankingData();
+            rankingData = convertToRankingResponse(rawData);
+            scoreAll(rankingData);
+            rankingStore.replaceAll(rankingData, extractMainCategoryIds(rawData));
         }
+        log.info("랭킹 저장소 재구성 완료 ({}개 식당)", rankingData.size());
+    }
 
-        return rankingData;
+    /**
+     * 리뷰, 좋아요, 감정 분석, 방문 결제 등 랭킹 피처가 바뀐 식당을 표시한다. 트랜잭션 안에서 호출되면 커밋 후에 반영된다.
+     */
+    public void markDirty(Integer restaurantId) {
+        if (restaurantId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyRestaurantIds.add(restaurantId);
+                }
+            });
+        } else {
+            dirtyRestaurantIds.add(restaurantId);
+        }
     }
 
-    @Transactional(readOnly = true)
-    public List<RestaurantRankingResponse> calculateRankingsByCategory(String category) {
-        List<RestaurantRankingResponse> rankingData = getRestaurantRankingDataByCategory(category);
+    @Scheduled(fixedDelayString = "${ranking.refresh-interval-ms:5000}")
+    public void refreshDirtyRankings() {
+        if (dirtyRestaurantIds.isEmpty() || !rankingStore.isReady()) {
+            return;
+        }
+        // 갱신하는 동안 다시 표시된 식당을 지우지 않도록 먼저 꺼내고, 실패하면 반영하지 못한 식당을 되돌린다
+        List<Integer> restaurantIds = new ArrayList<>(dirtyRestaurantIds);
+        dirtyRestaurantIds.removeAll(restaurantIds);
 
-        if (modelTrained && model != null) {
+        for (int from = 0; from < restaurantIds.size(); from += REFRESH_CHUNK_SIZE) {
+            List<Integer> chunk = restaurantIds.subList(from,
+                    Math.min(from + REFRESH_CHUNK_SIZE, restaurantIds.size()));
             try {
-                predictScores(rankingData);
-            } catch (Exception e) {
-                log.error("모델 예측 실패, 규칙 기반 점수 계산으로 전환", e);
-                calculateScoresByRules(rankingData);
+                refreshRankings(chunk);
+            } catch (RuntimeException e) {
+                dirtyRestaurantIds.addAll(restaurantIds.subList(from, restaurantIds.size()));
+                throw e;
             }
-        } else {
-            calculateScoresByRules(rankingData);
         }
+    }
 
-        rankingData.sort(Comparator.comparing(RestaurantRankingResponse::getScore).reversed());
-
-        for (int i = 0; i < rankingData.size(); i++) {
-            rankingData.get(i).setRank(i + 1);
+    private void refreshRankings(List<Integer> restaurantIds) {
+        synchronized (rankingStoreLock) {
+            List<Map<String, Object>> rawData = restaurantRepository.getRestaurantRankingDataByIds(restaurantIds);
+            List<RestaurantRankingResponse> rankingData = convertToRankingResponse(rawData);
+            scoreAll(rankingData);
+            rankingStore.upsert(rankingData, extractMainCategoryIds(rawData));
+
+            // 조회되지 않은 식당은 삭제된 식당
+            Set<Integer> found = rankingData.stream()
+                    .map(RestaurantRankingResponse::getRestaurantId)
+                    .collect(Collectors.toSet());
+            rankingStore.removeAll(restaurantIds.stream().filter(id -> !found.contains(id)).toList());
         }
-
-        return rankingData;
     }
 
     @Transactional(readOnly = true)
-    public List<RestaurantRankingResponse> calculateRankingsNearby(
-            Double latitude, Double longitude, Integer radius) {
-        List<RestaurantRankingResponse> rankingData = getRestaurantRankingDataNearby(
-                latitude, longitude, radius);
+    public List<RestaurantRankingResponse> calculateRankings() {
+        return getTopRankings(Integer.MAX_VALUE);
+    }
 
-        if (modelTrained && model != null) {
-            try {
-                predictScores(rankingData);
-            } catch (Exception e) {
-                log.error("모델 예측 실패, 규칙 기반 점수 계산으로 전환", e);
-                calculateScoresByRules(rankingData);
-            }
-        } else {
-            calculateScoresByRules(rankingData);
+    @Transactional(readOnly = true)
+    public List<RestaurantRankingResponse> getTopRankings(int limit) {
+        if (rankingStore.isReady()) {
+            return rankingStore.top(limit);
         }
+        return limit(rankAll(getRestaurantRankingData()), limit);
+    }
 
-        rankingData.sort(Comparator.comparing(RestaurantRankingResponse::getScore).reversed());
+    @Transactional(readOnly = true)
+    public List<RestaurantRankingResponse> calculateRankingsByCategory(String category) {
+        return getTopRankingsByCategory(category, Integer.MAX_VALUE);
+    }
 
-        for (int i = 0; i < rankingData.size(); i++) {
-            rankingData.get(i).setRank(i + 1);
+    @Transactional(readOnly = true)
+    public List<RestaurantRankingResponse> getTopRankingsByCategory(String category, int limit) {
+        if (rankingStore.isReady()) {
+            return rankingStore.topByCategory(category, limit);
         }
+        return limit(rankAll(getRestaurantRankingDataByCategory(category)), limit);
+    }
 
-        return rankingData;
+    @Transactional(readOnly = true)
+    public List<RestaurantRankingResponse> calculateRankingsNearby(
+            Double latitude, Double longitude, Integer radius) {
+        if (rankingStore.isReady()) {
+            // 반경 내 식당 ID만 조회하고 점수는 저장소에서 가져온다
+            List<Integer> nearbyIds = geoIndex.isReady()
+                    ? geoIndex.findWithin(latitude, longitude, radius)
+                    : restaurantRepository.findNearbyRestaurantIds(latitude, longitude, radius);
+            return rankingStore.rankAmong(nearbyIds);
+        }
+        return rankAll(getRestaurantRankingDataNearby(latitude, longitude, radius));
     }
 
     @Transactional(readOnly = true)
     public RestaurantRankingResponse getRestaurantRanking(Integer restaurantId) {
+        if (rankingStore.isReady()) {
+            return rankingStore.find(restaurantId);
+        }
         // 전체 랭킹 계산
-        List<RestaurantRankingResponse> allRankings = calculateRankings();
+        List<RestaurantRankingResponse> allRankings = rankAll(getRestaurantRankingData());
 
         // 특정 식당 찾기
         return allRankings.stream()
@@ -184,43 +374,138 @@ public class RestaurantRankingService {
                 .orElse(null);
     }
 
-    private void predictScores(List<RestaurantRankingResponse> data) throws Exception {
-        if (data.isEmpty()) {
-            return;
+    /**
+     * 식당별 랭킹 점수. 저장소가 준비되기 전에는 요청한 식당만 계산한다.
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Double> getScores(Collection<Integer> restaurantIds) {
+        Map<Integer, Double> scores = new HashMap<>();
+        if (rankingStore.isReady()) {
+            for (Integer restaurantId : restaurantIds) {
+                RestaurantRankingResponse ranking = rankingStore.find(restaurantId);
+                if (ranking != null) {
+                    scores.put(restaurantId, ranking.getScore());
+                }
+            }
+            return scores;
         }
+        List<RestaurantRankingResponse> rankingData = convertToRankingResponse(
+                restaurantRepository.getRestaurantRankingDataByIds(restaurantIds));
+        scoreAll(rankingData);
+        rankingData.forEach(ranking -> scores.put(ranking.getRestaurantId(), ranking.getScore()));
+        return scores;
+    }
 
-        // Weka 인스턴스 생성
-        Instances testInstances = createTestInstances(data);
-
-        // 예측
-        for (int i = 0; i < data.size(); i++) {
-            double score = model.classifyInstance(testInstances.instance(i));
-            data.get(i).setScore(score);
+    /**
+     * 전체 순위 fromRank ~ toRank (양 끝 포함) 구간 조회
+     */
+    @Transactional(readOnly = true)
+    public List<RestaurantRankingResponse> getRankingRange(int fromRank, int toRank) {
+        if (fromRank < 1 || toRank < fromRank) {
+            throw new InvalidDataException("올바르지 않은 순위 범위입니다.");
+        }
+        if (rankingStore.isReady()) {
+            return rankingStore.range(fromRank, toRank);
+        }
+        List<RestaurantRankingResponse> allRankings = rankAll(getRestaurantRankingData());
+        if (fromRank > allRankings.size()) {
+            return List.of();
         }
+        return allRankings.subList(fromRank - 1, Math.min(toRank, allRankings.size()));
     }
 
     @Transactional(readOnly = true)
     public List<RestaurantRankingResponse> calculateRankingsByMainCategory(Integer categoryId) {
-        List<RestaurantRankingResponse> rankingData = getRestaurantRankingDataByMainCategory(categoryId);
+        return getTopRankingsByMainCategory(categoryId, Integer.MAX_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RestaurantRankingResponse> getTopRankingsByMainCategory(Integer categoryId, int limit) {
+        if (rankingStore.isReady()) {
+            return rankingStore.topByMainCategory(categoryId, limit);
+        }
+        return limit(rankAll(getRestaurantRankingDataByMainCategory(categoryId)), limit);
+    }
+
+    // 저장소가 준비되기 전(서버 시작 직후)에만 사용하는 전체 계산 경로
+    private List<RestaurantRankingResponse> rankAll(List<RestaurantRankingResponse> rankingData) {
+        scoreAll(rankingData);
+
+        // 점수에 따라 정렬
+        rankingData.sort(Comparator.comparing(RestaurantRankingResponse::getScore).reversed());
 
-        if (modelTrained && model != null) {
+        // 순위 할당
+        for (int i = 0; i < rankingData.size(); i++) {
+            rankingData.get(i).setRank(i + 1);
+        }
+
+        return rankingData;
+    }
+
+    private List<RestaurantRankingResponse> limit(List<RestaurantRankingResponse> rankingData, int limit) {
+        return rankingData.size() > limit ? rankingData.subList(0, limit) : rankingData;
+    }
+
+    private void scoreAll(List<RestaurantRankingResponse> rankingData) {
+        RankingModel model = activeModel;
+        if (model != null) {
             try {
-                predictScores(rankingData);
+                // 학습된 모델로 점수 예측
+                predictScores(model, rankingData);
             } catch (Exception e) {
                 log.error("모델 예측 실패, 규칙 기반 점수 계산으로 전환", e);
                 calculateScoresByRules(rankingData);
             }
         } else {
+            // 규칙 기반 점수 계산
             calculateScoresByRules(rankingData);
         }
+    }
 
-        rankingData.sort(Comparator.comparing(RestaurantRankingResponse::getScore).reversed());
+    private CompiledRandomForest compileModel(RandomForest randomForest) {
+        try {
+            CompiledRandomForest compiled = CompiledRandomForest.compile(randomForest);
+            log.info("랜덤 포레스트 추론 엔진 변환 완료 (트리 {}개, 노드 {}개)",
+                    compiled.treeCount(), compiled.nodeCount());
+            return compiled;
+        } catch (RuntimeException e) {
+            log.warn("랜덤 포레스트 추론 엔진 변환 실패, Weka 예측을 사용합니다", e);
+            return null;
+        }
+    }
 
-        for (int i = 0; i < rankingData.size(); i++) {
-            rankingData.get(i).setRank(i + 1);
+    private void predictScores(RankingModel model, List<RestaurantRankingResponse> data)
+            throws Exception {
+        double[] scores = predict(model, data);
+        for (int i = 0; i < data.size(); i++) {
+            data.get(i).setScore(scores[i]);
         }
+    }
 
-        return rankingData;
+    private double[] predict(RankingModel model, List<RestaurantRankingResponse> data)
+            throws Exception {
+        if (data.isEmpty()) {
+            return new double[0];
+        }
+
+        if (model.compiled != null) {
+            // 피처 행렬 한 번에 예측
+            double[][] features = new double[data.size()][];
+            for (int i = 0; i < data.size(); i++) {
+                features[i] = toFeatures(data.get(i));
+            }
+            return model.compiled.predict(features);
+        }
+
+        // Weka 인스턴스 생성
+        Instances testInstances = createTestInstances(data);
+
+        // 예측
+        double[] scores = new double[data.size()];
+        for (int i = 0; i < data.size(); i++) {
+            scores[i] = model.forest.classifyInstance(testInstances.instance(i));
+        }
+        return scores;
     }
 
     private List<RestaurantRankingResponse> getRestaurantRankingDataByMainCategory(Integer categoryId) {
@@ -256,7 +541,7 @@ public class RestaurantRankingService {
                 (trustWeight + 0.2) + visitWeight;
     }
 
-    private Instances createTrainingInstances(List<RestaurantRankingResponse> data) throws Exception {
+    private static Instances createHeader() {
         // Weka 속성 정의
         ArrayList<Attribute> attributes = new ArrayList<>();
         attributes.add(new Attribute("visitCount"));
@@ -267,61 +552,46 @@ public class RestaurantRankingService {
         attributes.add(new Attribute("avgPerPersonAmount"));
         attributes.add(new Attribute("score"));
 
-        // 인스턴스 생성
-        Instances instances = new Instances("RestaurantRanking", attributes, data.size());
-        instances.setClassIndex(attributes.size() - 1);
-
-        // 데이터 추가
-        for (RestaurantRankingResponse dto : data) {
-            Instance inst = new DenseInstance(attributes.size());
-            inst.setValue(0, nullSafeDouble(dto.getVisitCount()));
-            inst.setValue(1, nullSafeDouble(dto.getWeightedPositive()));
-            inst.setValue(2, nullSafeDouble(dto.getWeightedNegative()));
-            inst.setValue(3, nullSafeDouble(dto.getAvgUserTrustScore()));
-            inst.setValue(4, nullSafeDouble(dto.getReviewCount()));
-            inst.setValue(5, nullSafeDouble(dto.getAvgPerPersonAmount()));
-            inst.setValue(6, nullSafeDouble(dto.getScore()));
-
-            instances.add(inst);
-        }
+        Instances header = new Instances("RestaurantRanking", attributes, 0);
+        header.setClassIndex(attributes.size() - 1);
+        return header;
+    }
 
-        return instances;
+    private Instances createTrainingInstances(List<RestaurantRankingResponse> data) throws Exception {
+        return createInstances(data, true);
     }
 
     private Instances createTestInstances(List<RestaurantRankingResponse> data) throws Exception {
-        // Weka 속성 정의 (학습 데이터와 동일한 구조)
-        ArrayList<Attribute> attributes = new ArrayList<>();
-        attributes.add(new Attribute("visitCount"));
-        attributes.add(new Attribute("weightedPositive"));
-        attributes.add(new Attribute("weightedNegative"));
-        attributes.add(new Attribute("avgUserTrustScore"));
-        attributes.add(new Attribute("reviewCount"));
-        attributes.add(new Attribute("avgPerPersonAmount"));
-        attributes.add(new Attribute("score"));
+        // 테스트 데이터는 대상 변수 값을 0 으로 둔다 (예측시에는 무시됨)
+        return createInstances(data, false);
+    }
 
-        // 인스턴스 생성
-        Instances instances = new Instances("RestaurantRanking", attributes, data.size());
-        instances.setClassIndex(attributes.size() - 1);
+    private Instances createInstances(List<RestaurantRankingResponse> data, boolean withScore) {
+        // 속성 구조는 HEADER 를 공유
+        Instances instances = new Instances(HEADER, data.size());
 
         // 데이터 추가
         for (RestaurantRankingResponse dto : data) {
-            Instance inst = new DenseInstance(attributes.size());
-            inst.setValue(0, nullSafeDouble(dto.getVisitCount()));
-            inst.setValue(1, nullSafeDouble(dto.getWeightedPositive()));
-            inst.setValue(2, nullSafeDouble(dto.getWeightedNegative()));
-            inst.setValue(3, nullSafeDouble(dto.getAvgUserTrustScore()));
-            inst.setValue(4, nullSafeDouble(dto.getReviewCount()));
-            inst.setValue(5, nullSafeDouble(dto.getAvgPerPersonAmount()));
-
-            // 테스트 데이터는 대상 변수 값을 임시로 설정 (예측시에는 무시됨)
-            inst.setValue(6, 0);
-
-            instances.add(inst);
+            double[] values = Arrays.copyOf(toFeatures(dto), HEADER.numAttributes());
+            values[HEADER.classIndex()] = withScore ? nullSafeDouble(dto.getScore()) : 0;
+            instances.add(new DenseInstance(1.0, values));
         }
 
         return instances;
     }
 
+    // HEADER 의 피처 순서와 같은 배열 (score 제외)
+    private double[] toFeatures(RestaurantRankingResponse dto) {
+        return new double[]{
+                nullSafeDouble(dto.getVisitCount()),
+                nullSafeDouble(dto.getWeightedPositive()),
+                nullSafeDouble(dto.getWeightedNegative()),
+                nullSafeDouble(dto.getAvgUserTrustScore()),
+                nullSafeDouble(dto.getReviewCount()),
+                nullSafeDouble(dto.getAvgPerPersonAmount())
+        };
+    }
+
     // null 값을 안전하게 처리하는 유틸리티 메서드
     private double nullSafeDouble(Number value) {
         return value != null ? value.doubleValue() : 0.0;
@@ -344,6 +614,17 @@ public class RestaurantRankingService {
         return convertToRankingResponse(rawData);
     }
 
+    private Map<Integer, Integer> extractMainCategoryIds(List<Map<String, Object>> rawData) {
+        Map<Integer, Integer> mainCategoryIds = new HashMap<>();
+        for (Map<String, Object> row : rawData) {
+            if (row.get("mainCategoryId") != null) {
+                mainCategoryIds.put(convertToInteger(row.get("restaurantId")),
+                        convertToInteger(row.get("mainCategoryId")));
+            }
+        }
+        return mainCategoryIds;
+    }
+
     private List<RestaurantRankingResponse> convertToRankingResponse(List<Map<String, Object>> rawData) {
         return rawData.stream()
                 .map(row -> {
@@ -0,0 +1,256 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantRankingResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * 식당별 랭킹 피처와 점수를 메모리에 유지하는 저장소.
+ * <p>
+ * 전체, 세부 카테고리(food_category.name), 메인 카테고리(category_id) 별로 점수 내림차순 정렬 상태를 순위 skip list 로
+ * 유지하므로 상위 N개 조회는 O(limit), 특정 식당의 순위 조회는 O(log n), 순위 구간 조회는 O(log n + k) 이다. 점수 계산은
+ * RestaurantRankingService 가 하고, 이 클래스는 결과만 보관한다.
+ */
+@Component
+public class RestaurantRankingStore {
+
+	private static final Comparator<Entry> ORDER = Comparator
+			.comparingDouble((Entry entry) -> entry.score).reversed()
+			.thenComparing(entry -> entry.restaurantId);
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<Integer, Entry> entries = new HashMap<>();
+	private final RankedSkipList<Entry> global = new RankedSkipList<>(ORDER);
+	private final Map<String, RankedSkipList<Entry>> byCategory = new HashMap<>();
+	private final Map<Integer, RankedSkipList<Entry>> byMainCategory = new HashMap<>();
+	private volatile boolean ready = false;
+
+	private static final class Entry {
+
+		private final Integer restaurantId;
+		private final double score;
+		private final String categoryName;
+		private final Integer mainCategoryId;
+		private final RestaurantRankingResponse ranking;
+
+		private Entry(RestaurantRankingResponse ranking, Integer mainCategoryId) {
+			this.restaurantId = ranking.getRestaurantId();
+			this.score = ranking.getScore() != null ? ranking.getScore() : 0.0;
+			this.categoryName = ranking.getCategoryName();
+			this.mainCategoryId = mainCategoryId;
+			this.ranking = ranking;
+		}
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * 저장소 전체를 교체한다.
+	 *
+	 * @param rankings        점수가 계산된 랭킹 데이터
+	 * @param mainCategoryIds restaurantId -> 메인 카테고리 ID
+	 */
+	public void replaceAll(List<RestaurantRankingResponse> rankings,
+			Map<Integer, Integer> mainCategoryIds) {
+		lock.writeLock().lock();
+		try {
+			entries.clear();
+			global.clear();
+			byCategory.clear();
+			byMainCategory.clear();
+			for (RestaurantRankingResponse ranking : rankings) {
+				add(new Entry(ranking, mainCategoryIds.get(ranking.getRestaurantId())));
+			}
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 변경된 식당만 갱신한다.
+	 */
+	public void upsert(List<RestaurantRankingResponse> rankings,
+			Map<Integer, Integer> mainCategoryIds) {
+		lock.writeLock().lock();
+		try {
+			for (RestaurantRankingResponse ranking : rankings) {
+				remove(ranking.getRestaurantId());
+				add(new Entry(ranking, mainCategoryIds.get(ranking.getRestaurantId())));
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void removeAll(Collection<Integer> restaurantIds) {
+		lock.writeLock().lock();
+		try {
+			restaurantIds.forEach(this::remove);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// 점수만 다시 계산할 때(모델 교체 등) 사용할 현재 피처 스냅샷
+	public List<RestaurantRankingResponse> snapshot() {
+		lock.readLock().lock();
+		try {
+			return entries.values().stream().map(entry -> copy(entry.ranking, null)).toList();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public Map<Integer, Integer> mainCategoryIds() {
+		lock.readLock().lock();
+		try {
+			Map<Integer, Integer> result = new HashMap<>();
+			entries.values().forEach(entry -> result.put(entry.restaurantId, entry.mainCategoryId));
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<RestaurantRankingResponse> top(int limit) {
+		lock.readLock().lock();
+		try {
+			return range(global, 1, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<RestaurantRankingResponse> topByCategory(String categoryName, int limit) {
+		lock.readLock().lock();
+		try {
+			return range(byCategory.get(categoryName), 1, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<RestaurantRankingResponse> topByMainCategory(Integer mainCategoryId, int limit) {
+		lock.readLock().lock();
+		try {
+			return range(byMainCategory.get(mainCategoryId), 1, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 전체 순위 fromRank ~ toRank (양 끝 포함) 구간을 반환한다.
+	 */
+	public List<RestaurantRankingResponse> range(int fromRank, int toRank) {
+		lock.readLock().lock();
+		try {
+			return range(global, fromRank, toRank);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 지정한 식당들을 점수 순으로 정렬해 반환한다. 순위는 주어진 식당들 안에서의 순위이다.
+	 */
+	public List<RestaurantRankingResponse> rankAmong(Collection<Integer> restaurantIds) {
+		lock.readLock().lock();
+		try {
+			List<Entry> candidates = restaurantIds.stream()
+					.map(entries::get)
+					.filter(Objects::nonNull)
+					.sorted(ORDER)
+					.toList();
+			List<RestaurantRankingResponse> result = new ArrayList<>(candidates.size());
+			for (Entry entry : candidates) {
+				result.add(copy(entry.ranking, result.size() + 1));
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public RestaurantRankingResponse find(Integer restaurantId) {
+		lock.readLock().lock();
+		try {
+			Entry target = entries.get(restaurantId);
+			if (target == null) {
+				return null;
+			}
+			return copy(target.ranking, global.rankOf(target));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void add(Entry entry) {
+		entries.put(entry.restaurantId, entry);
+		global.add(entry);
+		if (entry.categoryName != null) {
+			byCategory.computeIfAbsent(entry.categoryName, k -> new RankedSkipList<>(ORDER))
+					.add(entry);
+		}
+		if (entry.mainCategoryId != null) {
+			byMainCategory.computeIfAbsent(entry.mainCategoryId, k -> new RankedSkipList<>(ORDER))
+					.add(entry);
+		}
+	}
+
+	private void remove(Integer restaurantId) {
+		Entry old = entries.remove(restaurantId);
+		if (old == null) {
+			return;
+		}
+		global.remove(old);
+		if (old.categoryName != null && byCategory.containsKey(old.categoryName)) {
+			byCategory.get(old.categoryName).remove(old);
+		}
+		if (old.mainCategoryId != null && byMainCategory.containsKey(old.mainCategoryId)) {
+			byMainCategory.get(old.mainCategoryId).remove(old);
+		}
+	}
+
+	private List<RestaurantRankingResponse> range(RankedSkipList<Entry> sorted, int fromRank,
+			int toRank) {
+		if (sorted == null) {
+			return List.of();
+		}
+		List<Entry> slice = sorted.range(fromRank, toRank);
+		List<RestaurantRankingResponse> result = new ArrayList<>(slice.size());
+		int rank = Math.max(fromRank, 1);
+		for (Entry entry : slice) {
+			result.add(copy(entry.ranking, rank++));
+		}
+		return result;
+	}
+
+	private RestaurantRankingResponse copy(RestaurantRankingResponse source, Integer rank) {
+		return RestaurantRankingResponse.builder()
+				.restaurantId(source.getRestaurantId())
+				.placeName(source.getPlaceName())
+				.visitCount(source.getVisitCount())
+				.weightedPositive(source.getWeightedPositive())
+				.weightedNegative(source.getWeightedNegative())
+				.avgUserTrustScore(source.getAvgUserTrustScore())
+				.reviewCount(source.getReviewCount())
+				.avgPerPersonAmount(source.getAvgPerPersonAmount())
+				.score(source.getScore())
+				.rank(rank)
+				.categoryName(source.getCategoryName())
+				.mainCategoryName(source.getMainCategoryName())
+				.build();
+	}
+}
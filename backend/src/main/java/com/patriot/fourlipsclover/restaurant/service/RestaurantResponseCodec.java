@@ -0,0 +1,174 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 식당 상세 캐시의 Redis 값 형식.
+ * <p>
+ * [버전][존재 여부][필드...] 순서의 고정 레이아웃으로, 필드 이름을 싣지 않아 JSON 보다 작고 리플렉션 없이 읽는다. 필드를 바꾸면 VERSION
+ * 을 올린다. 다른 버전의 값은 읽지 않고 캐시 미스로 처리한다. 존재 여부가 0 이면 "식당 없음" (negative cache) 이다.
+ */
+public final class RestaurantResponseCodec {
+
+	static final byte VERSION = 1;
+
+	private RestaurantResponseCodec() {
+	}
+
+	/**
+	 * @param response null 이면 식당 없음
+	 */
+	public static byte[] encode(RestaurantResponse response) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			out.writeBoolean(response != null);
+			if (response != null) {
+				writeInteger(out, response.getRestaurantId());
+				writeString(out, response.getKakaoPlaceId());
+				writeString(out, response.getPlaceName());
+				writeString(out, response.getAddressName());
+				writeString(out, response.getCategory());
+				writeString(out, response.getPhone());
+				writeString(out, response.getOpeningHours());
+				writeString(out, response.getAvgAmount());
+				writeDouble(out, response.getX());
+				writeDouble(out, response.getY());
+				writeInteger(out, response.getLikeSentiment());
+				writeInteger(out, response.getDislikeSentiment());
+				writeDouble(out, response.getScore());
+				List<String> images = response.getRestaurantImages();
+				out.writeInt(images == null ? -1 : images.size());
+				if (images != null) {
+					for (String image : images) {
+						writeString(out, image);
+					}
+				}
+				List<RestaurantResponse.TagData> tags = response.getTags();
+				out.writeInt(tags == null ? -1 : tags.size());
+				if (tags != null) {
+					for (RestaurantResponse.TagData tag : tags) {
+						writeString(out, tag.getTagName());
+						writeString(out, tag.getCategory());
+						out.writeInt(tag.getFrequency());
+						out.writeFloat(tag.getAvgConfidence());
+					}
+				}
+			}
+		} catch (IOException e) {
+			// ByteArrayOutputStream 은 IOException 을 던지지 않는다
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @return 식당 없음이면 response 가 null 인 Entry, 읽을 수 없는 값이면 null
+	 */
+	public static Entry decode(byte[] value) {
+		if (value == null || value.length < 2 || value[0] != VERSION) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+			in.readByte();
+			if (!in.readBoolean()) {
+				return Entry.ABSENT;
+			}
+			RestaurantResponse response = new RestaurantResponse();
+			response.setRestaurantId(readInteger(in));
+			response.setKakaoPlaceId(readString(in));
+			response.setPlaceName(readString(in));
+			response.setAddressName(readString(in));
+			response.setCategory(readString(in));
+			response.setPhone(readString(in));
+			response.setOpeningHours(readString(in));
+			response.setAvgAmount(readString(in));
+			response.setX(readDouble(in));
+			response.setY(readDouble(in));
+			response.setLikeSentiment(readInteger(in));
+			response.setDislikeSentiment(readInteger(in));
+			response.setScore(readDouble(in));
+			int imageCount = in.readInt();
+			if (imageCount >= 0) {
+				List<String> images = new ArrayList<>(Math.min(imageCount, 64));
+				for (int i = 0; i < imageCount; i++) {
+					images.add(readString(in));
+				}
+				response.setRestaurantImages(images);
+			}
+			int tagCount = in.readInt();
+			if (tagCount >= 0) {
+				List<RestaurantResponse.TagData> tags = new ArrayList<>(Math.min(tagCount, 64));
+				for (int i = 0; i < tagCount; i++) {
+					tags.add(new RestaurantResponse.TagData(readString(in), readString(in),
+							in.readInt(), in.readFloat()));
+				}
+				response.setTags(tags);
+			}
+			return new Entry(response);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 디코딩 결과. response 가 null 이면 식당 없음.
+	 */
+	public record Entry(RestaurantResponse response) {
+
+		static final Entry ABSENT = new Entry(null);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(encoded.length);
+		out.write(encoded);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > in.available()) {
+			throw new IOException("잘린 값입니다.");
+		}
+		byte[] encoded = new byte[length];
+		in.readFully(encoded);
+		return new String(encoded, StandardCharsets.UTF_8);
+	}
+
+	private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeInt(value);
+		}
+	}
+
+	private static Integer readInteger(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readInt() : null;
+	}
+
+	private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeDouble(value);
+		}
+	}
+
+	private static Double readDouble(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readDouble() : null;
+	}
+}
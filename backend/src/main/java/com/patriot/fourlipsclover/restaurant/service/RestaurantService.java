@@ -1,7 +1,5 @@
 package com.patriot.fourlipsclover.restaurant.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.patriot.fourlipsclover.config.CustomUserDetails;
 import com.patriot.fourlipsclover.exception.DeletedResourceAccessException;
 import com.patriot.fourlipsclover.exception.InvalidDataException;
@@ -19,44 +17,46 @@ import com.patriot.fourlipsclover.payment.repository.VisitPaymentRepository;
 import com.patriot.fourlipsclover.restaurant.dto.kafka.RestaurantKafkaDto;
 import com.patriot.fourlipsclover.restaurant.dto.request.LikeStatus;
 import com.patriot.fourlipsclover.restaurant.dto.request.ReviewCreate;
+import com.patriot.fourlipsclover.restaurant.dto.request.ReviewCursor;
 import com.patriot.fourlipsclover.restaurant.dto.request.ReviewLikeCreate;
 import com.patriot.fourlipsclover.restaurant.dto.request.ReviewUpdate;
 import com.patriot.fourlipsclover.restaurant.dto.response.ReviewDeleteResponse;
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewPageResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.ReviewResponse;
-import com.patriot.fourlipsclover.restaurant.dto.response.ReviewSentimentResponse;
 import com.patriot.fourlipsclover.restaurant.entity.City;
 import com.patriot.fourlipsclover.restaurant.entity.FoodCategory;
 import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
 import com.patriot.fourlipsclover.restaurant.entity.Review;
+import com.patriot.fourlipsclover.restaurant.entity.ReviewEnrichmentOutbox;
 import com.patriot.fourlipsclover.restaurant.entity.ReviewLike;
 import com.patriot.fourlipsclover.restaurant.entity.ReviewLikePK;
-import com.patriot.fourlipsclover.restaurant.entity.ReviewSentiment;
-import com.patriot.fourlipsclover.restaurant.entity.SentimentStatus;
 import com.patriot.fourlipsclover.restaurant.mapper.RestaurantMapper;
 import com.patriot.fourlipsclover.restaurant.mapper.ReviewMapper;
 import com.patriot.fourlipsclover.restaurant.repository.CityRepository;
 import com.patriot.fourlipsclover.restaurant.repository.FoodCategoryRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantBatchRepository;
 import com.patriot.fourlipsclover.restaurant.repository.RestaurantImageRepository;
 import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewEnrichmentOutboxRepository;
 import com.patriot.fourlipsclover.restaurant.repository.ReviewJpaRepository;
 import com.patriot.fourlipsclover.restaurant.repository.ReviewLikeJpaRepository;
-import com.patriot.fourlipsclover.restaurant.repository.ReviewSentimentRepository;
-import com.patriot.fourlipsclover.tag.service.TagService;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
 
 @Slf4j
 @Service
@@ -72,15 +72,20 @@ public class RestaurantService {
 	private final ReviewImageService reviewImageService;
 	private final CityRepository cityRepository;
 	private final FoodCategoryRepository foodCategoryRepository;
-	private final TagService tagService;
 	private final RestaurantImageRepository restaurantImageRepository;
-	private final WebClient webClient;
-	private final ReviewSentimentRepository reviewSentimentRepository;
+	private final RestaurantBatchRepository restaurantBatchRepository;
+	private final ReviewEnrichmentOutboxRepository reviewEnrichmentOutboxRepository;
 	private final VisitPaymentRepository visitPaymentRepository;
 	private final LocalCertificationRepository localCertificationRepository;
 	private final LocalCertificationMapper localCertificationMapper;
-	@Value("${model.server.uri}")
-	private String MODEL_SERVER_URI;
+	private final ReviewPageAssembler reviewPageAssembler;
+	private final RestaurantChangeTracker restaurantChangeTracker;
+	private final RestaurantGeoIndex restaurantGeoIndex;
+	private final PriceHistogramService priceHistogramService;
+	@Value("${review.page.default-size:20}")
+	private int reviewPageDefaultSize;
+	@Value("${review.page.max-size:100}")
+	private int reviewPageMaxSize;
 
 	@Transactional
 	public ReviewResponse create(ReviewCreate reviewCreate, List<MultipartFile> images) {
@@ -96,7 +101,8 @@ public class RestaurantService {
 				.build();
 
 		reviewRepository.save(review);
-		CompletableFuture.runAsync(() -> tagService.generateTag(review));
+		// 감정 분석, 태그 추출은 같은 트랜잭션에 기록한 outbox 를 통해 ReviewEnrichmentService 가 비동기로 처리
+		reviewEnrichmentOutboxRepository.save(ReviewEnrichmentOutbox.pending(review.getReviewId()));
 
 		// 결제 정보 저장
 		VisitPayment visitPayment = VisitPayment.builder()
@@ -111,8 +117,9 @@ public class RestaurantService {
 				.build();
 
 		visitPaymentRepository.save(visitPayment);
+		priceHistogramService.record(visitPayment);
+		restaurantChangeTracker.markChanged(restaurant.getRestaurantId());
 
-		String reviewTextSentiment = analyzeSentiment(review);
 		List<String> imageUrls = reviewImageService.uploadFiles(review, images);
 		ReviewResponse response = reviewMapper.toReviewImageDto(review, imageUrls);
 		localCertificationRepository.findByMember(reviewer).ifPresent(lc -> {
@@ -123,59 +130,11 @@ public class RestaurantService {
 		return response;
 	}
 
-	public String analyzeSentiment(Review review) {
-		Map<String, String> requestMap = new HashMap<>();
-		requestMap.put("text", review.getContent());
-		String requestBody = null;
-		try {
-			requestBody = new ObjectMapper().writeValueAsString(requestMap);
-		} catch (JsonProcessingException e) {
-			throw new RuntimeException(e);
-		}
-		ReviewSentimentResponse reviewSentimentResponse = webClient.post()
-				.uri(MODEL_SERVER_URI + "/analyze")
-				.contentType(
-						MediaType.APPLICATION_JSON).bodyValue(requestBody).retrieve()
-				.bodyToMono(
-						ReviewSentimentResponse.class).block();
-		ReviewSentiment reviewSentiment = new ReviewSentiment();
-		reviewSentiment.setReview(review);
-		reviewSentiment.setSentimentStatus(
-				Objects.requireNonNull(reviewSentimentResponse).getSentiment().equals("긍정적") ?
-						SentimentStatus.POSITIVE : SentimentStatus.NEGATIVE);
-		reviewSentimentRepository.save(reviewSentiment);
-		return reviewSentimentResponse.getSentiment();
-	}
-
 	@Transactional(readOnly = true)
 	public ReviewResponse findById(Integer reviewId) {
 		Review review = reviewRepository.findById(reviewId)
 				.orElseThrow(() -> new ReviewNotFoundException(reviewId));
-		Member reviewer = review.getMember();
-		List<String> imageUrls = reviewImageService.getImageUrlsByReviewId(reviewId);
-		ReviewResponse response = reviewMapper.toReviewImageDto(review, imageUrls);
-		Long likedCount = reviewLikeJpaRepository.countByIdReviewIdAndLikeStatus(reviewId,
-				LikeStatus.LIKE);
-		Long dislikedCount = reviewLikeJpaRepository.countByIdReviewIdAndLikeStatus(reviewId,
-				LikeStatus.DISLIKE);
-		response.setLikedCount(likedCount.intValue());
-		response.setDislikedCount(dislikedCount.intValue());
-		Member member = loadCurrentMember();
-		if (member != null) {
-			boolean userLiked = reviewLikeJpaRepository.existsByReviewAndMemberAndLikeStatus(review,
-					member, LikeStatus.LIKE);
-			boolean userDisliked = reviewLikeJpaRepository.existsByReviewAndMemberAndLikeStatus(
-					review, member, LikeStatus.DISLIKE);
-			response.setUserLiked(userLiked);
-			response.setUserDisliked(userDisliked);
-		} else {
-			response.setUserLiked(false);
-			response.setUserDisliked(false);
-		}
-		localCertificationRepository.findByMember(reviewer).ifPresent(lc -> {
-			response.setLocalCertificationResponse(localCertificationMapper.toDto(lc));
-		});
-		return response;
+		return reviewPageAssembler.assemble(List.of(review), loadCurrentMember()).get(0);
 	}
 
 	private Member loadCurrentMember() {
@@ -194,38 +153,36 @@ public class RestaurantService {
 			throw new IllegalArgumentException("올바른 kakaoPlaceId 값을 입력하세요.");
 		}
 		List<Review> reviews = reviewRepository.findByKakaoPlaceId(kakaoPlaceId);
-		System.out.println(reviews);
-		return reviews.stream()
-				.map(review -> {
-					Integer reviewId = review.getReviewId();
-					List<String> imageUrls = reviewImageService.getImageUrlsByReviewId(reviewId);
-					Member reviewer = review.getMember();
-					ReviewResponse response = reviewMapper.toReviewImageDto(review, imageUrls);
-
-					Long likedCount = reviewLikeJpaRepository.countByIdReviewIdAndLikeStatus(
-							reviewId, LikeStatus.LIKE);
-					Long dislikedCount = reviewLikeJpaRepository.countByIdReviewIdAndLikeStatus(
-							reviewId, LikeStatus.DISLIKE);
-					response.setLikedCount(likedCount.intValue());
-					response.setDislikedCount(dislikedCount.intValue());
-					Member member = loadCurrentMember();
-					if (member != null) {
-						boolean userLiked = reviewLikeJpaRepository.existsByReviewAndMemberAndLikeStatus(
-								review, member, LikeStatus.LIKE);
-						boolean userDisliked = reviewLikeJpaRepository.existsByReviewAndMemberAndLikeStatus(
-								review, member, LikeStatus.DISLIKE);
-						response.setUserLiked(userLiked);
-						response.setUserDisliked(userDisliked);
-					} else {
-						response.setUserLiked(false);
-						response.setUserDisliked(false);
-					}
-					localCertificationRepository.findByMember(reviewer).ifPresent(lc -> {
-						response.setLocalCertificationResponse(localCertificationMapper.toDto(lc));
-					});
-					return response;
-				})
-				.toList();
+		return reviewPageAssembler.assemble(reviews, loadCurrentMember());
+	}
+
+	@Transactional(readOnly = true)
+	public ReviewPageResponse findReviewPage(String kakaoPlaceId, String cursor, Integer size) {
+		if (Objects.isNull(kakaoPlaceId) || kakaoPlaceId.isBlank()) {
+			throw new IllegalArgumentException("올바른 kakaoPlaceId 값을 입력하세요.");
+		}
+		int pageSize = (size == null || size <= 0) ? reviewPageDefaultSize
+				: Math.min(size, reviewPageMaxSize);
+		// 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+		Pageable pageable = PageRequest.of(0, pageSize + 1);
+		List<Review> reviews;
+		if (cursor == null || cursor.isBlank()) {
+			reviews = reviewRepository.findPageByKakaoPlaceId(kakaoPlaceId, pageable);
+		} else {
+			ReviewCursor reviewCursor = ReviewCursor.decode(cursor);
+			reviews = reviewRepository.findPageByKakaoPlaceIdAfter(kakaoPlaceId,
+					reviewCursor.getCreatedAt(), reviewCursor.getReviewId(), pageable);
+		}
+		boolean hasNext = reviews.size() > pageSize;
+		if (hasNext) {
+			reviews = reviews.subList(0, pageSize);
+		}
+		return ReviewPageResponse.builder()
+				.reviews(reviewPageAssembler.assemble(reviews, loadCurrentMember()))
+				.nextCursor(hasNext ? ReviewCursor.from(reviews.get(reviews.size() - 1)).encode()
+						: null)
+				.hasNext(hasNext)
+				.build();
 	}
 
 	@Transactional
@@ -275,6 +232,7 @@ public class RestaurantService {
 		review.setIsDelete(true);
 		review.setDeletedAt(LocalDateTime.now());
 		reviewRepository.save(review);
+		restaurantChangeTracker.markChanged(review.getRestaurant().getRestaurantId());
 		return new ReviewDeleteResponse("리뷰를 삭제하였습니다.", reviewId);
 	}
 
@@ -317,211 +275,160 @@ public class RestaurantService {
 							: "싫어요를 했습니다";
 				}
 		);
+		restaurantChangeTracker.markChanged(likedReview.getRestaurant().getRestaurantId());
 		return result[0];
 	}
 
+	/**
+	 * CDC 이벤트 배치를 한 트랜잭션으로 반영한다. 같은 식당의 이벤트는 호출 전에 마지막 것만 남겨야 한다.
+	 * <p>
+	 * 기존 행과 도시/카테고리를 IN 쿼리로 한 번에 읽어 이벤트에 없는 값은 기존 값을 유지하고, JDBC 배치 upsert 로 쓴다. 행에 기록된
+	 * 원본 DB 위치보다 오래된 이벤트(재전송, 순서 뒤바뀜)는 반영하지 않는다.
+	 */
 	@Transactional
-	public void processKafkaMessage(RestaurantKafkaDto dto) {
-		// dto가 null인지 먼저 확인
-		if (dto == null) {
-			log.error("Restaurant DTO is null, cannot process Kafka message");
-			return;
+	public void processKafkaBatch(List<RestaurantKafkaDto> dtos) {
+		List<RestaurantKafkaDto> upserts = new ArrayList<>();
+		Map<Integer, Long> deletes = new LinkedHashMap<>();
+		for (RestaurantKafkaDto dto : dtos) {
+			if (dto.getRestaurantId() == null) {
+				continue;
+			}
+			if ("d".equals(dto.getOp())) {
+				deletes.put(dto.getRestaurantId(), dto.getSourcePosition());
+			} else {
+				upserts.add(dto);
+			}
 		}
 
-		// 필수 ID 필드 검증
-		if (dto.getRestaurantId() == null) {
-			log.error("Restaurant ID is null, cannot process Kafka message");
-			return;
+		List<Restaurant> restaurants = upserts.isEmpty() ? List.of() : mergeKafkaDtos(upserts);
+		if (!restaurants.isEmpty()) {
+			restaurantBatchRepository.upsertAll(restaurants, LocalDateTime.now());
+			afterCommit(() -> restaurants.forEach(restaurant -> restaurantGeoIndex.upsert(
+					restaurant.getRestaurantId(), restaurant.getX(), restaurant.getY())));
 		}
-
-		log.info("Processing Kafka message for restaurant: {}", dto.getRestaurantId());
-
-		// 기본값으로 "r" (read) 설정
-		String operation = dto.getOp();
-		if (operation == null) {
-			operation = "r";
-			log.info("Operation type is null, defaulting to 'r' (read)");
+		if (!deletes.isEmpty()) {
+			restaurantBatchRepository.deleteAll(deletes);
+			afterCommit(() -> deletes.keySet().forEach(restaurantGeoIndex::remove));
 		}
+		// updated_at 은 upsert 가 기록했으므로 랭킹 갱신 대상만 표시한다
+		restaurants.forEach(restaurant -> restaurantChangeTracker.markDirty(restaurant.getRestaurantId()));
+		deletes.keySet().forEach(restaurantChangeTracker::markDirty);
+		log.debug("Kafka 식당 배치 반영: upsert {}건, delete {}건, 건너뛴 이벤트(오래되거나 바뀐 것 없음) {}건",
+				restaurants.size(), deletes.size(), upserts.size() - restaurants.size());
+	}
 
-		try {
-			switch (operation) {
-				case "c":
-				case "r":
-				case "u":
-					saveOrUpdateFromKafka(dto);
-					break;
-				case "d":
-					deleteFromKafka(dto);
-					break;
-				default:
-					log.warn("Unknown operation type in Kafka message: {}", operation);
-			}
-		} catch (Exception e) {
-			log.error("Error processing Kafka message for restaurant {}: {}",
-					dto.getRestaurantId(), e.getMessage(), e);
-		}
+	// updated_at, cdc_position 을 뺀 데이터 컬럼 비교
+	private boolean sameData(Restaurant current, Restaurant merged) {
+		return Objects.equals(current.getKakaoPlaceId(), merged.getKakaoPlaceId())
+				&& Objects.equals(current.getPlaceName(), merged.getPlaceName())
+				&& Objects.equals(current.getAddressName(), merged.getAddressName())
+				&& Objects.equals(current.getRoadAddressName(), merged.getRoadAddressName())
+				&& Objects.equals(current.getCategoryName(), merged.getCategoryName())
+				&& Objects.equals(current.getPhone(), merged.getPhone())
+				&& Objects.equals(current.getPlaceUrl(), merged.getPlaceUrl())
+				&& Objects.equals(current.getX(), merged.getX())
+				&& Objects.equals(current.getY(), merged.getY())
+				&& Objects.equals(cityId(current), cityId(merged))
+				&& Objects.equals(foodCategoryId(current), foodCategoryId(merged));
 	}
 
-	private void saveOrUpdateFromKafka(RestaurantKafkaDto dto) {
-		// null 체크 및 로깅
-		if (dto == null || dto.getRestaurantId() == null) {
-			log.error("Cannot process restaurant Kafka message: DTO or RestaurantId is null");
-			return;
-		}
+	private Long cityId(Restaurant restaurant) {
+		return restaurant.getCity() == null ? null : restaurant.getCity().getCityId();
+	}
 
-		try {
-			// 기존 레스토랑 조회 또는 새 객체 생성
-			Restaurant restaurant = restaurantRepository.findById(dto.getRestaurantId())
-					.orElseGet(Restaurant::new);
+	private Integer foodCategoryId(Restaurant restaurant) {
+		return restaurant.getFoodCategory() == null ? null : restaurant.getFoodCategory().getFoodCategoryId();
+	}
 
-			// 안전한 값 설정 (null 체크 포함)
-			restaurant.setRestaurantId(dto.getRestaurantId());
+	private boolean isStale(Restaurant current, RestaurantKafkaDto dto) {
+		return current != null && current.getCdcPosition() != null && dto.getSourcePosition() != null
+				&& dto.getSourcePosition() < current.getCdcPosition();
+	}
 
-			// 각 필드에 대해 null 체크 후 설정
-			Optional.ofNullable(dto.getPlaceName())
-					.ifPresent(restaurant::setPlaceName);
-			Optional.ofNullable(dto.getAddressName())
-					.ifPresent(restaurant::setAddressName);
-			Optional.ofNullable(dto.getRoadAddressName())
-					.ifPresent(restaurant::setRoadAddressName);
-			Optional.ofNullable(dto.getCategoryName())
-					.ifPresent(restaurant::setCategoryName);
-			Optional.ofNullable(dto.getPhone())
-					.ifPresent(restaurant::setPhone);
-			Optional.ofNullable(dto.getPlaceUrl())
-					.ifPresent(restaurant::setPlaceUrl);
-
-			// X, Y 좌표 설정
+	// 기존 행 위에 이벤트 값을 덮어쓴다 (null 인 필드는 기존 값 유지)
+	private List<Restaurant> mergeKafkaDtos(List<RestaurantKafkaDto> dtos) {
+		Map<Integer, Restaurant> existing = restaurantRepository.findAllById(
+						dtos.stream().map(RestaurantKafkaDto::getRestaurantId).toList()).stream()
+				.collect(Collectors.toMap(Restaurant::getRestaurantId, restaurant -> restaurant));
+		Map<Integer, City> cities = cityRepository.findAllById(dtos.stream()
+						.map(RestaurantKafkaDto::getCityId).filter(Objects::nonNull).distinct().toList())
+				.stream()
+				.collect(Collectors.toMap(city -> city.getCityId().intValue(), city -> city));
+		Map<Integer, FoodCategory> foodCategories = foodCategoryRepository.findAllById(dtos.stream()
+						.map(RestaurantKafkaDto::getFoodCategoryId).filter(Objects::nonNull).distinct()
+						.toList())
+				.stream()
+				.collect(Collectors.toMap(FoodCategory::getFoodCategoryId, category -> category));
+
+		List<Restaurant> restaurants = new ArrayList<>(dtos.size());
+		for (RestaurantKafkaDto dto : dtos) {
+			Restaurant current = existing.get(dto.getRestaurantId());
+			if (isStale(current, dto)) {
+				log.debug("오래된 CDC 이벤트 무시: restaurant {} (position {} < {})", dto.getRestaurantId(),
+						dto.getSourcePosition(), current.getCdcPosition());
+				continue;
+			}
+			Restaurant restaurant = new Restaurant();
+			restaurant.setRestaurantId(dto.getRestaurantId());
+			restaurant.setCdcPosition(dto.getSourcePosition() != null ? dto.getSourcePosition()
+					: current == null ? null : current.getCdcPosition());
+			if (current != null) {
+				restaurant.setKakaoPlaceId(current.getKakaoPlaceId());
+				restaurant.setPlaceName(current.getPlaceName());
+				restaurant.setAddressName(current.getAddressName());
+				restaurant.setRoadAddressName(current.getRoadAddressName());
+				restaurant.setCategoryName(current.getCategoryName());
+				restaurant.setPhone(current.getPhone());
+				restaurant.setPlaceUrl(current.getPlaceUrl());
+				restaurant.setX(current.getX());
+				restaurant.setY(current.getY());
+				restaurant.setCity(current.getCity());
+				restaurant.setFoodCategory(current.getFoodCategory());
+			}
+			Optional.ofNullable(dto.getKakaoPlaceId()).ifPresent(restaurant::setKakaoPlaceId);
+			Optional.ofNullable(dto.getPlaceName()).ifPresent(restaurant::setPlaceName);
+			Optional.ofNullable(dto.getAddressName()).ifPresent(restaurant::setAddressName);
+			Optional.ofNullable(dto.getRoadAddressName()).ifPresent(restaurant::setRoadAddressName);
+			Optional.ofNullable(dto.getCategoryName()).ifPresent(restaurant::setCategoryName);
+			Optional.ofNullable(dto.getPhone()).ifPresent(restaurant::setPhone);
+			Optional.ofNullable(dto.getPlaceUrl()).ifPresent(restaurant::setPlaceUrl);
 			if (dto.getX() != null && dto.getY() != null) {
 				restaurant.setX(dto.getX());
 				restaurant.setY(dto.getY());
 			}
-
-			// 연관 엔티티 설정 (City)
-			if (dto.getCityId() != null) {
-				cityRepository.findById(dto.getCityId())
-						.ifPresent(restaurant::setCity);
-			}
-
-			// 연관 엔티티 설정 (FoodCategory)
-			if (dto.getFoodCategoryId() != null) {
-				foodCategoryRepository.findById(dto.getFoodCategoryId())
-						.ifPresent(restaurant::setFoodCategory);
+			Optional.ofNullable(dto.getCityId()).map(cities::get).ifPresent(restaurant::setCity);
+			Optional.ofNullable(dto.getFoodCategoryId()).map(foodCategories::get)
+					.ifPresent(restaurant::setFoodCategory);
+			// 자기 테이블의 CDC 이벤트(방금 쓴 행)는 데이터가 같으므로 다시 쓰지 않는다
+			if (current != null && sameData(current, restaurant)) {
+				continue;
 			}
-
-			// 엔티티 저장
-			Restaurant savedRestaurant = restaurantRepository.save(restaurant);
-
-			// 저장 로깅
-			log.info("Restaurant successfully saved/updated from Kafka: {} - {}",
-					savedRestaurant.getRestaurantId(), savedRestaurant.getPlaceName());
-		} catch (Exception e) {
-			// 예외 상세 로깅
-			log.error("Error processing Kafka message for restaurant {}: {}",
-					dto.getRestaurantId(), e.getMessage(), e);
+			restaurants.add(restaurant);
 		}
+		return restaurants;
 	}
 
-	private void deleteFromKafka(RestaurantKafkaDto dto) {
-		restaurantRepository.findById(dto.getRestaurantId()).ifPresent(restaurant -> {
-			restaurantRepository.delete(restaurant);
-			log.info("Restaurant deleted from Kafka: {}", dto.getRestaurantId());
-		});
-	}
-
-	private String calculateAvgAmountJson(String kakaoPlaceId) {
-		// 카카오 PlaceId로 레스토랑 찾기
-		Restaurant restaurant = restaurantRepository.findByKakaoPlaceId(kakaoPlaceId)
-				.orElseThrow(() -> new InvalidDataException("존재하지 않는 식당입니다."));
-
-		// 찾은 레스토랑의 ID로 결제 데이터 조회
-		List<VisitPayment> payments = visitPaymentRepository.findByRestaurantId_RestaurantId(restaurant.getRestaurantId());
-
-		// 유효한 결제 데이터만 필터링
-		List<VisitPayment> validPayments = payments.stream()
-				.filter(payment ->
-						payment.getVisitedPersonnel() != null &&
-								payment.getVisitedPersonnel() > 0 &&
-								payment.getAmount() != null &&
-								payment.getAmount() > 0)
-				.collect(Collectors.toList());
-
-		// 1인당 결제 금액 계산
-		List<Integer> perPersonAmounts = validPayments.stream()
-				.map(payment -> payment.getAmount() / payment.getVisitedPersonnel())
-				.collect(Collectors.toList());
-
-		if (perPersonAmounts.isEmpty()) {
-			return null;
-		}
-
-		// 가격대별 분포 계산
-		Map<String, Integer> priceRangeDistribution = new LinkedHashMap<>();
-		perPersonAmounts.forEach(amount -> {
-			String range = calculatePriceRange(amount);
-			priceRangeDistribution.merge(range, 1, Integer::sum);
-		});
-
-		// 평균 금액의 구간 계산
-		String avgAmountRange = calculatePriceRange(
-				(int) perPersonAmounts.stream()
-						.mapToInt(Integer::intValue)
-						.average()
-						.orElse(0)
-		);
-
-		// 결과 맵 생성
-		Map<String, Object> result = new LinkedHashMap<>();
-		result.put("avg", avgAmountRange);
-
-		// 분포 정보 추가
-		priceRangeDistribution.forEach((key, value) -> {
-			if (value > 0) {
-				result.put(key, value);
-			}
-		});
-
-		try {
-			// JSON 문자열로 변환
-			return new ObjectMapper().writeValueAsString(result);
-		} catch (Exception e) {
-			log.error("Error converting avg amount to JSON", e);
-			return "{\"avg\": \"정보 없음\"}";
-		}
+	/**
+	 * 식당 좌표 공간 인덱스 전체 재구성. 시작 직후 한 번, 이후 주기적으로 CDC 반영 누락을 보정한다.
+	 */
+	@Scheduled(fixedDelayString = "${restaurant.geo.rebuild-interval-ms:3600000}")
+	@Transactional(readOnly = true)
+	public void rebuildGeoIndex() {
+		restaurantGeoIndex.replaceAll(restaurantRepository.findAllCoordinates());
+		log.info("식당 공간 인덱스 재구성 완료 ({}개 식당)", restaurantGeoIndex.size());
 	}
 
-	private String calculatePriceRange(Integer amount) {
-		if (amount <= 10000) {
-			return "1 ~ 10000";
-		}
-		if (amount <= 20000) {
-			return "10000 ~ 20000";
-		}
-		if (amount <= 30000) {
-			return "20000 ~ 30000";
-		}
-		if (amount <= 40000) {
-			return "30000 ~ 40000";
-		}
-		if (amount <= 50000) {
-			return "40000 ~ 50000";
-		}
-		if (amount <= 60000) {
-			return "50000 ~ 60000";
-		}
-		if (amount <= 70000) {
-			return "60000 ~ 70000";
-		}
-		if (amount <= 80000) {
-			return "70000 ~ 80000";
-		}
-		if (amount <= 90000) {
-			return "80000 ~ 90000";
-		}
-		if (amount <= 100000) {
-			return "90000 ~ 100000";
+	// 트랜잭션이 있으면 커밋 후에 실행
+	private void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
 		}
-		return "100000 ~";
 	}
-
 }
@@ -0,0 +1,200 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewSentimentResponse;
+import com.patriot.fourlipsclover.restaurant.entity.EnrichmentStatus;
+import com.patriot.fourlipsclover.restaurant.entity.Review;
+import com.patriot.fourlipsclover.restaurant.entity.ReviewEnrichmentOutbox;
+import com.patriot.fourlipsclover.restaurant.entity.ReviewSentiment;
+import com.patriot.fourlipsclover.restaurant.entity.SentimentStatus;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewEnrichmentOutboxRepository;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewJpaRepository;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewSentimentRepository;
+import com.patriot.fourlipsclover.tag.dto.response.TagResponse;
+import com.patriot.fourlipsclover.tag.service.TagService;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * review_enrichment_outbox 를 주기적으로 읽어 모델 서버 호출(감정 분석, 태그 추출)을 워커 풀에서 처리한다.
+ * <p>
+ * 워커 풀이 처리할 수 있는 만큼만 작업을 가져오므로(세마포어) 모델 서버가 느려지면 작업은 DB 에 대기한다. 실패한 작업은 지수 백오프로
+ * 재시도하고, 최대 시도 횟수를 넘기면 DEAD_LETTER 로 남긴다.
+ */
+@Slf4j
+@Service
+public class ReviewEnrichmentService {
+
+	private static final long MAX_BACKOFF_MS = 10 * 60 * 1000L;
+
+	private final ReviewEnrichmentOutboxRepository outboxRepository;
+	private final ReviewJpaRepository reviewRepository;
+	private final ReviewSentimentRepository reviewSentimentRepository;
+	private final ModelServerClient modelServerClient;
+	private final TagService tagService;
+	private final RestaurantChangeTracker restaurantChangeTracker;
+	private final TransactionTemplate transactionTemplate;
+	private final ThreadPoolTaskExecutor executor;
+	private final Semaphore permits;
+	private final int maxAttempts;
+	private final long backoffMs;
+	private final long staleTimeoutMs;
+
+	public ReviewEnrichmentService(ReviewEnrichmentOutboxRepository outboxRepository,
+			ReviewJpaRepository reviewRepository,
+			ReviewSentimentRepository reviewSentimentRepository,
+			ModelServerClient modelServerClient, TagService tagService,
+			RestaurantChangeTracker restaurantChangeTracker,
+			TransactionTemplate transactionTemplate,
+			@Value("${review.enrichment.workers:16}") int workers,
+			@Value("${review.enrichment.capacity:64}") int capacity,
+			@Value("${review.enrichment.max-attempts:5}") int maxAttempts,
+			@Value("${review.enrichment.backoff-ms:2000}") long backoffMs,
+			@Value("${review.enrichment.stale-timeout-ms:300000}") long staleTimeoutMs) {
+		this.outboxRepository = outboxRepository;
+		this.reviewRepository = reviewRepository;
+		this.reviewSentimentRepository = reviewSentimentRepository;
+		this.modelServerClient = modelServerClient;
+		this.tagService = tagService;
+		this.restaurantChangeTracker = restaurantChangeTracker;
+		this.transactionTemplate = transactionTemplate;
+		// 모델 서버 호출 전용 워커 풀. 세마포어가 동시에 맡는 작업 수를 capacity 로 제한하므로 큐가 넘치지 않는다.
+		// 워커들의 동시 호출은 ModelServerClient 에서 배치로 묶인다
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(workers);
+		this.executor.setMaxPoolSize(workers);
+		this.executor.setQueueCapacity(capacity);
+		this.executor.setThreadNamePrefix("review-enrichment-");
+		this.executor.initialize();
+		this.permits = new Semaphore(capacity);
+		this.maxAttempts = maxAttempts;
+		this.backoffMs = backoffMs;
+		this.staleTimeoutMs = staleTimeoutMs;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Scheduled(fixedDelayString = "${review.enrichment.poll-interval-ms:1000}")
+	public void poll() {
+		int available = permits.availablePermits();
+		if (available == 0) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		List<Long> dueIds = outboxRepository.findDueIds(EnrichmentStatus.PENDING, now,
+				PageRequest.of(0, available));
+		for (Long outboxId : dueIds) {
+			if (!permits.tryAcquire()) {
+				return;
+			}
+			Integer claimed = transactionTemplate.execute(status -> outboxRepository.claim(
+					outboxId, EnrichmentStatus.PENDING, EnrichmentStatus.IN_PROGRESS, now));
+			if (claimed == null || claimed == 0) {
+				permits.release();
+				continue;
+			}
+			try {
+				executor.execute(() -> {
+					try {
+						process(outboxId);
+					} finally {
+						permits.release();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				permits.release();
+				reschedule(outboxId, e);
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${review.enrichment.stale-check-interval-ms:60000}")
+	public void releaseStale() {
+		LocalDateTime threshold = LocalDateTime.now().minusNanos(staleTimeoutMs * 1_000_000);
+		Integer released = transactionTemplate.execute(status -> outboxRepository.releaseStale(
+				EnrichmentStatus.IN_PROGRESS, EnrichmentStatus.PENDING, threshold));
+		if (released != null && released > 0) {
+			log.warn("Released {} stale review enrichment jobs", released);
+		}
+	}
+
+	void process(Long outboxId) {
+		ReviewEnrichmentOutbox outbox = outboxRepository.findById(outboxId).orElse(null);
+		if (outbox == null) {
+			return;
+		}
+		try {
+			Review review = reviewRepository.findById(outbox.getReviewId()).orElseThrow(
+					() -> new IllegalStateException("리뷰가 존재하지 않습니다: " + outbox.getReviewId()));
+			// 모델 서버 호출은 트랜잭션 밖에서 하고, 결과 저장과 단계 완료 표시만 한 트랜잭션으로 묶는다
+			if (!outbox.isSentimentDone()) {
+				ReviewSentimentResponse sentiment = modelServerClient.analyze(review.getContent());
+				transactionTemplate.executeWithoutResult(status -> {
+					ReviewSentiment reviewSentiment = new ReviewSentiment();
+					reviewSentiment.setReview(review);
+					reviewSentiment.setSentimentStatus("긍정적".equals(sentiment.getSentiment())
+							? SentimentStatus.POSITIVE : SentimentStatus.NEGATIVE);
+					reviewSentimentRepository.save(reviewSentiment);
+					restaurantChangeTracker.markChanged(review.getRestaurant().getRestaurantId());
+					outbox.setSentimentDone(true);
+					outbox.setUpdatedAt(LocalDateTime.now());
+					outboxRepository.save(outbox);
+				});
+			}
+			if (!outbox.isTagsDone()) {
+				TagResponse tags = modelServerClient.extractTags(review.getContent());
+				transactionTemplate.executeWithoutResult(status -> {
+					tagService.applyTags(review, tags);
+					outbox.setTagsDone(true);
+					outbox.setUpdatedAt(LocalDateTime.now());
+					outboxRepository.save(outbox);
+				});
+			}
+			outbox.setStatus(EnrichmentStatus.DONE);
+			outbox.setLastError(null);
+			outbox.setUpdatedAt(LocalDateTime.now());
+			outboxRepository.save(outbox);
+		} catch (Exception e) {
+			fail(outbox, e);
+		}
+	}
+
+	private void reschedule(Long outboxId, Exception cause) {
+		outboxRepository.findById(outboxId).ifPresent(outbox -> fail(outbox, cause));
+	}
+
+	private void fail(ReviewEnrichmentOutbox outbox, Exception cause) {
+		int attempts = outbox.getAttempts() + 1;
+		outbox.setAttempts(attempts);
+		outbox.setLastError(truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+		outbox.setUpdatedAt(LocalDateTime.now());
+		if (attempts >= maxAttempts) {
+			outbox.setStatus(EnrichmentStatus.DEAD_LETTER);
+			log.error("Review enrichment moved to dead letter: outboxId={}, reviewId={}",
+					outbox.getOutboxId(), outbox.getReviewId(), cause);
+		} else {
+			long delay = Math.min(backoffMs << Math.min(attempts - 1, 16), MAX_BACKOFF_MS);
+			outbox.setStatus(EnrichmentStatus.PENDING);
+			outbox.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+			log.warn("Review enrichment failed (attempt {}/{}), retry in {}ms: reviewId={}, {}",
+					attempts, maxAttempts, delay, outbox.getReviewId(), cause.getMessage());
+		}
+		outboxRepository.save(outbox);
+	}
+
+	private String truncate(String message) {
+		return message.length() > 1000 ? message.substring(0, 1000) : message;
+	}
+}
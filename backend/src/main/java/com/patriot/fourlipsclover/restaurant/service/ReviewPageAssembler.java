@@ -0,0 +1,106 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import com.patriot.fourlipsclover.image.service.ReviewImageService;
+import com.patriot.fourlipsclover.locals.dto.response.LocalCertificationResponse;
+import com.patriot.fourlipsclover.locals.entity.LocalCertification;
+import com.patriot.fourlipsclover.locals.mapper.LocalCertificationMapper;
+import com.patriot.fourlipsclover.locals.repository.LocalCertificationRepository;
+import com.patriot.fourlipsclover.member.entity.Member;
+import com.patriot.fourlipsclover.restaurant.dto.request.LikeStatus;
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewResponse;
+import com.patriot.fourlipsclover.restaurant.entity.Review;
+import com.patriot.fourlipsclover.restaurant.mapper.ReviewMapper;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewLikeJpaRepository;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리뷰 목록을 ReviewResponse 로 조립한다.
+ * <p>
+ * 리뷰 수와 관계없이 이미지, 좋아요/싫어요 집계, 조회자의 반응, 작성자 현지인 인증을 각각 한 번의 IN 쿼리로
+ * 불러오므로 리뷰 한 건당 추가 쿼리가 발생하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewPageAssembler {
+
+	private final ReviewMapper reviewMapper;
+	private final ReviewImageService reviewImageService;
+	private final ReviewLikeJpaRepository reviewLikeJpaRepository;
+	private final LocalCertificationRepository localCertificationRepository;
+	private final LocalCertificationMapper localCertificationMapper;
+
+	/**
+	 * @param reviews 조립할 리뷰 (member, restaurant 가 로딩된 상태여야 한다)
+	 * @param viewer  현재 로그인한 사용자, 비로그인 시 null
+	 */
+	public List<ReviewResponse> assemble(List<Review> reviews, Member viewer) {
+		if (reviews.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Integer> reviewIds = reviews.stream().map(Review::getReviewId).toList();
+		Set<Long> reviewerIds = reviews.stream()
+				.map(review -> review.getMember().getMemberId())
+				.collect(Collectors.toSet());
+
+		Map<Integer, List<String>> imageUrls = reviewImageService.getImageUrlsByReviewIds(
+				reviewIds);
+		Map<Integer, long[]> likeCounts = loadLikeCounts(reviewIds);
+		Map<Integer, LikeStatus> viewerReactions = loadViewerReactions(viewer, reviewIds);
+		Map<Long, LocalCertificationResponse> certifications = loadCertifications(reviewerIds);
+
+		return reviews.stream()
+				.map(review -> {
+					Integer reviewId = review.getReviewId();
+					ReviewResponse response = reviewMapper.toReviewImageDto(review,
+							imageUrls.getOrDefault(reviewId, Collections.emptyList()));
+					long[] counts = likeCounts.getOrDefault(reviewId, new long[2]);
+					response.setLikedCount((int) counts[0]);
+					response.setDislikedCount((int) counts[1]);
+					LikeStatus reaction = viewerReactions.get(reviewId);
+					response.setUserLiked(reaction == LikeStatus.LIKE);
+					response.setUserDisliked(reaction == LikeStatus.DISLIKE);
+					response.setLocalCertificationResponse(
+							certifications.get(review.getMember().getMemberId()));
+					return response;
+				})
+				.toList();
+	}
+
+	// reviewId -> [좋아요 수, 싫어요 수]
+	private Map<Integer, long[]> loadLikeCounts(List<Integer> reviewIds) {
+		Map<Integer, long[]> likeCounts = new HashMap<>();
+		for (Object[] row : reviewLikeJpaRepository.countLikeStatusByReviewIds(reviewIds)) {
+			long[] counts = likeCounts.computeIfAbsent((Integer) row[0], k -> new long[2]);
+			counts[row[1] == LikeStatus.LIKE ? 0 : 1] = ((Number) row[2]).longValue();
+		}
+		return likeCounts;
+	}
+
+	private Map<Integer, LikeStatus> loadViewerReactions(Member viewer, List<Integer> reviewIds) {
+		Map<Integer, LikeStatus> reactions = new HashMap<>();
+		if (viewer == null) {
+			return reactions;
+		}
+		for (Object[] row : reviewLikeJpaRepository.findLikeStatusByMemberIdAndReviewIds(
+				viewer.getMemberId(), reviewIds)) {
+			reactions.put((Integer) row[0], (LikeStatus) row[1]);
+		}
+		return reactions;
+	}
+
+	private Map<Long, LocalCertificationResponse> loadCertifications(Set<Long> reviewerIds) {
+		Map<Long, LocalCertificationResponse> certifications = new HashMap<>();
+		for (LocalCertification lc : localCertificationRepository.findByMemberIds(reviewerIds)) {
+			certifications.putIfAbsent(lc.getMember().getMemberId(),
+					localCertificationMapper.toDto(lc));
+		}
+		return certifications;
+	}
+}
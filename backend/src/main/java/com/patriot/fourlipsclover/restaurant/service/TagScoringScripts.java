@@ -0,0 +1,98 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ScriptLanguage;
+import co.elastic.clients.elasticsearch._types.query_dsl.ChildScoreMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 태그 가중치 계산용 stored script.
+ * <p>
+ * 스크립트를 요청마다 inline 으로 보내면 ES 가 매번 컴파일 캐시를 찾고, params._source 를 읽으면 hit 마다 _source 를 파싱한다.
+ * 스크립트는 한 번만 등록해 id 로 참조하고, nested(tags) 쿼리 안에서 실행해 태그 하나의 doc value 만 읽는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagScoringScripts {
+
+	// ln(1.5 * 평균 신뢰도) + ln(1.2 * 빈도). 음수 점수는 ES 가 거부하므로 0 으로 자른다
+	public static final String RESTAURANT_TAG_WEIGHT = "restaurant-tag-weight";
+	// 빈도 * 평균 신뢰도
+	public static final String TAG_FREQUENCY_CONFIDENCE = "tag-frequency-confidence";
+
+	private static final String RESTAURANT_TAG_WEIGHT_SOURCE = """
+			double confidence = doc['tags.avgConfidence'].size() == 0 ? 0.1 : doc['tags.avgConfidence'].value;
+			double frequency = doc['tags.frequency'].size() == 0 ? 1.0 : doc['tags.frequency'].value;
+			return Math.max(0, Math.log(1.5 * confidence)) + Math.max(0, Math.log(1.2 * frequency));
+			""";
+	private static final String TAG_FREQUENCY_CONFIDENCE_SOURCE = """
+			if (doc['tags.frequency'].size() == 0 || doc['tags.avgConfidence'].size() == 0) {
+			  return 0;
+			}
+			return doc['tags.frequency'].value * doc['tags.avgConfidence'].value;
+			""";
+
+	private final ElasticsearchClient elasticsearchClient;
+
+	private volatile boolean registered;
+
+	/**
+	 * 처음 쓰기 전에 스크립트를 등록한다. 같은 id 로 다시 등록하면 덮어쓰므로 여러 인스턴스가 동시에 불러도 된다.
+	 */
+	public void ensureRegistered() throws IOException {
+		if (registered) {
+			return;
+		}
+		synchronized (this) {
+			if (registered) {
+				return;
+			}
+			putScript(RESTAURANT_TAG_WEIGHT, RESTAURANT_TAG_WEIGHT_SOURCE);
+			putScript(TAG_FREQUENCY_CONFIDENCE, TAG_FREQUENCY_CONFIDENCE_SOURCE);
+			registered = true;
+			log.info("태그 가중치 stored script 등록 완료");
+		}
+	}
+
+	/**
+	 * tagName 과 일치하는 태그마다 (일치 점수 + 스크립트 점수)를 scoreMode 로 합친 nested 쿼리.
+	 */
+	public Query nestedTagScore(String tagName, String scriptId, ChildScoreMode scoreMode) {
+		return Query.of(q -> q
+				.nested(n -> n
+						.path("tags")
+						.scoreMode(scoreMode)
+						.query(nq -> nq
+								.functionScore(fs -> fs
+										.query(m -> m
+												.match(mm -> mm
+														.field("tags.tagName")
+														.query(tagName)
+												)
+										)
+										.functions(f -> f
+												.scriptScore(ss -> ss.script(sc -> sc.id(scriptId)))
+										)
+										.boostMode(FunctionBoostMode.Sum)
+								)
+						)
+				)
+		);
+	}
+
+	private void putScript(String id, String source) throws IOException {
+		elasticsearchClient.putScript(p -> p
+				.id(id)
+				.script(s -> s
+						.lang(ScriptLanguage.Painless)
+						.source(source)
+				)
+		);
+	}
+}
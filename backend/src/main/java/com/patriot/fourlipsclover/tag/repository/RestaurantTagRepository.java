@@ -2,6 +2,7 @@ package com.patriot.fourlipsclover.tag.repository;
 
 import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
 import com.patriot.fourlipsclover.restaurant.entity.RestaurantTag;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -22,4 +23,7 @@ public interface RestaurantTagRepository extends JpaRepository<RestaurantTag, Lo
 			@Param("kakaoPlaceId") String kakaoPlaceId);
 
 	List<RestaurantTag> findByRestaurant(Restaurant restaurant);
+
+	@Query("select rt from RestaurantTag rt join fetch rt.tag where rt.restaurant.restaurantId in :restaurantIds")
+	List<RestaurantTag> findByRestaurantIds(@Param("restaurantIds") Collection<Integer> restaurantIds);
 }
@@ -0,0 +1,86 @@
+package com.patriot.fourlipsclover.tag.service;
+
+import com.patriot.fourlipsclover.tag.entity.Tag;
+import com.patriot.fourlipsclover.tag.repository.TagRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 태그 ID -> 이름 사전. 검색마다 tag 테이블을 조회하지 않도록 메모리에 두고 주기적으로 다시 읽는다.
+ * <p>
+ * 모르는 ID 가 들어오면 새로 추가된 태그일 수 있어 바로 다시 읽되, minReloadIntervalMs 안에는 한 번만 읽는다. 내용이 바뀔 때마다
+ * version 이 올라가므로 태그로 만든 쿼리를 캐시하는 쪽은 findNames 가 함께 돌려준 version 을 키에 넣으면 된다.
+ */
+@Slf4j
+@Component
+public class TagDictionary {
+
+	/**
+	 * 태그 이름과, 그 이름을 읽은 사전의 version.
+	 */
+	public record TagNames(long version, List<String> names) {
+	}
+
+	// 이름과 version 을 함께 바꿔 읽는 쪽이 섞인 값을 보지 않도록 한다
+	private record Snapshot(Map<Long, String> names, long version) {
+	}
+
+	private final TagRepository tagRepository;
+	private final long minReloadIntervalMs;
+	private final LongSupplier clock;
+
+	private volatile Snapshot snapshot = new Snapshot(Map.of(), 0);
+	private volatile long loadedAt;
+
+	public TagDictionary(TagRepository tagRepository,
+			@Value("${tag.dictionary.min-reload-interval-ms:10000}") long minReloadIntervalMs) {
+		this(tagRepository, minReloadIntervalMs, System::currentTimeMillis);
+	}
+
+	TagDictionary(TagRepository tagRepository, long minReloadIntervalMs, LongSupplier clock) {
+		this.tagRepository = tagRepository;
+		this.minReloadIntervalMs = minReloadIntervalMs;
+		this.clock = clock;
+	}
+
+	@Scheduled(fixedDelayString = "${tag.dictionary.refresh-interval-ms:300000}")
+	public void refresh() {
+		Map<Long, String> loaded = tagRepository.findAll().stream()
+				.filter(tag -> tag.getName() != null)
+				.collect(Collectors.toUnmodifiableMap(Tag::getTagId, Tag::getName));
+		synchronized (this) {
+			loadedAt = clock.getAsLong();
+			if (!loaded.equals(snapshot.names())) {
+				snapshot = new Snapshot(loaded, snapshot.version() + 1);
+				log.info("태그 사전 갱신: {}개 (version {})", loaded.size(), snapshot.version());
+			}
+		}
+	}
+
+	/**
+	 * 주어진 순서대로 태그 이름을 돌려준다. 없는 ID 는 건너뛴다.
+	 */
+	public TagNames findNames(Collection<Long> tagIds) {
+		if (!snapshot.names().keySet().containsAll(tagIds)
+				&& clock.getAsLong() - loadedAt >= minReloadIntervalMs) {
+			refresh();
+		}
+		Snapshot current = snapshot;
+		List<String> result = new ArrayList<>(tagIds.size());
+		for (Long tagId : tagIds) {
+			String name = current.names().get(tagId);
+			if (name != null) {
+				result.add(name);
+			}
+		}
+		return new TagNames(current.version(), result);
+	}
+}
@@ -1,26 +1,14 @@
 package com.patriot.fourlipsclover.tag.service;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.patriot.fourlipsclover.locals.document.LocalsDocument;
 import com.patriot.fourlipsclover.locals.entity.LocalCertification;
 import com.patriot.fourlipsclover.locals.repository.LocalCertificationRepository;
 import com.patriot.fourlipsclover.locals.repository.LocalsElasticsearchRepository;
 import com.patriot.fourlipsclover.member.entity.MemberReviewTag;
-import com.patriot.fourlipsclover.payment.entity.VisitPayment;
-import com.patriot.fourlipsclover.payment.repository.VisitPaymentRepository;
-import com.patriot.fourlipsclover.restaurant.document.RestaurantDocument;
-import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantRankingResponse;
-import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
-import com.patriot.fourlipsclover.restaurant.entity.RestaurantImage;
 import com.patriot.fourlipsclover.restaurant.entity.RestaurantTag;
 import com.patriot.fourlipsclover.restaurant.entity.Review;
-import com.patriot.fourlipsclover.restaurant.entity.SentimentStatus;
-import com.patriot.fourlipsclover.restaurant.repository.RestaurantImageRepository;
-import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
-import com.patriot.fourlipsclover.restaurant.repository.ReviewSentimentRepository;
-import com.patriot.fourlipsclover.restaurant.service.RestaurantRankingService;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantChangeTracker;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantIndexer;
 import com.patriot.fourlipsclover.tag.dto.response.RestaurantTagResponse;
 import com.patriot.fourlipsclover.tag.dto.response.TagInfo;
 import com.patriot.fourlipsclover.tag.dto.response.TagListResponse;
@@ -30,19 +18,11 @@ import com.patriot.fourlipsclover.tag.repository.MemberReviewTagRepository;
 import com.patriot.fourlipsclover.tag.repository.RestaurantTagRepository;
 import com.patriot.fourlipsclover.tag.repository.TagRepository;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.elasticsearch.core.geo.GeoPoint;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
 
 @Service
 @RequiredArgsConstructor
@@ -52,33 +32,13 @@ public class TagService {
 	private final TagRepository tagRepository;
 	private final MemberReviewTagRepository memberReviewTagRepository;
 	private final RestaurantTagRepository restaurantTagRepository;
-	private final WebClient webClient;
-	private final ElasticsearchClient elasticsearchClient;
 	private final LocalsElasticsearchRepository localsElasticsearchRepository;
 	private final LocalCertificationRepository localCertificationRepository;
-	private final RestaurantJpaRepository restaurantJpaRepository;
-	private final ReviewSentimentRepository reviewSentimentRepository;
-	private final RestaurantImageRepository restaurantImageRepository;
-	private final VisitPaymentRepository visitPaymentRepository;
-	private final RestaurantRankingService restaurantRankingService;
+	private final RestaurantIndexer restaurantIndexer;
+	private final RestaurantChangeTracker restaurantChangeTracker;
 
-	@Value("${model.server.uri}")
-	private String MODEL_SERVER_URI;
-
-	public void generateTag(Review review) {
-		Map<String, String> requestMap = new HashMap<>();
-		requestMap.put("text", review.getContent());
-		String requestBody = null;
-		try {
-			requestBody = new ObjectMapper().writeValueAsString(requestMap);
-		} catch (JsonProcessingException e) {
-			throw new RuntimeException(e);
-		}
-		TagResponse tagResponse = webClient.post().uri(MODEL_SERVER_URI + "/extract-tags")
-				.contentType(
-						MediaType.APPLICATION_JSON).bodyValue(requestBody).retrieve()
-				.bodyToMono(
-						TagResponse.class).block();
+	// 모델 서버가 추출한 태그를 회원/식당 태그 빈도와 평균 신뢰도에 반영
+	public void applyTags(Review review, TagResponse tagResponse) {
 		for (TagInfo tagInfo : tagResponse.getTags()) {
 			Tag tag = tagRepository.findByName(tagInfo.getTag());
 
@@ -118,7 +78,7 @@ public class TagService {
 
 
 		}
-
+		restaurantChangeTracker.markChanged(review.getRestaurant().getRestaurantId());
 
 	}
 
@@ -214,167 +174,10 @@ public class TagService {
 		localsElasticsearchRepository.save(localsDocument);
 	}
 
-	@Transactional(readOnly = true)
+	/**
+	 * 모든 식당 검색 문서를 다시 색인하고 성공한 문서 수를 반환한다.
+	 */
 	public int uploadRestaurantDocument() {
-		List<Restaurant> restaurants = restaurantJpaRepository.findAll();
-		int count = 0;
-
-		// 모든 식당의 랭킹 정보 가져오기 (점수만 사용)
-		List<RestaurantRankingResponse> rankings = restaurantRankingService.calculateRankings();
-
-		// 식당 ID를 키로 한 맵 생성하여 빠른 검색 가능하게 함
-		Map<Integer, Double> scoreMap = rankings.stream()
-				.collect(Collectors.toMap(
-						RestaurantRankingResponse::getRestaurantId,
-						RestaurantRankingResponse::getScore
-				));
-
-		for (Restaurant restaurant : restaurants) {
-			List<RestaurantTag> tags = restaurantTagRepository.findByRestaurant(restaurant);
-
-			List<RestaurantDocument.TagData> tagDataList = tags.stream()
-					.map(tag -> RestaurantDocument.TagData.builder()
-							.tagName(tag.getTag().getName())
-							.category(tag.getTag().getCategory())
-							.frequency(tag.getFrequency())
-							.avgConfidence(tag.getAvgConfidence())
-							.build())
-					.collect(Collectors.toList());
-
-			int likeSentimentCount = reviewSentimentRepository.countByReview_RestaurantAndSentimentStatus(
-					restaurant,
-					SentimentStatus.POSITIVE);
-			int dislikeSentimentCount = reviewSentimentRepository.countByReview_RestaurantAndSentimentStatus(
-					restaurant,
-					SentimentStatus.NEGATIVE);
-
-			// 식당 이미지 조회 및 설정
-			List<String> restaurantImages = restaurantImageRepository.findByRestaurant(restaurant)
-					.stream().map(
-							RestaurantImage::getUrl).toList();
-
-			// 가격 정보 실시간 계산
-			String avgAmountJson = calculateAvgAmountJson(restaurant.getRestaurantId());
-
-			// 랭킹 점수 조회
-			Double score =
-					Math.round(scoreMap.get(restaurant.getRestaurantId()) * 100000) / 100000.0
-							* 100;
-			RestaurantDocument restaurantDocument = RestaurantDocument.builder()
-					.id(restaurant.getKakaoPlaceId())
-					.restaurantId(restaurant.getRestaurantId())
-					.openingHours(restaurant.getOpeningHours())
-					.kakaoPlaceId(restaurant.getKakaoPlaceId())
-					.name(restaurant.getPlaceName())
-					.address(restaurant.getAddressName())
-					.category(restaurant.getCategory())
-					.likeSentiment(likeSentimentCount)
-					.dislikeSentiment(dislikeSentimentCount)
-					.location(new GeoPoint(restaurant.getY(), restaurant.getX()))
-					.tags(tagDataList)
-					.restaurantImages(restaurantImages)
-					.phone(restaurant.getPhone())
-					.avgAmount(avgAmountJson)
-					.score(score)
-					.build();
-
-			try {
-				elasticsearchClient.index(i -> i
-						.index("restaurants")
-						.id(restaurant.getKakaoPlaceId())
-						.document(restaurantDocument));
-				count++;
-			} catch (Exception e) {
-				System.err.println(
-						"레스토랑 인덱싱 실패: " + restaurant.getKakaoPlaceId() + " - " + e.getMessage());
-			}
-		}
-
-		return count;
-	}
-
-	private String calculateAvgAmountJson(Integer restaurantId) {
-		List<VisitPayment> payments = visitPaymentRepository.findByRestaurantId_RestaurantId(
-				restaurantId);
-
-		if (payments.isEmpty()) {
-			return null;
-		}
-
-		Map<String, Integer> avgAmountInfo = new LinkedHashMap<>();
-
-		// 1인당 평균 금액 계산 (결제 건수 기준)
-		for (VisitPayment payment : payments) {
-			if (payment.getVisitedPersonnel() <= 0) {
-				continue;
-			}
-
-			Integer perPersonAmount = payment.getAmount() / payment.getVisitedPersonnel();
-			String range = calculatePriceRange(perPersonAmount);
-
-			// 결제 건수를 기준으로 +1씩 증가
-			avgAmountInfo.merge(range, 1, Integer::sum);
-		}
-
-		if (avgAmountInfo.isEmpty()) {
-			return null;
-		}
-
-		// 가장 많은 분포의 범위 찾기
-		String avgPriceRange = avgAmountInfo.entrySet().stream()
-				.max(Comparator.comparing(Map.Entry::getValue))
-				.map(Map.Entry::getKey)
-				.orElse("정보 없음");
-
-		Map<String, Object> result = new LinkedHashMap<>();
-		result.put("avg", avgPriceRange);
-
-		// 0이 아닌 값만 결과에 포함
-		avgAmountInfo.forEach((key, value) -> {
-			if (value > 0) {
-				result.put(key, value);
-			}
-		});
-
-		try {
-			// JSON 문자열로 변환
-			return new ObjectMapper().writeValueAsString(result);
-		} catch (Exception e) {
-			return null;
-		}
-	}
-
-	private String calculatePriceRange(Integer amount) {
-		if (amount <= 10000) {
-			return "1 ~ 10000";
-		}
-		if (amount <= 20000) {
-			return "10000 ~ 20000";
-		}
-		if (amount <= 30000) {
-			return "20000 ~ 30000";
-		}
-		if (amount <= 40000) {
-			return "30000 ~ 40000";
-		}
-		if (amount <= 50000) {
-			return "40000 ~ 50000";
-		}
-		if (amount <= 60000) {
-			return "50000 ~ 60000";
-		}
-		if (amount <= 70000) {
-			return "60000 ~ 70000";
-		}
-		if (amount <= 80000) {
-			return "70000 ~ 80000";
-		}
-		if (amount <= 90000) {
-			return "80000 ~ 90000";
-		}
-		if (amount <= 100000) {
-			return "90000 ~ 100000";
-		}
-		return "100000 ~";
+		return restaurantIndexer.reindexAll().getSucceeded();
 	}
 }
@@ -0,0 +1,174 @@
+package com.patriot.fourlipsclover.analysis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.analysis.dto.response.SpendingHistoryPageResponse;
+import com.patriot.fourlipsclover.analysis.dto.response.SpendingPaymentResponse;
+import com.patriot.fourlipsclover.analysis.repository.SpendingRollupBatchRepository;
+import com.patriot.fourlipsclover.payment.entity.DataSource;
+import com.patriot.fourlipsclover.payment.entity.VisitPayment;
+import com.patriot.fourlipsclover.restaurant.entity.FoodCategory;
+import com.patriot.fourlipsclover.restaurant.entity.IndexWatermark;
+import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 일별 집계 + watermark 이후 저장된 결제가 결제 테이블을 직접 합친 결과와 같은지 H2 에서 확인한다.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "analysis.spending-rollup.watermark-lag-ms=0"
+})
+@Import({SpendingRollupService.class, SpendingAnalysisService.class, SpendingRollupBatchRepository.class})
+public class SpendingRollupServiceTest {
+
+    private static final Long USER = 1L;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 10, 10, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 3, 13, 20, 0);
+    private static final LocalDateTime INITIAL_WATERMARK = LocalDateTime.of(2025, 4, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SpendingRollupService spendingRollupService;
+
+    @Autowired
+    private SpendingAnalysisService spendingAnalysisService;
+
+    private final List<VisitPayment> payments = new ArrayList<>();
+    private Restaurant korean;
+
+    @BeforeEach
+    void setUp() {
+        FoodCategory foodCategory = entityManager.persist(new FoodCategory(1, "한식", null));
+        korean = new Restaurant();
+        korean.setKakaoPlaceId("1");
+        korean.setPlaceName("한식당");
+        korean.setFoodCategory(foodCategory);
+        entityManager.persist(korean);
+    }
+
+    @Test
+    void 일별_집계와_watermark_이후_결제를_더하면_결제를_직접_합친_것과_같다() {
+        //given
+        // 기간 앞뒤 날짜는 결제를 직접 더하고, 기간 밖의 결제는 빠진다
+        pay(korean, DataSource.member, 1000, LocalDateTime.of(2025, 3, 10, 8, 0), savedOn(10));
+        pay(korean, DataSource.member, 10000, LocalDateTime.of(2025, 3, 10, 12, 0), savedOn(10));
+        pay(korean, DataSource.member, 20000, LocalDateTime.of(2025, 3, 11, 9, 0), savedOn(11));
+        pay(null, DataSource.group, 30000, LocalDateTime.of(2025, 3, 12, 18, 0), savedOn(12));
+        pay(korean, DataSource.member, 2000, LocalDateTime.of(2025, 3, 13, 21, 0), savedOn(13));
+        entityManager.persist(new IndexWatermark(SpendingRollupService.WATERMARK, INITIAL_WATERMARK));
+        spendingRollupService.rebuildAll();
+        // watermark 이후 저장된 결제. 결제일을 과거로 적은 결제와 아직 집계 대상이 아닌 미래 저장 시각의 결제
+        pay(korean, DataSource.member, 5000, LocalDateTime.of(2025, 3, 11, 19, 0), INITIAL_WATERMARK.plusDays(1));
+        pay(korean, DataSource.member, 7000, LocalDateTime.of(2025, 3, 13, 12, 0), INITIAL_WATERMARK.plusDays(1));
+        pay(null, DataSource.member, 9000, LocalDateTime.of(2025, 3, 12, 7, 0), LocalDateTime.now().plusDays(1));
+        //then
+        assertThat(rolledUpCounts()).containsExactly(Map.entry(day(10), 2L), Map.entry(day(11), 1L),
+                Map.entry(day(12), 1L), Map.entry(day(13), 1L));
+        assertMatchesRawPayments();
+        //when
+        int rolledUp = spendingRollupService.rollUpChanged();
+        //then
+        assertThat(rolledUp).isEqualTo(1);
+        assertThat(spendingRollupService.getWatermark()).isAfter(INITIAL_WATERMARK);
+        // 저장 시각이 구간 안인 결제의 (사용자, 결제일) 만 다시 계산하고 미래 저장 시각의 결제는 아직 넣지 않는다
+        assertThat(rolledUpCounts()).containsExactly(Map.entry(day(10), 2L), Map.entry(day(11), 2L),
+                Map.entry(day(12), 1L), Map.entry(day(13), 2L));
+        assertMatchesRawPayments();
+    }
+
+    @Test
+    void 지출_내역은_nextCursor_를_따라가면_같은_결제_시각도_빠짐없이_한_번씩_읽는다() {
+        //given
+        LocalDateTime tied = LocalDateTime.of(2025, 3, 11, 12, 0);
+        pay(korean, DataSource.member, 1000, LocalDateTime.of(2025, 3, 12, 12, 0), savedOn(12));
+        pay(korean, DataSource.member, 2000, tied, savedOn(11));
+        pay(korean, DataSource.member, 3000, tied, savedOn(11));
+        pay(korean, DataSource.member, 4000, tied, savedOn(11));
+        pay(korean, DataSource.member, 5000, LocalDateTime.of(2025, 3, 10, 12, 0), savedOn(10));
+        List<Integer> expected = payments.stream()
+                .sorted(Comparator.comparing(VisitPayment::getPaidAt)
+                        .thenComparing(VisitPayment::getVisitPaymentId).reversed())
+                .map(VisitPayment::getVisitPaymentId)
+                .toList();
+        //when
+        List<Integer> read = new ArrayList<>();
+        int pages = 0;
+        String cursor = null;
+        do {
+            SpendingHistoryPageResponse page = spendingAnalysisService.findSpendingPage(USER, START.minusDays(1),
+                    END, cursor, 2);
+            page.getPayments().stream().map(SpendingPaymentResponse::getVisitPaymentId).forEach(read::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        //then
+        assertThat(pages).isEqualTo(3);
+        assertThat(read).containsExactlyElementsOf(expected);
+    }
+
+    private void assertMatchesRawPayments() {
+        Map<String, Object> result = spendingAnalysisService.analyzeSpendingByCategory(USER, START, END);
+        List<VisitPayment> inRange = payments.stream()
+                .filter(payment -> !payment.getPaidAt().isBefore(START) && !payment.getPaidAt().isAfter(END))
+                .toList();
+        Map<String, Long> categorySpending = inRange.stream().collect(Collectors.groupingBy(
+                payment -> payment.getRestaurantId() == null ? SpendingRollupService.UNKNOWN_CATEGORY : "한식",
+                Collectors.summingLong(VisitPayment::getAmount)));
+        assertThat(result.get("categorySpending")).isEqualTo(categorySpending);
+        assertThat(result.get("totalAmount")).isEqualTo(inRange.stream().mapToLong(VisitPayment::getAmount).sum());
+        assertThat(result.get("totalVisits")).isEqualTo((long) inRange.size());
+    }
+
+    // 결제일별 일별 행에 담긴 결제 수
+    private Map<LocalDate, Long> rolledUpCounts() {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        jdbcTemplate.query("SELECT spend_date, SUM(payment_count) AS payments FROM spending_daily_rollup "
+                        + "WHERE user_id = ? GROUP BY spend_date",
+                rs -> {
+                    counts.put(rs.getDate("spend_date").toLocalDate(), rs.getLong("payments"));
+                }, USER);
+        return counts;
+    }
+
+    private void pay(Restaurant restaurant, DataSource dataSource, int amount, LocalDateTime paidAt,
+                     LocalDateTime createdAt) {
+        payments.add(entityManager.persistAndFlush(VisitPayment.builder()
+                .restaurantId(restaurant)
+                .userId(USER)
+                .dataSource(dataSource)
+                .visitedPersonnel(1)
+                .amount(amount)
+                .paidAt(paidAt)
+                .createdAt(createdAt)
+                .build()));
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return LocalDate.of(2025, 3, dayOfMonth);
+    }
+
+    // 결제일 당일 저녁에 저장된 결제
+    private static LocalDateTime savedOn(int dayOfMonth) {
+        return LocalDateTime.of(2025, 3, dayOfMonth, 23, 0);
+    }
+}
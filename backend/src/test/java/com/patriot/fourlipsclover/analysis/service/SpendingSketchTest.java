@@ -0,0 +1,70 @@
+package com.patriot.fourlipsclover.analysis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SpendingSketchTest {
+
+    @Test
+    void 분위수는_상대_오차_안으로_추정한다() {
+        //given
+        Random random = new Random(11);
+        long[] amounts = new long[10000];
+        SpendingSketch sketch = new SpendingSketch();
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = 3000 + (long) (random.nextDouble() * random.nextDouble() * 200000);
+            sketch.add(amounts[i]);
+        }
+        Arrays.sort(amounts);
+        //then
+        assertThat(sketch.count()).isEqualTo(amounts.length);
+        assertThat(sketch.sum()).isEqualTo(Arrays.stream(amounts).sum());
+        for (double quantile : new double[]{0.5, 0.9}) {
+            long exact = amounts[(int) (quantile * (amounts.length - 1))];
+            assertThat((double) sketch.quantile(quantile))
+                    .isCloseTo(exact, within(exact * SpendingSketch.RELATIVE_ACCURACY + 1));
+        }
+    }
+
+    @Test
+    void 일별_스케치를_합치면_전체를_한_번에_센_것과_같다() {
+        //given
+        SpendingSketch whole = new SpendingSketch();
+        SpendingSketch merged = new SpendingSketch();
+        for (int day = 0; day < 30; day++) {
+            SpendingSketch daily = new SpendingSketch();
+            for (int i = 0; i < 20; i++) {
+                long amount = (day + 1) * 1000L + i * 370L;
+                daily.add(amount);
+                whole.add(amount);
+            }
+            // 저장했다가 읽은 스케치를 합친다
+            merged.merge(SpendingSketch.fromBytes(daily.toBytes()));
+        }
+        //then
+        assertThat(merged.count()).isEqualTo(whole.count());
+        assertThat(merged.sum()).isEqualTo(whole.sum());
+        assertThat(merged.quantile(0.5)).isEqualTo(whole.quantile(0.5));
+        assertThat(merged.quantile(0.9)).isEqualTo(whole.quantile(0.9));
+        assertThat(merged.toBytes()).isEqualTo(whole.toBytes());
+    }
+
+    @Test
+    void 결제가_없으면_분위수는_null_이고_0원은_0_으로_센다() {
+        //given
+        SpendingSketch empty = new SpendingSketch();
+        SpendingSketch zeros = new SpendingSketch();
+        zeros.add(0);
+        zeros.add(0);
+        zeros.add(5000);
+        //then
+        assertThat(empty.quantile(0.5)).isNull();
+        assertThat(empty.mean()).isZero();
+        assertThat(zeros.quantile(0.5)).isZero();
+        assertThat(zeros.quantile(1)).isCloseTo(5000L, within(50L));
+    }
+}
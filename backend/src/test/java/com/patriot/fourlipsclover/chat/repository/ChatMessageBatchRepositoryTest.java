@@ -0,0 +1,85 @@
+package com.patriot.fourlipsclover.chat.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.entity.MessageType;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class ChatMessageBatchRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:chat-batch;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    private final ChatMessageBatchRepository repository = new ChatMessageBatchRepository(jdbcTemplate);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE chat_room (chat_room_id INT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE chat_message (message_id BIGINT PRIMARY KEY, chat_room_id INT NOT NULL, "
+                + "sender_id BIGINT NOT NULL, message_content TEXT NOT NULL, message_type VARCHAR(20) NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL, FOREIGN KEY (chat_room_id) REFERENCES chat_room (chat_room_id))");
+        jdbcTemplate.execute("CREATE TABLE chat_message_images (message_id BIGINT NOT NULL, "
+                + "image_url VARCHAR(255), FOREIGN KEY (message_id) REFERENCES chat_message (message_id))");
+        jdbcTemplate.update("INSERT INTO chat_room (chat_room_id) VALUES (1)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE chat_message_images");
+        jdbcTemplate.execute("DROP TABLE chat_message");
+        jdbcTemplate.execute("DROP TABLE chat_room");
+    }
+
+    @Test
+    void 같은_ID_는_무시하지_않고_DuplicateKeyException_으로_알린다() {
+        //given
+        repository.insertAll(List.of(message(1L, 1, "hello")));
+        //when //then
+        assertThatThrownBy(() -> repository.insertAll(List.of(message(1L, 1, "hello"))))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(repository.isStored(message(1L, 1, "hello"))).isTrue();
+        assertThat(repository.isStored(message(1L, 1, "other"))).isFalse();
+        assertThat(repository.isStored(message(2L, 1, "hello"))).isFalse();
+    }
+
+    @Test
+    void 이미지_메시지는_이미지_URL_도_함께_쓴다() {
+        //given
+        ChatMessageResponse image = message(2L, 1, "photo");
+        image.setMessageType(MessageType.IMAGE);
+        image.setImageUrls(List.of("a.png", "b.png"));
+        //when
+        repository.insertAll(List.of(message(1L, 1, "hello"), image));
+        //then
+        assertThat(jdbcTemplate.queryForList("SELECT image_url FROM chat_message_images WHERE message_id = 2 "
+                + "ORDER BY image_url", String.class)).containsExactly("a.png", "b.png");
+    }
+
+    @Test
+    void 없는_채팅방의_메시지는_DataIntegrityViolationException_으로_알린다() {
+        //when //then
+        assertThatThrownBy(() -> repository.insertAll(List.of(message(1L, 9, "hello"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chat_message", Integer.class)).isZero();
+    }
+
+    private static ChatMessageResponse message(Long messageId, Integer chatRoomId, String content) {
+        return ChatMessageResponse.builder()
+                .messageId(messageId)
+                .chatRoomId(chatRoomId)
+                .memberId(3L)
+                .messageContent(content)
+                .messageType(MessageType.TEXT)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.service.ChatMessageEnvelopeCodec.Envelope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public class ChatMessageDispatcherTest {
+
+    private final InMemoryPubSub pubSub = new InMemoryPubSub();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        nodes.forEach(node -> node.registry.stop());
+    }
+
+    @Test
+    void 트랜잭션_안에서_보낸_메시지는_커밋_후에_채팅방_토픽과_롱폴링_대기자에게_전달된다() {
+        //given
+        Node node = node(false);
+        DeferredResult<ResponseEntity<List<ChatMessageResponse>>> waiter = node.registry.park(7);
+        TransactionSynchronizationManager.initSynchronization();
+        ChatMessageResponse message = message(1L, 7);
+        //when
+        node.dispatcher.dispatchAfterCommit(message);
+        //then
+        assertThat(node.sent).isEmpty();
+        assertThat(waiter.hasResult()).isFalse();
+        //when
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        //then
+        assertThat(node.sent).hasSize(1);
+        assertThat(SimpMessageHeaderAccessor.getDestination(node.sent.get(0).getHeaders()))
+                .isEqualTo("/topic/chat/rooms/7");
+        assertThat(waiter.getResult()).isEqualTo(ResponseEntity.ok(List.of(message)));
+    }
+
+    @Test
+    void 다른_채팅방의_대기자는_응답받지_않는다() {
+        //given
+        Node node = node(false);
+        DeferredResult<ResponseEntity<List<ChatMessageResponse>>> waiter = node.registry.park(8);
+        //when
+        node.dispatcher.dispatchAfterCommit(message(1L, 7));
+        //then
+        assertThat(node.sent).hasSize(1);
+        assertThat(waiter.hasResult()).isFalse();
+        assertThat(pubSub.published).isEmpty();
+    }
+
+    @Test
+    void 다른_노드에서_보낸_메시지도_이_노드의_구독자에게_한_번씩_전달된다() {
+        //given
+        Node sender = node(true);
+        Node receiver = node(true);
+        DeferredResult<ResponseEntity<List<ChatMessageResponse>>> waiter = receiver.registry.park(7);
+        ChatMessageResponse message = message(1L, 7);
+        //when
+        sender.dispatcher.dispatchAfterCommit(message);
+        //then
+        assertThat(pubSub.published).containsExactly("chat:room-shard:7");
+        assertThat(sender.sent).hasSize(1);
+        assertThat(receiver.sent).hasSize(1);
+        assertThat(waiter.getResult()).isEqualTo(ResponseEntity.ok(List.of(message)));
+        assertThat(receiver.meterRegistry.get("chat.fanout.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 같은_메시지가_다시_발행되어도_한_번만_전달된다() {
+        //given
+        Node sender = node(true);
+        Node receiver = node(true);
+        ChatMessageResponse message = message(1L, 23);
+        //when
+        sender.dispatcher.dispatchAfterCommit(message);
+        pubSub.convertAndSend(sender.dispatcher.shardChannel(23), ChatMessageEnvelopeCodec.encode(
+                new Envelope("other-node", System.currentTimeMillis(), message)));
+        //then
+        assertThat(pubSub.published).containsExactly("chat:room-shard:7", "chat:room-shard:7");
+        assertThat(sender.sent).hasSize(1);
+        assertThat(receiver.sent).hasSize(1);
+        assertThat(receiver.meterRegistry.get("chat.fanout.messages").tag("result", "duplicate").counter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void 읽을_수_없는_메시지는_버린다() {
+        //given
+        Node receiver = node(true);
+        //when
+        pubSub.convertAndSend("chat:room-shard:0", new byte[]{99, 1, 2});
+        //then
+        assertThat(receiver.sent).isEmpty();
+        assertThat(receiver.meterRegistry.get("chat.fanout.messages").tag("result", "invalid").counter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void Redis_발행에_실패하면_최근_메시지_버퍼를_비우고_DB_에서_읽게_한다() {
+        //given
+        Node sender = node(true);
+        sender.cache.fill(sender.cache.prepare(7), List.of(message(1L, 7)), true);
+        pubSub.failing = true;
+        //when
+        sender.dispatcher.dispatchAfterCommit(message(2L, 7));
+        //then
+        assertThat(sender.sent).hasSize(1);
+        assertThat(sender.cache.before(7, null, 10)).isNull();
+        assertThat(sender.cache.prepare(7)).isNull();
+        assertThat(sender.meterRegistry.get("chat.fanout.messages").tag("result", "publish_failed").counter()
+                .count()).isEqualTo(1);
+    }
+
+    private Node node(boolean redisEnabled) {
+        Node node = new Node(redisEnabled);
+        nodes.add(node);
+        if (redisEnabled) {
+            pubSub.listeners.add(node.dispatcher);
+        }
+        return node;
+    }
+
+    private static ChatMessageResponse message(Long messageId, Integer chatRoomId) {
+        return ChatMessageResponse.builder().messageId(messageId).chatRoomId(chatRoomId).build();
+    }
+
+    private class Node {
+
+        private final List<Message<?>> sent = new ArrayList<>();
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final ChatLongPollRegistry registry = new ChatLongPollRegistry(meterRegistry, 30000, 100);
+        private final ChatRecentMessageCache cache = new ChatRecentMessageCache(meterRegistry, true, 200, 1 << 20,
+                30000);
+        private final ChatMessageDispatcher dispatcher;
+
+        Node(boolean redisEnabled) {
+            dispatcher = new ChatMessageDispatcher(new SimpMessagingTemplate((message, timeout) -> sent.add(message)),
+                    registry, cache, pubSub, meterRegistry, redisEnabled, 16, 1000);
+        }
+    }
+
+    // Redis pub/sub 대신 같은 스레드에서 모든 구독 노드에 바로 전달한다
+    private static class InMemoryPubSub extends RedisTemplate<String, byte[]> {
+
+        private final List<MessageListener> listeners = new ArrayList<>();
+        private final List<String> published = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public Long convertAndSend(String channel, Object message) {
+            if (failing) {
+                throw new RedisConnectionFailureException("connection refused");
+            }
+            published.add(channel);
+            DefaultMessage redisMessage = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                    (byte[]) message);
+            byte[] pattern = (ChatMessageDispatcher.CHANNEL_PREFIX + "*").getBytes(StandardCharsets.UTF_8);
+            listeners.forEach(listener -> listener.onMessage(redisMessage, pattern));
+            return (long) listeners.size();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.entity.MessageType;
+import com.patriot.fourlipsclover.chat.service.ChatMessageEnvelopeCodec.Envelope;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ChatMessageEnvelopeCodecTest {
+
+    @Test
+    void 인코딩한_메시지를_그대로_읽는다() {
+        //given
+        ChatMessageResponse message = ChatMessageResponse.builder()
+                .messageId(42L)
+                .chatRoomId(7)
+                .memberId(3L)
+                .nickname("클로버")
+                .profileUrl(null)
+                .messageContent("안녕하세요")
+                .messageType(MessageType.IMAGE)
+                .imageUrls(List.of("a.png", "b.png"))
+                .createdAt(LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123456789))
+                .build();
+        //when
+        Envelope decoded = ChatMessageEnvelopeCodec.decode(
+                ChatMessageEnvelopeCodec.encode(new Envelope("node-1", 1000L, message)));
+        //then
+        assertThat(decoded.nodeId()).isEqualTo("node-1");
+        assertThat(decoded.publishedAt()).isEqualTo(1000L);
+        assertThat(decoded.message()).isEqualTo(message);
+    }
+
+    @Test
+    void 비어_있는_필드도_null_로_읽는다() {
+        //given
+        ChatMessageResponse message = ChatMessageResponse.builder().messageId(1L).chatRoomId(1).build();
+        //when
+        Envelope decoded = ChatMessageEnvelopeCodec.decode(
+                ChatMessageEnvelopeCodec.encode(new Envelope("node-1", 0L, message)));
+        //then
+        assertThat(decoded.message()).isEqualTo(message);
+    }
+
+    @Test
+    void 다른_버전이나_잘린_값은_읽지_않는다() {
+        //given
+        byte[] encoded = ChatMessageEnvelopeCodec.encode(new Envelope("node-1", 0L,
+                ChatMessageResponse.builder().messageId(1L).chatRoomId(1).messageContent("hello").build()));
+        byte[] otherVersion = encoded.clone();
+        otherVersion[0] = ChatMessageEnvelopeCodec.VERSION + 1;
+        //when //then
+        assertThat(ChatMessageEnvelopeCodec.decode(otherVersion)).isNull();
+        assertThat(ChatMessageEnvelopeCodec.decode(Arrays.copyOf(encoded, encoded.length - 3))).isNull();
+        assertThat(ChatMessageEnvelopeCodec.decode(null)).isNull();
+    }
+}
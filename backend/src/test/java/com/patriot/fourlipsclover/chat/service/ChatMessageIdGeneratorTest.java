@@ -0,0 +1,49 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class ChatMessageIdGeneratorTest {
+
+    private final AtomicLong clock = new AtomicLong(ChatMessageIdGenerator.EPOCH + 1000);
+
+    @Test
+    void 같은_ms_에서도_ID_가_계속_커진다() {
+        //given
+        ChatMessageIdGenerator generator = new ChatMessageIdGenerator(3, clock::get);
+        //when
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.addAndGet(1);
+        long third = generator.nextId();
+        //then
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(third).isGreaterThan(second);
+        assertThat(first >> 22).isEqualTo(1000);
+        assertThat((first >> 12) & 1023).isEqualTo(3);
+    }
+
+    @Test
+    void 순번을_다_쓰거나_시계가_뒤로_가도_ID_가_줄지_않는다() {
+        //given
+        ChatMessageIdGenerator generator = new ChatMessageIdGenerator(0, clock::get);
+        long previous = generator.nextId();
+        //when //then
+        for (int i = 0; i < 5000; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+        clock.addAndGet(-500);
+        assertThat(generator.nextId()).isGreaterThan(previous);
+    }
+
+    @Test
+    void 노드_번호는_10비트_안이어야_한다() {
+        assertThatThrownBy(() -> new ChatMessageIdGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChatMessageJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 다시_열면_남은_레코드를_쓴_순서대로_읽는다() {
+        //given
+        ChatMessageJournal journal = new ChatMessageJournal(directory, 16);
+        for (int i = 0; i < 5; i++) {
+            journal.append(bytes("message-" + i));
+        }
+        journal.close();
+        //when
+        ChatMessageJournal reopened = new ChatMessageJournal(directory, 16);
+        List<byte[]> records = reopened.replay();
+        //then
+        assertThat(records).extracting(ChatMessageJournalTest::text)
+                .containsExactly("message-0", "message-1", "message-2", "message-3", "message-4");
+        reopened.deleteReplayed();
+        reopened.close();
+        assertThat(new ChatMessageJournal(directory, 16).replay()).isEmpty();
+    }
+
+    @Test
+    void 쓰다_끊긴_마지막_레코드는_버린다() throws IOException {
+        //given
+        ChatMessageJournal journal = new ChatMessageJournal(directory, 1024);
+        journal.append(bytes("complete"));
+        journal.close();
+        Path segment = segments().get(0);
+        // 길이만 쓰고 끊긴 레코드
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2}, StandardOpenOption.APPEND);
+        //when
+        List<byte[]> records = new ChatMessageJournal(directory, 1024).replay();
+        //then
+        assertThat(records).extracting(ChatMessageJournalTest::text).containsExactly("complete");
+    }
+
+    @Test
+    void 레코드가_모두_반영된_지난_세그먼트는_지운다() throws IOException {
+        //given
+        ChatMessageJournal journal = new ChatMessageJournal(directory, 16);
+        long first = journal.append(bytes("first-record"));
+        long second = journal.append(bytes("second-record"));
+        long third = journal.append(bytes("third-record"));
+        assertThat(segments()).hasSize(3);
+        //when
+        journal.release(first, 1);
+        journal.release(third, 1);
+        //then
+        assertThat(second).isEqualTo(first + 1);
+        // 현재 세그먼트와 아직 반영되지 않은 세그먼트는 남긴다
+        assertThat(segments()).hasSize(2);
+        journal.close();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,202 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.entity.MessageType;
+import com.patriot.fourlipsclover.chat.repository.ChatMessageBatchRepository;
+import com.patriot.fourlipsclover.chat.repository.ChatRoomRepository;
+import com.patriot.fourlipsclover.exception.ChatMessageBufferFullException;
+import com.patriot.fourlipsclover.member.entity.Member;
+import com.patriot.fourlipsclover.member.repository.MemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+
+public class ChatMessageWriteBehindTest {
+
+    @TempDir
+    Path directory;
+
+    private final RecordingBatchRepository repository = new RecordingBatchRepository();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ChatMessageWriteBehind> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(ChatMessageWriteBehind::stop);
+    }
+
+    @Test
+    void 노드_번호를_지정하지_않으면_켤_수_없다() {
+        //when //then
+        assertThatThrownBy(() -> new ChatMessageWriteBehind(repository, chatRooms(), members(), meterRegistry, true,
+                -1, directory.toString(), 1 << 20, 10, 3_600_000, 500, 60))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void 이미지_메시지도_같은_ID_생성기로_보낸_순서대로_ID_를_받는다() {
+        //given
+        ChatMessageWriteBehind writeBehind = start(10);
+        //when
+        ChatMessageResponse text = writeBehind.send(1, 3L, "hello");
+        ChatMessageResponse image = writeBehind.send(1, 3L, "photo", MessageType.IMAGE, List.of("a.png", "b.png"));
+        ChatMessageResponse next = writeBehind.send(1, 3L, "bye");
+        writeBehind.flush();
+        //then
+        assertThat(image.getMessageId()).isGreaterThan(text.getMessageId());
+        assertThat(next.getMessageId()).isGreaterThan(image.getMessageId());
+        assertThat(repository.stored).extracting(ChatMessageResponse::getMessageId)
+                .containsExactly(text.getMessageId(), image.getMessageId(), next.getMessageId());
+        assertThat(repository.stored.get(1).getMessageType()).isEqualTo(MessageType.IMAGE);
+        assertThat(repository.stored.get(1).getImageUrls()).containsExactly("a.png", "b.png");
+    }
+
+    @Test
+    void DB_반영에_실패하면_같은_묶음을_다시_쓰고_그동안은_조회에_더해진다() {
+        //given
+        ChatMessageWriteBehind writeBehind = start(10);
+        ChatMessageResponse first = writeBehind.send(1, 3L, "first");
+        ChatMessageResponse otherRoom = writeBehind.send(2, 3L, "other room");
+        ChatMessageResponse second = writeBehind.send(1, 3L, "second");
+        repository.failures.add(new DataAccessResourceFailureException("connection refused"));
+        //when
+        writeBehind.flush();
+        //then
+        assertThat(repository.stored).isEmpty();
+        assertThat(writeBehind.pendingAfter(1, 0L)).containsExactly(first, second);
+        assertThat(writeBehind.pendingAfter(1, first.getMessageId())).containsExactly(second);
+        //when
+        writeBehind.flush();
+        //then
+        assertThat(repository.stored).containsExactly(first, otherRoom, second);
+        assertThat(writeBehind.pendingAfter(1, 0L)).isEmpty();
+        assertThat(counter("flushed")).isEqualTo(3);
+    }
+
+    @Test
+    void 버퍼가_차면_반영될_때까지_거절한다() {
+        //given
+        ChatMessageWriteBehind writeBehind = start(2);
+        writeBehind.send(1, 3L, "first");
+        writeBehind.send(1, 3L, "second");
+        //when //then
+        assertThatThrownBy(() -> writeBehind.send(1, 3L, "third"))
+                .isInstanceOf(ChatMessageBufferFullException.class)
+                .extracting("status").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        writeBehind.flush();
+        assertThat(writeBehind.send(1, 3L, "third").getMessageContent()).isEqualTo("third");
+    }
+
+    @Test
+    void 프로세스가_죽으면_다음_시작_때_저널을_쓴_순서대로_반영한다() {
+        //given
+        ChatMessageWriteBehind crashed = new ChatMessageWriteBehind(repository, chatRooms(), members(),
+                meterRegistry, true, 1, directory.toString(), 1 << 20, 10, 3_600_000, 500, 60);
+        crashed.start();
+        ChatMessageResponse flushed = crashed.send(1, 3L, "flushed");
+        crashed.flush();
+        ChatMessageResponse second = crashed.send(2, 3L, "second");
+        ChatMessageResponse third = crashed.send(1, 3L, "third");
+        //when (stop 없이 다시 시작)
+        start(10);
+        //then
+        assertThat(repository.stored).extracting(ChatMessageResponse::getMessageId)
+                .containsExactly(flushed.getMessageId(), second.getMessageId(), third.getMessageId());
+        assertThat(repository.stored.get(2).getMessageContent()).isEqualTo("third");
+        assertThat(counter("dropped")).isZero();
+    }
+
+    @Test
+    void 다른_메시지와_ID_가_겹치면_버리고_센다() {
+        //given
+        ChatMessageWriteBehind writeBehind = start(10);
+        ChatMessageResponse collided = writeBehind.send(1, 3L, "collided");
+        ChatMessageResponse next = writeBehind.send(1, 3L, "next");
+        repository.stored.add(ChatMessageResponse.builder().messageId(collided.getMessageId()).chatRoomId(1)
+                .messageContent("another node").build());
+        //when
+        writeBehind.flush();
+        //then
+        assertThat(repository.stored).extracting(ChatMessageResponse::getMessageContent)
+                .containsExactly("another node", "next");
+        assertThat(writeBehind.pendingAfter(1, 0L)).isEmpty();
+        assertThat(counter("dropped")).isEqualTo(1);
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("chat.write-behind.messages").tag("result", result).counter().count();
+    }
+
+    private ChatMessageWriteBehind start(int bufferSize) {
+        // flush 는 테스트에서 직접 부른다
+        ChatMessageWriteBehind writeBehind = new ChatMessageWriteBehind(repository, chatRooms(), members(),
+                meterRegistry, true, 1, directory.toString(), 1 << 20, bufferSize, 3_600_000, 500, 60);
+        writeBehind.start();
+        started.add(writeBehind);
+        return writeBehind;
+    }
+
+    private static ChatRoomRepository chatRooms() {
+        ChatRoomRepository chatRooms = mock(ChatRoomRepository.class);
+        given(chatRooms.existsById(any())).willReturn(true);
+        return chatRooms;
+    }
+
+    private static MemberRepository members() {
+        Member member = new Member();
+        member.setNickname("nickname");
+        MemberRepository members = mock(MemberRepository.class);
+        given(members.findById(any())).willReturn(Optional.of(member));
+        return members;
+    }
+
+    // 묶음을 모두 쓰거나 하나도 쓰지 않는다
+    private static class RecordingBatchRepository extends ChatMessageBatchRepository {
+
+        private final List<ChatMessageResponse> stored = new ArrayList<>();
+        private final List<RuntimeException> failures = new ArrayList<>();
+
+        RecordingBatchRepository() {
+            super(null);
+        }
+
+        @Override
+        public void insertAll(List<ChatMessageResponse> messages) {
+            if (!failures.isEmpty()) {
+                throw failures.remove(0);
+            }
+            for (ChatMessageResponse message : messages) {
+                if (find(message.getMessageId()) != null) {
+                    throw new DuplicateKeyException("Duplicate entry " + message.getMessageId());
+                }
+            }
+            stored.addAll(messages);
+        }
+
+        @Override
+        public boolean isStored(ChatMessageResponse message) {
+            ChatMessageResponse existing = find(message.getMessageId());
+            return existing != null && Objects.equals(existing.getMessageContent(), message.getMessageContent());
+        }
+
+        private ChatMessageResponse find(Long messageId) {
+            return stored.stream().filter(message -> message.getMessageId().equals(messageId)).findFirst()
+                    .orElse(null);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+public class ChatRecentMessageCacheTest {
+
+    private static final Integer ROOM = 1;
+
+    @Test
+    void 채운_뒤에는_최근_메시지를_버퍼에서_돌려준다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 10, 1 << 20, 30000);
+        ChatRecentMessageCache.RoomBuffer buffer = cache.prepare(ROOM);
+        cache.fill(buffer, messages(ROOM, 1, 5), true);
+        //when
+        List<ChatMessageResponse> latest = cache.before(ROOM, null, 3);
+        List<ChatMessageResponse> older = cache.before(ROOM, 3L, 10);
+        List<ChatMessageResponse> newer = cache.after(ROOM, 2, 10);
+        //then
+        assertThat(ids(latest)).containsExactly(3L, 4L, 5L);
+        assertThat(ids(older)).containsExactly(1L, 2L);
+        assertThat(ids(newer)).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void 채우기_전에는_답하지_않는다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 10, 1 << 20, 30000);
+        cache.prepare(ROOM);
+        //when //then
+        assertThat(cache.before(ROOM, null, 3)).isNull();
+        assertThat(cache.after(ROOM, 0, 3)).isNull();
+        assertThat(cache.before(2, null, 3)).isNull();
+    }
+
+    @Test
+    void DB_에서_읽는_동안_전달된_메시지도_버퍼에_들어간다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 10, 1 << 20, 30000);
+        ChatRecentMessageCache.RoomBuffer buffer = cache.prepare(ROOM);
+        //when
+        cache.append(message(ROOM, 4));
+        cache.fill(buffer, messages(ROOM, 1, 3), true);
+        cache.append(message(ROOM, 5));
+        //then
+        assertThat(ids(cache.before(ROOM, null, 10))).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void 버퍼를_넘어_밀려난_범위는_DB_에서_읽도록_null_을_돌려준다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 3, 1 << 20, 30000);
+        cache.fill(cache.prepare(ROOM), messages(ROOM, 1, 3), true);
+        //when
+        cache.append(message(ROOM, 4));
+        cache.append(message(ROOM, 5));
+        //then
+        assertThat(ids(cache.before(ROOM, null, 3))).containsExactly(3L, 4L, 5L);
+        assertThat(cache.before(ROOM, 4L, 3)).isNull();
+        assertThat(ids(cache.after(ROOM, 2, 10))).containsExactly(3L, 4L, 5L);
+        assertThat(cache.after(ROOM, 1, 10)).isNull();
+    }
+
+    @Test
+    void 크기를_넘으면_가장_오래_쓰지_않은_채팅방부터_버린다() {
+        //given
+        long roomBytes = messages(ROOM, 1, 5).stream().mapToLong(ChatRecentMessageCache::estimateBytes).sum();
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 10,
+                roomBytes * 2, 30000);
+        cache.fill(cache.prepare(1), messages(1, 1, 5), true);
+        cache.fill(cache.prepare(2), messages(2, 1, 5), true);
+        cache.before(1, null, 1);
+        //when
+        cache.fill(cache.prepare(3), messages(3, 1, 5), true);
+        //then
+        assertThat(cache.before(1, null, 5)).hasSize(5);
+        assertThat(cache.before(2, null, 5)).isNull();
+        assertThat(cache.before(3, null, 5)).hasSize(5);
+        assertThat(cache.getTotalBytes()).isEqualTo(roomBytes * 2);
+    }
+
+    @Test
+    void 삭제된_채팅방은_버퍼를_비운다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 10, 1 << 20, 30000);
+        cache.fill(cache.prepare(ROOM), messages(ROOM, 1, 3), true);
+        //when
+        cache.evict(ROOM);
+        cache.append(message(ROOM, 4));
+        //then
+        assertThat(cache.before(ROOM, null, 3)).isNull();
+        assertThat(cache.getTotalBytes()).isZero();
+    }
+
+    @Test
+    void 채운_지_ttl_이_지난_버퍼로는_답하지_않고_다시_채운다() {
+        //given
+        AtomicLong clock = new AtomicLong(1000);
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 10, 1 << 20,
+                100, clock::get);
+        cache.fill(cache.prepare(ROOM), messages(ROOM, 1, 3), true);
+        //when
+        clock.addAndGet(100);
+        //then
+        assertThat(cache.before(ROOM, null, 3)).isNull();
+        assertThat(cache.after(ROOM, 1, 3)).isNull();
+        //when
+        cache.fill(cache.prepare(ROOM), messages(ROOM, 1, 4), true);
+        //then
+        assertThat(ids(cache.before(ROOM, null, 10))).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void 전부_비우면_ttl_동안은_버퍼를_만들지_않는다() {
+        //given
+        AtomicLong clock = new AtomicLong(1000);
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 10, 1 << 20,
+                100, clock::get);
+        cache.fill(cache.prepare(ROOM), messages(ROOM, 1, 3), true);
+        //when
+        cache.invalidateAll();
+        //then
+        assertThat(cache.before(ROOM, null, 3)).isNull();
+        assertThat(cache.prepare(ROOM)).isNull();
+        assertThat(cache.getTotalBytes()).isZero();
+        //when
+        clock.addAndGet(100);
+        cache.fill(cache.prepare(ROOM), messages(ROOM, 1, 3), true);
+        //then
+        assertThat(ids(cache.before(ROOM, null, 3))).containsExactly(1L, 2L, 3L);
+    }
+
+    private static List<ChatMessageResponse> messages(Integer chatRoomId, long fromId, long toId) {
+        return new ArrayList<>(LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> message(chatRoomId, id))
+                .toList());
+    }
+
+    private static ChatMessageResponse message(Integer chatRoomId, long messageId) {
+        return ChatMessageResponse.builder()
+                .messageId(messageId)
+                .chatRoomId(chatRoomId)
+                .memberId(1L)
+                .nickname("nickname")
+                .messageContent("message " + messageId)
+                .build();
+    }
+
+    private static List<Long> ids(List<ChatMessageResponse> messages) {
+        return messages.stream().map(ChatMessageResponse::getMessageId).toList();
+    }
+}
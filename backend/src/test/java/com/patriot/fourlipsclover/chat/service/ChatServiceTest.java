@@ -0,0 +1,239 @@
+package com.patriot.fourlipsclover.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.entity.ChatMessage;
+import com.patriot.fourlipsclover.chat.entity.ChatRoom;
+import com.patriot.fourlipsclover.chat.entity.MessageType;
+import com.patriot.fourlipsclover.chat.repository.ChatMemberRepository;
+import com.patriot.fourlipsclover.chat.repository.ChatMessageRepository;
+import com.patriot.fourlipsclover.chat.repository.ChatRoomRepository;
+import com.patriot.fourlipsclover.member.entity.Member;
+import com.patriot.fourlipsclover.member.repository.MemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ChatServiceTest {
+
+    private static final Integer ROOM = 1;
+
+    private final ChatRoom chatRoom = ChatRoom.builder().chatRoomId(ROOM).name("room").build();
+    private final Member sender = new Member();
+    private final FakeDatabase database = new FakeDatabase();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 채팅방_입장_중_스냅샷_이후_커밋된_메시지도_최근_메시지_버퍼에_남는다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 200, 1 << 20, 30000);
+        ChatService chatService = chatService(cache);
+        database.commit(1, 2, 3);
+        // 첫 조회로 스냅샷이 정해진 직후 다른 요청이 메시지를 커밋하고 커밋 후 전달한다
+        database.afterFirstRead = () -> cache.append(toResponse(database.commit(4).get(0)));
+        //when
+        List<ChatMessageResponse> first = chatService.getChatRoomWithMessages(ROOM, 1L, null, 10, null).getMessages();
+        database.beginTransaction();
+        List<ChatMessageResponse> second = chatService.getChatRoomWithMessages(ROOM, 1L, null, 10, null).getMessages();
+        //then
+        assertThat(ids(first)).containsExactly(1L, 2L, 3L);
+        assertThat(ids(second)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(ids(chatService.getMessagesAfterId(ROOM, 3L))).containsExactly(4L);
+    }
+
+    @Test
+    void 버퍼에_없는_이전_기록은_messageId_keyset_으로_읽는다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 3, 1 << 20, 30000);
+        ChatService chatService = chatService(cache);
+        database.commit(1, 2, 3, 4, 5, 6);
+        //when
+        List<ChatMessageResponse> latest = chatService.getChatRoomWithMessages(ROOM, 1L, null, 3, null).getMessages();
+        database.beginTransaction();
+        List<ChatMessageResponse> older = chatService.getChatRoomWithMessages(ROOM, 1L, null, 3, 4L).getMessages();
+        //then
+        assertThat(ids(latest)).containsExactly(4L, 5L, 6L);
+        assertThat(ids(older)).containsExactly(1L, 2L, 3L);
+        assertThat(database.reads).isEqualTo(2);
+    }
+
+    @Test
+    void offset_을_보내면_0_이어도_오래된_메시지부터_offset_페이지로_읽는다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 200, 1 << 20, 30000);
+        ChatService chatService = chatService(cache);
+        database.commit(1, 2, 3, 4, 5);
+        //when
+        List<ChatMessageResponse> first = chatService.getChatRoomWithMessages(ROOM, 1L, 0, 2, null).getMessages();
+        database.beginTransaction();
+        List<ChatMessageResponse> second = chatService.getChatRoomWithMessages(ROOM, 1L, 1, 2, null).getMessages();
+        //then
+        assertThat(ids(first)).containsExactly(1L, 2L);
+        assertThat(ids(second)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void 재연결_조회는_DB_에_아직_반영되지_않은_메시지를_messageId_순으로_한_번씩_더한다() {
+        //given
+        ChatRecentMessageCache cache = new ChatRecentMessageCache(new SimpleMeterRegistry(), false, 200, 1 << 20,
+                30000);
+        ChatMessageWriteBehind writeBehind = new ChatMessageWriteBehind(null, database.chatRooms(), members(),
+                new SimpleMeterRegistry(), true, 1, directory.toString(), 1 << 20, 10, 3_600_000, 500, 60);
+        writeBehind.start();
+        ChatService chatService = chatService(cache, writeBehind);
+        database.commit(1, 2, 3);
+        ChatMessageResponse pending = writeBehind.send(ROOM, 3L, "pending");
+        ChatMessageResponse flushed = writeBehind.send(ROOM, 3L, "flushed");
+        // pending 을 읽은 뒤 DB 를 읽기 전에 반영된 메시지는 양쪽에 다 있다
+        database.commit(flushed.getMessageId());
+        //when
+        List<ChatMessageResponse> messages = chatService.getMessagesAfterId(ROOM, 2L);
+        //then
+        assertThat(ids(messages)).containsExactly(3L, pending.getMessageId(), flushed.getMessageId());
+    }
+
+    private ChatService chatService(ChatRecentMessageCache cache) {
+        return chatService(cache, new ChatMessageWriteBehind(null, null, null, new SimpleMeterRegistry(), false,
+                -1, "chat-journal", 1 << 20, 10, 5, 500, 60));
+    }
+
+    private ChatService chatService(ChatRecentMessageCache cache, ChatMessageWriteBehind writeBehind) {
+        ChatService chatService = new ChatService(database.chatRooms(), database.chatMessages(),
+                database.chatMembers(), null, null, null, null, writeBehind, cache, null);
+        ReflectionTestUtils.setField(chatService, "catchUpMaxMessages", 500);
+        return chatService;
+    }
+
+    private ChatMessageResponse toResponse(ChatMessage message) {
+        return ChatMessageResponse.builder()
+                .messageId(message.getMessageId())
+                .chatRoomId(ROOM)
+                .messageContent(message.getMessageContent())
+                .messageType(message.getMessageType())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+
+    private static MemberRepository members() {
+        Member member = new Member();
+        member.setNickname("nickname");
+        MemberRepository members = mock(MemberRepository.class);
+        given(members.findById(any())).willReturn(Optional.of(member));
+        return members;
+    }
+
+    private static List<Long> ids(List<ChatMessageResponse> messages) {
+        return messages.stream().map(ChatMessageResponse::getMessageId).toList();
+    }
+
+    // REPEATABLE READ 처럼 트랜잭션의 첫 조회 시점의 스냅샷으로 답한다
+    private class FakeDatabase {
+
+        private final TreeMap<Long, ChatMessage> committed = new TreeMap<>();
+        private List<ChatMessage> snapshot;
+        private Runnable afterFirstRead;
+        private int reads;
+
+        List<ChatMessage> commit(long... messageIds) {
+            List<ChatMessage> messages = new ArrayList<>();
+            for (long messageId : messageIds) {
+                ChatMessage message = ChatMessage.builder()
+                        .messageId(messageId)
+                        .chatRoom(chatRoom)
+                        .sender(sender)
+                        .messageContent("message " + messageId)
+                        .messageType(MessageType.TEXT)
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                committed.put(messageId, message);
+                messages.add(message);
+            }
+            return messages;
+        }
+
+        void beginTransaction() {
+            snapshot = null;
+        }
+
+        private List<ChatMessage> read() {
+            if (snapshot == null) {
+                snapshot = new ArrayList<>(committed.values());
+                if (afterFirstRead != null) {
+                    Runnable hook = afterFirstRead;
+                    afterFirstRead = null;
+                    hook.run();
+                }
+            }
+            return snapshot;
+        }
+
+        private List<ChatMessage> messages(Predicate<ChatMessage> filter, boolean descending, Pageable pageable) {
+            reads++;
+            Comparator<ChatMessage> order = Comparator.comparing(ChatMessage::getMessageId);
+            return read().stream()
+                    .filter(filter)
+                    .sorted(descending ? order.reversed() : order)
+                    .limit(pageable.getPageSize())
+                    .toList();
+        }
+
+        ChatRoomRepository chatRooms() {
+            ChatRoomRepository chatRooms = mock(ChatRoomRepository.class);
+            given(chatRooms.findById(any())).willAnswer(invocation -> {
+                read();
+                return Optional.of(chatRoom);
+            });
+            given(chatRooms.existsById(any())).willReturn(true);
+            return chatRooms;
+        }
+
+        ChatMessageRepository chatMessages() {
+            ChatMessageRepository chatMessages = mock(ChatMessageRepository.class);
+            given(chatMessages.findByChatRoom_ChatRoomIdOrderByCreatedAtAsc(any(), any())).willAnswer(invocation -> {
+                Pageable pageable = invocation.getArgument(1);
+                reads++;
+                return read().stream()
+                        .sorted(Comparator.comparing(ChatMessage::getMessageId))
+                        .skip(pageable.getOffset())
+                        .limit(pageable.getPageSize())
+                        .toList();
+            });
+            given(chatMessages.findByChatRoom_ChatRoomIdOrderByMessageIdDesc(any(), any()))
+                    .willAnswer(invocation -> messages(message -> true, true, invocation.getArgument(1)));
+            given(chatMessages.findByChatRoom_ChatRoomIdAndMessageIdLessThanOrderByMessageIdDesc(any(), any(), any()))
+                    .willAnswer(invocation -> messages(
+                            message -> message.getMessageId() < invocation.<Long>getArgument(1), true,
+                            invocation.getArgument(2)));
+            given(chatMessages.findByChatRoom_ChatRoomIdAndMessageIdGreaterThanOrderByMessageIdAsc(any(), any(), any()))
+                    .willAnswer(invocation -> messages(
+                            message -> message.getMessageId() > invocation.<Long>getArgument(1), false,
+                            invocation.getArgument(2)));
+            return chatMessages;
+        }
+
+        ChatMemberRepository chatMembers() {
+            ChatMemberRepository chatMembers = mock(ChatMemberRepository.class);
+            given(chatMembers.findByChatRoom_ChatRoomId(any())).willAnswer(invocation -> {
+                read();
+                return List.of();
+            });
+            return chatMembers;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.patriot.fourlipsclover.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.chat.controller.ChatController;
+import com.patriot.fourlipsclover.chat.dto.response.ChatMessageResponse;
+import com.patriot.fourlipsclover.chat.service.ChatLongPollRegistry;
+import com.patriot.fourlipsclover.chat.service.ChatMessageDispatcher;
+import com.patriot.fourlipsclover.chat.service.ChatRecentMessageCache;
+import com.patriot.fourlipsclover.chat.service.ChatService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * 롱폴링 대기 요청 10,000개를 채팅방 100개에 걸어 두고, 대기 중에 스레드와 DB 조회가 늘지 않는지 확인한다.
+ * <p>
+ * 메시지 조회는 호출 횟수만 세는 ChatService 로 대신한다. 요청마다 등록 직후 한 번 조회하는 것 외에는 조회가 없어야 한다.
+ */
+public class ChatLongPollLoadTest {
+
+	private static final int WAITERS = 10000;
+	private static final int ROOMS = 100;
+
+	private final AtomicInteger queries = new AtomicInteger();
+	private ChatLongPollRegistry registry;
+
+	@AfterEach
+	void tearDown() {
+		registry.stop();
+	}
+
+	@Test
+	@DisplayName("대기 요청 1만 개를 적은 스레드로 유지하고 대기 중 DB 조회가 없다")
+	public void parkTenThousandWaiters() throws Exception {
+		registry = new ChatLongPollRegistry(new SimpleMeterRegistry(), 60000, 100);
+		ChatController controller = new ChatController(new CountingChatService(), registry);
+		ChatMessageDispatcher dispatcher = new ChatMessageDispatcher(
+				new SimpMessagingTemplate((message, timeout) -> true), registry,
+				new ChatRecentMessageCache(new SimpleMeterRegistry(), true, 200, 1 << 20, 30000), null,
+				new SimpleMeterRegistry(), false, 16, WAITERS);
+		int threadsBefore = Thread.activeCount();
+
+		List<DeferredResult<ResponseEntity<List<ChatMessageResponse>>>> results = new ArrayList<>(WAITERS);
+		for (int i = 0; i < WAITERS; i++) {
+			results.add(controller.getChatMessages(i % ROOMS, null, null));
+		}
+		assertThat(registry.getWaiterCount()).isEqualTo(WAITERS);
+		assertThat(queries.get()).isEqualTo(WAITERS);
+
+		// 대기 중에는 조회도 스레드도 늘지 않는다 (타이머 스레드 하나만 추가된다)
+		Thread.sleep(2000);
+		assertThat(queries.get()).isEqualTo(WAITERS);
+		assertThat(Thread.activeCount() - threadsBefore).isLessThanOrEqualTo(2);
+		assertThat(results).noneMatch(DeferredResult::hasResult);
+
+		long start = System.nanoTime();
+		for (int room = 0; room < ROOMS; room++) {
+			dispatcher.dispatchAfterCommit(ChatMessageResponse.builder()
+					.messageId((long) room)
+					.chatRoomId(room)
+					.messageContent("hello")
+					.createdAt(LocalDateTime.now())
+					.build());
+		}
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		assertThat(results).allMatch(DeferredResult::hasResult);
+		assertThat(registry.getWaiterCount()).isZero();
+		assertThat(queries.get()).isEqualTo(WAITERS);
+		System.out.printf("대기 %d개 응답: %dms, 추가 스레드 %d개%n", WAITERS, elapsedMs,
+				Thread.activeCount() - threadsBefore);
+	}
+
+	@Test
+	@DisplayName("타임아웃된 대기 요청은 타이머 스레드 하나가 빈 목록으로 응답한다")
+	public void expireTenThousandWaiters() throws Exception {
+		registry = new ChatLongPollRegistry(new SimpleMeterRegistry(), 300, 50);
+		ChatController controller = new ChatController(new CountingChatService(), registry);
+
+		List<DeferredResult<ResponseEntity<List<ChatMessageResponse>>>> results = new ArrayList<>(WAITERS);
+		for (int i = 0; i < WAITERS; i++) {
+			results.add(controller.getChatMessages(i % ROOMS, null, null));
+		}
+		long deadline = System.currentTimeMillis() + 5000;
+		while (registry.getWaiterCount() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+
+		assertThat(registry.getWaiterCount()).isZero();
+		assertThat(results).allMatch(result -> ResponseEntity.ok(List.of()).equals(result.getResult()));
+		assertThat(queries.get()).isEqualTo(WAITERS);
+	}
+
+	private class CountingChatService extends ChatService {
+
+		CountingChatService() {
+			super(null, null, null, null, null, null, null, null, null, null);
+		}
+
+		@Override
+		public List<ChatMessageResponse> getMessagesWithDetails(Integer chatRoomId, LocalDateTime after) {
+			queries.incrementAndGet();
+			return List.of();
+		}
+	}
+}
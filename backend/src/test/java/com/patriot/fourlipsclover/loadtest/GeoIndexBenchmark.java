@@ -0,0 +1,94 @@
+package com.patriot.fourlipsclover.loadtest;
+
+import com.patriot.fourlipsclover.restaurant.service.RestaurantGeoIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 반경 1km 주변 식당 조회 비교: 모든 식당에 acos 거리 계산(DB 쿼리와 같은 전체 스캔) vs RestaurantGeoIndex.
+ * <p>
+ * 광주 일대(약 30km x 30km)에 균일하게 흩어진 가상 식당 데이터를 사용한다. main 메서드로 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeoIndexBenchmark {
+
+	private static final double MIN_X = 126.7;
+	private static final double MIN_Y = 35.0;
+	private static final double SPAN = 0.3;
+	private static final int RADIUS = 1000;
+
+	@Param({"10000", "100000", "1000000"})
+	private int restaurants;
+
+	private double[] xs;
+	private double[] ys;
+	private RestaurantGeoIndex geoIndex;
+	private Random queryRandom;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		xs = new double[restaurants];
+		ys = new double[restaurants];
+		List<Object[]> rows = new ArrayList<>(restaurants);
+		for (int i = 0; i < restaurants; i++) {
+			xs[i] = MIN_X + random.nextDouble() * SPAN;
+			ys[i] = MIN_Y + random.nextDouble() * SPAN;
+			rows.add(new Object[]{i, xs[i], ys[i]});
+		}
+		geoIndex = new RestaurantGeoIndex(0.01);
+		geoIndex.replaceAll(rows);
+		queryRandom = new Random(7);
+	}
+
+	@Benchmark
+	public int fullScan() {
+		double latitude = MIN_Y + queryRandom.nextDouble() * SPAN;
+		double longitude = MIN_X + queryRandom.nextDouble() * SPAN;
+		int count = 0;
+		for (int i = 0; i < xs.length; i++) {
+			double distance = 6371 * Math.acos(
+					Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(ys[i]))
+							* Math.cos(Math.toRadians(xs[i]) - Math.toRadians(longitude))
+							+ Math.sin(Math.toRadians(latitude)) * Math.sin(Math.toRadians(ys[i])));
+			if (distance <= RADIUS / 1000.0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int gridIndex() {
+		double latitude = MIN_Y + queryRandom.nextDouble() * SPAN;
+		double longitude = MIN_X + queryRandom.nextDouble() * SPAN;
+		return geoIndex.findWithin(latitude, longitude, RADIUS).size();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(GeoIndexBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,114 @@
+package com.patriot.fourlipsclover.loadtest;
+
+import com.patriot.fourlipsclover.restaurant.service.CompiledRandomForest;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * 랭킹 RandomForest 추론 비교: Weka (행마다 DenseInstance + classifyInstance) vs CompiledRandomForest.
+ * <p>
+ * 실행: main 메서드 또는 JMH 러너로 실행한다. 일반 테스트 실행에는 포함되지 않는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankingInferenceBenchmark {
+
+	private static final int FEATURES = 6;
+
+	@Param({"1000", "10000", "100000"})
+	private int restaurants;
+
+	private RandomForest forest;
+	private CompiledRandomForest compiled;
+	private Instances header;
+	private double[][] features;
+
+	@Setup
+	public void setUp() throws Exception {
+		Random random = new Random(42);
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		for (int i = 0; i < FEATURES; i++) {
+			attributes.add(new Attribute("feature" + i));
+		}
+		attributes.add(new Attribute("score"));
+		header = new Instances("RestaurantRanking", attributes, 0);
+		header.setClassIndex(FEATURES);
+
+		Instances training = new Instances(header, 1000);
+		for (int i = 0; i < 1000; i++) {
+			double[] values = randomRow(random, FEATURES + 1);
+			values[FEATURES] = values[1] - values[2] + Math.log1p(values[0]);
+			training.add(new DenseInstance(1.0, values));
+		}
+		// RestaurantRankingService 와 같은 설정
+		forest = new RandomForest();
+		forest.setNumIterations(100);
+		forest.setMaxDepth(10);
+		forest.setSeed(42);
+		forest.buildClassifier(training);
+		compiled = CompiledRandomForest.compile(forest);
+
+		features = new double[restaurants][];
+		for (int i = 0; i < restaurants; i++) {
+			features[i] = randomRow(random, FEATURES);
+		}
+	}
+
+	@Benchmark
+	public double[] weka() throws Exception {
+		// 기존 경로: 매번 Instances 를 만들고 한 행씩 예측
+		Instances instances = new Instances(header, features.length);
+		for (double[] row : features) {
+			double[] values = new double[FEATURES + 1];
+			System.arraycopy(row, 0, values, 0, FEATURES);
+			instances.add(new DenseInstance(1.0, values));
+		}
+		double[] predictions = new double[features.length];
+		for (int i = 0; i < features.length; i++) {
+			predictions[i] = forest.classifyInstance(instances.instance(i));
+		}
+		return predictions;
+	}
+
+	@Benchmark
+	public double[] compiled() {
+		return compiled.predict(features);
+	}
+
+	private static double[] randomRow(Random random, int length) {
+		double[] values = new double[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = random.nextInt(100) * random.nextDouble();
+		}
+		return values;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(RankingInferenceBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -6,7 +6,10 @@ import com.patriot.fourlipsclover.restaurant.dto.request.LikeStatus;
 import com.patriot.fourlipsclover.restaurant.dto.request.ReviewLikeCreate;
 import com.patriot.fourlipsclover.restaurant.dto.response.ApiResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewPageResponse;
 import com.patriot.fourlipsclover.restaurant.dto.response.ReviewResponse;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -21,6 +24,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
@@ -35,6 +39,9 @@ public class RestaurantReadTest {
 	@Autowired
 	private TestRestTemplate restTemplate;
 
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Test
 	void findById() {
 		//given
@@ -77,6 +84,48 @@ public class RestaurantReadTest {
 				"2114253032");
 	}
 
+	@Test
+	void 사용자는_리뷰목록을_커서기반으로_페이지조회할_수_있다() {
+		//given
+		String kakaoId = "2114253032";
+		//when
+		ResponseEntity<ReviewPageResponse> response = restTemplate.exchange(
+				"/api/restaurant/" + kakaoId + "/reviews/page?size=1", HttpMethod.GET,
+				HttpEntity.EMPTY, ReviewPageResponse.class);
+		//then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody().getReviews()).hasSize(1);
+		assertThat(response.getBody().getReviews().get(0).getContent()).isEqualTo("테스트컨텐츠");
+		assertThat(response.getBody().isHasNext()).isFalse();
+		assertThat(response.getBody().getNextCursor()).isNull();
+	}
+
+	@Test
+	void 작성시각이_같은_리뷰가_있어도_nextCursor를_따라가면_빠짐없이_겹치지않게_모두_조회된다() {
+		//given (황솔촌 수완점, 70~72 는 작성 시각이 같다)
+		String kakaoId = "26792051";
+		insertReview(70, "2023-06-02 12:00:00");
+		insertReview(71, "2023-06-02 12:00:00");
+		insertReview(72, "2023-06-02 12:00:00");
+		insertReview(73, "2023-06-01 12:00:00");
+		insertReview(74, "2023-06-01 12:00:00");
+		//when
+		List<List<Integer>> pages = new ArrayList<>();
+		String cursor = null;
+		do {
+			ReviewPageResponse page = cursor == null
+					? restTemplate.getForObject("/api/restaurant/{kakaoId}/reviews/page?size=2",
+					ReviewPageResponse.class, kakaoId)
+					: restTemplate.getForObject("/api/restaurant/{kakaoId}/reviews/page?size=2&cursor={cursor}",
+					ReviewPageResponse.class, kakaoId, cursor);
+			pages.add(page.getReviews().stream().map(ReviewResponse::getReviewId).toList());
+			assertThat(page.isHasNext()).isEqualTo(page.getNextCursor() != null);
+			cursor = page.getNextCursor();
+		} while (cursor != null && pages.size() < 10);
+		//then (작성 시각, 리뷰 ID 내림차순)
+		assertThat(pages).containsExactly(List.of(72, 71), List.of(70, 74), List.of(73));
+	}
+
 	@Test
 	void 사용자는_kakaoPlaceId로_특정식당의상세정보를_불러올수있다() {
 		//given
@@ -103,4 +152,11 @@ public class RestaurantReadTest {
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 		assertThat(response.getBody().size()).isEqualTo(1);
 	}
+
+	private void insertReview(int reviewId, String createdAt) {
+		Timestamp timestamp = Timestamp.valueOf(createdAt);
+		jdbcTemplate.update("INSERT INTO reviews (review_id, member_id, restaurant_id, content, visited_at, "
+				+ "created_at, is_delete) VALUES (?, 1, 2, ?, ?, ?, FALSE)", reviewId, "리뷰" + reviewId,
+				timestamp, timestamp);
+	}
 }
@@ -0,0 +1,38 @@
+package com.patriot.fourlipsclover.restaurant.dto.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.patriot.fourlipsclover.exception.InvalidDataException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantSearchCursorTest {
+
+	@Test
+	void sort_값의_타입을_유지한_채_복원한다() {
+		RestaurantSearchCursor cursor = new RestaurantSearchCursor("pit-id==",
+				List.of(FieldValue.of(152.37), FieldValue.of(42L), FieldValue.of("초돈"),
+						FieldValue.NULL));
+
+		RestaurantSearchCursor decoded = RestaurantSearchCursor.decode(cursor.encode());
+
+		assertThat(decoded.getPitId()).isEqualTo("pit-id==");
+		List<FieldValue> after = decoded.getSearchAfter();
+		assertThat(after.get(0).isDouble()).isTrue();
+		assertThat(after.get(0).doubleValue()).isEqualTo(152.37);
+		assertThat(after.get(1).isLong()).isTrue();
+		assertThat(after.get(1).longValue()).isEqualTo(42L);
+		assertThat(after.get(2).stringValue()).isEqualTo("초돈");
+		assertThat(after.get(3).isNull()).isTrue();
+	}
+
+	@Test
+	void 잘못된_커서는_InvalidDataException_을_던진다() {
+		assertThatThrownBy(() -> RestaurantSearchCursor.decode("not a cursor"))
+				.isInstanceOf(InvalidDataException.class);
+		assertThatThrownBy(() -> RestaurantSearchCursor.decode("e30"))
+				.isInstanceOf(InvalidDataException.class);
+	}
+}
@@ -0,0 +1,104 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewJpaRepository;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantDetailCache;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantNearbyCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+public class RestaurantCacheInvalidatorTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final double LAT = 37.5665;
+	private static final double LON = 126.978;
+
+	private final RecordingRedisTemplate redisTemplate = new RecordingRedisTemplate();
+	private final RestaurantNearbyCache nearbyCache = new RestaurantNearbyCache(redisTemplate, OBJECT_MAPPER, true,
+			6, new int[]{500, 1000}, 300, 30, 1000, true, 120);
+	private final RestaurantDetailCache detailCache = new RestaurantDetailCache(null, new SimpleMeterRegistry(),
+			true, 60, 10, 1000, false, 600, 30);
+	private final List<Collection<?>> coordinateLookups = new ArrayList<>();
+	private final RestaurantCacheInvalidator invalidator = new RestaurantCacheInvalidator(nearbyCache, detailCache,
+			restaurants(), mock(ReviewJpaRepository.class), OBJECT_MAPPER);
+
+	@Test
+	void 좌표가_없는_변경은_DB_의_현재_좌표로_이_인스턴스에_없는_Redis_항목까지_지운다() {
+		//given
+		invalidator.listen(record("restaurant_tag", "{\"after\":{\"restaurant_id\":7,\"tag_id\":1}}"));
+		//when
+		invalidator.flush();
+		//then
+		assertThat(coordinateLookups).containsExactly(List.of(7));
+		assertThat(redisTemplate.deleted).contains(
+				"restaurant:nearby:" + RestaurantNearbyCache.geohash(LAT, LON, 6) + ":500",
+				"restaurant:nearby:" + RestaurantNearbyCache.geohash(LAT, LON, 6) + ":1000");
+	}
+
+	@Test
+	void 좌표를_찾을_수_없는_변경은_Redis_를_건드리지_않고_상세_캐시만_지운다() {
+		//given
+		List<String> loaded = new ArrayList<>();
+		detailCache.get("k8", kakaoPlaceId -> {
+			loaded.add(kakaoPlaceId);
+			return RestaurantResponse.builder().kakaoPlaceId(kakaoPlaceId).build();
+		});
+		invalidator.listen(record("reviews", "{\"after\":{\"review_id\":3,\"restaurant_id\":8}}"));
+		//when
+		invalidator.flush();
+		detailCache.get("k8", kakaoPlaceId -> {
+			loaded.add(kakaoPlaceId);
+			return RestaurantResponse.builder().kakaoPlaceId(kakaoPlaceId).build();
+		});
+		//then
+		assertThat(redisTemplate.deleted).isEmpty();
+		assertThat(loaded).containsExactly("k8", "k8");
+	}
+
+	private static ConsumerRecord<String, String> record(String table, String value) {
+		return new ConsumerRecord<>("mysql-server.fourlipsclover." + table, 0, 0L, null, value);
+	}
+
+	// 7 번 식당은 좌표가 있고, 8 번 식당은 좌표가 없다
+	private RestaurantJpaRepository restaurants() {
+		RestaurantJpaRepository restaurants = mock(RestaurantJpaRepository.class);
+		given(restaurants.findKakaoPlaceIdsAndCoordinates(any())).willAnswer(invocation -> {
+			Collection<?> restaurantIds = invocation.getArgument(0);
+			coordinateLookups.add(List.copyOf(restaurantIds));
+			List<Object[]> rows = new ArrayList<>();
+			if (restaurantIds.contains(7)) {
+				rows.add(new Object[]{7, "k7", LON, LAT});
+			}
+			if (restaurantIds.contains(8)) {
+				rows.add(new Object[]{8, "k8", null, null});
+			}
+			return rows;
+		});
+		return restaurants;
+	}
+
+	private static class RecordingRedisTemplate extends StringRedisTemplate {
+
+		private final Set<String> deleted = new HashSet<>();
+
+		@Override
+		public Long delete(Collection<String> keys) {
+			deleted.addAll(keys);
+			return (long) keys.size();
+		}
+	}
+}
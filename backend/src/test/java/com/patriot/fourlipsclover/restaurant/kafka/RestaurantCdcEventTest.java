@@ -0,0 +1,46 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantCdcEventTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	@Test
+	void schema_가_붙은_이벤트와_payload_만_있는_이벤트를_같게_읽는다() throws Exception {
+		//given
+		String payload = "{\"op\":\"u\",\"before\":{\"restaurant_id\":1},\"after\":{\"restaurant_id\":1,\"x\":127.0}}";
+		//when
+		RestaurantCdcEvent withSchema = RestaurantCdcEvent.parse(OBJECT_MAPPER,
+				record(RestaurantCdcEvent.RESTAURANT_TOPIC, "{\"schema\":{},\"payload\":" + payload + "}"));
+		RestaurantCdcEvent withoutSchema = RestaurantCdcEvent.parse(OBJECT_MAPPER,
+				record(RestaurantCdcEvent.RESTAURANT_TOPIC, payload));
+		//then
+		assertThat(withSchema).isEqualTo(withoutSchema);
+		assertThat(withSchema.table()).isEqualTo("restaurant");
+		assertThat(withSchema.operation()).isEqualTo("u");
+		assertThat(RestaurantCdcEvent.intValue(withSchema.after(), "restaurant_id")).isEqualTo(1);
+	}
+
+	@Test
+	void op_가_없으면_스냅샷으로_보고_tombstone_은_null_이다() throws Exception {
+		//when
+		RestaurantCdcEvent snapshot = RestaurantCdcEvent.parse(OBJECT_MAPPER,
+				record(RestaurantCdcEvent.RESTAURANT_TAG_TOPIC, "{\"after\":{\"restaurant_id\":3,\"tag_id\":1}}"));
+		RestaurantCdcEvent tombstone = RestaurantCdcEvent.parse(OBJECT_MAPPER,
+				record(RestaurantCdcEvent.RESTAURANT_TAG_TOPIC, null));
+		//then
+		assertThat(snapshot.table()).isEqualTo("restaurant_tag");
+		assertThat(snapshot.operation()).isEqualTo("r");
+		assertThat(RestaurantCdcEvent.isEmpty(snapshot.before())).isTrue();
+		assertThat(tombstone).isNull();
+	}
+
+	private static ConsumerRecord<String, String> record(String topic, String value) {
+		return new ConsumerRecord<>(topic, 0, 0L, null, value);
+	}
+}
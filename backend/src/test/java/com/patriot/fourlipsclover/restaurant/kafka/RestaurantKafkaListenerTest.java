@@ -0,0 +1,127 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.dto.kafka.RestaurantKafkaDto;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantCdcApplier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class RestaurantKafkaListenerTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private FakeApplier applier;
+	private RestaurantKafkaListener listener;
+
+	@BeforeEach
+	void setUp() {
+		applier = new FakeApplier();
+		listener = new RestaurantKafkaListener(applier, OBJECT_MAPPER);
+		ReflectionTestUtils.setField(listener, "groupId", "test-group");
+	}
+
+	@Test
+	void 같은_식당은_마지막_이벤트만_반영하고_offset_을_함께_기록한다() {
+		listener.listen(List.of(
+				record(0, upsert(1, "처음")),
+				record(1, upsert(2, "식당2")),
+				record(2, upsert(1, "나중")),
+				record(3, null)));
+
+		assertThat(applier.batches).hasSize(1);
+		List<RestaurantKafkaDto> dtos = applier.batches.get(0);
+		assertThat(dtos).extracting(RestaurantKafkaDto::getRestaurantId).containsExactly(2, 1);
+		assertThat(dtos.get(1).getPlaceName()).isEqualTo("나중");
+		assertThat(applier.offsets).containsEntry(0, 4L);
+	}
+
+	@Test
+	void DB_에_기록된_offset_이전_레코드는_다시_반영하지_않는다() {
+		applier.offsets.put(0, 2L);
+		listener.onPartitionsAssigned(Map.of(new TopicPartition(RestaurantKafkaListener.TOPIC, 0), 0L),
+				mock(ConsumerSeekCallback.class));
+
+		listener.listen(List.of(
+				record(0, upsert(1, "이미 반영")),
+				record(1, upsert(2, "이미 반영")),
+				record(2, upsert(3, "새 이벤트"))));
+
+		assertThat(applier.batches.get(0)).extracting(RestaurantKafkaDto::getRestaurantId)
+				.containsExactly(3);
+		assertThat(applier.offsets).containsEntry(0, 3L);
+	}
+
+	@Test
+	void 잘못된_메시지는_앞의_레코드를_반영한_뒤_위치를_알려_던진다() {
+		assertThatThrownBy(() -> listener.listen(List.of(
+				record(0, upsert(1, "정상")),
+				record(1, "not json"),
+				record(2, upsert(2, "뒤")))))
+				.isInstanceOf(BatchListenerFailedException.class)
+				.satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isEqualTo(1));
+
+		assertThat(applier.batches).hasSize(1);
+		assertThat(applier.batches.get(0)).extracting(RestaurantKafkaDto::getRestaurantId)
+				.containsExactly(1);
+		assertThat(applier.offsets).containsEntry(0, 1L);
+	}
+
+	@Test
+	void 삭제는_before_로_읽고_binlog_위치를_함께_읽는다() {
+		RestaurantKafkaDto dto = listener.parse(record(0, """
+				{"payload":{"op":"d","before":{"restaurant_id":3},"after":null,
+				"source":{"file":"mysql-bin.000002","pos":154}}}"""));
+
+		assertThat(dto.getRestaurantId()).isEqualTo(3);
+		assertThat(dto.getOp()).isEqualTo("d");
+		assertThat(dto.getSourcePosition()).isEqualTo((2L << 32) | 154);
+		// 다음 binlog 파일의 앞부분이 이전 파일의 뒷부분보다 크다
+		assertThat(RestaurantKafkaListener.sourcePosition(OBJECT_MAPPER.createObjectNode()
+				.put("file", "mysql-bin.000003").put("pos", 4)))
+				.isGreaterThan(dto.getSourcePosition());
+	}
+
+	private String upsert(int restaurantId, String placeName) {
+		return "{\"payload\":{\"op\":\"u\",\"after\":{\"restaurant_id\":" + restaurantId
+				+ ",\"place_name\":\"" + placeName + "\"}}}";
+	}
+
+	private ConsumerRecord<String, String> record(long offset, String value) {
+		return new ConsumerRecord<>(RestaurantKafkaListener.TOPIC, 0, offset, null, value);
+	}
+
+	private static class FakeApplier extends RestaurantCdcApplier {
+
+		private final List<List<RestaurantKafkaDto>> batches = new ArrayList<>();
+		private final Map<Integer, Long> offsets = new HashMap<>();
+
+		FakeApplier() {
+			super(null, null);
+		}
+
+		@Override
+		public Map<Integer, Long> findNextOffsets(String consumerGroup, String topic) {
+			return offsets;
+		}
+
+		@Override
+		public void apply(String consumerGroup, String topic, List<RestaurantKafkaDto> dtos,
+				Map<Integer, Long> nextOffsets) {
+			batches.add(dtos);
+			offsets.putAll(nextOffsets);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.patriot.fourlipsclover.restaurant.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter.BulkResult;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantIndexer;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantIndexer.DocumentPart;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 변경 이벤트가 식당별 부분 업데이트로 합쳐지는지 확인한다. flush 는 색인기 호출 순서만 기록해 확인한다.
+ */
+public class RestaurantSearchProjectorTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private RecordingIndexer indexer;
+	private RestaurantSearchProjector projector;
+
+	@BeforeEach
+	void setUp() {
+		indexer = new RecordingIndexer();
+		projector = new RestaurantSearchProjector(indexer, null, OBJECT_MAPPER);
+	}
+
+	@Test
+	void 같은_식당의_이벤트는_하나로_합친다() {
+		projector.apply("restaurant_tag", "c", null, row("restaurant_id", 1));
+		projector.apply("restaurant_tag", "u", null, row("restaurant_id", 1));
+		projector.apply("visit_payment", "c", null, row("restaurant_id", 1));
+		projector.apply("reviews", "c", null, row("restaurant_id", 2));
+
+		Map<Integer, Set<DocumentPart>> changes = projector.drainChanges();
+
+		assertThat(changes).hasSize(2);
+		assertThat(changes.get(1)).containsExactlyInAnyOrder(DocumentPart.TAGS, DocumentPart.PRICE,
+				DocumentPart.SCORE);
+		assertThat(changes.get(2)).containsExactly(DocumentPart.SCORE);
+		assertThat(projector.drainChanges()).isEmpty();
+	}
+
+	@Test
+	void 식당이_삭제되면_대기_중인_변경_대신_문서를_지운다() {
+		projector.apply("restaurant", "u", null, row("restaurant_id", 1));
+		projector.apply("restaurant", "d", OBJECT_MAPPER.createObjectNode()
+				.put("restaurant_id", 1)
+				.put("kakao_place_id", "12345"), MissingNode.getInstance());
+
+		assertThat(projector.drainChanges()).isEmpty();
+		assertThat(projector.pendingDeletes()).containsExactly("12345");
+	}
+
+	@Test
+	void 연관_테이블_행이_삭제되어도_식당을_갱신한다() {
+		projector.apply("restaurant_tag", "d", row("restaurant_id", 3), MissingNode.getInstance());
+
+		assertThat(projector.drainChanges().get(3)).containsExactly(DocumentPart.TAGS);
+	}
+
+	@Test
+	void 기록용_컬럼만_바뀐_식당_변경은_무시한다() {
+		ObjectNode before = restaurant(1, "12345").put("place_name", "식당").put("updated_at", 1L)
+				.put("cdc_position", 10L);
+		ObjectNode touched = before.deepCopy().put("updated_at", 2L).put("cdc_position", 11L);
+		ObjectNode renamed = touched.deepCopy().put("place_name", "새 식당");
+
+		projector.apply("restaurant", "u", before, touched);
+		assertThat(projector.drainChanges()).isEmpty();
+
+		projector.apply("restaurant", "u", touched, renamed);
+		assertThat(projector.drainChanges().get(1)).containsExactly(DocumentPart.ALL);
+	}
+
+	@Test
+	void 장소_ID_가_바뀌면_이전_문서를_지운다() {
+		projector.apply("restaurant", "u", restaurant(1, "12345"), restaurant(1, "67890"));
+
+		assertThat(projector.pendingDeletes()).containsExactly("12345");
+		assertThat(projector.drainChanges().get(1)).containsExactly(DocumentPart.ALL);
+	}
+
+	@Test
+	void 삭제_후_같은_장소로_다시_생긴_식당은_flush_뒤에도_문서가_남는다() {
+		projector.apply("restaurant", "d", restaurant(1, "12345"), MissingNode.getInstance());
+		projector.apply("restaurant", "c", MissingNode.getInstance(), restaurant(2, "12345"));
+
+		projector.flush();
+
+		assertThat(indexer.calls).containsExactly("delete []", "update {2=[ALL]}");
+	}
+
+	@Test
+	void 같은_흐름_안의_삭제는_색인보다_먼저_보낸다() {
+		projector.apply("restaurant", "c", MissingNode.getInstance(), restaurant(2, "67890"));
+		projector.apply("restaurant", "d", restaurant(1, "12345"), MissingNode.getInstance());
+
+		projector.flush();
+
+		assertThat(indexer.calls).containsExactly("delete [12345]", "update {2=[ALL]}");
+	}
+
+	private JsonNode row(String field, int value) {
+		return OBJECT_MAPPER.createObjectNode().put(field, value);
+	}
+
+	private ObjectNode restaurant(int restaurantId, String kakaoPlaceId) {
+		return OBJECT_MAPPER.createObjectNode()
+				.put("restaurant_id", restaurantId)
+				.put("kakao_place_id", kakaoPlaceId);
+	}
+
+	// 색인기에 들어온 호출을 순서대로 기록한다
+	private static class RecordingIndexer extends RestaurantIndexer {
+
+		private final List<String> calls = new ArrayList<>();
+
+		RecordingIndexer() {
+			super(null, null, null, null, null, null, null, null, null, null, null, 500, 60000);
+		}
+
+		@Override
+		public BulkResult update(Map<Integer, Set<DocumentPart>> changes) {
+			calls.add("update " + changes);
+			return BulkResult.EMPTY;
+		}
+
+		@Override
+		public BulkResult delete(Collection<String> kakaoPlaceIds) {
+			calls.add("delete " + kakaoPlaceIds);
+			return BulkResult.EMPTY;
+		}
+	}
+}
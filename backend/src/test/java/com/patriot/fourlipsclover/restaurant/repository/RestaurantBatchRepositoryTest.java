@@ -0,0 +1,126 @@
+package com.patriot.fourlipsclover.restaurant.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * 원본 DB 위치(cdc_position) 비교가 ON DUPLICATE KEY UPDATE 와 DELETE 문 안에서 동작하는지 H2 MySQL 모드로 확인한다.
+ */
+public class RestaurantBatchRepositoryTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(
+			new DriverManagerDataSource("jdbc:h2:mem:restaurant-batch;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+	private final RestaurantBatchRepository repository = new RestaurantBatchRepository(jdbcTemplate);
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("CREATE TABLE restaurant (restaurant_id INT PRIMARY KEY, kakao_place_id VARCHAR(255), "
+				+ "place_name VARCHAR(255), address_name VARCHAR(255), road_address_name VARCHAR(255), "
+				+ "category_name VARCHAR(255), phone VARCHAR(255), place_url VARCHAR(255), x DOUBLE, y DOUBLE, "
+				+ "city_id BIGINT, food_category_id BIGINT, updated_at TIMESTAMP, cdc_position BIGINT)");
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP TABLE restaurant");
+	}
+
+	@Test
+	void 저장된_위치보다_오래된_upsert_는_행을_바꾸지_않는다() {
+		//given
+		repository.upsertAll(List.of(restaurant(1, "새 이름", 10L)), NOW);
+		//when
+		repository.upsertAll(List.of(restaurant(1, "옛 이름", 5L), restaurant(2, "다른 식당", 5L)),
+				NOW.plusMinutes(1));
+		//then
+		assertThat(row(1)).containsEntry("PLACE_NAME", "새 이름").containsEntry("CDC_POSITION", 10L);
+		assertThat(row(2)).containsEntry("PLACE_NAME", "다른 식당").containsEntry("CDC_POSITION", 5L);
+	}
+
+	@Test
+	void 다시_쓰인_위치보다_오래된_삭제는_행을_지우지_않는다() {
+		//given
+		repository.upsertAll(List.of(restaurant(1, "다시 생긴 식당", 10L), restaurant(2, "식당", 10L)), NOW);
+		//when
+		repository.deleteAll(Map.of(1, 5L, 2, 11L));
+		//then
+		assertThat(ids()).containsExactly(1);
+	}
+
+	@Test
+	void 같은_위치의_이벤트를_다시_받으면_같은_결과로_반영한다() {
+		//given
+		repository.upsertAll(List.of(restaurant(1, "식당", 10L)), NOW);
+		//when
+		repository.upsertAll(List.of(restaurant(1, "식당", 10L)), NOW.plusMinutes(1));
+		//then
+		assertThat(ids()).containsExactly(1);
+		assertThat(row(1)).containsEntry("PLACE_NAME", "식당").containsEntry("CDC_POSITION", 10L);
+		//when
+		repository.deleteAll(Map.of(1, 10L));
+		repository.deleteAll(Map.of(1, 10L));
+		//then
+		assertThat(ids()).isEmpty();
+	}
+
+	@Test
+	void 위치가_없는_쓰기는_항상_반영하고_저장된_위치를_유지한다() {
+		//given
+		repository.upsertAll(List.of(restaurant(1, "식당", 10L)), NOW);
+		//when
+		repository.upsertAll(List.of(restaurant(1, "직접 수정", null)), NOW.plusMinutes(1));
+		//then
+		assertThat(row(1)).containsEntry("PLACE_NAME", "직접 수정").containsEntry("CDC_POSITION", 10L);
+	}
+
+	@Test
+	void 데이터가_같은_이벤트를_다시_반영하면_행을_바꾸지_않는다() {
+		//given
+		repository.upsertAll(List.of(restaurant(1, "식당", 10L)), NOW);
+		//when (자기 쓰기에서 나온 더 나중 위치의 이벤트)
+		repository.upsertAll(List.of(restaurant(1, "식당", 20L)), NOW.plusMinutes(1));
+		//then
+		assertThat(row(1)).containsEntry("PLACE_NAME", "식당").containsEntry("CDC_POSITION", 10L);
+		assertThat(updatedAt(1)).isEqualTo(NOW);
+		//when (데이터가 바뀌면 위치와 updated_at 도 바꾼다)
+		repository.upsertAll(List.of(restaurant(1, "새 이름", 30L)), NOW.plusMinutes(2));
+		//then
+		assertThat(row(1)).containsEntry("PLACE_NAME", "새 이름").containsEntry("CDC_POSITION", 30L);
+		assertThat(updatedAt(1)).isEqualTo(NOW.plusMinutes(2));
+	}
+
+	private LocalDateTime updatedAt(int restaurantId) {
+		return jdbcTemplate.queryForObject("SELECT updated_at FROM restaurant WHERE restaurant_id = ?",
+				LocalDateTime.class, restaurantId);
+	}
+
+	private Map<String, Object> row(int restaurantId) {
+		return jdbcTemplate.queryForMap("SELECT place_name, cdc_position FROM restaurant WHERE restaurant_id = ?",
+				restaurantId);
+	}
+
+	private List<Integer> ids() {
+		return jdbcTemplate.queryForList("SELECT restaurant_id FROM restaurant ORDER BY restaurant_id",
+				Integer.class);
+	}
+
+	private Restaurant restaurant(int restaurantId, String placeName, Long cdcPosition) {
+		Restaurant restaurant = new Restaurant();
+		restaurant.setRestaurantId(restaurantId);
+		restaurant.setKakaoPlaceId(String.valueOf(restaurantId));
+		restaurant.setPlaceName(placeName);
+		restaurant.setCdcPosition(cdcPosition);
+		return restaurant;
+	}
+}
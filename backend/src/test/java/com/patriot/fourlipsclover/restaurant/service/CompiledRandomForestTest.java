@@ -0,0 +1,72 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+public class CompiledRandomForestTest {
+
+	private static final int FEATURES = 6;
+
+	@Test
+	void 변환된_모델의_예측값은_Weka_예측값과_같다() throws Exception {
+		//given
+		Random random = new Random(7);
+		Instances training = instances(500, random);
+		RandomForest forest = new RandomForest();
+		forest.setNumIterations(100);
+		forest.setMaxDepth(10);
+		forest.setSeed(42);
+		forest.buildClassifier(training);
+
+		//when
+		CompiledRandomForest compiled = CompiledRandomForest.compile(forest);
+		Instances test = instances(2000, random);
+		double[][] features = new double[test.numInstances()][];
+		for (int i = 0; i < test.numInstances(); i++) {
+			features[i] = new double[FEATURES];
+			for (int j = 0; j < FEATURES; j++) {
+				features[i][j] = test.instance(i).value(j);
+			}
+		}
+		double[] predictions = compiled.predict(features);
+
+		//then
+		assertThat(compiled.treeCount()).isEqualTo(100);
+		for (int i = 0; i < test.numInstances(); i++) {
+			assertThat(predictions[i])
+					.isCloseTo(forest.classifyInstance(test.instance(i)), within(1e-9));
+		}
+	}
+
+	// RestaurantRankingService 와 같은 구조(숫자형 피처 6개 + score)의 임의 데이터
+	private Instances instances(int size, Random random) {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		for (int i = 0; i < FEATURES; i++) {
+			attributes.add(new Attribute("feature" + i));
+		}
+		attributes.add(new Attribute("score"));
+		Instances instances = new Instances("RestaurantRanking", attributes, size);
+		instances.setClassIndex(FEATURES);
+		for (int i = 0; i < size; i++) {
+			Instance instance = new DenseInstance(FEATURES + 1);
+			double score = 0;
+			for (int j = 0; j < FEATURES; j++) {
+				double value = random.nextInt(50) * random.nextDouble();
+				instance.setValue(j, value);
+				score += (j % 2 == 0 ? 1 : -1) * value * (j + 1);
+			}
+			instance.setValue(FEATURES, score + random.nextGaussian());
+			instances.add(instance);
+		}
+		return instances;
+	}
+}
@@ -0,0 +1,176 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter.BulkResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * _bulk 요청만 흉내 내는 로컬 HTTP 서버로 재시도 동작을 확인한다.
+ */
+public class ElasticsearchBulkWriterTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private HttpServer server;
+	private RestClient restClient;
+	private ElasticsearchBulkWriter bulkWriter;
+
+	// 첫 요청에서 429 를 돌려줄 문서 ID
+	private final Set<String> throttleOnce = ConcurrentHashMap.newKeySet();
+	// 항상 400 을 돌려줄 문서 ID
+	private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+	// 요청 전체를 503 으로 실패시킬 횟수
+	private final AtomicInteger unavailable = new AtomicInteger();
+	private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+		restClient = RestClient.builder(
+				new HttpHost("localhost", server.getAddress().getPort(), "http")).build();
+		ElasticsearchClient client = new ElasticsearchClient(
+				new RestClientTransport(restClient, new JacksonJsonpMapper()));
+		bulkWriter = new ElasticsearchBulkWriter(client, 2, 3, 1);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		bulkWriter.shutdown();
+		restClient.close();
+		server.stop(0);
+	}
+
+	@Test
+	void 과부하로_실패한_항목만_다시_보낸다() {
+		throttleOnce.add("2");
+
+		BulkResult result = bulkWriter.write(operations("1", "2", "3"));
+
+		assertThat(result.getSucceeded()).isEqualTo(3);
+		assertThat(result.getFailed()).isZero();
+		assertThat(requests).containsExactly(List.of("1", "2", "3"), List.of("2"));
+	}
+
+	@Test
+	void 재시도할_수_없는_실패는_바로_실패로_센다() {
+		rejected.add("2");
+
+		BulkResult result = bulkWriter.write(operations("1", "2"));
+
+		assertThat(result.getSucceeded()).isEqualTo(1);
+		assertThat(result.getFailed()).isEqualTo(1);
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	void 요청_전체가_실패하면_최대_횟수까지_재시도한다() {
+		unavailable.set(10);
+
+		BulkResult result = bulkWriter.write(operations("1", "2"));
+
+		assertThat(result.getSucceeded()).isZero();
+		assertThat(result.getFailed()).isEqualTo(2);
+		// 최초 요청 + 재시도 3번
+		assertThat(requests).hasSize(4);
+	}
+
+	@Test
+	void 비동기_요청도_모두_처리된다() {
+		List<BulkResult> results = new ArrayList<>();
+		List<CompletableFuture<BulkResult>> futures = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			futures.add(bulkWriter.submit(operations(i + "-a", i + "-b")));
+		}
+		futures.forEach(future -> results.add(future.join()));
+
+		assertThat(results.stream().mapToInt(BulkResult::getSucceeded).sum()).isEqualTo(20);
+		assertThat(requests).hasSize(10);
+	}
+
+	private List<BulkOperation> operations(String... ids) {
+		List<BulkOperation> operations = new ArrayList<>();
+		for (String id : ids) {
+			operations.add(BulkOperation.of(op -> op.index(i -> i
+					.index("restaurants")
+					.id(id)
+					.document(Map.of("name", "식당" + id)))));
+		}
+		return operations;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		List<String> ids = new ArrayList<>();
+		String[] lines = body.split("\n");
+		for (int i = 0; i < lines.length; i += 2) {
+			ids.add(OBJECT_MAPPER.readTree(lines[i]).get("index").get("_id").asText());
+		}
+		requests.add(ids);
+
+		if (unavailable.getAndDecrement() > 0) {
+			respond(exchange, 503, Map.of(
+					"error", Map.of("type", "unavailable_shards_exception", "reason", "unavailable"),
+					"status", 503));
+			return;
+		}
+
+		List<Object> items = new ArrayList<>();
+		boolean errors = false;
+		for (String id : ids) {
+			int status = 201;
+			String errorType = null;
+			if (throttleOnce.remove(id)) {
+				status = 429;
+				errorType = "es_rejected_execution_exception";
+			} else if (rejected.contains(id)) {
+				status = 400;
+				errorType = "mapper_parsing_exception";
+			}
+			Map<String, Object> item = new HashMap<>(Map.of(
+					"_index", "restaurants", "_id", id, "status", status));
+			if (errorType != null) {
+				errors = true;
+				item.put("error", Map.of("type", errorType, "reason", errorType));
+			} else {
+				item.put("result", "created");
+			}
+			items.add(Map.of("index", item));
+		}
+		respond(exchange, 200, Map.of("took", 1, "errors", errors, "items", items));
+	}
+
+	private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+		byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(body);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.getResponseHeaders().add("X-Elastic-Product", "Elasticsearch");
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}
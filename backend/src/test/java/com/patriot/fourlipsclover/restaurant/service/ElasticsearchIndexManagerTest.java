@@ -0,0 +1,216 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.document.RestaurantDocument;
+import com.patriot.fourlipsclover.restaurant.service.ElasticsearchBulkWriter.BulkResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+/**
+ * 인덱스와 alias 상태만 흉내 내는 로컬 HTTP 서버로 blue/green 교체 순서를 확인한다.
+ */
+public class ElasticsearchIndexManagerTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final String ALIAS = "restaurants";
+
+	private HttpServer server;
+	private RestClient restClient;
+	private ElasticsearchIndexManager indexManager;
+
+	private final Set<String> indices = new TreeSet<>();
+	private final Map<String, Set<String>> aliases = new ConcurrentHashMap<>();
+	// "METHOD path" 순서대로
+	private final List<String> requests = new CopyOnWriteArrayList<>();
+	private final Map<String, String> bodies = new ConcurrentHashMap<>();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+		restClient = RestClient.builder(
+				new HttpHost("localhost", server.getAddress().getPort(), "http")).build();
+		ElasticsearchClient client = new ElasticsearchClient(
+				new RestClientTransport(restClient, new JacksonJsonpMapper()));
+		indexManager = new ElasticsearchIndexManager(client,
+				new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext()), 1, 2);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		restClient.close();
+		server.stop(0);
+	}
+
+	@Test
+	void 새_인덱스를_채운_뒤_alias_를_옮기고_기존_실제_인덱스를_지운다() throws IOException {
+		indices.add(ALIAS);
+		List<String> loaded = new ArrayList<>();
+
+		BulkResult result = indexManager.rebuild(ALIAS, RestaurantDocument.class, index -> {
+			loaded.add(index);
+			return new BulkResult(3, 0);
+		});
+
+		String index = loaded.get(0);
+		assertThat(result.getSucceeded()).isEqualTo(3);
+		assertThat(index).startsWith(ALIAS + "-");
+		assertThat(aliases.get(ALIAS)).containsExactly(index);
+		assertThat(indices).containsExactly(index);
+
+		// 대량 색인용 설정으로 만들고, 병합 후 원래 설정으로 되돌린다
+		String create = bodies.get("PUT /" + index);
+		assertThat(create).contains("\"number_of_replicas\":\"0\"", "\"refresh_interval\":\"-1\"",
+				"\"geo_point\"");
+		assertThat(bodies.get("PUT /" + index + "/_settings"))
+				.contains("\"number_of_replicas\":\"1\"", "\"refresh_interval\":\"1s\"");
+		assertThat(requests).containsSubsequence("PUT /" + index,
+				"POST /" + index + "/_refresh",
+				"POST /" + index + "/_forcemerge",
+				"PUT /" + index + "/_settings",
+				"POST /_aliases");
+	}
+
+	@Test
+	void 이전_버전은_정해진_개수만_남긴다() throws IOException, InterruptedException {
+		List<String> created = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			indexManager.rebuild(ALIAS, RestaurantDocument.class, index -> {
+				created.add(index);
+				return new BulkResult(1, 0);
+			});
+			// 버전 이름이 밀리초 단위 시각이다
+			Thread.sleep(5);
+		}
+
+		assertThat(aliases.get(ALIAS)).containsExactly(created.get(2));
+		assertThat(indices).containsExactly(created.get(1), created.get(2));
+	}
+
+	@Test
+	void 색인에_실패하면_alias_를_옮기지_않고_새_인덱스를_지운다() throws IOException {
+		indices.add("restaurants-1");
+		aliases.put(ALIAS, new TreeSet<>(Set.of("restaurants-1")));
+
+		assertThatThrownBy(() -> indexManager.rebuild(ALIAS, RestaurantDocument.class,
+				index -> new BulkResult(1, 1)))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(aliases.get(ALIAS)).containsExactly("restaurants-1");
+		assertThat(indices).containsExactly("restaurants-1");
+		assertThat(requests).noneMatch(request -> request.equals("POST /_aliases"));
+	}
+
+	private synchronized void handle(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		String path = exchange.getRequestURI().getPath();
+		String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		requests.add(method + " " + path);
+		bodies.put(method + " " + path, body);
+
+		String[] parts = path.substring(1).split("/");
+		if (path.equals("/_aliases")) {
+			updateAliases(OBJECT_MAPPER.readTree(body));
+			respond(exchange, 200, Map.of("acknowledged", true));
+		} else if (parts[0].equals("_alias")) {
+			Set<String> targets = aliases.getOrDefault(parts[1], Set.of());
+			if (method.equals("HEAD")) {
+				respond(exchange, targets.isEmpty() ? 404 : 200, null);
+				return;
+			}
+			Map<String, Object> response = new LinkedHashMap<>();
+			targets.forEach(index -> response.put(index,
+					Map.of("aliases", Map.of(parts[1], Map.of()))));
+			respond(exchange, 200, response);
+		} else if (parts.length == 2) {
+			// _refresh, _forcemerge, _settings
+			if (parts[1].equals("_settings")) {
+				respond(exchange, 200, Map.of("acknowledged", true));
+			} else {
+				respond(exchange, 200,
+						Map.of("_shards", Map.of("total", 1, "successful", 1, "failed", 0)));
+			}
+		} else {
+			handleIndex(exchange, method, parts[0]);
+		}
+	}
+
+	private void handleIndex(HttpExchange exchange, String method, String name) throws IOException {
+		switch (method) {
+			case "HEAD" -> respond(exchange,
+					indices.contains(name) || aliases.containsKey(name) ? 200 : 404, null);
+			case "PUT" -> {
+				indices.add(name);
+				respond(exchange, 200,
+						Map.of("acknowledged", true, "shards_acknowledged", true, "index", name));
+			}
+			case "DELETE" -> {
+				indices.remove(name);
+				aliases.values().forEach(targets -> targets.remove(name));
+				respond(exchange, 200, Map.of("acknowledged", true));
+			}
+			default -> {
+				// GET {alias}-*
+				String prefix = name.substring(0, name.length() - 1);
+				Map<String, Object> response = new LinkedHashMap<>();
+				indices.stream().filter(index -> index.startsWith(prefix))
+						.forEach(index -> response.put(index, Map.of()));
+				respond(exchange, 200, response);
+			}
+		}
+	}
+
+	private void updateAliases(JsonNode request) {
+		for (JsonNode action : request.get("actions")) {
+			if (action.has("add")) {
+				aliases.computeIfAbsent(action.get("add").get("alias").asText(),
+						k -> new TreeSet<>()).add(action.get("add").get("index").asText());
+			} else if (action.has("remove")) {
+				aliases.get(action.get("remove").get("alias").asText())
+						.remove(action.get("remove").get("index").asText());
+			} else if (action.has("remove_index")) {
+				indices.remove(action.get("remove_index").get("index").asText());
+			}
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+		exchange.getResponseHeaders().add("X-Elastic-Product", "Elasticsearch");
+		if (body == null) {
+			exchange.sendResponseHeaders(status, -1);
+			exchange.close();
+			return;
+		}
+		byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(body);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}
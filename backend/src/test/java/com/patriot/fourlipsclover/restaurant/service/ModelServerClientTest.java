@@ -0,0 +1,155 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewSentimentResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+public class ModelServerClientTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ExecutorService callers = Executors.newFixedThreadPool(3);
+	// "경로 본문" 순으로 모델 서버가 받은 요청
+	private final List<String> requests = new CopyOnWriteArrayList<>();
+	private HttpServer modelServer;
+	private ModelServerClient client;
+
+	@AfterEach
+	void tearDown() {
+		callers.shutdownNow();
+		if (client != null) {
+			client.shutdown();
+		}
+		modelServer.stop(0);
+	}
+
+	@Test
+	void 동시에_들어온_요청은_batch_로_한_번에_보내고_응답을_요청_순서대로_나눠준다() throws Exception {
+		//given
+		start(texts -> {
+			ArrayNode results = OBJECT_MAPPER.createArrayNode();
+			texts.forEach(text -> results.addObject()
+					.put("text", text)
+					.put("sentiment", "감정:" + text));
+			return results.toString();
+		});
+		//when
+		List<ReviewSentimentResponse> responses = analyzeConcurrently("a", "b", "c");
+		//then
+		assertThat(requests).hasSize(1);
+		assertThat(requests.get(0)).startsWith("/analyze/batch ");
+		assertThat(OBJECT_MAPPER.readTree(requests.get(0).substring("/analyze/batch ".length()))
+				.path("texts")).extracting(JsonNode::asText).containsExactlyInAnyOrder("a", "b", "c");
+		assertThat(responses).extracting(ReviewSentimentResponse::getText).containsExactly("a", "b", "c");
+		assertThat(responses).extracting(ReviewSentimentResponse::getSentiment)
+				.containsExactly("감정:a", "감정:b", "감정:c");
+		assertThat(meterRegistry.get("model.server.batch.size").tag("endpoint", "/analyze").summary().max())
+				.isEqualTo(3);
+	}
+
+	@Test
+	void batch_응답_개수가_요청과_다르면_모두_실패한다() {
+		//given
+		start(texts -> "[{\"text\":\"a\",\"sentiment\":\"긍정적\"}]");
+		//when //then
+		assertThatThrownBy(() -> analyzeConcurrently("a", "b", "c"))
+				.hasRootCauseInstanceOf(IllegalStateException.class)
+				.hasRootCauseMessage("배치 응답 개수가 요청과 다릅니다: /analyze");
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	void batch_엔드포인트가_없으면_건별_호출로_바꾸고_이후에도_건별로_보낸다() throws Exception {
+		//given
+		start(null);
+		//when
+		List<ReviewSentimentResponse> first = analyzeConcurrently("a", "b", "c");
+		List<ReviewSentimentResponse> second = analyzeConcurrently("d", "e", "f");
+		//then
+		assertThat(first).extracting(ReviewSentimentResponse::getSentiment)
+				.containsExactly("감정:a", "감정:b", "감정:c");
+		assertThat(second).extracting(ReviewSentimentResponse::getSentiment)
+				.containsExactly("감정:d", "감정:e", "감정:f");
+		assertThat(requests.stream().filter(request -> request.startsWith("/analyze/batch "))).hasSize(1);
+		assertThat(requests.stream().filter(request -> request.startsWith("/analyze "))).hasSize(6);
+	}
+
+	private List<ReviewSentimentResponse> analyzeConcurrently(String... texts) throws Exception {
+		List<CompletableFuture<ReviewSentimentResponse>> futures = Arrays.stream(texts)
+				.map(text -> CompletableFuture.supplyAsync(() -> client.analyze(text), callers))
+				.toList();
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+		return futures.stream().map(CompletableFuture::join).toList();
+	}
+
+	// 세 건이 모이면 바로 보내도록 창은 길게, 최대 개수는 3 으로 둔다. batchHandler 가 null 이면 /batch 는 404 를 돌려준다
+	private void start(BatchHandler batchHandler) {
+		try {
+			modelServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		modelServer.createContext("/analyze", exchange -> {
+			String path = exchange.getRequestURI().getPath();
+			if (path.endsWith("/batch")) {
+				String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+				requests.add(path + " " + body);
+				if (batchHandler == null) {
+					exchange.sendResponseHeaders(404, -1);
+					exchange.close();
+					return;
+				}
+				List<String> texts = new ArrayList<>();
+				OBJECT_MAPPER.readTree(body).path("texts").forEach(text -> texts.add(text.asText()));
+				respond(exchange, batchHandler.handle(texts));
+				return;
+			}
+			String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			requests.add(path + " " + body);
+			String text = OBJECT_MAPPER.readTree(body).path("text").asText();
+			respond(exchange, OBJECT_MAPPER.createObjectNode()
+					.put("text", text)
+					.put("sentiment", "감정:" + text)
+					.toString());
+		});
+		modelServer.start();
+		client = new ModelServerClient(WebClient.create(), meterRegistry,
+				"http://localhost:" + modelServer.getAddress().getPort(), 5000, 3, 1000, 100);
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		byte[] response = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, response.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(response);
+		}
+	}
+
+	private interface BatchHandler {
+
+		String handle(List<String> texts);
+	}
+}
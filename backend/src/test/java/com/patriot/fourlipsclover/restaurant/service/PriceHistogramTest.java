@@ -0,0 +1,71 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.PriceDistributionResponse;
+import org.junit.jupiter.api.Test;
+
+public class PriceHistogramTest {
+
+	@Test
+	void 일인당_금액은_기존_가격대_구간으로_나뉜다() {
+		//then
+		assertThat(PriceHistogram.label(PriceHistogram.bucketOf(10000))).isEqualTo("1 ~ 10000");
+		assertThat(PriceHistogram.label(PriceHistogram.bucketOf(10001))).isEqualTo("10000 ~ 20000");
+		assertThat(PriceHistogram.label(PriceHistogram.bucketOf(20000))).isEqualTo("10000 ~ 20000");
+		assertThat(PriceHistogram.label(PriceHistogram.bucketOf(100000))).isEqualTo("90000 ~ 100000");
+		assertThat(PriceHistogram.label(PriceHistogram.bucketOf(100001))).isEqualTo("100000 ~");
+	}
+
+	@Test
+	void 결제는_1인당_금액_구간에_더하고_계산할_수_없는_결제는_무시한다() {
+		//when
+		PriceHistogram histogram = PriceHistogram.empty()
+				.add(30000, 2)
+				.add(8000, 1)
+				.add(null, 2)
+				.add(20000, 0);
+		//then
+		assertThat(histogram.paymentCount()).isEqualTo(2);
+		assertThat(histogram.personnelSum()).isEqualTo(3);
+		assertThat(histogram.mean()).isEqualTo(11500);
+		assertThat(histogram.distribution()).containsExactly(entry("1 ~ 10000", 1),
+				entry("10000 ~ 20000", 1));
+	}
+
+	@Test
+	void 백분위는_구간_안에서_선형_보간한다() {
+		//given
+		PriceHistogram histogram = PriceHistogram.empty();
+		for (int i = 0; i < 4; i++) {
+			histogram = histogram.add(15000, 1);
+		}
+		histogram = histogram.add(150000, 1);
+		//then
+		assertThat(histogram.percentile(50)).isEqualTo(16250);
+		assertThat(histogram.percentile(80)).isEqualTo(20000);
+		assertThat(histogram.percentile(100)).isEqualTo(100000);
+		assertThat(histogram.mostFrequentRange()).isEqualTo("10000 ~ 20000");
+	}
+
+	@Test
+	void 결제가_같은_구간이_여럿이면_낮은_구간이_가장_많은_구간이다() {
+		//when
+		PriceHistogram histogram = PriceHistogram.empty().add(45000, 1).add(5000, 1);
+		//then
+		assertThat(histogram.mostFrequentRange()).isEqualTo("1 ~ 10000");
+	}
+
+	@Test
+	void 결제가_없으면_빈_분포를_응답한다() {
+		//when
+		PriceDistributionResponse response = PriceHistogramService.toResponse(PriceHistogram.empty());
+		//then
+		assertThat(response.getPaymentCount()).isZero();
+		assertThat(response.getMeanAmount()).isNull();
+		assertThat(response.getMostFrequentRange()).isNull();
+		assertThat(response.getPriceRangeDistribution()).isEmpty();
+		assertThat(response.getPercentiles()).isEmpty();
+	}
+}
@@ -0,0 +1,43 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+public class RankedSkipListTest {
+
+	@Test
+	void 추가_삭제를_반복해도_순위와_구간이_정렬결과와_같다() {
+		Random random = new Random(42);
+		RankedSkipList<Integer> skipList = new RankedSkipList<>(Comparator.naturalOrder());
+		TreeSet<Integer> expected = new TreeSet<>();
+
+		for (int i = 0; i < 20000; i++) {
+			int value = random.nextInt(1000);
+			if (random.nextBoolean()) {
+				if (expected.add(value)) {
+					skipList.add(value);
+				}
+			} else {
+				assertThat(skipList.remove(value)).isEqualTo(expected.remove(value));
+			}
+
+			if (i % 100 == 0 && !expected.isEmpty()) {
+				List<Integer> sorted = new ArrayList<>(expected);
+				int rank = 1 + random.nextInt(sorted.size());
+				assertThat(skipList.size()).isEqualTo(sorted.size());
+				assertThat(skipList.get(rank)).isEqualTo(sorted.get(rank - 1));
+				assertThat(skipList.rankOf(sorted.get(rank - 1))).isEqualTo(rank);
+				assertThat(skipList.range(rank, rank + 50))
+						.isEqualTo(sorted.subList(rank - 1, Math.min(rank + 50, sorted.size())));
+			}
+		}
+		assertThat(skipList.rankOf(-1)).isZero();
+		assertThat(skipList).containsExactlyElementsOf(expected);
+	}
+}
@@ -0,0 +1,75 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+public class RankingModelRegistryTest {
+
+	@TempDir
+	Path modelDir;
+
+	@Test
+	void 버전별로_저장하고_이전_버전으로_되돌릴수_있다() throws Exception {
+		//given
+		RankingModelRegistry registry = new RankingModelRegistry(modelDir.toString(), 2);
+		RandomForest model = trainedModel();
+
+		//when
+		int first = registry.save(model);
+		registry.activate(first);
+		int second = registry.save(model);
+		registry.activate(second);
+		int third = registry.save(model);
+		registry.activate(third);
+
+		//then
+		assertThat(registry.activeVersion()).contains(third);
+		// 최근 2개만 남는다
+		assertThat(registry.versions()).containsExactly(second, third);
+		assertThat(registry.previousVersion(third)).contains(second);
+		assertThat(registry.load(second).getNumIterations()).isEqualTo(model.getNumIterations());
+	}
+
+	@Test
+	void 체크섬이_다르면_로드하지_않는다() throws Exception {
+		//given
+		RankingModelRegistry registry = new RankingModelRegistry(modelDir.toString(), 5);
+		int version = registry.save(trainedModel());
+		Path artifact = modelDir.resolve("random_forest_model-v" + version + ".ser");
+		byte[] bytes = Files.readAllBytes(artifact);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(artifact, bytes);
+
+		//when & then
+		assertThatThrownBy(() -> registry.load(version)).isInstanceOf(IOException.class);
+	}
+
+	private RandomForest trainedModel() throws Exception {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("visitCount"));
+		attributes.add(new Attribute("score"));
+		Instances instances = new Instances("RestaurantRanking", attributes, 20);
+		instances.setClassIndex(1);
+		Random random = new Random(1);
+		for (int i = 0; i < 20; i++) {
+			double visitCount = random.nextInt(100);
+			instances.add(new DenseInstance(1.0, new double[]{visitCount, Math.log1p(visitCount)}));
+		}
+		RandomForest model = new RandomForest();
+		model.setNumIterations(5);
+		model.buildClassifier(instances);
+		return model;
+	}
+}
@@ -0,0 +1,65 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class RestaurantChangeTrackerTest {
+
+	private final RestaurantChangeTracker tracker = new RestaurantChangeTracker(
+			new RestaurantRankingService(null, null, null, null));
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void 트랜잭션_안에서_표시한_식당은_커밋_후에_색인_대상이_된다() {
+		//given
+		TransactionSynchronizationManager.initSynchronization();
+		tracker.markChanged(1);
+		tracker.markChanged(2);
+		//when
+		List<Integer> beforeCommit = tracker.drainChanged();
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(TransactionSynchronization::afterCommit);
+		//then
+		assertThat(beforeCommit).isEmpty();
+		assertThat(tracker.drainChanged()).containsExactlyInAnyOrder(1, 2);
+		assertThat(tracker.drainChanged()).isEmpty();
+	}
+
+	@Test
+	void 롤백되면_색인_대상에_남기지_않는다() {
+		//given
+		TransactionSynchronizationManager.initSynchronization();
+		tracker.markChanged(1);
+		//when
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(
+				TransactionSynchronization.STATUS_ROLLED_BACK));
+		//then
+		assertThat(tracker.drainChanged()).isEmpty();
+	}
+
+	@Test
+	void 색인에_실패해_되돌린_식당은_다음_증분_색인에서_다시_꺼낸다() {
+		//given
+		tracker.markChanged(1);
+		List<Integer> drained = tracker.drainChanged();
+		tracker.markChanged(2);
+		//when
+		tracker.restore(drained);
+		//then
+		assertThat(tracker.drainChanged()).containsExactlyInAnyOrder(1, 2);
+	}
+}
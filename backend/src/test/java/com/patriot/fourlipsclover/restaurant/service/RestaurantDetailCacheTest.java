@@ -0,0 +1,110 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantDetailCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RestaurantDetailCache cache = new RestaurantDetailCache(null, meterRegistry, true,
+			60, 10, 1000, false, 600, 30);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void 동시에_같은_식당을_찾으면_한_번만_읽는다() throws Exception {
+		//given
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			//when
+			List<Future<RestaurantResponse>> results = new ArrayList<>();
+			results.add(executor.submit(() -> cache.get("1", id -> {
+				loading.countDown();
+				await(release);
+				return restaurant(id);
+			})));
+			loading.await(5, TimeUnit.SECONDS);
+			for (int i = 0; i < 7; i++) {
+				results.add(executor.submit(() -> cache.get("1", this::load)));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			//then
+			for (Future<RestaurantResponse> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS).getKakaoPlaceId()).isEqualTo("1");
+			}
+			assertThat(loads).hasValue(0);
+			// 늦게 도착한 요청은 읽기가 끝난 뒤의 로컬 적중으로 센다
+			assertThat(count("coalesced") + count("hit")).isEqualTo(7);
+			assertThat(count("miss")).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void 없는_식당도_캐시하고_evict_하면_다시_읽는다() {
+		//when
+		RestaurantResponse first = cache.get("404", id -> {
+			loads.incrementAndGet();
+			return null;
+		});
+		RestaurantResponse second = cache.get("404", this::load);
+		cache.evict(List.of("404"));
+		RestaurantResponse third = cache.get("404", this::load);
+		//then
+		assertThat(first).isNull();
+		assertThat(second).isNull();
+		assertThat(third.getKakaoPlaceId()).isEqualTo("404");
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void 읽기_실패는_캐시하지_않는다() {
+		//when
+		assertThatThrownBy(() -> cache.get("1", id -> {
+			throw new IllegalStateException("검색 실패");
+		})).isInstanceOf(IllegalStateException.class);
+		RestaurantResponse response = cache.get("1", this::load);
+		//then
+		assertThat(response.getKakaoPlaceId()).isEqualTo("1");
+		assertThat(loads).hasValue(1);
+	}
+
+	private double count(String result) {
+		return meterRegistry.get("restaurant.detail.cache.requests")
+				.tag("tier", "local")
+				.tag("result", result)
+				.counter().count();
+	}
+
+	private RestaurantResponse load(String kakaoPlaceId) {
+		loads.incrementAndGet();
+		return restaurant(kakaoPlaceId);
+	}
+
+	private RestaurantResponse restaurant(String kakaoPlaceId) {
+		return RestaurantResponse.builder().kakaoPlaceId(kakaoPlaceId).placeName("식당").build();
+	}
+
+	private void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
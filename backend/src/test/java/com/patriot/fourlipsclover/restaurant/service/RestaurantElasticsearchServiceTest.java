@@ -0,0 +1,223 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.ClosePointInTimeRequest;
+import co.elastic.clients.elasticsearch.core.ClosePointInTimeResponse;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeRequest;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import com.patriot.fourlipsclover.restaurant.document.RestaurantDocument;
+import com.patriot.fourlipsclover.restaurant.dto.request.RestaurantSearchCursor;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantPageResponse;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantSummaryResponse;
+import com.patriot.fourlipsclover.restaurant.mapper.RestaurantSearchMapper;
+import com.patriot.fourlipsclover.tag.entity.Tag;
+import com.patriot.fourlipsclover.tag.repository.TagRepository;
+import com.patriot.fourlipsclover.tag.service.TagDictionary;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class RestaurantElasticsearchServiceTest {
+
+	private final List<Tag> tags = new ArrayList<>(List.of(tag(1L, "분위기"), tag(2L, "가성비")));
+	private final TagDictionary tagDictionary = new TagDictionary(tagRepository(), 0);
+	private final FakeElasticsearchClient elasticsearchClient = new FakeElasticsearchClient();
+	private final RestaurantElasticsearchService service = new RestaurantElasticsearchService(elasticsearchClient,
+			Mappers.getMapper(RestaurantSearchMapper.class), tagDictionary, new TagScoringScripts(null) {
+				@Override
+				public void ensureRegistered() {
+				}
+			}, null, null);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "pageDefaultSize", 20);
+		ReflectionTestUtils.setField(service, "pageMaxSize", 100);
+		ReflectionTestUtils.setField(service, "pitKeepAlive", "1m");
+	}
+
+	@Test
+	void 한_페이지로_끝나는_검색은_PIT_를_열지_않는다() {
+		//given
+		elasticsearchClient.responses.add(response(null, hit(1, 1.0), hit(2, 1.0)));
+		//when
+		RestaurantPageResponse page = service.searchByTagsAndQueryPage("고기", null, null, 2, false);
+		//then
+		assertThat(restaurantIds(page)).containsExactly(1, 2);
+		assertThat(page.isHasNext()).isFalse();
+		assertThat(page.getNextCursor()).isNull();
+		assertThat(page.getTotal()).isEqualTo(2L);
+		SearchRequest request = elasticsearchClient.searches.get(0);
+		assertThat(request.index()).containsExactly(RestaurantIndexer.INDEX);
+		assertThat(request.pit()).isNull();
+		assertThat(sortFields(request)).containsExactly("_score", "restaurantId");
+		assertThat(elasticsearchClient.pitCalls).isEmpty();
+	}
+
+	@Test
+	void 다음_페이지가_있을_때만_PIT_를_열고_점수가_같아도_커서로_빠짐없이_이어_읽는다() {
+		//given
+		elasticsearchClient.responses.add(response(null, hit(1, 1.0), hit(2, 1.0), hit(3, 1.0)));
+		elasticsearchClient.responses.add(response("pit-2", hit(3, 1.0, 7L)));
+		//when
+		RestaurantPageResponse first = service.searchByTagsAndQueryPage("고기", null, null, 2, false);
+		//then
+		assertThat(restaurantIds(first)).containsExactly(1, 2);
+		assertThat(first.isHasNext()).isTrue();
+		assertThat(elasticsearchClient.pitCalls).containsExactly("open " + RestaurantIndexer.INDEX);
+		RestaurantSearchCursor cursor = RestaurantSearchCursor.decode(first.getNextCursor());
+		assertThat(cursor.getPitId()).isEqualTo("pit-1");
+		assertThat(values(cursor.getSearchAfter())).containsExactly(1.0, 2L, Long.MAX_VALUE);
+		//when
+		RestaurantPageResponse second = service.searchByTagsAndQueryPage("고기", null, first.getNextCursor(), 2,
+				false);
+		//then
+		assertThat(restaurantIds(second)).containsExactly(3);
+		assertThat(second.isHasNext()).isFalse();
+		assertThat(second.getNextCursor()).isNull();
+		assertThat(second.getTotal()).isNull();
+		SearchRequest request = elasticsearchClient.searches.get(1);
+		assertThat(request.index()).isEmpty();
+		assertThat(request.pit().id()).isEqualTo("pit-1");
+		assertThat(sortFields(request)).containsExactly("_score", "restaurantId", "_shard_doc");
+		assertThat(values(request.searchAfter())).containsExactly(1.0, 2L, Long.MAX_VALUE);
+		// 응답이 돌려준 PIT ID 로 닫는다
+		assertThat(elasticsearchClient.pitCalls).containsExactly("open " + RestaurantIndexer.INDEX, "close pit-2");
+	}
+
+	@Test
+	void 순서와_중복이_달라도_같은_태그_조합이면_캐시된_쿼리를_쓴다() throws IOException {
+		//given
+		tagDictionary.refresh();
+		Query first = service.tagQuery(List.of(1L, 2L));
+		//when
+		Query second = service.tagQuery(List.of(2L, 1L, 2L));
+		//then
+		assertThat(second).isSameAs(first);
+		assertThat(tagNames(first)).containsExactly("분위기", "가성비");
+	}
+
+	@Test
+	void 태그_이름이_바뀌면_새_쿼리를_만든다() throws IOException {
+		//given
+		tagDictionary.refresh();
+		Query before = service.tagQuery(List.of(1L));
+		tags.set(0, tag(1L, "데이트"));
+		tagDictionary.refresh();
+		//when
+		Query after = service.tagQuery(List.of(1L));
+		//then
+		assertThat(after).isNotSameAs(before);
+		assertThat(tagNames(after)).containsExactly("데이트");
+	}
+
+	@Test
+	void 모르는_태그가_사전에_추가되면_캐시된_쿼리_대신_새로_읽은_사전으로_만든다() throws IOException {
+		//given
+		tagDictionary.refresh();
+		Query unknown = service.tagQuery(List.of(1L, 3L));
+		tags.add(tag(3L, "혼밥"));
+		//when
+		Query added = service.tagQuery(List.of(1L, 3L));
+		//then
+		assertThat(tagNames(unknown)).containsExactly("분위기");
+		assertThat(tagNames(added)).containsExactly("분위기", "혼밥");
+	}
+
+	private static List<Integer> restaurantIds(RestaurantPageResponse page) {
+		return page.getRestaurants().stream().map(RestaurantSummaryResponse::getRestaurantId).toList();
+	}
+
+	private static List<String> sortFields(SearchRequest request) {
+		return request.sort().stream()
+				.map(sort -> sort.isScore() ? "_score" : sort.field().field())
+				.toList();
+	}
+
+	private static List<Object> values(List<FieldValue> values) {
+		return values.stream().map(FieldValue::_get).toList();
+	}
+
+	private static Hit<RestaurantDocument> hit(int restaurantId, double score, long... shardDoc) {
+		List<FieldValue> sort = new ArrayList<>(List.of(FieldValue.of(score), FieldValue.of(restaurantId)));
+		for (long value : shardDoc) {
+			sort.add(FieldValue.of(value));
+		}
+		return Hit.of(h -> h.index(RestaurantIndexer.INDEX)
+				.id(String.valueOf(restaurantId))
+				.source(RestaurantDocument.builder().restaurantId(restaurantId).name("식당" + restaurantId).build())
+				.sort(sort));
+	}
+
+	@SafeVarargs
+	private static SearchResponse<RestaurantDocument> response(String pitId, Hit<RestaurantDocument>... hits) {
+		return SearchResponse.of(r -> r.took(1)
+				.timedOut(false)
+				.shards(s -> s.total(1).successful(1).failed(0))
+				.hits(h -> h.hits(List.of(hits))
+						.total(t -> t.value(hits.length).relation(TotalHitsRelation.Eq)))
+				.pitId(pitId));
+	}
+
+	private List<String> tagNames(Query query) {
+		return query.bool().should().stream()
+				.map(should -> should.nested().query().functionScore().query().match().query().stringValue())
+				.toList();
+	}
+
+	private TagRepository tagRepository() {
+		TagRepository tagRepository = mock(TagRepository.class);
+		given(tagRepository.findAll()).willAnswer(invocation -> List.copyOf(tags));
+		return tagRepository;
+	}
+
+	private static Tag tag(Long tagId, String name) {
+		return Tag.builder().tagId(tagId).name(name).build();
+	}
+
+	// 검색 요청과 PIT 열기/닫기를 기록하고 미리 넣어 둔 응답을 차례로 돌려준다
+	private static class FakeElasticsearchClient extends ElasticsearchClient {
+
+		private final List<SearchRequest> searches = new ArrayList<>();
+		private final List<SearchResponse<RestaurantDocument>> responses = new ArrayList<>();
+		private final List<String> pitCalls = new ArrayList<>();
+
+		FakeElasticsearchClient() {
+			super(null);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <TDocument> SearchResponse<TDocument> search(SearchRequest request, Class<TDocument> tDocumentClass) {
+			searches.add(request);
+			return (SearchResponse<TDocument>) responses.remove(0);
+		}
+
+		@Override
+		public OpenPointInTimeResponse openPointInTime(OpenPointInTimeRequest request) {
+			pitCalls.add("open " + String.join(",", request.index()));
+			return OpenPointInTimeResponse.of(o -> o.id("pit-1")
+					.shards(s -> s.total(1).successful(1).failed(0)));
+		}
+
+		@Override
+		public ClosePointInTimeResponse closePointInTime(ClosePointInTimeRequest request) {
+			pitCalls.add("close " + request.id());
+			return ClosePointInTimeResponse.of(c -> c.succeeded(true).numFreed(1));
+		}
+	}
+}
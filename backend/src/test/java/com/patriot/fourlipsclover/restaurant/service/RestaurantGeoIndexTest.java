@@ -0,0 +1,58 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantGeoIndexTest {
+
+	@Test
+	void 반경검색_결과는_전체_거리계산_결과와_같다() {
+		//given
+		Random random = new Random(11);
+		RestaurantGeoIndex geoIndex = new RestaurantGeoIndex(0.01);
+		Map<Integer, double[]> coordinates = new HashMap<>();
+		List<Object[]> rows = new ArrayList<>();
+		for (int restaurantId = 1; restaurantId <= 20000; restaurantId++) {
+			double x = 126.7 + random.nextDouble() * 0.3;
+			double y = 35.0 + random.nextDouble() * 0.3;
+			coordinates.put(restaurantId, new double[]{x, y});
+			rows.add(new Object[]{restaurantId, x, y});
+		}
+		geoIndex.replaceAll(rows);
+		// CDC 로 들어온 이동/삭제
+		geoIndex.upsert(1, 126.85, 35.15);
+		coordinates.put(1, new double[]{126.85, 35.15});
+		geoIndex.remove(2);
+		coordinates.remove(2);
+
+		for (int i = 0; i < 50; i++) {
+			double latitude = 35.0 + random.nextDouble() * 0.3;
+			double longitude = 126.7 + random.nextDouble() * 0.3;
+			int radius = 200 + random.nextInt(3000);
+			//when
+			List<Integer> found = geoIndex.findWithin(latitude, longitude, radius);
+			//then
+			List<Integer> expected = coordinates.entrySet().stream()
+					.filter(e -> distanceKm(latitude, longitude, e.getValue()) <= radius / 1000.0)
+					.sorted((a, b) -> Double.compare(distanceKm(latitude, longitude, a.getValue()),
+							distanceKm(latitude, longitude, b.getValue())))
+					.map(Map.Entry::getKey)
+					.toList();
+			assertThat(found).isEqualTo(expected);
+		}
+		assertThat(geoIndex.findWithin(35.15, 126.85, 1)).contains(1);
+	}
+
+	// RestaurantJpaRepository.findNearbyRestaurants 와 같은 식
+	private double distanceKm(double latitude, double longitude, double[] xy) {
+		return 6371 * Math.acos(Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(xy[1]))
+				* Math.cos(Math.toRadians(xy[0]) - Math.toRadians(longitude))
+				+ Math.sin(Math.toRadians(latitude)) * Math.sin(Math.toRadians(xy[1])));
+	}
+}
@@ -0,0 +1,199 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.patriot.fourlipsclover.restaurant.dto.kafka.RestaurantKafkaDto;
+import com.patriot.fourlipsclover.restaurant.entity.City;
+import com.patriot.fourlipsclover.restaurant.entity.FoodCategory;
+import com.patriot.fourlipsclover.restaurant.entity.Restaurant;
+import com.patriot.fourlipsclover.restaurant.repository.CityRepository;
+import com.patriot.fourlipsclover.restaurant.repository.FoodCategoryRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantBatchRepository;
+import com.patriot.fourlipsclover.restaurant.repository.RestaurantJpaRepository;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * CDC 이벤트 배치가 기존 행을 IN 쿼리로 읽고 JDBC 배치 upsert 로 쓰는 흐름을 H2 MySQL 모드로 확인한다.
+ */
+public class RestaurantKafkaBatchTest {
+
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(
+			new DriverManagerDataSource("jdbc:h2:mem:restaurant-kafka-batch;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+	private final List<String> queries = new ArrayList<>();
+	private final RestaurantGeoIndex geoIndex = new RestaurantGeoIndex(0.01);
+	private RestaurantService restaurantService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("CREATE TABLE restaurant (restaurant_id INT PRIMARY KEY, kakao_place_id VARCHAR(255), "
+				+ "place_name VARCHAR(255), address_name VARCHAR(255), road_address_name VARCHAR(255), "
+				+ "category_name VARCHAR(255), phone VARCHAR(255), place_url VARCHAR(255), x DOUBLE, y DOUBLE, "
+				+ "city_id BIGINT, food_category_id BIGINT, updated_at TIMESTAMP, cdc_position BIGINT)");
+		restaurantService = new RestaurantService(restaurants(), null, null, null, null, null, null, cities(),
+				foodCategories(), null, new RestaurantBatchRepository(jdbcTemplate), null, null, null, null, null,
+				new RestaurantChangeTracker(new RestaurantRankingService(null, null, null, null)), geoIndex, null);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP TABLE restaurant");
+	}
+
+	@Test
+	void 저장된_위치보다_오래된_이벤트는_건너뛰고_나머지만_쓴다() {
+		//given
+		insert(1, "새 이름", 10L);
+		//when
+		restaurantService.processKafkaBatch(List.of(
+				event(1, "u", 5L).placeName("옛 이름").build(),
+				event(2, "c", 5L).placeName("새 식당").kakaoPlaceId("2").build()));
+		//then
+		assertThat(placeNames()).containsExactly("새 이름", "새 식당");
+		assertThat(jdbcTemplate.queryForObject("SELECT cdc_position FROM restaurant WHERE restaurant_id = 1",
+				Long.class)).isEqualTo(10L);
+	}
+
+	@Test
+	void 배치의_기존_행과_도시_카테고리는_각각_IN_쿼리_한_번으로_읽는다() {
+		//given
+		insert(1, "식당1", 1L);
+		insert(2, "식당2", 1L);
+		//when
+		restaurantService.processKafkaBatch(List.of(
+				event(1, "u", 2L).cityId(11).foodCategoryId(21).build(),
+				event(2, "u", 2L).cityId(11).build(),
+				event(3, "c", 2L).kakaoPlaceId("3").placeName("식당3").cityId(12).foodCategoryId(21).build(),
+				event(4, "d", 2L).build()));
+		//then
+		assertThat(queries).containsExactly("restaurant [1, 2, 3]", "city [11, 12]", "food_category [21]");
+		assertThat(jdbcTemplate.query("SELECT restaurant_id, city_id, food_category_id FROM restaurant "
+				+ "ORDER BY restaurant_id", (rs, rowNum) -> rs.getInt("restaurant_id") + ":"
+				+ rs.getObject("city_id") + ":" + rs.getObject("food_category_id")))
+				.containsExactly("1:11:21", "2:11:null", "3:12:21");
+	}
+
+	@Test
+	void 이벤트에_없는_필드는_기존_값을_유지하고_ON_DUPLICATE_KEY_UPDATE_로_덮어쓴다() {
+		//given
+		jdbcTemplate.update("INSERT INTO restaurant (restaurant_id, kakao_place_id, place_name, address_name, phone, "
+				+ "x, y, city_id, cdc_position) VALUES (1, '1', '식당', '서울시', '02-000-0000', 127.0, 37.5, 11, 1)");
+		jdbcTemplate.update("INSERT INTO restaurant (restaurant_id, kakao_place_id, place_name, x, y, cdc_position) "
+				+ "VALUES (2, '2', '식당2', 128.0, 35.0, 1)");
+		//when
+		restaurantService.processKafkaBatch(List.of(
+				event(1, "u", 2L).placeName("새 이름").x(127.1).y(37.6).build(),
+				event(2, "u", 2L).x(129.0).build(),
+				event(5, "c", 2L).kakaoPlaceId("5").placeName("새 식당").build()));
+		//then
+		assertThat(jdbcTemplate.queryForMap("SELECT place_name, address_name, phone, x, y, city_id, cdc_position "
+				+ "FROM restaurant WHERE restaurant_id = 1"))
+				.containsEntry("PLACE_NAME", "새 이름")
+				.containsEntry("ADDRESS_NAME", "서울시")
+				.containsEntry("PHONE", "02-000-0000")
+				.containsEntry("X", 127.1)
+				.containsEntry("Y", 37.6)
+				.containsEntry("CITY_ID", 11L)
+				.containsEntry("CDC_POSITION", 2L);
+		// 좌표는 x, y 가 함께 올 때만 바꾼다
+		assertThat(jdbcTemplate.queryForMap("SELECT x, y FROM restaurant WHERE restaurant_id = 2"))
+				.containsEntry("X", 128.0)
+				.containsEntry("Y", 35.0);
+		assertThat(placeNames()).containsExactly("새 이름", "식당2", "새 식당");
+		assertThat(geoIndex.findWithin(37.6, 127.1, 100)).containsExactly(1);
+	}
+
+	@Test
+	void 데이터가_같은_이벤트를_다시_받으면_쓰지_않는다() {
+		//given
+		insert(1, "식당1", 1L);
+		jdbcTemplate.update("UPDATE restaurant SET x = 127.0, y = 37.5, updated_at = TIMESTAMP '2025-01-01 12:00:00'");
+		//when
+		restaurantService.processKafkaBatch(List.of(event(1, "u", 5L).kakaoPlaceId("1").placeName("식당1").build()));
+		//then
+		assertThat(jdbcTemplate.queryForMap("SELECT updated_at, cdc_position FROM restaurant WHERE restaurant_id = 1"))
+				.containsEntry("UPDATED_AT", Timestamp.valueOf("2025-01-01 12:00:00"))
+				.containsEntry("CDC_POSITION", 1L);
+		// 반영했다면 커밋 후 공간 인덱스에 들어간다
+		assertThat(geoIndex.size()).isZero();
+	}
+
+	private void insert(int restaurantId, String placeName, Long cdcPosition) {
+		jdbcTemplate.update("INSERT INTO restaurant (restaurant_id, kakao_place_id, place_name, cdc_position) "
+				+ "VALUES (?, ?, ?, ?)", restaurantId, String.valueOf(restaurantId), placeName, cdcPosition);
+	}
+
+	private List<String> placeNames() {
+		return jdbcTemplate.queryForList("SELECT place_name FROM restaurant ORDER BY restaurant_id", String.class);
+	}
+
+	private static RestaurantKafkaDto.RestaurantKafkaDtoBuilder event(int restaurantId, String op, Long position) {
+		return RestaurantKafkaDto.builder().restaurantId(restaurantId).op(op).sourcePosition(position);
+	}
+
+	// findAllById 를 restaurant 테이블의 IN 쿼리로 답한다
+	private RestaurantJpaRepository restaurants() {
+		RestaurantJpaRepository restaurants = mock(RestaurantJpaRepository.class);
+		given(restaurants.findAllById(any())).willAnswer(invocation -> {
+			List<Object> ids = new ArrayList<>();
+			invocation.<Iterable<?>>getArgument(0).forEach(ids::add);
+			queries.add("restaurant " + ids);
+			if (ids.isEmpty()) {
+				return List.of();
+			}
+			String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+			return jdbcTemplate.query("SELECT * FROM restaurant WHERE restaurant_id IN (" + placeholders + ")",
+					(rs, rowNum) -> {
+						Restaurant restaurant = new Restaurant();
+						restaurant.setRestaurantId(rs.getInt("restaurant_id"));
+						restaurant.setKakaoPlaceId(rs.getString("kakao_place_id"));
+						restaurant.setPlaceName(rs.getString("place_name"));
+						restaurant.setAddressName(rs.getString("address_name"));
+						restaurant.setPhone(rs.getString("phone"));
+						restaurant.setX(rs.getObject("x", Double.class));
+						restaurant.setY(rs.getObject("y", Double.class));
+						restaurant.setCdcPosition(rs.getObject("cdc_position", Long.class));
+						Long cityId = rs.getObject("city_id", Long.class);
+						if (cityId != null) {
+							restaurant.setCity(new City(cityId, "도시", null));
+						}
+						return restaurant;
+					}, ids.toArray());
+		});
+		return restaurants;
+	}
+
+	private CityRepository cities() {
+		CityRepository cities = mock(CityRepository.class);
+		given(cities.findAllById(any())).willAnswer(invocation -> {
+			List<City> found = new ArrayList<>();
+			invocation.<Iterable<?>>getArgument(0)
+					.forEach(id -> found.add(new City(((Number) id).longValue(), "도시", null)));
+			queries.add("city " + found.stream().map(City::getCityId).toList());
+			return found;
+		});
+		return cities;
+	}
+
+	private FoodCategoryRepository foodCategories() {
+		FoodCategoryRepository foodCategories = mock(FoodCategoryRepository.class);
+		given(foodCategories.findAllById(any())).willAnswer(invocation -> {
+			List<FoodCategory> found = new ArrayList<>();
+			invocation.<Iterable<?>>getArgument(0)
+					.forEach(id -> found.add(new FoodCategory((Integer) id, "한식", null)));
+			queries.add("food_category " + found.stream().map(FoodCategory::getFoodCategoryId).toList());
+			return found;
+		});
+		return foodCategories;
+	}
+}
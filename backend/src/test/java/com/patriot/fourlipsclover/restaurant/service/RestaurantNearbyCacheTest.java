@@ -0,0 +1,109 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantNearbyCacheTest {
+
+	private final List<RestaurantResponse> restaurants = new ArrayList<>();
+	private final List<double[]> loads = new ArrayList<>();
+	// 셀 안쪽의 좌표
+	private double lat;
+	private double lon;
+
+	@BeforeEach
+	void setUp() {
+		Random random = new Random(7);
+		for (int restaurantId = 1; restaurantId <= 2000; restaurantId++) {
+			restaurants.add(restaurant(restaurantId, 37.54 + random.nextDouble() * 0.06,
+					126.95 + random.nextDouble() * 0.06));
+		}
+		double[] bounds = RestaurantNearbyCache.decode(RestaurantNearbyCache.geohash(37.5665, 126.978, 6));
+		lat = (bounds[0] + bounds[1]) / 2;
+		lon = (bounds[2] + bounds[3]) / 2;
+	}
+
+	@Test
+	void 같은_셀의_비슷한_요청은_한_번만_검색하고_요청마다_정확한_거리로_거른다() {
+		//given
+		RestaurantNearbyCache cache = cache(2000);
+		//when
+		List<RestaurantResponse> first = cache.find(lat, lon, 700, 100, this::load);
+		List<RestaurantResponse> second = cache.find(lat + 0.001, lon - 0.001, 800, 100, this::load);
+		//then
+		assertThat(loads).hasSize(1);
+		assertThat(first).isEqualTo(exact(lat, lon, 700, 100));
+		assertThat(second).isEqualTo(exact(lat + 0.001, lon - 0.001, 800, 100));
+	}
+
+	@Test
+	void 잘린_결과가_요청_반경을_덮지_못하면_바로_검색한다() {
+		//given
+		RestaurantNearbyCache cache = cache(20);
+		//when
+		List<RestaurantResponse> found = cache.find(lat, lon, 900, 100, this::load);
+		//then
+		assertThat(loads).hasSize(2);
+		assertThat(loads.get(1)).containsExactly(lat, lon, 900);
+		assertThat(found).isEqualTo(exact(lat, lon, 900, 100));
+	}
+
+	@Test
+	void 가장_큰_구간보다_넓은_반경은_캐시하지_않는다() {
+		//given
+		RestaurantNearbyCache cache = cache(2000);
+		//when
+		cache.find(lat, lon, 10000, 100, this::load);
+		cache.find(lat, lon, 10000, 100, this::load);
+		//then
+		assertThat(loads).hasSize(2);
+	}
+
+	@Test
+	void 변경된_식당이나_위치를_덮는_항목은_지운다() {
+		//given
+		RestaurantNearbyCache cache = cache(2000);
+		RestaurantResponse cached = cache.find(lat, lon, 500, 100, this::load).get(0);
+		//when
+		cache.evict(List.of(cached.getRestaurantId()), List.of());
+		cache.find(lat, lon, 500, 100, this::load);
+		cache.evict(List.of(), List.<double[]>of(new double[]{lat + 0.002, lon}));
+		cache.find(lat, lon, 500, 100, this::load);
+		// 멀리 떨어진 변경은 영향이 없다
+		cache.evict(List.of(-1), List.<double[]>of(new double[]{35.15, 126.85}));
+		cache.find(lat, lon, 500, 100, this::load);
+		//then
+		assertThat(loads).hasSize(3);
+	}
+
+	private RestaurantNearbyCache cache(int supersetSize) {
+		return new RestaurantNearbyCache(null, new ObjectMapper(), true, 6,
+				new int[]{500, 1000, 3000}, supersetSize, 30, 1000, false, 120);
+	}
+
+	private List<RestaurantResponse> load(double lat, double lon, int radius, int size) {
+		loads.add(new double[]{lat, lon, radius});
+		return exact(lat, lon, radius, size);
+	}
+
+	private List<RestaurantResponse> exact(double lat, double lon, int radius, int size) {
+		return restaurants.stream()
+				.filter(r -> RestaurantNearbyCache.distance(lat, lon, r.getY(), r.getX()) <= radius)
+				.sorted(Comparator.comparingDouble(
+						r -> RestaurantNearbyCache.distance(lat, lon, r.getY(), r.getX())))
+				.limit(size)
+				.toList();
+	}
+
+	private RestaurantResponse restaurant(int restaurantId, double lat, double lon) {
+		return RestaurantResponse.builder().restaurantId(restaurantId).x(lon).y(lat).build();
+	}
+}
@@ -0,0 +1,24 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantRankingServiceTest {
+
+	@Test
+	void 검증용_식당은_식당_ID_로_약_20퍼센트를_고른다() {
+		//when
+		long holdout = IntStream.rangeClosed(1, 10000)
+				.filter(RestaurantRankingService::isHoldout)
+				.count();
+		long consecutive = IntStream.rangeClosed(1, 10000)
+				.filter(id -> RestaurantRankingService.isHoldout(id) && RestaurantRankingService.isHoldout(id + 1))
+				.count();
+		//then
+		assertThat(holdout).isBetween(1800L, 2200L);
+		// 연속된 ID 구간이 통째로 한쪽에 몰리지 않는다
+		assertThat(consecutive).isLessThan(holdout / 2);
+	}
+}
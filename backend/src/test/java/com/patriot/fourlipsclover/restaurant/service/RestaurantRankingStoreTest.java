@@ -0,0 +1,77 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantRankingResponse;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantRankingStoreTest {
+
+	private RestaurantRankingStore rankingStore;
+
+	@BeforeEach
+	void setUp() {
+		rankingStore = new RestaurantRankingStore();
+		rankingStore.replaceAll(List.of(
+				ranking(1, "한식", 30.0),
+				ranking(2, "한식", 50.0),
+				ranking(3, "일식", 40.0),
+				ranking(4, "일식", 10.0)
+		), Map.of(1, 1, 2, 1, 3, 2, 4, 2));
+	}
+
+	@Test
+	void 상위_N개는_점수순으로_순위가_매겨진다() {
+		List<RestaurantRankingResponse> top = rankingStore.top(3);
+
+		assertThat(top).extracting(RestaurantRankingResponse::getRestaurantId)
+				.containsExactly(2, 3, 1);
+		assertThat(top).extracting(RestaurantRankingResponse::getRank)
+				.containsExactly(1, 2, 3);
+		assertThat(rankingStore.topByCategory("일식", 10))
+				.extracting(RestaurantRankingResponse::getRestaurantId).containsExactly(3, 4);
+		assertThat(rankingStore.topByMainCategory(1, 1))
+				.extracting(RestaurantRankingResponse::getRestaurantId).containsExactly(2);
+	}
+
+	@Test
+	void 변경된_식당만_갱신해도_순위가_반영된다() {
+		rankingStore.upsert(List.of(ranking(4, "한식", 60.0)), Map.of(4, 1));
+
+		assertThat(rankingStore.find(4).getRank()).isEqualTo(1);
+		assertThat(rankingStore.find(2).getRank()).isEqualTo(2);
+		assertThat(rankingStore.topByCategory("일식", 10))
+				.extracting(RestaurantRankingResponse::getRestaurantId).containsExactly(3);
+		assertThat(rankingStore.topByMainCategory(1, 10))
+				.extracting(RestaurantRankingResponse::getRestaurantId).containsExactly(4, 2, 1);
+
+		rankingStore.removeAll(List.of(4));
+		assertThat(rankingStore.find(4)).isNull();
+		assertThat(rankingStore.rankAmong(List.of(1, 3, 4)))
+				.extracting(RestaurantRankingResponse::getRestaurantId).containsExactly(3, 1);
+	}
+
+	@Test
+	void 순위_구간을_조회한다() {
+		List<RestaurantRankingResponse> range = rankingStore.range(2, 3);
+
+		assertThat(range).extracting(RestaurantRankingResponse::getRestaurantId)
+				.containsExactly(3, 1);
+		assertThat(range).extracting(RestaurantRankingResponse::getRank).containsExactly(2, 3);
+		assertThat(rankingStore.range(4, 100)).extracting(RestaurantRankingResponse::getRank)
+				.containsExactly(4);
+		assertThat(rankingStore.range(5, 10)).isEmpty();
+	}
+
+	private RestaurantRankingResponse ranking(int restaurantId, String categoryName, double score) {
+		return RestaurantRankingResponse.builder()
+				.restaurantId(restaurantId)
+				.placeName("식당" + restaurantId)
+				.categoryName(categoryName)
+				.score(score)
+				.build();
+	}
+}
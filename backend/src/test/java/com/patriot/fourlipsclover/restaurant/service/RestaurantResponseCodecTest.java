@@ -0,0 +1,51 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.restaurant.dto.response.RestaurantResponse;
+import com.patriot.fourlipsclover.restaurant.service.RestaurantResponseCodec.Entry;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class RestaurantResponseCodecTest {
+
+	@Test
+	void 모든_필드를_그대로_복원한다() {
+		//given
+		RestaurantResponse response = RestaurantResponse.builder()
+				.restaurantId(1)
+				.kakaoPlaceId("2114253032")
+				.placeName("초돈")
+				.addressName("광주 광산구")
+				.category("음식점 > 한식 > 육류,고기")
+				.openingHours(null)
+				.avgAmount("{\"avg\":\"10000 ~ 20000\"}")
+				.x(126.83)
+				.y(35.19)
+				.likeSentiment(3)
+				.dislikeSentiment(null)
+				.score(87.5)
+				.restaurantImages(List.of("https://image/1.png", "https://image/2.png"))
+				.tags(List.of(new RestaurantResponse.TagData("삼겹살", "메뉴", 4, 0.87f)))
+				.build();
+		//when
+		Entry decoded = RestaurantResponseCodec.decode(RestaurantResponseCodec.encode(response));
+		//then
+		assertThat(decoded.response()).isEqualTo(response);
+	}
+
+	@Test
+	void 없는_식당과_읽을_수_없는_값을_구분한다() {
+		//when
+		Entry absent = RestaurantResponseCodec.decode(RestaurantResponseCodec.encode(null));
+		byte[] encoded = RestaurantResponseCodec.encode(RestaurantResponse.builder()
+				.placeName("초돈").build());
+		//then
+		assertThat(absent).isNotNull();
+		assertThat(absent.response()).isNull();
+		assertThat(RestaurantResponseCodec.decode(Arrays.copyOf(encoded, encoded.length - 3))).isNull();
+		encoded[0] = (byte) (RestaurantResponseCodec.VERSION + 1);
+		assertThat(RestaurantResponseCodec.decode(encoded)).isNull();
+	}
+}
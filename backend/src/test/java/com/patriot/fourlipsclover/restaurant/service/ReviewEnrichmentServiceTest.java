@@ -0,0 +1,139 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.restaurant.entity.EnrichmentStatus;
+import com.patriot.fourlipsclover.restaurant.entity.ReviewEnrichmentOutbox;
+import com.patriot.fourlipsclover.restaurant.repository.ReviewEnrichmentOutboxRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+@SpringBootTest(properties = {
+		"review.enrichment.max-attempts=2",
+		"review.enrichment.backoff-ms=0",
+		"review.enrichment.poll-interval-ms=600000"
+})
+@ActiveProfiles("test")
+@Sql(scripts = {"/schema.sql", "/data.sql"}, executionPhase = ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = {"/cleanup.sql"}, executionPhase = ExecutionPhase.AFTER_TEST_CLASS)
+public class ReviewEnrichmentServiceTest {
+
+	private static HttpServer modelServer;
+
+	@Autowired
+	private ReviewEnrichmentService reviewEnrichmentService;
+
+	@Autowired
+	private ReviewEnrichmentOutboxRepository outboxRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// /analyze, /extract-tags 를 흉내내는 로컬 모델 서버. 배치 엔드포인트는 없고, 본문에 "실패"가 있으면 500 을 반환한다
+	@DynamicPropertySource
+	static void modelServerProperties(DynamicPropertyRegistry registry) throws IOException {
+		modelServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		modelServer.createContext("/analyze", exchange -> respond(exchange,
+				"{\"text\":\"\",\"sentiment\":\"긍정적\"}"));
+		modelServer.createContext("/extract-tags", exchange -> respond(exchange,
+				"{\"text\":\"\",\"tags\":[]}"));
+		modelServer.start();
+		registry.add("model.server.uri",
+				() -> "http://localhost:" + modelServer.getAddress().getPort());
+	}
+
+	@AfterAll
+	static void stopModelServer() {
+		modelServer.stop(0);
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		String request = new String(exchange.getRequestBody().readAllBytes(),
+				StandardCharsets.UTF_8);
+		byte[] response = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		if (exchange.getRequestURI().getPath().endsWith("/batch")) {
+			exchange.sendResponseHeaders(404, -1);
+			exchange.close();
+			return;
+		}
+		if (request.contains("실패")) {
+			exchange.sendResponseHeaders(500, -1);
+			exchange.close();
+			return;
+		}
+		exchange.sendResponseHeaders(200, response.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(response);
+		}
+	}
+
+	@Test
+	void outbox에_기록된_리뷰는_감정분석후_완료된다() throws InterruptedException {
+		//given
+		ReviewEnrichmentOutbox outbox = outboxRepository.save(ReviewEnrichmentOutbox.pending(1));
+		//when
+		reviewEnrichmentService.poll();
+		//then
+		assertThat(awaitStatus(outbox.getOutboxId(), EnrichmentStatus.DONE)).isTrue();
+		Integer positive = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM review_sentiment WHERE review_id = 1 "
+						+ "AND sentiment_status = 'POSITIVE'", Integer.class);
+		assertThat(positive).isEqualTo(1);
+	}
+
+	@Test
+	void 모델서버_호출이_계속_실패하면_dead_letter로_남는다() throws InterruptedException {
+		//given
+		jdbcTemplate.update("INSERT INTO reviews (review_id, member_id, restaurant_id, content, "
+				+ "visited_at, created_at, is_delete) "
+				+ "VALUES (50, 1, 1, '실패', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)");
+		ReviewEnrichmentOutbox outbox = outboxRepository.save(ReviewEnrichmentOutbox.pending(50));
+		//when
+		reviewEnrichmentService.poll();
+		awaitAttempts(outbox.getOutboxId(), 1);
+		reviewEnrichmentService.poll();
+		//then
+		assertThat(awaitStatus(outbox.getOutboxId(), EnrichmentStatus.DEAD_LETTER)).isTrue();
+		ReviewEnrichmentOutbox deadLetter = outboxRepository.findById(outbox.getOutboxId())
+				.orElseThrow();
+		assertThat(deadLetter.getAttempts()).isEqualTo(2);
+		assertThat(deadLetter.getLastError()).isNotBlank();
+	}
+
+	private boolean awaitStatus(Long outboxId, EnrichmentStatus status)
+			throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (outboxRepository.findById(outboxId).orElseThrow().getStatus() == status) {
+				return true;
+			}
+			Thread.sleep(50);
+		}
+		return false;
+	}
+
+	private void awaitAttempts(Long outboxId, int attempts) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			ReviewEnrichmentOutbox outbox = outboxRepository.findById(outboxId).orElseThrow();
+			if (outbox.getAttempts() >= attempts
+					&& outbox.getStatus() == EnrichmentStatus.PENDING) {
+				return;
+			}
+			Thread.sleep(50);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.patriot.fourlipsclover.restaurant.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patriot.fourlipsclover.config.CustomUserDetails;
+import com.patriot.fourlipsclover.member.repository.MemberRepository;
+import com.patriot.fourlipsclover.restaurant.dto.response.ReviewResponse;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = {"/schema.sql", "/data.sql"}, executionPhase = ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = {"/cleanup.sql"}, executionPhase = ExecutionPhase.AFTER_TEST_CLASS)
+public class ReviewPageAssemblerTest {
+
+	private static final String KAKAO_PLACE_ID = "26792051";
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MemberRepository memberRepository;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void 리뷰목록_조회_쿼리수는_리뷰수와_무관하다() {
+		//given
+		insertReviews(100, 1);
+		long fewReviewQueries = countQueries();
+
+		insertReviews(200, 30);
+		//when
+		long manyReviewQueries = countQueries();
+		List<ReviewResponse> responses = restaurantService.findByKakaoPlaceId(KAKAO_PLACE_ID);
+
+		//then
+		assertThat(responses).hasSize(31);
+		assertThat(manyReviewQueries).isEqualTo(fewReviewQueries);
+		// 리뷰 + 이미지 + 좋아요 집계 + 현지인 인증 (+ 식당의 연관 엔티티)
+		assertThat(manyReviewQueries).isLessThanOrEqualTo(6);
+		ReviewResponse liked = responses.stream()
+				.filter(response -> response.getReviewId() == 100)
+				.findFirst().orElseThrow();
+		assertThat(liked.getLikedCount()).isEqualTo(1);
+		assertThat(liked.getDislikedCount()).isEqualTo(0);
+		assertThat(liked.getReviewImageUrls()).hasSize(1);
+		assertThat(liked.getLocalCertificationResponse()).isNotNull();
+	}
+
+	@Test
+	void 로그인한_사용자가_조회하면_그_사용자의_좋아요_싫어요를_표시한다() {
+		//given 1 번 식당의 리뷰 1(반응 없음), 300(1 번이 좋아요), 301(1 번이 싫어요, 2 번이 좋아요)
+		for (int reviewId = 300; reviewId <= 301; reviewId++) {
+			jdbcTemplate.update("INSERT INTO reviews (review_id, member_id, restaurant_id, content, "
+					+ "visited_at, created_at, is_delete) "
+					+ "VALUES (?, 2, 1, '리뷰', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)", reviewId);
+		}
+		jdbcTemplate.update("INSERT INTO review_like (review_id, member_id, like_status) VALUES (300, 1, 'LIKE')");
+		jdbcTemplate.update("INSERT INTO review_like (review_id, member_id, like_status) VALUES (301, 1, 'DISLIKE')");
+		jdbcTemplate.update("INSERT INTO review_like (review_id, member_id, like_status) VALUES (301, 2, 'LIKE')");
+		CustomUserDetails viewer = new CustomUserDetails(memberRepository.findById(1L).orElseThrow());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(viewer, null, viewer.getAuthorities()));
+		//when
+		Map<Integer, ReviewResponse> responses = restaurantService.findByKakaoPlaceId("2114253032").stream()
+				.collect(Collectors.toMap(ReviewResponse::getReviewId, Function.identity()));
+		//then
+		assertThat(responses).containsOnlyKeys(1, 300, 301);
+		assertThat(responses.get(1).isUserLiked()).isFalse();
+		assertThat(responses.get(1).isUserDisliked()).isFalse();
+		assertThat(responses.get(300).isUserLiked()).isTrue();
+		assertThat(responses.get(300).isUserDisliked()).isFalse();
+		assertThat(responses.get(301).isUserLiked()).isFalse();
+		assertThat(responses.get(301).isUserDisliked()).isTrue();
+		assertThat(responses.get(301).getLikedCount()).isEqualTo(1);
+		assertThat(responses.get(301).getDislikedCount()).isEqualTo(1);
+	}
+
+	private long countQueries() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		restaurantService.findByKakaoPlaceId(KAKAO_PLACE_ID);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private void insertReviews(int startId, int count) {
+		if (startId == 100) {
+			jdbcTemplate.update("INSERT INTO local_region (local_region_id, region_name) "
+					+ "VALUES ('2920000000', '광산구')");
+			jdbcTemplate.update("INSERT INTO local_certification (member_id, local_region_id, "
+					+ "certificated, local_grade) VALUES (1, '2920000000', true, 'ONE')");
+		}
+		for (int reviewId = startId; reviewId < startId + count; reviewId++) {
+			jdbcTemplate.update("INSERT INTO reviews (review_id, member_id, restaurant_id, content, "
+							+ "visited_at, created_at, is_delete) "
+							+ "VALUES (?, ?, 2, '리뷰', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)",
+					reviewId, reviewId % 2 + 1);
+			jdbcTemplate.update("INSERT INTO review_image (review_id, image_url, created_at) "
+					+ "VALUES (?, 'image.png', CURRENT_TIMESTAMP)", reviewId);
+			jdbcTemplate.update("INSERT INTO review_like (review_id, member_id, like_status) "
+					+ "VALUES (?, ?, 'LIKE')", reviewId, 2 - reviewId % 2);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.patriot.fourlipsclover.tag.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.patriot.fourlipsclover.tag.entity.Tag;
+import com.patriot.fourlipsclover.tag.repository.TagRepository;
+import com.patriot.fourlipsclover.tag.service.TagDictionary.TagNames;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TagDictionaryTest {
+
+	private final List<Tag> tags = new ArrayList<>(List.of(tag(1L, "분위기"), tag(2L, "가성비")));
+	private int loads;
+	private long now = 1_000_000;
+
+	private final TagDictionary dictionary = new TagDictionary(tagRepository(), 10_000, () -> now);
+
+	@Test
+	void 주어진_순서대로_이름을_돌려주고_없는_ID_는_건너뛴다() {
+		//given
+		dictionary.refresh();
+		//when
+		TagNames tagNames = dictionary.findNames(List.of(2L, 9L, 1L));
+		//then
+		assertThat(tagNames.names()).containsExactly("가성비", "분위기");
+	}
+
+	@Test
+	void 내용이_바뀔_때만_version_이_오른다() {
+		//given
+		dictionary.refresh();
+		long loaded = dictionary.findNames(List.of(1L)).version();
+		//when
+		dictionary.refresh();
+		long unchanged = dictionary.findNames(List.of(1L)).version();
+		tags.set(0, tag(1L, "데이트"));
+		dictionary.refresh();
+		TagNames renamed = dictionary.findNames(List.of(1L));
+		//then
+		assertThat(unchanged).isEqualTo(loaded);
+		assertThat(renamed.version()).isGreaterThan(loaded);
+		assertThat(renamed.names()).containsExactly("데이트");
+	}
+
+	@Test
+	void 모르는_ID_는_바로_다시_읽되_최소_간격_안에는_한_번만_읽는다() {
+		//given
+		dictionary.refresh();
+		tags.add(tag(3L, "혼밥"));
+		now += 10_000;
+		//when
+		TagNames reloaded = dictionary.findNames(List.of(3L));
+		dictionary.findNames(List.of(4L));
+		dictionary.findNames(List.of(4L));
+		int loadsWithinInterval = loads;
+		now += 10_000;
+		dictionary.findNames(List.of(4L));
+		//then
+		assertThat(reloaded.names()).containsExactly("혼밥");
+		assertThat(loadsWithinInterval).isEqualTo(2);
+		assertThat(loads).isEqualTo(3);
+	}
+
+	@Test
+	void 아는_ID_만_찾으면_다시_읽지_않는다() {
+		//given
+		dictionary.refresh();
+		now += 60_000;
+		//when
+		dictionary.findNames(List.of(1L, 2L));
+		//then
+		assertThat(loads).isEqualTo(1);
+	}
+
+	private TagRepository tagRepository() {
+		TagRepository tagRepository = mock(TagRepository.class);
+		given(tagRepository.findAll()).willAnswer(invocation -> {
+			loads++;
+			return List.copyOf(tags);
+		});
+		return tagRepository;
+	}
+
+	private static Tag tag(Long tagId, String name) {
+		return Tag.builder().tagId(tagId).name(name).build();
+	}
+}
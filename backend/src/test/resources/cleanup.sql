@@ -1,4 +1,20 @@
 DELETE
+FROM restaurant_price_histogram;
+DELETE
+FROM cdc_offset;
+DELETE
+FROM index_watermark;
+DELETE
+FROM review_enrichment_outbox;
+DELETE
+FROM review_sentiment;
+DELETE
+FROM local_certification;
+DELETE
+FROM local_region;
+DELETE
+FROM region;
+DELETE
 FROM review_image;
 DELETE
 FROM review_like;
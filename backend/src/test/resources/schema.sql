@@ -1,3 +1,11 @@
+DROP TABLE IF EXISTS restaurant_price_histogram;
+DROP TABLE IF EXISTS index_watermark;
+DROP TABLE IF EXISTS cdc_offset;
+DROP TABLE IF EXISTS review_enrichment_outbox;
+DROP TABLE IF EXISTS review_sentiment;
+DROP TABLE IF EXISTS local_certification;
+DROP TABLE IF EXISTS local_region;
+DROP TABLE IF EXISTS region;
 DROP TABLE IF EXISTS review_image;
 DROP TABLE IF EXISTS review_like;
 DROP TABLE IF EXISTS reviews;
@@ -29,7 +37,9 @@ CREATE TABLE restaurant
     place_url         VARCHAR(255),
     road_address_name VARCHAR(255),
     x                 DOUBLE,
-    y                 DOUBLE
+    y                 DOUBLE,
+    updated_at        TIMESTAMP,
+    cdc_position      BIGINT
 );
 
 CREATE TABLE reviews
@@ -63,4 +73,87 @@ CREATE TABLE review_image
     image_url       VARCHAR(255),
     created_at      TIMESTAMP,
     FOREIGN KEY (review_id) REFERENCES reviews (review_id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE region
+(
+    region_id INT PRIMARY KEY,
+    name      VARCHAR(255)
+);
+
+CREATE TABLE local_region
+(
+    local_region_id VARCHAR(255) PRIMARY KEY,
+    region_id       INT,
+    region_name     VARCHAR(255),
+    FOREIGN KEY (region_id) REFERENCES region (region_id)
+);
+
+CREATE TABLE local_certification
+(
+    local_certification_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    member_id              BIGINT,
+    local_region_id        VARCHAR(255),
+    certificated           BOOLEAN DEFAULT FALSE,
+    certificated_at        TIMESTAMP,
+    expiry_at              TIMESTAMP,
+    local_grade            VARCHAR(50) NOT NULL,
+    FOREIGN KEY (member_id) REFERENCES member (member_id),
+    FOREIGN KEY (local_region_id) REFERENCES local_region (local_region_id)
+);
+
+CREATE TABLE review_sentiment
+(
+    review_sentiment_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    review_id           INT,
+    sentiment_status    VARCHAR(20),
+    FOREIGN KEY (review_id) REFERENCES reviews (review_id)
+);
+
+CREATE TABLE review_enrichment_outbox
+(
+    outbox_id       BIGINT AUTO_INCREMENT PRIMARY KEY,
+    review_id       INT         NOT NULL,
+    status          VARCHAR(20) NOT NULL,
+    sentiment_done  BOOLEAN     NOT NULL DEFAULT FALSE,
+    tags_done       BOOLEAN     NOT NULL DEFAULT FALSE,
+    attempts        INT         NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP   NOT NULL,
+    locked_at       TIMESTAMP,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP   NOT NULL,
+    updated_at      TIMESTAMP
+);
+
+CREATE TABLE index_watermark
+(
+    name      VARCHAR(50) PRIMARY KEY,
+    watermark TIMESTAMP NOT NULL
+);
+
+CREATE TABLE cdc_offset
+(
+    consumer_group  VARCHAR(100) NOT NULL,
+    topic           VARCHAR(200) NOT NULL,
+    partition_id    INT          NOT NULL,
+    next_offset     BIGINT       NOT NULL,
+    PRIMARY KEY (consumer_group, topic, partition_id)
+);
+
+CREATE TABLE restaurant_price_histogram
+(
+    restaurant_id INT    PRIMARY KEY,
+    bucket_0      INT    NOT NULL DEFAULT 0,
+    bucket_1      INT    NOT NULL DEFAULT 0,
+    bucket_2      INT    NOT NULL DEFAULT 0,
+    bucket_3      INT    NOT NULL DEFAULT 0,
+    bucket_4      INT    NOT NULL DEFAULT 0,
+    bucket_5      INT    NOT NULL DEFAULT 0,
+    bucket_6      INT    NOT NULL DEFAULT 0,
+    bucket_7      INT    NOT NULL DEFAULT 0,
+    bucket_8      INT    NOT NULL DEFAULT 0,
+    bucket_9      INT    NOT NULL DEFAULT 0,
+    bucket_10     INT    NOT NULL DEFAULT 0,
+    amount_sum    BIGINT NOT NULL DEFAULT 0,
+    personnel_sum BIGINT NOT NULL DEFAULT 0
+);